@@ -0,0 +1,46 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Creates the {@link ObjectMapper} configured by {@link ClouderaManagerClient} for the benchmarks.
+ */
+final class ClientObjectMapper {
+
+  private ClientObjectMapper() {
+  }
+
+  /**
+   * @return a new mapper built by {@link ClouderaManagerClient#newObjectMapper()}
+   */
+  static ObjectMapper create() {
+    return create(false);
+  }
+
+  /**
+   * @param internReferences whether the mapper shares one instance between equal references
+   * @return a new mapper built by {@link ClouderaManagerClient#newObjectMapper()}
+   */
+  static ObjectMapper create(boolean internReferences) {
+    ClouderaManagerClient.ClouderaManagerBuilder builder = ClouderaManagerClient
+        .withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin");
+    if (internReferences) {
+      builder.withReferenceInterning();
+    }
+    ClouderaManagerClient client = builder.build();
+    try {
+      return client.newObjectMapper();
+    } finally {
+      client.close();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import com.axemblr.service.cm.apis.impl.EndpointTemplate;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.WebResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the resource of a role endpoint with chained {@code path()} / {@code queryParam()} calls and with a
+ * precompiled {@link EndpointTemplate}. Run through {@link BenchmarkRunner} to see the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndpointResolutionBenchmark {
+
+  private static final EndpointTemplate ROLE_CONFIG = EndpointTemplate.compile("roles/{role}/config");
+  private static final EndpointTemplate ROLE_METRICS =
+      EndpointTemplate.compile("roles/{role}/metrics?metrics={metrics}&from={from}&to={to}");
+
+  private WebResource service;
+  private String role = "hdfs1-DATANODE-42";
+
+  @Setup
+  public void setUp() {
+    service = Client.create().resource("http://localhost:7180/api/v1/clusters/Cluster%201/services/hdfs1");
+  }
+
+  @Benchmark
+  public WebResource roleConfigPathChain() {
+    return service.path("roles").path(role).path("config");
+  }
+
+  @Benchmark
+  public WebResource roleConfigTemplate() {
+    return ROLE_CONFIG.resolve(service, role);
+  }
+
+  @Benchmark
+  public WebResource roleMetricsPathChain() {
+    return service.path("roles").path(role).path("metrics")
+        .queryParam("metrics", "cpu_percent")
+        .queryParam("from", "1350000000000")
+        .queryParam("to", "1350000060000");
+  }
+
+  @Benchmark
+  public WebResource roleMetricsTemplate() {
+    return ROLE_METRICS.resolve(service, role, "cpu_percent", "1350000000000", "1350000060000");
+  }
+}
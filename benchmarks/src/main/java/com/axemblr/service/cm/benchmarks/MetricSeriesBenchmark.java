@@ -0,0 +1,116 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import com.axemblr.service.cm.models.hosts.Metric;
+import com.axemblr.service.cm.models.hosts.MetricData;
+import com.axemblr.service.cm.models.hosts.MetricList;
+import com.google.common.collect.ImmutableList;
+import org.codehaus.jackson.annotate.JsonCreator;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonProperty;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes a day of one minute readings for a few hundred metrics. Compares the columnar {@link Metric} with
+ * the object per reading layout it replaced, kept here as {@link BoxedMetricList}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MetricSeriesBenchmark {
+
+  @Param({"200"})
+  public int metrics;
+
+  @Param({"1440"})
+  public int points;
+
+  private ObjectMapper mapper;
+  private byte[] metricList;
+
+  @Setup
+  public void setUp() throws IOException {
+    mapper = ClientObjectMapper.create();
+    metricList = SyntheticPayloads.metricList(mapper, metrics, points);
+  }
+
+  @Benchmark
+  public MetricList columnar() throws IOException {
+    return mapper.readValue(metricList, MetricList.class);
+  }
+
+  /**
+   * Columnar storage, then one {@link MetricData} per reading through {@link Metric#getData()}.
+   */
+  @Benchmark
+  public MetricList columnarThenData() throws IOException {
+    MetricList list = mapper.readValue(metricList, MetricList.class);
+    for (Metric metric : list.getItems()) {
+      metric.getData();
+    }
+    return list;
+  }
+
+  @Benchmark
+  public BoxedMetricList boxed() throws IOException {
+    return mapper.readValue(metricList, BoxedMetricList.class);
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class BoxedMetricList {
+    private final ImmutableList<BoxedMetric> items;
+
+    @JsonCreator
+    public BoxedMetricList(@JsonProperty("items") List<BoxedMetric> items) {
+      this.items = ImmutableList.copyOf(items);
+    }
+
+    public ImmutableList<BoxedMetric> getItems() {
+      return items;
+    }
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class BoxedMetric {
+    private final String name;
+    private final ImmutableList<MetricData> data;
+
+    @JsonCreator
+    public BoxedMetric(@JsonProperty("name") String name, @JsonProperty("data") List<MetricData> data) {
+      this.name = name;
+      this.data = ImmutableList.copyOf(data);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public ImmutableList<MetricData> getData() {
+      return data;
+    }
+  }
+}
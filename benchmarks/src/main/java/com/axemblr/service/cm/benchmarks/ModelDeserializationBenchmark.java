@@ -0,0 +1,57 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes each model fixture with the mapper used by the client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelDeserializationBenchmark {
+
+  @Param
+  public ModelFixture fixture;
+
+  private ObjectMapper mapper;
+  private byte[] json;
+  private Class<?> type;
+
+  @Setup
+  public void setUp() throws IOException {
+    mapper = ClientObjectMapper.create();
+    json = fixture.load();
+    type = fixture.getType();
+    // fail fast on fixtures that no longer match the model
+    mapper.readValue(json, type);
+  }
+
+  @Benchmark
+  public Object deserialize() throws IOException {
+    return mapper.readValue(json, type);
+  }
+}
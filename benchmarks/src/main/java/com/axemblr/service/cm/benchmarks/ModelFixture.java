@@ -0,0 +1,125 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import com.axemblr.service.cm.models.clusters.Activity;
+import com.axemblr.service.cm.models.clusters.ActivityList;
+import com.axemblr.service.cm.models.clusters.Cluster;
+import com.axemblr.service.cm.models.clusters.ClusterList;
+import com.axemblr.service.cm.models.clusters.ClusterRef;
+import com.axemblr.service.cm.models.clusters.HdfsDisableHaArguments;
+import com.axemblr.service.cm.models.clusters.HdfsFailoverArguments;
+import com.axemblr.service.cm.models.clusters.HdfsHaArguments;
+import com.axemblr.service.cm.models.clusters.HealthCheck;
+import com.axemblr.service.cm.models.clusters.NameServiceList;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.CmVersionInfo;
+import com.axemblr.service.cm.models.cm.CollectDiagnosticDataArguments;
+import com.axemblr.service.cm.models.cm.Config;
+import com.axemblr.service.cm.models.cm.License;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleNameList;
+import com.axemblr.service.cm.models.cm.RoleRef;
+import com.axemblr.service.cm.models.cm.RoleTypeConfig;
+import com.axemblr.service.cm.models.cm.RoleTypeList;
+import com.axemblr.service.cm.models.cm.ServiceList;
+import com.axemblr.service.cm.models.cm.ServiceSetupList;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.events.Event;
+import com.axemblr.service.cm.models.events.EventQueryResult;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.axemblr.service.cm.models.hosts.HostList;
+import com.axemblr.service.cm.models.hosts.HostRef;
+import com.axemblr.service.cm.models.hosts.Metric;
+import com.axemblr.service.cm.models.hosts.MetricData;
+import com.axemblr.service.cm.models.hosts.MetricList;
+import com.axemblr.service.cm.models.tools.EchoMessage;
+import com.axemblr.service.cm.models.tools.ErrorMessage;
+import com.axemblr.service.cm.models.users.User;
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The JSON fixtures from src/test/resources and the model type each of them holds.
+ */
+public enum ModelFixture {
+
+  ACTIVITY("activity.json", Activity.class),
+  ACTIVITY_LIST("activity-list.json", ActivityList.class),
+  CLUSTER("cluster.json", Cluster.class),
+  CLUSTER_LIST("cluster-list.json", ClusterList.class),
+  CLUSTER_REF("cluster-ref.json", ClusterRef.class),
+  CM_VERSION_INFO("version-info.json", CmVersionInfo.class),
+  COLLECT_DIAGNOSTIC_DATA_ARGUMENTS("collect-diagnostic-data-args.json", CollectDiagnosticDataArguments.class),
+  COMMAND("command.json", Command.class),
+  CONFIG("config.json", Config.class),
+  ECHO_MESSAGE("echo-message.json", EchoMessage.class),
+  ERROR_MESSAGE("echo-error.json", ErrorMessage.class),
+  EVENT("event.json", Event.class),
+  EVENT_QUERY_RESULT("event-query-result.json", EventQueryResult.class),
+  HDFS_DISABLE_HA_ARGUMENTS("hdfs-disable-ha-args.json", HdfsDisableHaArguments.class),
+  HDFS_FAILOVER_ARGUMENTS("hdfs-failover-args.json", HdfsFailoverArguments.class),
+  HDFS_HA_ARGUMENTS("hdfs-ha-arguments.json", HdfsHaArguments.class),
+  HEALTH_CHECK("health-check.json", HealthCheck.class),
+  HOST("host.json", Host.class),
+  HOST_LIST("host-list.json", HostList.class),
+  HOST_REF("host-ref.json", HostRef.class),
+  LICENSE("license.json", License.class),
+  METRIC("metric.json", Metric.class),
+  METRIC_DATA("metric-data.json", MetricData.class),
+  METRIC_LIST("metric-list.json", MetricList.class),
+  NAME_SERVICE_LIST("name-service-list.json", NameServiceList.class),
+  ROLE_LIST("role-list.json", RoleList.class),
+  ROLE_NAME_LIST("role-name-list.json", RoleNameList.class),
+  ROLE_REF("role-ref.json", RoleRef.class),
+  ROLE_TYPE_CONFIG("role-type-config.json", RoleTypeConfig.class),
+  ROLE_TYPE_LIST("role-type-list.json", RoleTypeList.class),
+  SERVICE_CONFIG("service-config.json", ServiceConfig.class),
+  SERVICE_LIST("service-list.json", ServiceList.class),
+  SERVICE_REF("service-ref.json", ServiceRef.class),
+  SERVICE_SETUP_LIST("service-setup-list.json", ServiceSetupList.class),
+  USER("user.json", User.class);
+
+  private final String fileName;
+  private final Class<?> type;
+
+  private ModelFixture(String fileName, Class<?> type) {
+    this.fileName = fileName;
+    this.type = type;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  public byte[] load() throws IOException {
+    return read(fileName);
+  }
+
+  /**
+   * Reads one of the fixtures packaged with the benchmarks.
+   */
+  public static byte[] read(String fileName) throws IOException {
+    InputStream in = ModelFixture.class.getResourceAsStream("/fixtures/" + fileName);
+    if (in == null) {
+      throw new IOException("Fixture not found: " + fileName);
+    }
+    try {
+      return ByteStreams.toByteArray(in);
+    } finally {
+      in.close();
+    }
+  }
+}
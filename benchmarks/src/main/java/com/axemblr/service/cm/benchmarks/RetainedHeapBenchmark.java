@@ -0,0 +1,74 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.hosts.HostList;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Measures the heap retained by the host and role lists of a large cluster, with and without reference interning.
+ * JMH reports allocation, not retention, so this runs on its own:
+ * <pre>
+ * java -Xmx2g -cp target/benchmarks.jar com.axemblr.service.cm.benchmarks.RetainedHeapBenchmark [hosts] [roles]
+ * </pre>
+ * The retained size is the difference in used heap after full collections, so run it on an otherwise idle JVM.
+ */
+public class RetainedHeapBenchmark {
+
+  private static final int ROUNDS = 3;
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int hosts = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+    int roles = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+
+    ObjectMapper payloadMapper = ClientObjectMapper.create();
+    byte[] hostList = SyntheticPayloads.hostList(payloadMapper, hosts, roles);
+    byte[] roleList = SyntheticPayloads.roleList(payloadMapper, roles, hosts);
+    System.out.printf("%d hosts, %d roles, %d + %d bytes of JSON%n", hosts, roles, hostList.length,
+        roleList.length);
+
+    for (int round = 0; round < ROUNDS; round++) {
+      for (boolean intern : new boolean[]{false, true}) {
+        long retained = retainedBytes(ClientObjectMapper.create(intern), hostList, roleList);
+        System.out.printf("round %d  interning=%-5s  retained %,d bytes%n", round, intern, retained);
+      }
+    }
+  }
+
+  private static long retainedBytes(ObjectMapper mapper, byte[] hostList, byte[] roleList)
+      throws IOException, InterruptedException {
+    // warm up the deserializers so that their caches are not counted
+    mapper.readValue(hostList, HostList.class);
+    mapper.readValue(roleList, RoleList.class);
+
+    long before = usedHeapAfterGc();
+    HostList hosts = mapper.readValue(hostList, HostList.class);
+    RoleList roles = mapper.readValue(roleList, RoleList.class);
+    long after = usedHeapAfterGc();
+    if (hosts.getItems().isEmpty() || roles.getItems().isEmpty()) {
+      throw new IllegalStateException("Empty payload");
+    }
+    return after - before;
+  }
+
+  private static long usedHeapAfterGc() throws InterruptedException {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      Thread.sleep(100);
+      used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+    }
+    return used;
+  }
+}
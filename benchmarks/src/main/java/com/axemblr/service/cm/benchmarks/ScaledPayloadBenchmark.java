@@ -0,0 +1,68 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.hosts.HostList;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes list responses the size of the ones returned by large clusters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ScaledPayloadBenchmark {
+
+  @Param({"10000"})
+  public int hosts;
+
+  @Param({"100000"})
+  public int roles;
+
+  @Param({"false", "true"})
+  public boolean internReferences;
+
+  private ObjectMapper mapper;
+  private byte[] hostList;
+  private byte[] roleList;
+
+  @Setup
+  public void setUp() throws IOException {
+    mapper = ClientObjectMapper.create(internReferences);
+    hostList = SyntheticPayloads.hostList(mapper, hosts, roles);
+    roleList = SyntheticPayloads.roleList(mapper, roles, hosts);
+  }
+
+  @Benchmark
+  public HostList hostList() throws IOException {
+    return mapper.readValue(hostList, HostList.class);
+  }
+
+  @Benchmark
+  public RoleList roleList() throws IOException {
+    return mapper.readValue(roleList, RoleList.class);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.ObjectNode;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.IOException;
+
+/**
+ * Builds large list responses, shaped like the ones returned by big clusters, from the single item fixtures.
+ */
+public final class SyntheticPayloads {
+
+  private static final int SERVICES = 8;
+
+  private SyntheticPayloads() {
+  }
+
+  /**
+   * A HostList where every host carries references to its share of the roles.
+   */
+  public static byte[] hostList(ObjectMapper mapper, int hosts, int roles) throws IOException {
+    checkArgument(hosts > 0, "Number of hosts must be larger than 0");
+    byte[] template = ModelFixture.HOST.load();
+    ObjectNode root = mapper.createObjectNode();
+    ArrayNode items = root.putArray("items");
+    for (int i = 0; i < hosts; i++) {
+      ObjectNode host = (ObjectNode) mapper.readTree(template);
+      host.put("hostId", hostId(i));
+      host.put("hostname", "host-" + i + ".cluster.example.com");
+      host.put("ipAddress", "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff));
+      host.put("rackId", "/rack-" + (i % 40));
+      ArrayNode roleRefs = host.putArray("roleRefs");
+      for (int role = i; role < roles; role += hosts) {
+        ObjectNode roleRef = roleRefs.addObject();
+        roleRef.put("clusterName", "cluster-01");
+        roleRef.put("serviceName", serviceName(role));
+        roleRef.put("roleName", roleName(role));
+      }
+      items.add(host);
+    }
+    return mapper.writeValueAsBytes(root);
+  }
+
+  /**
+   * A RoleList with the roles spread evenly over the hosts and services.
+   */
+  public static byte[] roleList(ObjectMapper mapper, int roles, int hosts) throws IOException {
+    checkArgument(hosts > 0, "Number of hosts must be larger than 0");
+    byte[] template = mapper.writeValueAsBytes(mapper.readTree(ModelFixture.ROLE_LIST.load()).get("items").get(0));
+    ObjectNode root = mapper.createObjectNode();
+    ArrayNode items = root.putArray("items");
+    for (int i = 0; i < roles; i++) {
+      ObjectNode role = (ObjectNode) mapper.readTree(template);
+      role.put("name", roleName(i));
+      role.put("roleUrl", "/cmf/roleRedirect/" + roleName(i));
+      ((ObjectNode) role.get("hostRef")).put("hostId", hostId(i % hosts));
+      ((ObjectNode) role.get("serviceRef")).put("serviceName", serviceName(i));
+      items.add(role);
+    }
+    return mapper.writeValueAsBytes(root);
+  }
+
+  /**
+   * A MetricList with the given number of series, each with one reading per minute.
+   */
+  public static byte[] metricList(ObjectMapper mapper, int metrics, int points) throws IOException {
+    checkArgument(metrics > 0, "Number of metrics must be larger than 0");
+    byte[] template = mapper.writeValueAsBytes(mapper.readTree(ModelFixture.METRIC_LIST.load()).get("items").get(0));
+    ObjectNode root = mapper.createObjectNode();
+    ArrayNode items = root.putArray("items");
+    for (int i = 0; i < metrics; i++) {
+      ObjectNode metric = (ObjectNode) mapper.readTree(template);
+      metric.put("name", "metric-" + i);
+      ArrayNode data = metric.putArray("data");
+      for (int point = 0; point < points; point++) {
+        ObjectNode reading = data.addObject();
+        reading.put("timestamp", 1349049600000L + point * 60000L);
+        reading.put("value", (i * 31 + point) % 1000 / 10.0);
+      }
+      items.add(metric);
+    }
+    return mapper.writeValueAsBytes(root);
+  }
+
+  private static String hostId(int host) {
+    return "host-id-" + host;
+  }
+
+  private static String serviceName(int role) {
+    return "service-" + (role % SERVICES);
+  }
+
+  private static String roleName(int role) {
+    return serviceName(role) + "-ROLE-" + role;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.benchmarks;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.models.clusters.ClusterList;
+import com.axemblr.service.cm.transport.UrlConnectionTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lists the clusters from a local HTTP server through each transport, so the cost of the HTTP stacks can be
+ * compared with the same filters and JSON mapping on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+
+  public enum TransportType {
+    JERSEY, JERSEY_POOLED, URL_CONNECTION
+  }
+
+  @Param
+  public TransportType transport;
+
+  private HttpServer server;
+  private ClouderaManagerClient client;
+
+  @Setup
+  public void setUp() throws IOException {
+    final byte[] clusters = ModelFixture.CLUSTER_LIST.load();
+    // otherwise the server writes the headers and the body in separate delayed packets
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, clusters.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(clusters);
+        out.close();
+      }
+    });
+    server.start();
+
+    ClouderaManagerClient.ClouderaManagerBuilder builder = ClouderaManagerClient
+        .withConnectionString("http://127.0.0.1:" + server.getAddress().getPort())
+        .withAuth("admin", "admin");
+    if (transport == TransportType.JERSEY_POOLED) {
+      builder.withConnectionPool();
+    } else if (transport == TransportType.URL_CONNECTION) {
+      builder.withTransport(new UrlConnectionTransport());
+    }
+    client = builder.build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Benchmark
+  public ClusterList getAllClusters() {
+    return client.clusters().getAllClusters();
+  }
+}
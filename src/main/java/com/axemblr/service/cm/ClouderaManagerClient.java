@@ -7,16 +7,68 @@
 
 package com.axemblr.service.cm;
 
+import com.axemblr.service.cm.apis.AsyncClouderaManager;
+import com.axemblr.service.cm.apis.AsyncClusters;
+import com.axemblr.service.cm.apis.AsyncCommands;
+import com.axemblr.service.cm.apis.AsyncEvents;
+import com.axemblr.service.cm.apis.AsyncHosts;
+import com.axemblr.service.cm.apis.AsyncTools;
+import com.axemblr.service.cm.apis.AsyncUsers;
+import com.axemblr.service.cm.apis.ClouderaManager;
 import com.axemblr.service.cm.apis.Clusters;
 import com.axemblr.service.cm.apis.Commands;
+import com.axemblr.service.cm.apis.Events;
 import com.axemblr.service.cm.apis.Hosts;
 import com.axemblr.service.cm.apis.Tools;
+import com.axemblr.service.cm.apis.Users;
+import com.axemblr.service.cm.apis.impl.DefaultAsyncClouderaManager;
+import com.axemblr.service.cm.apis.impl.DefaultAsyncClusters;
+import com.axemblr.service.cm.apis.impl.DefaultAsyncCommands;
+import com.axemblr.service.cm.apis.impl.DefaultAsyncEvents;
+import com.axemblr.service.cm.apis.impl.DefaultAsyncHosts;
+import com.axemblr.service.cm.apis.impl.DefaultAsyncTools;
+import com.axemblr.service.cm.apis.impl.DefaultAsyncUsers;
+import com.axemblr.service.cm.apis.impl.DefaultClouderaManager;
 import com.axemblr.service.cm.apis.impl.DefaultClusters;
 import com.axemblr.service.cm.apis.impl.DefaultCommands;
+import com.axemblr.service.cm.apis.impl.DefaultEvents;
 import com.axemblr.service.cm.apis.impl.DefaultHosts;
 import com.axemblr.service.cm.apis.impl.DefaultTools;
+import com.axemblr.service.cm.apis.impl.DefaultUsers;
+import com.axemblr.service.cm.apis.impl.StreamingItemsReader;
+import com.axemblr.service.cm.auth.SessionAuthFilter;
+import com.axemblr.service.cm.auth.SessionCookieStore;
+import com.axemblr.service.cm.cache.CacheConfig;
+import com.axemblr.service.cm.cache.CachingFilter;
+import com.axemblr.service.cm.cache.ResponseCache;
+import com.axemblr.service.cm.cache.SingleFlightFilter;
+import com.axemblr.service.cm.compression.CompressionListener;
+import com.axemblr.service.cm.compression.GzipFilter;
+import com.axemblr.service.cm.deadline.DeadlineFilter;
+import com.axemblr.service.cm.deadline.DeadlinePropagatingExecutor;
+import com.axemblr.service.cm.deadline.DeadlineRequestInterceptor;
+import com.axemblr.service.cm.hedge.HedgeConfig;
+import com.axemblr.service.cm.hedge.HedgingFilter;
+import com.axemblr.service.cm.intern.ReferenceInterningModule;
+import com.axemblr.service.cm.limit.ConcurrencyLimitFilter;
+import com.axemblr.service.cm.limit.LimiterConfig;
+import com.axemblr.service.cm.metrics.ClientMetrics;
+import com.axemblr.service.cm.metrics.ClientMetricsListener;
+import com.axemblr.service.cm.metrics.MetricsFilter;
+import com.axemblr.service.cm.retry.RetryConfig;
+import com.axemblr.service.cm.retry.RetryFilter;
+import com.axemblr.service.cm.retry.RetryListener;
+import com.axemblr.service.cm.transport.Transport;
+import com.axemblr.service.cm.transport.TransportClientHandler;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.jersey.api.client.AsyncWebResource;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientRequest;
@@ -27,6 +79,14 @@ import com.sun.jersey.api.client.config.DefaultClientConfig;
 import com.sun.jersey.api.client.filter.ClientFilter;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.api.client.filter.LoggingFilter;
+import com.sun.jersey.client.apache4.ApacheHttpClient4;
+import com.sun.jersey.client.apache4.ApacheHttpClient4Handler;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.codehaus.jackson.Version;
 import org.codehaus.jackson.jaxrs.JacksonJsonProvider;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -38,34 +98,176 @@ import org.joda.time.DateTime;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import java.io.Closeable;
+import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Creates a client used to make requests to the server.
+ * <p/>
+ * A client is thread-safe and meant to be long-lived: create one per server and share it. The API objects it
+ * returns, including the ones for a cluster or a service, are created once and reused. Close the client when done
+ * to release its connections, threads and MBeans; executors passed to the builder are left running.
  */
-public class ClouderaManagerClient {
+public class ClouderaManagerClient implements Closeable {
 
-  private static final int DEFAULT_CONNECTION_TIMEOUT_MS = 10 * 1000;  // TODO make configurable
+  private static final Logger LOG = Logger.getLogger(ClouderaManagerClient.class.getName());
 
+  public static final int DEFAULT_CONNECT_TIMEOUT_MS = 10 * 1000;
+  public static final int DEFAULT_READ_TIMEOUT_MS = 60 * 1000;
+
+  private final ConnectionPoolConfig poolConfig;
+  private final Transport transport;
+  private final ClientMetrics metrics;
+  private final boolean ownsMetricsMBeans;
+  private final List<ClientMetricsListener> metricsListeners;
+  private final ResponseCache responseCache;
+  private final boolean coalesceRequests;
+  private final RetryConfig retryConfig;
+  private final ConcurrencyLimitFilter concurrencyLimiter;
+  private final SessionCookieStore sessionCookies;
+  private final Integer compressionMinRequestBytes;
+  private final Integer connectTimeoutMs;
+  private final Integer readTimeoutMs;
+  private final HedgeConfig hedgeConfig;
+  private final ExecutorService ownedHedgeExecutor;
+  private final boolean internReferences;
   private final Client client;
   private final WebResource baseResource;
   private final Tools toolsApi;
   private final Clusters clustersApi;
+  private final Commands commandsApi;
+  private final Hosts hostsApi;
+  private final Users usersApi;
+  private final Events eventsApi;
+  private final ClouderaManager clouderaManagerApi;
+  private final ExecutorService ownedAsyncExecutor;
+  private final AsyncWebResource asyncBaseResource;
+  private final AsyncTools asyncToolsApi;
+  private final AsyncClusters asyncClustersApi;
+  private final DefaultAsyncCommands asyncCommandsApi;
+  private final AsyncHosts asyncHostsApi;
+  private final AsyncUsers asyncUsersApi;
+  private final AsyncEvents asyncEventsApi;
+  private final AsyncClouderaManager asyncClouderaManagerApi;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
 
 
   ClouderaManagerClient(URI connectionURI, String user, String password) {
-    this.client = setupJerseyClient(user, password);
+    this(withConnectionURI(connectionURI).withAuth(user, password));
+  }
+
+  ClouderaManagerClient(ClouderaManagerBuilder builder) {
+    URI connectionURI = builder.connectionURI;
+    this.poolConfig = builder.poolConfig;
+    this.transport = builder.transport;
+    this.metrics = builder.metrics;
+    this.metricsListeners = ImmutableList.copyOf(builder.metricsListeners);
+    this.responseCache = (builder.cacheConfig == null) ? null : new ResponseCache(builder.cacheConfig);
+    this.coalesceRequests = builder.coalesceRequests;
+    this.retryConfig = builder.retryConfig;
+    this.concurrencyLimiter = (builder.limiterConfig == null) ? null
+        : new ConcurrencyLimitFilter(builder.limiterConfig);
+    this.sessionCookies = builder.sessionAuth ? new SessionCookieStore() : null;
+    this.compressionMinRequestBytes = builder.compressionMinRequestBytes;
+    // a custom transport keeps its own timeouts unless they are set on the builder
+    this.connectTimeoutMs = (builder.connectTimeoutMs != null || transport != null) ? builder.connectTimeoutMs
+        : Integer.valueOf(DEFAULT_CONNECT_TIMEOUT_MS);
+    this.readTimeoutMs = (builder.readTimeoutMs != null || transport != null) ? builder.readTimeoutMs
+        : Integer.valueOf(DEFAULT_READ_TIMEOUT_MS);
+    this.hedgeConfig = builder.hedgeConfig;
+    if (hedgeConfig == null) {
+      this.ownedHedgeExecutor = null;
+    } else {
+      // the attempts of hedged requests must start right away, a bounded pool would delay them
+      this.ownedHedgeExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat("cm-client-hedge-%d")
+          .build());
+    }
+    this.internReferences = builder.internReferences;
+    this.ownsMetricsMBeans = builder.registerMetricsMBeans;
+    if (ownsMetricsMBeans) {
+      this.metrics.registerMBeans();
+    }
+    this.client = setupJerseyClient(builder.user, builder.password);
+    if (builder.asyncExecutor != null) {
+      this.ownedAsyncExecutor = null;
+      this.client.setExecutorService(new DeadlinePropagatingExecutor(builder.asyncExecutor));
+    } else {
+      // the Jersey default is never shut down, use a pool that close() can release
+      this.ownedAsyncExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat("cm-client-async-%d")
+          .build());
+      this.client.setExecutorService(new DeadlinePropagatingExecutor(ownedAsyncExecutor));
+    }
     this.baseResource = client.resource(checkNotNull(connectionURI));
     this.toolsApi = new DefaultTools(this.baseResource);
     this.clustersApi = new DefaultClusters(this.baseResource);
+
+    this.asyncBaseResource = client.asyncResource(connectionURI);
+    this.asyncToolsApi = new DefaultAsyncTools(this.asyncBaseResource);
+    this.asyncClustersApi = new DefaultAsyncClusters(this.asyncBaseResource);
+    this.asyncCommandsApi = new DefaultAsyncCommands(this.asyncBaseResource);
+    this.asyncHostsApi = new DefaultAsyncHosts(this.asyncBaseResource);
+    this.asyncUsersApi = new DefaultAsyncUsers(this.asyncBaseResource);
+    this.asyncEventsApi = new DefaultAsyncEvents(this.asyncBaseResource);
+    this.asyncClouderaManagerApi = new DefaultAsyncClouderaManager(this.asyncBaseResource);
+
+    this.commandsApi = new DefaultCommands(this.baseResource, this.asyncCommandsApi.getWatcher());
+    this.hostsApi = new DefaultHosts(this.baseResource);
+    this.usersApi = new DefaultUsers(this.baseResource);
+    this.eventsApi = new DefaultEvents(this.baseResource);
+    this.clouderaManagerApi = new DefaultClouderaManager(this.baseResource);
   }
 
   protected Client setupJerseyClient(String user, String password) {
     ClientConfig clientConfig = new DefaultClientConfig();
     ObjectMapper mapper = makeJacksonObjectMapper();
     clientConfig.getSingletons().add(new JacksonJsonProvider(mapper));
-    Client client1 = Client.create(clientConfig);
-    client1.addFilter(new HTTPBasicAuthFilter(user, password));
+    clientConfig.getSingletons().add(new StreamingItemsReader(mapper));
+    Client client1;
+    if (transport != null) {
+      client1 = new Client(new TransportClientHandler(transport), clientConfig);
+    } else {
+      client1 = (poolConfig == null) ? Client.create(clientConfig) : createPooledClient(clientConfig, poolConfig);
+    }
+    // filters added last run first: cache, coalescing, hedging, retries, concurrency limit, deadline, compression,
+    // metrics and then the transport
+    if (!metricsListeners.isEmpty()) {
+      client1.addFilter(new MetricsFilter(metricsListeners));
+    }
+    if (compressionMinRequestBytes != null) {
+      client1.addFilter(new GzipFilter(client1.getMessageBodyWorkers(), compressionMinRequestBytes,
+          Lists.newArrayList(Iterables.filter(metricsListeners, CompressionListener.class))));
+    }
+    client1.addFilter(new DeadlineFilter());
+    if (concurrencyLimiter != null) {
+      client1.addFilter(concurrencyLimiter);
+    }
+    if (retryConfig != null) {
+      client1.addFilter(new RetryFilter(retryConfig, Lists.newArrayList(
+          Iterables.filter(metricsListeners, RetryListener.class))));
+    }
+    if (hedgeConfig != null) {
+      client1.addFilter(new HedgingFilter(hedgeConfig, new DeadlinePropagatingExecutor(ownedHedgeExecutor)));
+    }
+    if (coalesceRequests) {
+      client1.addFilter(new SingleFlightFilter(client1.getMessageBodyWorkers()));
+    }
+    if (responseCache != null) {
+      client1.addFilter(new CachingFilter(responseCache, client1.getMessageBodyWorkers()));
+    }
+    client1.addFilter((sessionCookies == null) ? new HTTPBasicAuthFilter(user, password)
+        : new SessionAuthFilter(user, password, sessionCookies));
     client1.addFilter(new ClientFilter() {
       @Override
       public ClientResponse handle(ClientRequest cr) throws ClientHandlerException {
@@ -73,16 +275,64 @@ public class ClouderaManagerClient {
         return getNext().handle(cr);
       }
     });
-    client1.setConnectTimeout(DEFAULT_CONNECTION_TIMEOUT_MS);
+    if (connectTimeoutMs != null) {
+      client1.setConnectTimeout(connectTimeoutMs);
+    }
+    if (readTimeoutMs != null) {
+      client1.setReadTimeout(readTimeoutMs);
+    }
     return client1;
   }
 
+  /**
+   * Creates a Jersey client backed by Apache HttpClient with a shared pool of keep-alive connections. The Jersey
+   * handler ignores the timeout properties, so the timeouts and deadlines are applied through the HttpClient.
+   */
+  protected Client createPooledClient(ClientConfig clientConfig, ConnectionPoolConfig config) {
+    HttpClientBuilder httpClientBuilder = HttpClients.custom()
+        .setConnectionManager(createConnectionManager(config))
+        .setDefaultRequestConfig(createRequestConfig(config))
+        .addInterceptorFirst(new DeadlineRequestInterceptor())
+        .evictExpiredConnections()
+        .evictIdleConnections(config.getIdleTimeoutMs(), TimeUnit.MILLISECONDS)
+        .disableCookieManagement();
+    if (compressionMinRequestBytes != null) {
+      // leave the content encoding to the gzip filter, so that it can measure the compression ratios
+      httpClientBuilder.disableContentCompression();
+    }
+    CloseableHttpClient httpClient = httpClientBuilder.build();
+
+    return new ApacheHttpClient4(new ApacheHttpClient4Handler(httpClient, null, false), clientConfig);
+  }
+
+  protected PoolingHttpClientConnectionManager createConnectionManager(ConnectionPoolConfig config) {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(config.getMaxTotal());
+    connectionManager.setDefaultMaxPerRoute(config.getMaxPerRoute());
+    connectionManager.setValidateAfterInactivity((int) config.getValidateAfterInactivityMs());
+    return connectionManager;
+  }
+
+  /**
+   * @return the timeouts of requests, capped by the {@link DeadlineRequestInterceptor} when a deadline is set
+   */
+  protected RequestConfig createRequestConfig(ConnectionPoolConfig config) {
+    return RequestConfig.custom()
+        .setConnectTimeout(connectTimeoutMs)
+        .setSocketTimeout(readTimeoutMs)
+        .setConnectionRequestTimeout((int) config.getLeaseTimeoutMs())
+        .build();
+  }
+
   protected ObjectMapper makeJacksonObjectMapper() {
     ObjectMapper mapper = new ObjectMapper();
     mapper.setSerializationConfig(mapper.getSerializationConfig()
         .without(SerializationConfig.Feature.WRITE_DATES_AS_TIMESTAMPS));
     mapper.registerModule(makeJodaTimeModule());
     mapper.registerModule(new GuavaModule());
+    if (internReferences) {
+      mapper.registerModule(new ReferenceInterningModule());
+    }
     return mapper;
   }
 
@@ -102,11 +352,89 @@ public class ClouderaManagerClient {
   }
 
   public Commands commands() {
-    return new DefaultCommands(baseResource);
+    return commandsApi;
   }
 
   public Hosts hosts() {
-    return new DefaultHosts(baseResource);
+    return hostsApi;
+  }
+
+  public Users users() {
+    return usersApi;
+  }
+
+  public Events events() {
+    return eventsApi;
+  }
+
+  public ClouderaManager clouderaManager() {
+    return clouderaManagerApi;
+  }
+
+  /**
+   * @return the metrics collected by the client, or null if metrics are not enabled
+   */
+  public ClientMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * @return the concurrency limits applied to each endpoint family, or null if requests are not limited
+   */
+  public ConcurrencyLimitFilter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  /**
+   * @return the session cookies shared by the requests of this client, or null if every request is authenticated
+   *         with the credentials
+   */
+  public SessionCookieStore getSessionCookies() {
+    return sessionCookies;
+  }
+
+  /**
+   * @return the cache of GET responses, used to invalidate entries and read statistics, or null if caching is
+   *         not enabled
+   */
+  public ResponseCache getCache() {
+    return responseCache;
+  }
+
+  /**
+   * @return a new mapper configured like the one the client reads and writes API objects with, e.g. for reading
+   *         responses saved to files
+   */
+  public ObjectMapper newObjectMapper() {
+    return makeJacksonObjectMapper();
+  }
+
+  public AsyncTools asyncTools() {
+    return asyncToolsApi;
+  }
+
+  public AsyncClusters asyncClusters() {
+    return asyncClustersApi;
+  }
+
+  public AsyncCommands asyncCommands() {
+    return asyncCommandsApi;
+  }
+
+  public AsyncHosts asyncHosts() {
+    return asyncHostsApi;
+  }
+
+  public AsyncUsers asyncUsers() {
+    return asyncUsersApi;
+  }
+
+  public AsyncEvents asyncEvents() {
+    return asyncEventsApi;
+  }
+
+  public AsyncClouderaManager asyncClouderaManager() {
+    return asyncClouderaManagerApi;
   }
 
   public void enableHttpLogging(boolean logEnabled) {
@@ -117,6 +445,45 @@ public class ClouderaManagerClient {
     }
   }
 
+  /**
+   * Stop watching commands, unregister the metrics MBeans registered by the client and release the connections
+   * and threads. Requests still running may fail. Calling it again has no effect.
+   */
+  @Override
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    asyncCommandsApi.getWatcher().shutdown();
+    if (ownsMetricsMBeans) {
+      metrics.unregisterMBeans();
+    }
+    if (ownedAsyncExecutor != null) {
+      ownedAsyncExecutor.shutdown();
+    }
+    if (ownedHedgeExecutor != null) {
+      ownedHedgeExecutor.shutdown();
+    }
+    client.destroy();
+    if (transport != null) {
+      transport.close();
+    }
+    if (client instanceof ApacheHttpClient4) {
+      HttpClient httpClient = ((ApacheHttpClient4) client).getClientHandler().getHttpClient();
+      if (httpClient instanceof Closeable) {
+        try {
+          ((Closeable) httpClient).close();
+        } catch (IOException e) {
+          LOG.log(Level.WARNING, "Unable to close the HTTP connection pool", e);
+        }
+      }
+    }
+  }
+
+  public boolean isClosed() {
+    return closed.get();
+  }
+
   public static ClouderaManagerBuilder withConnectionString(String connectionString) {
     return new ClouderaManagerBuilder(connectionString);
   }
@@ -130,6 +497,22 @@ public class ClouderaManagerClient {
     private URI connectionURI;
     private String user;
     private String password;
+    private ConnectionPoolConfig poolConfig;
+    private Transport transport;
+    private ExecutorService asyncExecutor;
+    private ClientMetrics metrics;
+    private boolean registerMetricsMBeans;
+    private List<ClientMetricsListener> metricsListeners = Lists.newArrayList();
+    private CacheConfig cacheConfig;
+    private boolean coalesceRequests;
+    private RetryConfig retryConfig;
+    private LimiterConfig limiterConfig;
+    private boolean sessionAuth;
+    private Integer compressionMinRequestBytes;
+    private Integer connectTimeoutMs;
+    private Integer readTimeoutMs;
+    private HedgeConfig hedgeConfig;
+    private boolean internReferences;
 
     private ClouderaManagerBuilder(String connectionString) {
       this(URI.create(connectionString));
@@ -145,8 +528,240 @@ public class ClouderaManagerClient {
       return this;
     }
 
+    /**
+     * Use a pooled keep-alive HTTP transport with the default pool settings.
+     */
+    public ClouderaManagerBuilder withConnectionPool() {
+      return withConnectionPool(ConnectionPoolConfig.defaults());
+    }
+
+    /**
+     * Use a pooled keep-alive HTTP transport instead of opening a new connection for each request.
+     *
+     * @param poolConfig connection limits, idle eviction and validation settings
+     */
+    public ClouderaManagerBuilder withConnectionPool(ConnectionPoolConfig poolConfig) {
+      this.poolConfig = checkNotNull(poolConfig);
+      return this;
+    }
+
+    /**
+     * Send the requests through the given HTTP stack instead of the Jersey one, e.g.
+     * {@link com.axemblr.service.cm.transport.UrlConnectionTransport} or an in-process fake in tests. Filters,
+     * JSON mapping and the API objects stay the same. Can't be combined with a connection pool, which configures
+     * the Jersey transport.
+     */
+    public ClouderaManagerBuilder withTransport(Transport transport) {
+      this.transport = checkNotNull(transport);
+      return this;
+    }
+
+    /**
+     * Executor that runs the requests issued through the asynchronous APIs and completes their futures.
+     * A bounded pool caps the number of concurrent asynchronous requests; when not set the client uses an unbounded
+     * cached thread pool. The executor is not shut down when the client is closed.
+     *
+     * @param asyncExecutor executor used for the asynchronous requests
+     */
+    public ClouderaManagerBuilder withAsyncExecutor(ExecutorService asyncExecutor) {
+      this.asyncExecutor = checkNotNull(asyncExecutor);
+      return this;
+    }
+
+    /**
+     * Collect latency, byte and status code metrics for every endpoint and expose them as MBeans in the platform
+     * MBean server. The metrics are available through {@link ClouderaManagerClient#getMetrics()}.
+     */
+    public ClouderaManagerBuilder withMetrics() {
+      withMetrics(new ClientMetrics());
+      this.registerMetricsMBeans = true;
+      return this;
+    }
+
+    /**
+     * Collect metrics into the given object. MBeans are only registered if {@link ClientMetrics#registerMBeans()}
+     * is called.
+     */
+    public ClouderaManagerBuilder withMetrics(ClientMetrics metrics) {
+      if (this.metrics != null) {
+        metricsListeners.remove(this.metrics);
+      }
+      this.metrics = checkNotNull(metrics);
+      this.registerMetricsMBeans = false;
+      metricsListeners.add(metrics);
+      return this;
+    }
+
+    /**
+     * Report the measurements of every request to the given listener, e.g. to export them to a metrics backend.
+     */
+    public ClouderaManagerBuilder withMetricsListener(ClientMetricsListener listener) {
+      metricsListeners.add(checkNotNull(listener));
+      return this;
+    }
+
+    /**
+     * Cache the responses of metadata endpoints that rarely change, see {@link CacheConfig#defaults()}.
+     */
+    public ClouderaManagerBuilder withCache() {
+      return withCache(CacheConfig.defaults());
+    }
+
+    /**
+     * Answer GET requests from a bounded in-memory cache, with a time to live per endpoint. Requests made through
+     * this client that change a resource drop its cached responses.
+     *
+     * @param cacheConfig size limits and per endpoint time to live
+     */
+    public ClouderaManagerBuilder withCache(CacheConfig cacheConfig) {
+      this.cacheConfig = checkNotNull(cacheConfig);
+      return this;
+    }
+
+    /**
+     * Share one HTTP exchange between identical GET requests issued at the same time, e.g. many threads reading
+     * the same cluster. Each caller still gets its own deserialized copy of the response.
+     */
+    public ClouderaManagerBuilder withRequestCoalescing() {
+      this.coalesceRequests = true;
+      return this;
+    }
+
+    /**
+     * Retry GET requests failed with connection errors or 502/503/504 responses and fail fast while the server
+     * keeps failing, see {@link RetryConfig#defaults()}.
+     */
+    public ClouderaManagerBuilder withRetries() {
+      return withRetries(RetryConfig.defaults());
+    }
+
+    /**
+     * Retry GET requests with backoff, within a retry budget, and use a circuit breaker per host. Metrics
+     * listeners that implement {@link RetryListener} are told about every retry.
+     *
+     * @param retryConfig attempts, backoff, budget and circuit breaker settings
+     */
+    public ClouderaManagerBuilder withRetries(RetryConfig retryConfig) {
+      this.retryConfig = checkNotNull(retryConfig);
+      return this;
+    }
+
+    /**
+     * Limit the requests in flight per endpoint family with the default settings, see
+     * {@link LimiterConfig#defaults()}.
+     */
+    public ClouderaManagerBuilder withConcurrencyLimit() {
+      return withConcurrencyLimit(LimiterConfig.defaults());
+    }
+
+    /**
+     * Limit the requests in flight for each endpoint family (commands, config, metrics, roles and the rest).
+     * The limits adapt to the latency and errors of the server; requests above them wait in a bounded queue.
+     * All the API objects of the client share the same limits.
+     *
+     * @param limiterConfig limit bounds, adaptation and queueing settings
+     */
+    public ClouderaManagerBuilder withConcurrencyLimit(LimiterConfig limiterConfig) {
+      this.limiterConfig = checkNotNull(limiterConfig);
+      return this;
+    }
+
+    /**
+     * Send the credentials only until the server sets a session cookie and reuse the session afterwards. The
+     * credentials are sent again when the server rejects the session.
+     */
+    public ClouderaManagerBuilder withSessionAuth() {
+      this.sessionAuth = true;
+      return this;
+    }
+
+    /**
+     * Ask the server for gzip compressed responses and decompress them transparently. Request bodies are sent
+     * uncompressed.
+     */
+    public ClouderaManagerBuilder withCompression() {
+      return withCompression(GzipFilter.NO_REQUEST_COMPRESSION);
+    }
+
+    /**
+     * Ask the server for gzip compressed responses and also compress the request bodies of at least the given
+     * size, e.g. large configuration updates. Metrics listeners that implement {@link CompressionListener} get
+     * the compressed and uncompressed sizes.
+     *
+     * @param minRequestBytes smallest request body that is compressed, or
+     *                        {@link GzipFilter#NO_REQUEST_COMPRESSION}
+     */
+    public ClouderaManagerBuilder withCompression(int minRequestBytes) {
+      checkArgument(minRequestBytes >= 0 || minRequestBytes == GzipFilter.NO_REQUEST_COMPRESSION,
+          "The request size threshold can't be negative");
+      this.compressionMinRequestBytes = minRequestBytes;
+      return this;
+    }
+
+    /**
+     * Hedge the service and role details, see {@link HedgeConfig#defaults()}.
+     */
+    public ClouderaManagerBuilder withHedging() {
+      return withHedging(HedgeConfig.defaults());
+    }
+
+    /**
+     * Send a second GET when the response of a latency sensitive endpoint is later than most recent ones and use
+     * the first response. This trades a little extra load, capped by a budget, for a lower tail latency.
+     *
+     * @param hedgeConfig hedged endpoints, trigger percentile and budget
+     */
+    public ClouderaManagerBuilder withHedging(HedgeConfig hedgeConfig) {
+      this.hedgeConfig = checkNotNull(hedgeConfig);
+      return this;
+    }
+
+    /**
+     * Time to wait for a connection to the server, {@link #DEFAULT_CONNECT_TIMEOUT_MS} by default. A custom
+     * transport keeps its own timeout unless this is set.
+     *
+     * @param timeout the timeout, or 0 to wait forever
+     */
+    public ClouderaManagerBuilder withConnectTimeout(long timeout, TimeUnit unit) {
+      this.connectTimeoutMs = toTimeoutMs(timeout, unit);
+      return this;
+    }
+
+    /**
+     * Time to wait for data from the server before failing a request, {@link #DEFAULT_READ_TIMEOUT_MS} by default.
+     * It bounds every read from the socket rather than the whole response, so large downloads don't time out as
+     * long as the server keeps sending. Use a {@link com.axemblr.service.cm.deadline.Deadline} to bound the total
+     * time of a call. A custom transport keeps its own timeout unless this is set.
+     *
+     * @param timeout the timeout, or 0 to wait forever
+     */
+    public ClouderaManagerBuilder withReadTimeout(long timeout, TimeUnit unit) {
+      this.readTimeoutMs = toTimeoutMs(timeout, unit);
+      return this;
+    }
+
+    /**
+     * Share one instance between equal cluster, service, role and host references, and between the names in them,
+     * in all the responses. Saves memory in clients that keep large models, e.g. topology snapshots of big clusters.
+     *
+     * @see ReferenceInterningModule
+     */
+    public ClouderaManagerBuilder withReferenceInterning() {
+      this.internReferences = true;
+      return this;
+    }
+
+    private static int toTimeoutMs(long timeout, TimeUnit unit) {
+      checkArgument(timeout >= 0, "Timeout can't be negative");
+      long timeoutMs = unit.toMillis(timeout);
+      checkArgument(timeoutMs <= Integer.MAX_VALUE, "Timeout is too large");
+      return (timeout > 0 && timeoutMs == 0) ? 1 : (int) timeoutMs;
+    }
+
     public ClouderaManagerClient build() {
-      return new ClouderaManagerClient(connectionURI, user, password);
+      checkState(transport == null || poolConfig == null,
+          "A connection pool can't be used with a custom transport, configure the pool in the transport");
+      return new ClouderaManagerClient(this);
     }
   }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the pooled keep-alive HTTP transport.
+ * <p/>
+ * When a client is built with a {@link ConnectionPoolConfig} all requests go through a shared pool of persistent
+ * connections instead of opening a new socket for each request. The pool caps the number of open sockets in total
+ * and per route (a route is a scheme/host/port triple), closes connections that stayed idle for too long and
+ * re-validates connections that were not used for a while before handing them out again.
+ */
+public class ConnectionPoolConfig {
+
+  public static final int DEFAULT_MAX_TOTAL = 20;
+  public static final int DEFAULT_MAX_PER_ROUTE = 20;
+  public static final long DEFAULT_IDLE_TIMEOUT_MS = 60 * 1000;
+  public static final long DEFAULT_VALIDATE_AFTER_INACTIVITY_MS = 2 * 1000;
+  public static final long DEFAULT_LEASE_TIMEOUT_MS = 30 * 1000;
+
+  private final int maxTotal;
+  private final int maxPerRoute;
+  private final long idleTimeoutMs;
+  private final long validateAfterInactivityMs;
+  private final long leaseTimeoutMs;
+
+  private ConnectionPoolConfig(int maxTotal, int maxPerRoute, long idleTimeoutMs,
+                               long validateAfterInactivityMs, long leaseTimeoutMs) {
+    this.maxTotal = maxTotal;
+    this.maxPerRoute = maxPerRoute;
+    this.idleTimeoutMs = idleTimeoutMs;
+    this.validateAfterInactivityMs = validateAfterInactivityMs;
+    this.leaseTimeoutMs = leaseTimeoutMs;
+  }
+
+  /**
+   * Pool settings with all the default values.
+   */
+  public static ConnectionPoolConfig defaults() {
+    return builder().build();
+  }
+
+  public static ConnectionPoolConfigBuilder builder() {
+    return new ConnectionPoolConfigBuilder();
+  }
+
+  /**
+   * Maximum number of open connections, across all routes.
+   */
+  public int getMaxTotal() {
+    return maxTotal;
+  }
+
+  /**
+   * Maximum number of open connections to a single route.
+   */
+  public int getMaxPerRoute() {
+    return maxPerRoute;
+  }
+
+  /**
+   * Connections idle for longer than this are closed by a background evictor.
+   */
+  public long getIdleTimeoutMs() {
+    return idleTimeoutMs;
+  }
+
+  /**
+   * Connections idle for longer than this are checked for staleness before being reused.
+   */
+  public long getValidateAfterInactivityMs() {
+    return validateAfterInactivityMs;
+  }
+
+  /**
+   * How long a request may wait for a free connection when the pool is exhausted.
+   */
+  public long getLeaseTimeoutMs() {
+    return leaseTimeoutMs;
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPoolConfig{" +
+        "maxTotal=" + maxTotal +
+        ", maxPerRoute=" + maxPerRoute +
+        ", idleTimeoutMs=" + idleTimeoutMs +
+        ", validateAfterInactivityMs=" + validateAfterInactivityMs +
+        ", leaseTimeoutMs=" + leaseTimeoutMs +
+        '}';
+  }
+
+  public static class ConnectionPoolConfigBuilder {
+
+    private int maxTotal = DEFAULT_MAX_TOTAL;
+    private int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+    private long idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+    private long validateAfterInactivityMs = DEFAULT_VALIDATE_AFTER_INACTIVITY_MS;
+    private long leaseTimeoutMs = DEFAULT_LEASE_TIMEOUT_MS;
+
+    private ConnectionPoolConfigBuilder() {
+    }
+
+    public ConnectionPoolConfigBuilder withMaxTotal(int maxTotal) {
+      checkArgument(maxTotal > 0, "Maximum number of connections must be larger than 0");
+      this.maxTotal = maxTotal;
+      return this;
+    }
+
+    public ConnectionPoolConfigBuilder withMaxPerRoute(int maxPerRoute) {
+      checkArgument(maxPerRoute > 0, "Maximum number of connections per route must be larger than 0");
+      this.maxPerRoute = maxPerRoute;
+      return this;
+    }
+
+    public ConnectionPoolConfigBuilder withIdleTimeout(long duration, TimeUnit unit) {
+      checkArgument(duration > 0, "Idle timeout must be larger than 0");
+      this.idleTimeoutMs = checkNotNull(unit).toMillis(duration);
+      return this;
+    }
+
+    public ConnectionPoolConfigBuilder withValidateAfterInactivity(long duration, TimeUnit unit) {
+      checkArgument(duration >= 0, "Validation interval must not be negative");
+      this.validateAfterInactivityMs = checkNotNull(unit).toMillis(duration);
+      return this;
+    }
+
+    public ConnectionPoolConfigBuilder withLeaseTimeout(long duration, TimeUnit unit) {
+      checkArgument(duration >= 0, "Lease timeout must not be negative");
+      this.leaseTimeoutMs = checkNotNull(unit).toMillis(duration);
+      return this;
+    }
+
+    public ConnectionPoolConfig build() {
+      checkArgument(maxPerRoute <= maxTotal, "Connections per route (%s) can't exceed the total (%s)",
+          maxPerRoute, maxTotal);
+      return new ConnectionPoolConfig(maxTotal, maxPerRoute, idleTimeoutMs, validateAfterInactivityMs, leaseTimeoutMs);
+    }
+  }
+}
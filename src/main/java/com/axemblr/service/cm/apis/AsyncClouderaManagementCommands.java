@@ -0,0 +1,42 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.cm.CollectDiagnosticDataArguments;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous version of {@link ClouderaManagementCommands}, the Cloudera Manager /cm/commands API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncClouderaManagementCommands {
+
+  /**
+   * @see ClouderaManagementCommands#getActiveCommands()
+   */
+  public ListenableFuture<CommandList> getActiveCommands();
+
+  /**
+   * @see ClouderaManagementCommands#collectDiagnosticData(CollectDiagnosticDataArguments)
+   */
+  public ListenableFuture<Command> collectDiagnosticData(CollectDiagnosticDataArguments args);
+
+  /**
+   * @see ClouderaManagementCommands#generateCredentials()
+   */
+  public ListenableFuture<Command> generateCredentials();
+
+  /**
+   * @see ClouderaManagementCommands#inspectHosts()
+   */
+  public ListenableFuture<Command> inspectHosts();
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.cm.BulkCommandList;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleNameList;
+import com.axemblr.service.cm.models.cm.RoleTypeList;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.cm.ServiceSetupInfo;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous version of {@link ClouderaManagementService}, the Cloudera Manager /cm/service API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncClouderaManagementService {
+
+  /**
+   * @see ClouderaManagementService#getManagementServiceInfo()
+   */
+  public ListenableFuture<Service> getManagementServiceInfo();
+
+  /**
+   * @see ClouderaManagementService#setupManagementService(ServiceSetupInfo)
+   */
+  public ListenableFuture<Service> setupManagementService(ServiceSetupInfo setupInfo);
+
+  /**
+   * @see ClouderaManagementService#listActiveCommands()
+   */
+  public ListenableFuture<CommandList> listActiveCommands();
+
+  /**
+   * @see ClouderaManagementService#restart()
+   */
+  public ListenableFuture<Command> restart();
+
+  /**
+   * @see ClouderaManagementService#start()
+   */
+  public ListenableFuture<Command> start();
+
+  /**
+   * @see ClouderaManagementService#stop()
+   */
+  public ListenableFuture<Command> stop();
+
+  /**
+   * @see ClouderaManagementService#getConfig()
+   */
+  public ListenableFuture<ServiceConfig> getConfig();
+
+  /**
+   * @see ClouderaManagementService#updateConfig(ServiceConfig)
+   */
+  public ListenableFuture<ServiceConfig> updateConfig(ServiceConfig newServiceConfig);
+
+  /**
+   * @see ClouderaManagementService#updateConfig(ServiceConfig, String)
+   */
+  public ListenableFuture<ServiceConfig> updateConfig(ServiceConfig newServiceConfig, String message);
+
+  /**
+   * @see ClouderaManagementService#restartRoles(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> restartRoles(RoleNameList rolesToRestart);
+
+  /**
+   * @see ClouderaManagementService#startRoles(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> startRoles(RoleNameList rolesToStart);
+
+  /**
+   * @see ClouderaManagementService#stopRoles(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> stopRoles(RoleNameList rolesToStop);
+
+  /**
+   * @see ClouderaManagementService#createRoles(RoleList)
+   */
+  public ListenableFuture<RoleList> createRoles(RoleList rolesToCreate);
+
+  /**
+   * @see ClouderaManagementService#listRoles()
+   */
+  public ListenableFuture<RoleList> listRoles();
+
+  /**
+   * @see ClouderaManagementService#deleteRole(String)
+   */
+  public ListenableFuture<Role> deleteRole(String role);
+
+  /**
+   * @see ClouderaManagementService#deleteRole(Role)
+   */
+  public ListenableFuture<Role> deleteRole(Role role);
+
+  /**
+   * @see ClouderaManagementService#getRole(String)
+   */
+  public ListenableFuture<Role> getRole(String role);
+
+  /**
+   * @see ClouderaManagementService#getActiveRoleCommands(String)
+   */
+  public ListenableFuture<CommandList> getActiveRoleCommands(String role);
+
+  /**
+   * @see ClouderaManagementService#getRoleConfig(String)
+   */
+  public ListenableFuture<ConfigList> getRoleConfig(String role);
+
+  /**
+   * @see ClouderaManagementService#updateRoleConfig(String, ConfigList, String)
+   */
+  public ListenableFuture<ConfigList> updateRoleConfig(String role, ConfigList newRoleConfig, String message);
+
+  /**
+   * @see ClouderaManagementService#getRoleTypes()
+   */
+  public ListenableFuture<RoleTypeList> getRoleTypes();
+}
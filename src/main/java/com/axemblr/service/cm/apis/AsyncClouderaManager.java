@@ -0,0 +1,60 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.cm.CmVersionInfo;
+import com.axemblr.service.cm.models.cm.Config;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.cm.License;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+/**
+ * Asynchronous version of {@link ClouderaManager}, the Cloudera Manager /cm API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncClouderaManager {
+
+  /**
+   * @see ClouderaManager#getVersionInfo()
+   */
+  public ListenableFuture<CmVersionInfo> getVersionInfo();
+
+  /**
+   * @see ClouderaManager#getLogFile()
+   */
+  public ListenableFuture<String> getLogFile();
+
+  /**
+   * @see ClouderaManager#getLicense()
+   */
+  public ListenableFuture<License> getLicense();
+
+  /**
+   * @see ClouderaManager#updateLicense(String)
+   */
+  public ListenableFuture<License> updateLicense(String multipartLicense);
+
+  /**
+   * @see ClouderaManager#getConfiguration()
+   */
+  public ListenableFuture<ConfigList> getConfiguration();
+
+  /**
+   * @see ClouderaManager#updateConfig(List)
+   */
+  public ListenableFuture<ConfigList> updateConfig(List<Config> newConfig);
+
+  /**
+   * @see ClouderaManager#getService()
+   */
+  public AsyncClouderaManagementService getService();
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.cm.ServiceList;
+import com.axemblr.service.cm.models.cm.ServiceSetupList;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous version of {@link ClusterAPI}, the Cloudera Manager /clusters/{cluster} API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncClusterAPI {
+
+  /**
+   * @see ClusterAPI#getActiveCommands()
+   */
+  public ListenableFuture<CommandList> getActiveCommands();
+
+  /**
+   * @see ClusterAPI#restartServices()
+   */
+  public ListenableFuture<Command> restartServices();
+
+  /**
+   * @see ClusterAPI#startServices()
+   */
+  public ListenableFuture<Command> startServices();
+
+  /**
+   * @see ClusterAPI#stopServices()
+   */
+  public ListenableFuture<Command> stopServices();
+
+  /**
+   * @see ClusterAPI#upgradeServicesToCDH4()
+   */
+  public ListenableFuture<Command> upgradeServicesToCDH4();
+
+  /**
+   * @see ClusterAPI#getServices()
+   */
+  public ListenableFuture<ServiceList> getServices();
+
+  /**
+   * @see ClusterAPI#registerServices(ServiceSetupList)
+   */
+  public ListenableFuture<ServiceList> registerServices(ServiceSetupList servicesToCreate);
+
+  /**
+   * @see ClusterAPI#getServiceDetails(String)
+   */
+  public ListenableFuture<Service> getServiceDetails(String serviceName);
+
+  /**
+   * @see ClusterAPI#deleteService(String)
+   */
+  public ListenableFuture<Service> deleteService(String serviceName);
+
+  /**
+   * @see ClusterAPI#getService(String)
+   */
+  public AsyncServiceAPI getService(String serviceName);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.clusters.Cluster;
+import com.axemblr.service.cm.models.clusters.ClusterList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.Set;
+
+/**
+ * Asynchronous version of {@link Clusters}, the Cloudera Manager /clusters API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncClusters {
+
+  /**
+   * @see Clusters#createClusters(Set)
+   */
+  public ListenableFuture<ClusterList> createClusters(Set<Cluster> clustersToCreate);
+
+  /**
+   * @see Clusters#getAllClusters()
+   */
+  public ListenableFuture<ClusterList> getAllClusters();
+
+  /**
+   * @see Clusters#getCluster(String)
+   */
+  public AsyncClusterAPI getCluster(String clusterName);
+
+  /**
+   * @see Clusters#getClusterDetails(String)
+   */
+  public ListenableFuture<Cluster> getClusterDetails(String clusterName);
+
+  /**
+   * @see Clusters#deleteCluster(String)
+   */
+  public ListenableFuture<Cluster> deleteCluster(String clusterName);
+}
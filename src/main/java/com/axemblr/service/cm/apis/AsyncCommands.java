@@ -0,0 +1,84 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.cm.BulkCommandList;
+import com.axemblr.service.cm.models.commands.Command;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+/**
+ * Asynchronous version of {@link Commands}, the Cloudera Manager /commands API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncCommands {
+
+  /**
+   * @see Commands#details(long)
+   */
+  public ListenableFuture<Command> details(long commandId);
+
+  /**
+   * @see Commands#details(Command)
+   */
+  public ListenableFuture<Command> details(Command command);
+
+  /**
+   * @see Commands#abort(long)
+   */
+  public ListenableFuture<Command> abort(long commandId);
+
+  /**
+   * @see Commands#abort(Command)
+   */
+  public ListenableFuture<Command> abort(Command command);
+
+  /**
+   * Returns a future that completes when Cloudera Manager finishes executing the specified command.
+   * No thread is blocked while waiting: all pending commands are polled from a single scheduler thread.
+   *
+   * @param command command to await execution
+   * @return the finished command details
+   */
+  public ListenableFuture<Command> waitFor(Command command);
+
+  /**
+   * Wait for all commands in the list to finish execution. The commands are polled concurrently.
+   *
+   * @param commands commands to await execution
+   * @return the finished command details, in the same order
+   */
+  public ListenableFuture<List<Command>> waitFor(List<Command> commands);
+
+  /**
+   * Wait for all commands in the list to finish execution. The commands are polled concurrently.
+   *
+   * @param commandList commands to await execution
+   * @return the finished command details, in the same order
+   */
+  public ListenableFuture<List<Command>> waitFor(BulkCommandList commandList);
+
+  /**
+   * @see Commands#waitFor(Command, PollingPolicy)
+   */
+  public ListenableFuture<Command> waitFor(Command command, PollingPolicy policy);
+
+  /**
+   * @see Commands#waitFor(List, PollingPolicy)
+   */
+  public ListenableFuture<List<Command>> waitFor(List<Command> commands, PollingPolicy policy);
+
+  /**
+   * @see Commands#waitFor(BulkCommandList, PollingPolicy)
+   */
+  public ListenableFuture<List<Command>> waitFor(BulkCommandList commandList, PollingPolicy policy);
+
+}
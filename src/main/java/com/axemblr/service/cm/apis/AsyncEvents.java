@@ -0,0 +1,31 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.events.Event;
+import com.axemblr.service.cm.models.events.EventQueryResult;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous version of {@link Events}, the Cloudera Manager /events API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncEvents {
+
+  /**
+   * @see Events#queryEvents(int, int, String)
+   */
+  public ListenableFuture<EventQueryResult> queryEvents(int maxResults, int resultOffset, String query);
+
+  /**
+   * @see Events#getEventById(String)
+   */
+  public ListenableFuture<Event> getEventById(String eventId);
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.cm.Config;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.axemblr.service.cm.models.hosts.HostList;
+import com.axemblr.service.cm.models.hosts.MetricList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Asynchronous version of {@link Hosts}, the Cloudera Manager /hosts API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncHosts {
+
+  /**
+   * @see Hosts#createHosts(Set)
+   */
+  public ListenableFuture<HostList> createHosts(Set<Host> hostsToCreate);
+
+  /**
+   * @see Hosts#list()
+   */
+  public ListenableFuture<HostList> list();
+
+  /**
+   * @see Hosts#deleteAll()
+   */
+  public ListenableFuture<HostList> deleteAll();
+
+  /**
+   * @see Hosts#getHostById(String)
+   */
+  public ListenableFuture<Host> getHostById(String hostId);
+
+  /**
+   * @see Hosts#updateHost(String, Host)
+   */
+  public ListenableFuture<Host> updateHost(String hostId, Host updatedHost);
+
+  /**
+   * @see Hosts#removeHostById(String)
+   */
+  public ListenableFuture<Host> removeHostById(String hostId);
+
+  /**
+   * @see Hosts#removeHost(Host)
+   */
+  public ListenableFuture<Host> removeHost(Host host);
+
+  /**
+   * @see Hosts#getHostConfig(String)
+   */
+  public ListenableFuture<ConfigList> getHostConfig(String hostId);
+
+  /**
+   * @see Hosts#getHostConfig(Host)
+   */
+  public ListenableFuture<ConfigList> getHostConfig(Host host);
+
+  /**
+   * @see Hosts#updateHostConfig(String, List)
+   */
+  public ListenableFuture<ConfigList> updateHostConfig(String hostId, List<Config> newConfig);
+
+  /**
+   * @see Hosts#updateHostConfig(Host, List)
+   */
+  public ListenableFuture<ConfigList> updateHostConfig(Host host, List<Config> newConfig);
+
+  /**
+   * @see Hosts#updateHostConfig(String, List, String)
+   */
+  public ListenableFuture<ConfigList> updateHostConfig(String hostId, List<Config> newConfig, String message);
+
+  /**
+   * @see Hosts#getHostMetrics(String, String, String, boolean, String, boolean, String, String)
+   */
+  public ListenableFuture<MetricList> getHostMetrics(String hostId,
+                                                     String startDate,
+                                                     String endDate,
+                                                     boolean queryNetwork,
+                                                     String interfaces,
+                                                     boolean queryStorage,
+                                                     String storageIds,
+                                                     String metrics);
+}
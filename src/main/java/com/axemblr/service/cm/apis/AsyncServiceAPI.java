@@ -0,0 +1,279 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.clusters.ActivityList;
+import com.axemblr.service.cm.models.clusters.HdfsDisableHaArguments;
+import com.axemblr.service.cm.models.clusters.HdfsFailoverArguments;
+import com.axemblr.service.cm.models.clusters.HdfsHaArguments;
+import com.axemblr.service.cm.models.clusters.NameService;
+import com.axemblr.service.cm.models.clusters.NameServiceList;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.cm.BulkCommandList;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleNameList;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import com.axemblr.service.cm.models.hosts.MetricList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous version of {@link ServiceAPI}, the Cloudera Manager cluster services API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncServiceAPI {
+
+  /**
+   * @see ServiceAPI#getAllActivities(String, int, int)
+   */
+  public ListenableFuture<ActivityList> getAllActivities(String query, int resultOffset, int maxResults);
+
+  /**
+   * @see ServiceAPI#getActivityChildren(String, int, int)
+   */
+  public ListenableFuture<ActivityList> getActivityChildren(String activityId, int maxResults, int resultOffset);
+
+  /**
+   * @see ServiceAPI#getActivityMetrics(String, long, long, String)
+   */
+  public ListenableFuture<MetricList> getActivityMetrics(String activityId, long from, long to, String query);
+
+  /**
+   * @see ServiceAPI#getSimilarActivities(String)
+   */
+  public ListenableFuture<ActivityList> getSimilarActivities(String activityId);
+
+  /**
+   * @see ServiceAPI#getActiveCommands()
+   */
+  public ListenableFuture<CommandList> getActiveCommands();
+
+  /**
+   * @see ServiceAPI#decommissionRoles(RoleNameList)
+   */
+  public ListenableFuture<Command> decommissionRoles(RoleNameList rolesToDecommission);
+
+  /**
+   * @see ServiceAPI#deployClientConfig(RoleNameList)
+   */
+  public ListenableFuture<Command> deployClientConfig(RoleNameList rolesToConfigure);
+
+  /**
+   * @see ServiceAPI#createHBaseRoot()
+   */
+  public ListenableFuture<Command> createHBaseRoot();
+
+  /**
+   * @see ServiceAPI#disableHdfsAutoFailover()
+   */
+  public ListenableFuture<Command> disableHdfsAutoFailover();
+
+  /**
+   * @see ServiceAPI#enableHdfsAutoFailover(HdfsFailoverArguments)
+   */
+  public ListenableFuture<Command> enableHdfsAutoFailover(HdfsFailoverArguments failoverArguments);
+
+  /**
+   * @see ServiceAPI#disableHdfsHa(HdfsDisableHaArguments)
+   */
+  public ListenableFuture<Command> disableHdfsHa(HdfsDisableHaArguments disableHaArguments);
+
+  /**
+   * @see ServiceAPI#enableHdfsHa(HdfsHaArguments)
+   */
+  public ListenableFuture<Command> enableHdfsHa(HdfsHaArguments haArguments);
+
+  /**
+   * @see ServiceAPI#hdfsFailover(RoleNameList, boolean)
+   */
+  public ListenableFuture<Command> hdfsFailover(RoleNameList names, boolean forceFailover);
+
+  /**
+   * @see ServiceAPI#hueCreateHiveWarehouse()
+   */
+  public ListenableFuture<Command> hueCreateHiveWarehouse();
+
+  /**
+   * @see ServiceAPI#restart()
+   */
+  public ListenableFuture<Command> restart();
+
+  /**
+   * @see ServiceAPI#start()
+   */
+  public ListenableFuture<Command> start();
+
+  /**
+   * @see ServiceAPI#stop()
+   */
+  public ListenableFuture<Command> stop();
+
+  /**
+   * @see ServiceAPI#cleanUpZookeeper()
+   */
+  public ListenableFuture<Command> cleanUpZookeeper();
+
+  /**
+   * @see ServiceAPI#initZooKeeper()
+   */
+  public ListenableFuture<Command> initZooKeeper();
+
+  /**
+   * @see ServiceAPI#getConfig()
+   */
+  public ListenableFuture<ServiceConfig> getConfig();
+
+  /**
+   * @see ServiceAPI#getConfig(boolean)
+   */
+  public ListenableFuture<ServiceConfig> getConfig(boolean fullView);
+
+  /**
+   * @see ServiceAPI#updateConfig(ServiceConfig)
+   */
+  public ListenableFuture<ServiceConfig> updateConfig(ServiceConfig newConfig);
+
+  /**
+   * @see ServiceAPI#getMetrics(long, long, String)
+   */
+  public ListenableFuture<MetricList> getMetrics(long from, long to, String metrics);
+
+  /**
+   * @see ServiceAPI#getNameServices()
+   */
+  public ListenableFuture<NameServiceList> getNameServices();
+
+  /**
+   * @see ServiceAPI#getNameServiceDetails(String)
+   */
+  public ListenableFuture<NameService> getNameServiceDetails(String nameService);
+
+  /**
+   * @see ServiceAPI#getNameServiceMetrics(String, String, long, long)
+   */
+  public ListenableFuture<MetricList> getNameServiceMetrics(String nameservice, String metrics, long from, long to);
+
+  /**
+   * @see ServiceAPI#bootstrapHdfsStandby(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> bootstrapHdfsStandby(RoleNameList standByNodes);
+
+  /**
+   * @see ServiceAPI#hdfsFormat(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> hdfsFormat(RoleNameList nameNodesToFormat);
+
+  /**
+   * @see ServiceAPI#hdfsInitializeAutoFailover(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> hdfsInitializeAutoFailover(RoleNameList controllersToInitialize);
+
+  /**
+   * @see ServiceAPI#hdfsInitializeSharedDir(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> hdfsInitializeSharedDir(RoleNameList roleNames);
+
+  /**
+   * @see ServiceAPI#hueSyncDb(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> hueSyncDb(RoleNameList hueServerRoles);
+
+  /**
+   * @see ServiceAPI#refresh(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> refresh(RoleNameList rolesNames);
+
+  /**
+   * @see ServiceAPI#restart(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> restart(RoleNameList roleNames);
+
+  /**
+   * @see ServiceAPI#start(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> start(RoleNameList roleNames);
+
+  /**
+   * @see ServiceAPI#stop(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> stop(RoleNameList roleNames);
+
+  /**
+   * @see ServiceAPI#zooKeeperCleanUp(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> zooKeeperCleanUp(RoleNameList roleNames);
+
+  /**
+   * @see ServiceAPI#zooKeeperInit(RoleNameList)
+   */
+  public ListenableFuture<BulkCommandList> zooKeeperInit(RoleNameList roleNames);
+
+  /**
+   * @see ServiceAPI#getRoles()
+   */
+  public ListenableFuture<RoleList> getRoles();
+
+  /**
+   * @see ServiceAPI#createRoles(RoleList)
+   */
+  public ListenableFuture<RoleList> createRoles(RoleList newRoles);
+
+  /**
+   * @see ServiceAPI#getRoleDetails(String)
+   */
+  public ListenableFuture<Role> getRoleDetails(String roleName);
+
+  /**
+   * @see ServiceAPI#deleteRole(String)
+   */
+  public ListenableFuture<Role> deleteRole(String roleName);
+
+  /**
+   * @see ServiceAPI#getActiveRoleCommands(String)
+   */
+  public ListenableFuture<CommandList> getActiveRoleCommands(String roleName);
+
+  /**
+   * @see ServiceAPI#getRoleConfig(String)
+   */
+  public ListenableFuture<ConfigList> getRoleConfig(String roleName);
+
+  /**
+   * @see ServiceAPI#updateRoleConfig(String, ConfigList, String)
+   */
+  public ListenableFuture<ConfigList> updateRoleConfig(String roleName, ConfigList newConfig, String message);
+
+  /**
+   * @see ServiceAPI#updateRoleConfig(String, ConfigList)
+   */
+  public ListenableFuture<ConfigList> updateRoleConfig(String roleName, ConfigList newConfig);
+
+  /**
+   * @see ServiceAPI#getRoleFullLog(String)
+   */
+  public ListenableFuture<String> getRoleFullLog(String roleName);
+
+  /**
+   * @see ServiceAPI#getRoleStandrdError(String)
+   */
+  public ListenableFuture<String> getRoleStandrdError(String roleName);
+
+  /**
+   * @see ServiceAPI#getRoleStandardOut(String)
+   */
+  public ListenableFuture<String> getRoleStandardOut(String roleName);
+
+  /**
+   * @see ServiceAPI#getRoleMetrics(String, String, long, long)
+   */
+  public ListenableFuture<MetricList> getRoleMetrics(String roleName, String metrics, long from, long to);
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.tools.EchoMessage;
+import com.axemblr.service.cm.models.tools.ErrorMessage;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous version of {@link Tools}, the Cloudera Manager /tools API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncTools {
+
+  /**
+   * @see Tools#echo(String)
+   */
+  public ListenableFuture<EchoMessage> echo(String message);
+
+  /**
+   * @see Tools#echoError(String)
+   */
+  public ListenableFuture<ErrorMessage> echoError(String message);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import com.axemblr.service.cm.models.users.User;
+import com.axemblr.service.cm.models.users.UserList;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.Set;
+
+/**
+ * Asynchronous version of {@link Users}, the Cloudera Manager /users API.
+ * <p/>
+ * Every call returns as soon as the request is handed to the HTTP client. The returned future completes with the
+ * response entity or fails with the same exception the blocking call would have thrown.
+ */
+public interface AsyncUsers {
+
+  /**
+   * @see Users#createUsers(Set)
+   */
+  public ListenableFuture<UserList> createUsers(Set<User> usersToCreate);
+
+  /**
+   * @see Users#list()
+   */
+  public ListenableFuture<UserList> list();
+
+  /**
+   * @see Users#delete(String)
+   */
+  public ListenableFuture<User> delete(String user);
+
+  /**
+   * @see Users#delete(User)
+   */
+  public ListenableFuture<User> delete(User user);
+
+  /**
+   * @see Users#details(String)
+   */
+  public ListenableFuture<User> details(String user);
+
+  /**
+   * @see Users#update(User)
+   */
+  public ListenableFuture<User> update(User updatedInfo);
+}
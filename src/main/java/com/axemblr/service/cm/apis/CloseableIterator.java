@@ -0,0 +1,26 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Iterator over the items of a response that is read from the connection as the iteration advances.
+ * <p/>
+ * The underlying connection is released once the last item was read or when the iterator is closed. Always close
+ * iterators that are not read until the end, e.g. in a finally block.
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+  /**
+   * Stops reading the response and releases the connection. Calling it more than once has no effect.
+   */
+  @Override
+  public void close();
+}
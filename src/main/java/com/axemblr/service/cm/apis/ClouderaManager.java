@@ -38,6 +38,13 @@ public interface ClouderaManager {
    */
   public String getLogFile();
 
+  /**
+   * The Cloudera Manager log file, read as a stream instead of a single String.
+   *
+   * @return The log file; no request is made until it is read.
+   */
+  public RemoteLog getLog();
+
   /**
    * Retrieve information about the Cloudera Manager license.
    *
@@ -64,6 +64,14 @@ public interface ClusterAPI {
    */
   public ServiceList getServices();
 
+  /**
+   * Same as {@link #getServices()} but the services are deserialized one at a time while iterating.
+   * The iterator must be closed if it is not read until the end.
+   *
+   * @return An iterator over the services of the cluster.
+   */
+  public CloseableIterator<Service> streamServices();
+
   /**
    * Creates a list of services. <br/>
    * There are typically two service creation strategies: <br/>
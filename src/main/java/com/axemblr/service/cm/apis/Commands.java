@@ -54,7 +54,9 @@ public interface Commands {
 
   /**
    * Blocks until Cloudera Manager finishes executing the specified command.
-   * Queries the server at regular intervals to find out the command state.
+   * Queries the server at regular intervals to find out the command state. All the waitFor methods fail with a
+   * {@link com.axemblr.service.cm.deadline.DeadlineExceededException} once the current
+   * {@link com.axemblr.service.cm.deadline.Deadline} passes.
    *
    * @param command command to await execution
    * @return the finished command details
@@ -80,13 +82,50 @@ public interface Commands {
    */
   public List<Command> waitFor(BulkCommandList commandList) throws InterruptedException;
 
+  /**
+   * Same as {@link Commands#waitFor(com.axemblr.service.cm.models.commands.Command)} but queries the server
+   * as described by the given policy instead of the default one.
+   *
+   * @param command command to await execution
+   * @param policy  how often to query the command state and for how long
+   * @return the finished command details, or the last details read if the policy deadline expired first
+   * @throws InterruptedException
+   */
+  public Command waitFor(Command command, PollingPolicy policy) throws InterruptedException;
+
+  /**
+   * Wait for all commands in the list to finish execution, querying the server as described by the given policy.
+   *
+   * @param commands commands to await execution
+   * @param policy   how often to query the command state and for how long
+   * @return the command details, in the same order
+   * @throws InterruptedException
+   */
+  public List<Command> waitFor(List<Command> commands, PollingPolicy policy) throws InterruptedException;
+
+  /**
+   * Wait for all commands in the list to finish execution, querying the server as described by the given policy.
+   *
+   * @param commandList commands to await execution
+   * @param policy      how often to query the command state and for how long
+   * @return the command details, in the same order
+   * @throws InterruptedException
+   */
+  public List<Command> waitFor(BulkCommandList commandList, PollingPolicy policy) throws InterruptedException;
+
   /**
    * Specifies how long the client must wait between {@link Command} detail requests done by
    * {@link Commands#waitFor(com.axemblr.service.cm.models.commands.Command)}
    *
    * @param seconds number of seconds to wait between pooling
-   * @return the {@link Commands } object for chaining
+   * @return the {@link Commands } object for chaining, which now polls at the given fixed interval
    */
   public Commands withQueryInterval(int seconds);
 
+  /**
+   * @param policy the policy used by the waitFor methods that don't take one
+   * @return a {@link Commands} object that uses the given policy. This object is not modified.
+   */
+  public Commands withPollingPolicy(PollingPolicy policy);
+
 }
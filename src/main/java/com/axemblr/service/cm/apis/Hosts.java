@@ -53,6 +53,14 @@ public interface Hosts {
    */
   public HostList list();
 
+  /**
+   * Same as {@link #list()} but the hosts are deserialized one at a time while iterating, so the memory used
+   * doesn't grow with the number of hosts. The iterator must be closed if it is not read until the end.
+   *
+   * @return An iterator over all the hosts in the system.
+   */
+  public CloseableIterator<Host> streamHosts();
+
   /**
    * Delete all hosts in the system.
    *
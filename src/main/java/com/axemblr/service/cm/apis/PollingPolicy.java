@@ -0,0 +1,256 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how often the state of a running command is queried while waiting for it to finish.
+ * <p/>
+ * The first query is done after the initial delay. Afterwards the interval between queries starts at the initial
+ * interval and is multiplied after every query until it reaches the maximum interval, so short commands are
+ * noticed quickly and long ones don't flood the server with requests. Each interval is randomly spread by the
+ * jitter factor so that many waiters started at the same time don't query in lock step. When a deadline is set
+ * the wait ends once it expires, returning the last command details that were read.
+ * <p/>
+ * Instances are immutable and can be shared freely between threads and calls.
+ */
+public class PollingPolicy {
+
+  public static final long DEFAULT_INITIAL_DELAY_MS = 0;
+  public static final long DEFAULT_INITIAL_INTERVAL_MS = 100;
+  public static final double DEFAULT_MULTIPLIER = 1.5;
+  public static final long DEFAULT_MAX_INTERVAL_MS = 5 * 1000;
+  public static final double DEFAULT_JITTER = 0.2;
+  public static final long NO_DEADLINE = 0;
+
+  private final long initialDelayMs;
+  private final long initialIntervalMs;
+  private final double multiplier;
+  private final long maxIntervalMs;
+  private final double jitter;
+  private final long deadlineMs;
+
+  private PollingPolicy(long initialDelayMs, long initialIntervalMs, double multiplier,
+                        long maxIntervalMs, double jitter, long deadlineMs) {
+    this.initialDelayMs = initialDelayMs;
+    this.initialIntervalMs = initialIntervalMs;
+    this.multiplier = multiplier;
+    this.maxIntervalMs = maxIntervalMs;
+    this.jitter = jitter;
+    this.deadlineMs = deadlineMs;
+  }
+
+  /**
+   * Exponential backoff starting at {@link #DEFAULT_INITIAL_INTERVAL_MS}, without a deadline.
+   */
+  public static PollingPolicy defaults() {
+    return builder().build();
+  }
+
+  /**
+   * Query right away and then at a fixed interval, without jitter and without a deadline.
+   */
+  public static PollingPolicy fixed(long interval, TimeUnit unit) {
+    return builder()
+        .withInitialInterval(interval, unit)
+        .withMaxInterval(interval, unit)
+        .withMultiplier(1)
+        .withJitter(0)
+        .build();
+  }
+
+  public static PollingPolicyBuilder builder() {
+    return new PollingPolicyBuilder();
+  }
+
+  /**
+   * Computes how long to wait before the next query.
+   *
+   * @param attempt   number of queries already done
+   * @param elapsedMs time since the wait started
+   * @return delay in milliseconds, never past the deadline, or -1 if the deadline expired and no more queries
+   *         should be done. The first query is always allowed.
+   */
+  public long nextDelayMs(int attempt, long elapsedMs) {
+    long delayMs = (attempt == 0) ? initialDelayMs : jittered(intervalMs(attempt));
+    if (deadlineMs == NO_DEADLINE) {
+      return delayMs;
+    }
+    long remainingMs = deadlineMs - elapsedMs;
+    if (remainingMs <= 0) {
+      return (attempt == 0) ? 0 : -1;
+    }
+    return Math.min(delayMs, remainingMs);
+  }
+
+  private long intervalMs(int attempt) {
+    double interval = initialIntervalMs * Math.pow(multiplier, attempt - 1);
+    return (interval >= maxIntervalMs) ? maxIntervalMs : (long) interval;
+  }
+
+  private long jittered(long intervalMs) {
+    if (jitter == 0) {
+      return intervalMs;
+    }
+    double factor = 1 + jitter * (2 * Math.random() - 1);
+    return Math.min(maxIntervalMs, Math.round(intervalMs * factor));
+  }
+
+  public long getInitialDelayMs() {
+    return initialDelayMs;
+  }
+
+  public long getInitialIntervalMs() {
+    return initialIntervalMs;
+  }
+
+  public double getMultiplier() {
+    return multiplier;
+  }
+
+  public long getMaxIntervalMs() {
+    return maxIntervalMs;
+  }
+
+  public double getJitter() {
+    return jitter;
+  }
+
+  /**
+   * @return maximum time to wait for a command in milliseconds, or {@link #NO_DEADLINE}
+   */
+  public long getDeadlineMs() {
+    return deadlineMs;
+  }
+
+  public boolean hasDeadline() {
+    return deadlineMs != NO_DEADLINE;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    PollingPolicy that = (PollingPolicy) o;
+
+    if (deadlineMs != that.deadlineMs) return false;
+    if (initialDelayMs != that.initialDelayMs) return false;
+    if (initialIntervalMs != that.initialIntervalMs) return false;
+    if (Double.compare(that.jitter, jitter) != 0) return false;
+    if (maxIntervalMs != that.maxIntervalMs) return false;
+    if (Double.compare(that.multiplier, multiplier) != 0) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result;
+    long temp;
+    result = (int) (initialDelayMs ^ (initialDelayMs >>> 32));
+    result = 31 * result + (int) (initialIntervalMs ^ (initialIntervalMs >>> 32));
+    temp = Double.doubleToLongBits(multiplier);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    result = 31 * result + (int) (maxIntervalMs ^ (maxIntervalMs >>> 32));
+    temp = Double.doubleToLongBits(jitter);
+    result = 31 * result + (int) (temp ^ (temp >>> 32));
+    result = 31 * result + (int) (deadlineMs ^ (deadlineMs >>> 32));
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "PollingPolicy{" +
+        "initialDelayMs=" + initialDelayMs +
+        ", initialIntervalMs=" + initialIntervalMs +
+        ", multiplier=" + multiplier +
+        ", maxIntervalMs=" + maxIntervalMs +
+        ", jitter=" + jitter +
+        ", deadlineMs=" + deadlineMs +
+        '}';
+  }
+
+  public static class PollingPolicyBuilder {
+
+    private long initialDelayMs = DEFAULT_INITIAL_DELAY_MS;
+    private long initialIntervalMs = DEFAULT_INITIAL_INTERVAL_MS;
+    private double multiplier = DEFAULT_MULTIPLIER;
+    private long maxIntervalMs = DEFAULT_MAX_INTERVAL_MS;
+    private double jitter = DEFAULT_JITTER;
+    private long deadlineMs = NO_DEADLINE;
+
+    private PollingPolicyBuilder() {
+    }
+
+    /**
+     * Time to wait before the first query.
+     */
+    public PollingPolicyBuilder withInitialDelay(long duration, TimeUnit unit) {
+      checkArgument(duration >= 0, "Initial delay must not be negative");
+      this.initialDelayMs = checkNotNull(unit).toMillis(duration);
+      return this;
+    }
+
+    /**
+     * Time to wait between the first and the second query.
+     */
+    public PollingPolicyBuilder withInitialInterval(long duration, TimeUnit unit) {
+      checkArgument(duration > 0, "Initial interval must be larger than 0");
+      this.initialIntervalMs = checkNotNull(unit).toMillis(duration);
+      return this;
+    }
+
+    /**
+     * Factor applied to the interval after each query. Use 1 for a fixed interval.
+     */
+    public PollingPolicyBuilder withMultiplier(double multiplier) {
+      checkArgument(multiplier >= 1, "Multiplier must be at least 1");
+      this.multiplier = multiplier;
+      return this;
+    }
+
+    public PollingPolicyBuilder withMaxInterval(long duration, TimeUnit unit) {
+      checkArgument(duration > 0, "Maximum interval must be larger than 0");
+      this.maxIntervalMs = checkNotNull(unit).toMillis(duration);
+      return this;
+    }
+
+    /**
+     * Each interval is randomly picked within +/- this fraction of its nominal value.
+     */
+    public PollingPolicyBuilder withJitter(double jitter) {
+      checkArgument(jitter >= 0 && jitter < 1, "Jitter must be in the [0, 1) range");
+      this.jitter = jitter;
+      return this;
+    }
+
+    public PollingPolicyBuilder withDeadline(long duration, TimeUnit unit) {
+      long durationMs = checkNotNull(unit).toMillis(duration);
+      checkArgument(durationMs > 0, "Deadline must be at least 1 millisecond");
+      this.deadlineMs = durationMs;
+      return this;
+    }
+
+    public PollingPolicyBuilder withoutDeadline() {
+      this.deadlineMs = NO_DEADLINE;
+      return this;
+    }
+
+    public PollingPolicy build() {
+      checkArgument(initialIntervalMs > 0, "Initial interval must be at least 1 millisecond");
+      checkArgument(initialIntervalMs <= maxIntervalMs, "Initial interval (%s ms) can't exceed the maximum (%s ms)",
+          initialIntervalMs, maxIntervalMs);
+      return new PollingPolicy(initialDelayMs, initialIntervalMs, multiplier, maxIntervalMs, jitter, deadlineMs);
+    }
+  }
+}
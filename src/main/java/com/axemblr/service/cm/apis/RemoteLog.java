@@ -0,0 +1,67 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * A log file stored by Cloudera Manager, read without keeping the whole file in memory.
+ * <p/>
+ * Every method makes a new request. Streams, readers and iterators returned by this interface hold a connection
+ * until they are closed.
+ */
+public interface RemoteLog {
+
+  /**
+   * @return the raw content of the log; the caller must close it
+   */
+  public InputStream openStream();
+
+  /**
+   * @return the content of the log decoded with the charset sent by the server, UTF-8 if none; the caller must
+   *         close it
+   */
+  public Reader openReader();
+
+  /**
+   * Reads the log one line at a time, without line terminators.
+   *
+   * @return an iterator over the lines of the log; must be closed if it is not read until the end
+   */
+  public CloseableIterator<String> lines();
+
+  /**
+   * Returns the end of the log. Asks the server for the byte range only; if the server ignores it the log is
+   * read through keeping only the last bytes in memory.
+   *
+   * @param maxBytes how many bytes to return at most
+   * @return the last bytes of the log
+   */
+  public byte[] tailBytes(int maxBytes);
+
+  /**
+   * Returns the end of the log, keeping only the last lines in memory while reading.
+   *
+   * @param maxLines how many lines to return at most
+   * @return the last lines of the log, oldest first
+   */
+  public List<String> tailLines(int maxLines);
+
+  /**
+   * Writes the log to a file through a {@link java.nio.channels.FileChannel}, replacing its content.
+   *
+   * @param target the file to write
+   * @return the number of bytes written
+   * @throws IOException if writing the file fails
+   */
+  public long writeTo(File target) throws IOException;
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+/**
+ * The logs available for a role, see {@link ServiceAPI#getRoleLog(String, RoleLogType)}.
+ */
+public enum RoleLogType {
+
+  /**
+   * The log file of the role's main process.
+   */
+  FULL("full"),
+
+  /**
+   * The role's standard error output.
+   */
+  STDERR("stderr"),
+
+  /**
+   * The role's standard output.
+   */
+  STDOUT("stdout");
+
+  private final String path;
+
+  private RoleLogType(String path) {
+    this.path = path;
+  }
+
+  /**
+   * @return the path segment of the log, under /roles/{roleName}/logs
+   */
+  public String getPath() {
+    return path;
+  }
+}
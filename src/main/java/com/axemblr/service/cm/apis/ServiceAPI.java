@@ -7,6 +7,7 @@
 
 package com.axemblr.service.cm.apis;
 
+import com.axemblr.service.cm.models.clusters.Activity;
 import com.axemblr.service.cm.models.clusters.ActivityList;
 import com.axemblr.service.cm.models.clusters.HdfsDisableHaArguments;
 import com.axemblr.service.cm.models.clusters.HdfsFailoverArguments;
@@ -75,6 +76,17 @@ public interface ServiceAPI {
    */
   public ActivityList getAllActivities(String query, int resultOffset, int maxResults);
 
+  /**
+   * Same as {@link #getAllActivities(String, int, int)} but the activities are deserialized one at a time while
+   * iterating. The iterator must be closed if it is not read until the end.
+   *
+   * @param query        The query to perform
+   * @param resultOffset Specified the offset of activities to return.
+   * @param maxResults   The maximum number of activities to return.
+   * @return An iterator over the matching activities.
+   */
+  public CloseableIterator<Activity> streamAllActivities(String query, int resultOffset, int maxResults);
+
   /**
    * Returns the child activities.
    * <p/>
@@ -567,6 +579,14 @@ public interface ServiceAPI {
    */
   public RoleList getRoles();
 
+  /**
+   * Same as {@link #getRoles()} but the roles are deserialized one at a time while iterating, so the memory used
+   * doesn't grow with the number of roles. The iterator must be closed if it is not read until the end.
+   *
+   * @return An iterator over the roles of the service.
+   */
+  public CloseableIterator<Role> streamRoles();
+
   /**
    * Create new roles in a given service.
    * <ul>
@@ -698,6 +718,16 @@ public interface ServiceAPI {
    */
   public String getRoleStandardOut(String roleName);
 
+  /**
+   * One of the role's logs, read as a stream instead of a single String. Prefer it to
+   * {@link #getRoleFullLog(String)} and friends for logs that may not fit in memory.
+   *
+   * @param roleName The role.
+   * @param type     Which log to read.
+   * @return The log; no request is made until it is read.
+   */
+  public RemoteLog getRoleLog(String roleName, RoleLogType type);
+
   /**
    * Fetch metric readings for a particular role.
    * <p/>
@@ -0,0 +1,352 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncCommands;
+import com.axemblr.service.cm.apis.PollingPolicy;
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks any number of in-flight commands from a single scheduler thread.
+ * <p/>
+ * Each watched command is queried with a non-blocking details request on the schedule given by its
+ * {@link PollingPolicy}; the next query is only scheduled once the previous response arrived. Commands that
+ * finished are dropped from the watch list and their futures are completed with the final command details, so the
+ * watcher only costs requests for commands that are still running.
+ * <p/>
+ * When a list contains several children of the same parent command only the parent is queried and the state of
+ * the children is read from the summaries in its {@link Command#getChildren()} list. A child is queried on its own
+ * only when the parent response doesn't list it, the parent finished before it, or the policy deadline or
+ * {@link Deadline} of the child ran out while the parent is still running.
+ * <p/>
+ * The {@link Deadline} current when a command is first watched applies to all its queries; its future fails with a
+ * {@link DeadlineExceededException} when the command would not finish in time.
+ */
+public class CommandWatcher {
+
+  private final AsyncCommands commands;
+  private final PollingPolicy defaultPolicy;
+  private final ScheduledExecutorService scheduler;
+  private final ConcurrentMap<Long, WatchedCommand> watched = new ConcurrentHashMap<Long, WatchedCommand>();
+
+  public CommandWatcher(AsyncCommands commands) {
+    this(commands, PollingPolicy.defaults());
+  }
+
+  /**
+   * @param defaultPolicy policy used by the watch methods that don't take one
+   */
+  public CommandWatcher(AsyncCommands commands, PollingPolicy defaultPolicy) {
+    this.commands = checkNotNull(commands);
+    this.defaultPolicy = checkNotNull(defaultPolicy);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("cm-command-watcher-%d")
+        .build());
+  }
+
+  /**
+   * Start watching a command with the default policy.
+   *
+   * @see #watch(Command, PollingPolicy)
+   */
+  public ListenableFuture<Command> watch(Command command) {
+    return watch(command, defaultPolicy);
+  }
+
+  /**
+   * Start watching a command. Watching a command id that is already watched returns the existing future, which
+   * keeps following the policy and the deadline it was first watched with.
+   *
+   * @param command the command to watch
+   * @param policy  how often to query the command state and for how long
+   * @return a future completed with the command details once the command is no longer active, or with the last
+   *         details read if the policy deadline expired first
+   */
+  public ListenableFuture<Command> watch(Command command, PollingPolicy policy) {
+    return watchEntry(command, policy).result;
+  }
+
+  /**
+   * Watch all the commands in the list with the default policy.
+   *
+   * @see #watch(List, PollingPolicy)
+   */
+  public ListenableFuture<List<Command>> watch(List<Command> commandsToWatch) {
+    return watch(commandsToWatch, defaultPolicy);
+  }
+
+  /**
+   * Watch all the commands in the list. Commands that share a parent with other commands in the list are tracked
+   * through the parent; their futures may be completed with the summary view found in the parent children list.
+   *
+   * @param commandsToWatch commands to watch
+   * @param policy          how often to query the state of each command and for how long
+   * @return a future completed with the details of all the commands, in the same order, once they all finished
+   */
+  public ListenableFuture<List<Command>> watch(List<Command> commandsToWatch, PollingPolicy policy) {
+    checkNotNull(policy);
+    Multiset<Long> childrenPerParent = HashMultiset.create();
+    for (Command command : commandsToWatch) {
+      if (command.getParent() != null) {
+        childrenPerParent.add(command.getParent().getId());
+      }
+    }
+    List<ListenableFuture<Command>> futures = Lists.newArrayListWithCapacity(commandsToWatch.size());
+    for (Command command : commandsToWatch) {
+      Command parent = command.getParent();
+      if (parent != null && childrenPerParent.count(parent.getId()) > 1) {
+        futures.add(watchThroughParent(command, parent, policy));
+      } else {
+        futures.add(watch(command, policy));
+      }
+    }
+    return Futures.allAsList(futures);
+  }
+
+  /**
+   * @return number of commands that are still being watched
+   */
+  public int getWatchedCount() {
+    return watched.size();
+  }
+
+  public PollingPolicy getDefaultPolicy() {
+    return defaultPolicy;
+  }
+
+  /**
+   * Stop polling. Futures of the commands that are still watched are cancelled.
+   */
+  public void shutdown() {
+    scheduler.shutdownNow();
+    for (WatchedCommand entry : watched.values()) {
+      entry.result.cancel(false);
+    }
+  }
+
+  /**
+   * Returns the entry watching the command, creating it and starting to query the command if needed.
+   */
+  private WatchedCommand watchEntry(Command command, PollingPolicy policy) {
+    WatchedCommand candidate = new WatchedCommand(checkNotNull(command).getId(), checkNotNull(policy));
+    WatchedCommand entry = track(candidate);
+    if (entry == candidate) {
+      scheduleNext(entry);
+    }
+    return entry;
+  }
+
+  private ListenableFuture<Command> watchThroughParent(Command child, Command parent, PollingPolicy policy) {
+    WatchedCommand candidate = new WatchedCommand(child.getId(), policy);
+    WatchedCommand entry = track(candidate);
+    if (entry == candidate) {
+      WatchedCommand parentEntry = watchEntry(parent, policy);
+      parentEntry.dependents.put(entry.commandId, entry);
+      if (parentEntry.result.isDone()) {
+        pollOnItsOwn(parentEntry, entry);
+      } else {
+        scheduleTimeout(parentEntry, entry);
+      }
+    }
+    return entry.result;
+  }
+
+  /**
+   * Adds the entry to the watch list unless the command is already watched.
+   *
+   * @return the entry that was already watching the same command, or the given one
+   */
+  private WatchedCommand track(final WatchedCommand entry) {
+    WatchedCommand existing = watched.putIfAbsent(entry.commandId, entry);
+    if (existing != null) {
+      return existing;
+    }
+    entry.result.addListener(new Runnable() {
+      @Override
+      public void run() {
+        watched.remove(entry.commandId);
+        Future<?> next = entry.nextPoll;
+        if (next != null) {
+          next.cancel(false);
+        }
+        for (WatchedCommand dependent : entry.dependents.values()) {
+          pollOnItsOwn(entry, dependent);
+        }
+      }
+    }, MoreExecutors.sameThreadExecutor());
+    return entry;
+  }
+
+  private void pollOnItsOwn(WatchedCommand parent, WatchedCommand dependent) {
+    if (parent.dependents.remove(dependent.commandId, dependent)) {
+      Future<?> timeout = dependent.nextPoll;
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+      scheduleNext(dependent);
+    }
+  }
+
+  /**
+   * The parent may have been watched first with a longer policy or deadline, so a dependent goes back to its own
+   * queries when its policy deadline or {@link Deadline} runs out. Its own schedule then completes or fails it.
+   */
+  private void scheduleTimeout(final WatchedCommand parent, final WatchedCommand dependent) {
+    long timeoutMs = dependent.policy.hasDeadline() ? dependent.policy.getDeadlineMs() : Long.MAX_VALUE;
+    if (dependent.deadline != null) {
+      timeoutMs = Math.min(timeoutMs, dependent.deadline.remaining(TimeUnit.MILLISECONDS));
+    }
+    if (timeoutMs == Long.MAX_VALUE) {
+      return;
+    }
+    try {
+      dependent.nextPoll = scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          pollOnItsOwn(parent, dependent);
+        }
+      }, Math.max(0, timeoutMs), TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      dependent.result.cancel(false);
+    }
+  }
+
+  /**
+   * Completes the dependents reported as finished in the parent children list.
+   */
+  private void updateDependents(WatchedCommand parent, Command response) {
+    if (parent.dependents.isEmpty()) {
+      return;
+    }
+    CommandList children = response.getChildren();
+    Map<Long, Command> childrenById = Maps.newHashMap();
+    if (children != null) {
+      for (Command child : children.getItems()) {
+        childrenById.put(child.getId(), child);
+      }
+    }
+    for (WatchedCommand dependent : parent.dependents.values()) {
+      Command child = childrenById.get(dependent.commandId);
+      if (child == null) {
+        pollOnItsOwn(parent, dependent);
+      } else if (!child.isActive() && parent.dependents.remove(dependent.commandId, dependent)) {
+        dependent.lastResponse = child;
+        dependent.result.set(child);
+      }
+    }
+  }
+
+  private void scheduleNext(final WatchedCommand entry) {
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.startNanos);
+    long delayMs = entry.policy.nextDelayMs(entry.attempts, elapsedMs);
+    if (delayMs < 0) {
+      entry.result.set(entry.lastResponse);
+      return;
+    }
+    if (entry.deadline != null && delayMs >= entry.deadline.remaining(TimeUnit.MILLISECONDS)) {
+      entry.result.setException(new DeadlineExceededException("Deadline expires before command "
+          + entry.commandId + " finished"));
+      return;
+    }
+    try {
+      entry.nextPoll = scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          poll(entry);
+        }
+      }, delayMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      entry.result.cancel(false);
+    }
+  }
+
+  private void poll(final WatchedCommand entry) {
+    if (entry.result.isDone()) {
+      return;
+    }
+    entry.attempts++;
+    ListenableFuture<Command> details;
+    Deadline.Scope scope = (entry.deadline == null) ? null : entry.deadline.enter();
+    try {
+      details = commands.details(entry.commandId);
+    } catch (RuntimeException e) {
+      entry.result.setException(e);
+      return;
+    } finally {
+      if (scope != null) {
+        scope.close();
+      }
+    }
+    Futures.addCallback(details, new FutureCallback<Command>() {
+      @Override
+      public void onSuccess(Command response) {
+        entry.lastResponse = response;
+        updateDependents(entry, response);
+        if (response.isActive()) {
+          scheduleNext(entry);
+        } else {
+          entry.result.set(response);
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        entry.result.setException(t);
+      }
+    });
+  }
+
+  /**
+   * State of a single watched command. Queries for a command never overlap, so the mutable fields are only
+   * written by one thread at a time and published through the scheduler and the HTTP client executor.
+   */
+  private static class WatchedCommand {
+    private final long commandId;
+    private final PollingPolicy policy;
+    private final Deadline deadline = Deadline.current();
+    private final long startNanos = System.nanoTime();
+    private final SettableFuture<Command> result = SettableFuture.create();
+    /**
+     * Children whose state is read from the responses of this command instead of being queried.
+     */
+    private final ConcurrentMap<Long, WatchedCommand> dependents = new ConcurrentHashMap<Long, WatchedCommand>();
+    private volatile int attempts;
+    private volatile Command lastResponse;
+    private volatile Future<?> nextPoll;
+
+    WatchedCommand(long commandId, PollingPolicy policy) {
+      this.commandId = commandId;
+      this.policy = policy;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncClouderaManagementService;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.delete;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.post;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.put;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.cm.BulkCommandList;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleNameList;
+import com.axemblr.service.cm.models.cm.RoleTypeList;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.cm.ServiceSetupInfo;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+/**
+ * Asynchronous Cloudera Manager /cm/service/ API implementation.
+ */
+public class DefaultAsyncClouderaManagementService implements AsyncClouderaManagementService {
+
+  private final String mountPoint;
+  private final AsyncWebResource resource;
+
+  public DefaultAsyncClouderaManagementService(AsyncWebResource resource) {
+    this("service", resource);
+  }
+
+  public DefaultAsyncClouderaManagementService(String mountPoint, AsyncWebResource resource) {
+    this.mountPoint = checkNotNull(mountPoint);
+    this.resource = checkNotNull(resource).path(mountPoint);
+  }
+
+  public String getMountPoint() {
+    return mountPoint;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public ListenableFuture<Service> getManagementServiceInfo() {
+    return get(resource, Service.class);
+  }
+
+  @Override
+  public ListenableFuture<Service> setupManagementService(ServiceSetupInfo setupInfo) {
+    return put(resource, Service.class, setupInfo);
+  }
+
+  @Override
+  public ListenableFuture<CommandList> listActiveCommands() {
+    return get(resource.path("commands"), CommandList.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> restart() {
+    return post(resource.path("commands").path("restart"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> start() {
+    return post(resource.path("commands").path("start"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> stop() {
+    return post(resource.path("commands").path("stop"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<ServiceConfig> getConfig() {
+    return get(resource.path("config"), ServiceConfig.class);
+  }
+
+  @Override
+  public ListenableFuture<ServiceConfig> updateConfig(ServiceConfig newServiceConfig) {
+    return put(resource.path("config"), ServiceConfig.class, newServiceConfig);
+  }
+
+  @Override
+  public ListenableFuture<ServiceConfig> updateConfig(ServiceConfig newServiceConfig, String message) {
+    if (message == null) {
+      return updateConfig(newServiceConfig);
+    } else {
+      return put(resource.path("config").queryParam("message", message), ServiceConfig.class, newServiceConfig);
+    }
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> restartRoles(RoleNameList rolesToRestart) {
+    return post(resource.path("roleCommands").path("restart"), BulkCommandList.class, rolesToRestart);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> startRoles(RoleNameList roleNamesToStart) {
+    return post(resource.path("roleCommands").path("start"), BulkCommandList.class, roleNamesToStart);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> stopRoles(RoleNameList rolesToStop) {
+    return post(resource.path("roleCommands").path("stop"), BulkCommandList.class, rolesToStop);
+  }
+
+  @Override
+  public ListenableFuture<RoleList> createRoles(RoleList rolesToCreate) {
+    return post(resource.path("roles"), RoleList.class, rolesToCreate);
+  }
+
+  @Override
+  public ListenableFuture<RoleList> listRoles() {
+    return get(resource.path("roles"), RoleList.class);
+  }
+
+  @Override
+  public ListenableFuture<Role> deleteRole(String role) {
+    return delete(resource.path("roles").path(role), Role.class);
+  }
+
+  @Override
+  public ListenableFuture<Role> deleteRole(Role role) {
+    return deleteRole(role.getName());
+  }
+
+  @Override
+  public ListenableFuture<Role> getRole(String role) {
+    return get(resource.path("roles").path(role), Role.class);
+  }
+
+  @Override
+  public ListenableFuture<CommandList> getActiveRoleCommands(String role) {
+    return get(resource.path("roles").path(role).path("commands"), CommandList.class);
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> getRoleConfig(String role) {
+    return get(resource.path("roles").path(role).path("config"), ConfigList.class);
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> updateRoleConfig(String role, ConfigList newRoleConfig, String message) {
+    if (message == null) {
+      return put(resource.path("roles").path(role).path("config"), ConfigList.class, newRoleConfig);
+    } else {
+      return put(resource.path("roles").path(role).path("config").queryParam("message", message), ConfigList.class, newRoleConfig);
+    }
+  }
+
+  @Override
+  public ListenableFuture<RoleTypeList> getRoleTypes() {
+    return get(resource.path("roleTypes"), RoleTypeList.class);
+  }
+}
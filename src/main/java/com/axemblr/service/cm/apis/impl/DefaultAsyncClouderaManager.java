@@ -0,0 +1,115 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncClouderaManagementCommands;
+import com.axemblr.service.cm.apis.AsyncClouderaManagementService;
+import com.axemblr.service.cm.apis.AsyncClouderaManager;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.post;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.put;
+import com.axemblr.service.cm.models.cm.CmVersionInfo;
+import com.axemblr.service.cm.models.cm.CollectDiagnosticDataArguments;
+import com.axemblr.service.cm.models.cm.Config;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.cm.License;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+import java.util.List;
+
+/**
+ * Asynchronous Cloudera Manager /cm API implementation
+ */
+public class DefaultAsyncClouderaManager implements AsyncClouderaManager, AsyncClouderaManagementCommands {
+
+  private final String mountPoint;
+  private final AsyncWebResource resource;
+  private final AsyncClouderaManagementService service;
+
+  public DefaultAsyncClouderaManager(AsyncWebResource resource) {
+    this("/api/v1/cm", resource);
+  }
+
+  public DefaultAsyncClouderaManager(String mountPoint, AsyncWebResource resource) {
+    this.mountPoint = checkNotNull(mountPoint);
+    this.resource = checkNotNull(resource).path(mountPoint);
+    this.service = new DefaultAsyncClouderaManagementService(this.resource);
+  }
+
+  public String getMountPoint() {
+    return mountPoint;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public ListenableFuture<CmVersionInfo> getVersionInfo() {
+    return get(resource.path("version"), CmVersionInfo.class);
+  }
+
+  @Override
+  public ListenableFuture<String> getLogFile() {
+    return get(resource.path("log"), String.class);
+  }
+
+  @Override
+  public ListenableFuture<License> getLicense() {
+    return get(resource.path("license"), License.class);
+  }
+
+  @Override
+  public ListenableFuture<License> updateLicense(String multipartLicense) {
+    return immediateFailedFuture(new UnsupportedOperationException("Not implemented yet"));
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> getConfiguration() {
+    return get(resource.path("config"), ConfigList.class);
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> updateConfig(List<Config> newConfig) {
+    return put(resource.path("config"), ConfigList.class, new ConfigList(newConfig));
+  }
+
+  @Override
+  public AsyncClouderaManagementService getService() {
+    return service;
+  }
+
+
+  @Override
+  public ListenableFuture<CommandList> getActiveCommands() {
+    return get(resource.path("commands"), CommandList.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> collectDiagnosticData(CollectDiagnosticDataArguments args) {
+    return post(resource.path("commands")
+        .path("collectDiagnosticData"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> generateCredentials() {
+    return post(resource.path("commands")
+        .path("generateCredentials"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> inspectHosts() {
+    return post(resource.path("commands")
+        .path("inspectHosts"), Command.class);
+  }
+}
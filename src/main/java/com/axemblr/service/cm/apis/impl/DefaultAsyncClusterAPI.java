@@ -0,0 +1,101 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncClusterAPI;
+import com.axemblr.service.cm.apis.AsyncServiceAPI;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.delete;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.post;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.cm.ServiceList;
+import com.axemblr.service.cm.models.cm.ServiceSetupList;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Asynchronous Cloudera Manager /clusters/{cluster} API implementation.
+ */
+public class DefaultAsyncClusterAPI implements AsyncClusterAPI {
+
+  private final String clusterName;
+  private final AsyncWebResource resource;
+  private final ConcurrentMap<String, AsyncServiceAPI> services =
+      new ConcurrentHashMap<String, AsyncServiceAPI>();
+
+  public DefaultAsyncClusterAPI(AsyncWebResource resource, String clusterName) {
+    this.clusterName = checkNotNull(clusterName);
+    this.resource = resource.path(clusterName);
+  }
+
+
+  @Override
+  public ListenableFuture<CommandList> getActiveCommands() {
+    return get(resource.path("commands"), CommandList.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> restartServices() {
+    return post(resource.path("commands").path("restart"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> startServices() {
+    return post(resource.path("commands").path("start"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> stopServices() {
+    return post(resource.path("commands").path("stop"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> upgradeServicesToCDH4() {
+    return post(resource.path("commands").path("upgradeServices"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<ServiceList> getServices() {
+    return get(resource.path("services"), ServiceList.class);
+  }
+
+  @Override
+  public ListenableFuture<ServiceList> registerServices(ServiceSetupList servicesToCreate) {
+    return post(resource.path("services"), ServiceList.class, servicesToCreate);
+  }
+
+  @Override
+  public ListenableFuture<Service> getServiceDetails(String serviceName) {
+    return get(resource.path("services").path(serviceName), Service.class);
+  }
+
+  @Override
+  public ListenableFuture<Service> deleteService(String serviceName) {
+    services.remove(serviceName);
+    return delete(resource.path("services").path(serviceName), Service.class);
+  }
+
+  @Override
+  public AsyncServiceAPI getService(String serviceName) {
+    AsyncServiceAPI service = services.get(serviceName);
+    if (service == null) {
+      AsyncServiceAPI created = new DefaultAsyncServiceAPI(resource, serviceName);
+      service = services.putIfAbsent(serviceName, created);
+      if (service == null) {
+        service = created;
+      }
+    }
+    return service;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncClusterAPI;
+import com.axemblr.service.cm.apis.AsyncClusters;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.delete;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.post;
+import com.axemblr.service.cm.models.clusters.Cluster;
+import com.axemblr.service.cm.models.clusters.ClusterList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Asynchronous Cloudera Manager /clusters API implementation.
+ */
+public class DefaultAsyncClusters implements AsyncClusters {
+
+  private final String mountPoint;
+  private final AsyncWebResource resource;
+  private final ConcurrentMap<String, AsyncClusterAPI> clusters =
+      new ConcurrentHashMap<String, AsyncClusterAPI>();
+
+  public DefaultAsyncClusters(AsyncWebResource resource) {
+    this("/api/v1/clusters", resource);
+  }
+
+  public DefaultAsyncClusters(String mountPoint, AsyncWebResource resource) {
+    this.mountPoint = mountPoint;
+    this.resource = resource.path(mountPoint);
+  }
+
+  public String getMountPoint() {
+    return mountPoint;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public ListenableFuture<ClusterList> createClusters(Set<Cluster> clustersToCreate) {
+    return post(resource, ClusterList.class, new ClusterList(clustersToCreate));
+  }
+
+  @Override
+  public ListenableFuture<ClusterList> getAllClusters() {
+    return get(resource, ClusterList.class);
+  }
+
+  @Override
+  public AsyncClusterAPI getCluster(String clusterName) {
+    AsyncClusterAPI cluster = clusters.get(clusterName);
+    if (cluster == null) {
+      AsyncClusterAPI created = new DefaultAsyncClusterAPI(resource, clusterName);
+      cluster = clusters.putIfAbsent(clusterName, created);
+      if (cluster == null) {
+        cluster = created;
+      }
+    }
+    return cluster;
+  }
+
+  @Override
+  public ListenableFuture<Cluster> getClusterDetails(String clusterName) {
+    return get(resource.path(clusterName), Cluster.class);
+  }
+
+  @Override
+  public ListenableFuture<Cluster> deleteCluster(String clusterName) {
+    clusters.remove(clusterName);
+    return delete(resource.path(clusterName), Cluster.class);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncCommands;
+import com.axemblr.service.cm.apis.PollingPolicy;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.post;
+import com.axemblr.service.cm.models.cm.BulkCommandList;
+import com.axemblr.service.cm.models.commands.Command;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+import java.util.List;
+
+/**
+ * Asynchronous Cloudera Manager Commands API implementation.
+ * <p/>
+ * http://cloudera.github.com/cm_api/apidocs/v1/path__commands_-commandId-.html
+ * http://cloudera.github.com/cm_api/apidocs/v1/path__commands_-commandId-_abort.html
+ */
+public class DefaultAsyncCommands implements AsyncCommands {
+
+  private final String mountPoint;
+  private final AsyncWebResource resource;
+  private CommandWatcher watcher;
+
+  public DefaultAsyncCommands(AsyncWebResource resource) {
+    this("/api/v1/commands", resource);
+  }
+
+  public DefaultAsyncCommands(String mountPoint, AsyncWebResource resource) {
+    this.mountPoint = checkNotNull(mountPoint);
+    this.resource = checkNotNull(resource).path(mountPoint);
+  }
+
+  public String getMountPoint() {
+    return mountPoint;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  /**
+   * The watcher used by the waitFor methods, created on first use.
+   */
+  public synchronized CommandWatcher getWatcher() {
+    if (watcher == null) {
+      watcher = new CommandWatcher(this);
+    }
+    return watcher;
+  }
+
+  @Override
+  public ListenableFuture<Command> details(long commandId) {
+    return get(resource.path(Long.toString(commandId)), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> details(Command command) {
+    return details(command.getId());
+  }
+
+  @Override
+  public ListenableFuture<Command> abort(long commandId) {
+    return post(resource.path(Long.toString(commandId)).path("abort"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> abort(Command command) {
+    return abort(command.getId());
+  }
+
+  @Override
+  public ListenableFuture<Command> waitFor(Command command) {
+    return getWatcher().watch(command);
+  }
+
+  @Override
+  public ListenableFuture<List<Command>> waitFor(List<Command> commands) {
+    return getWatcher().watch(commands);
+  }
+
+  @Override
+  public ListenableFuture<List<Command>> waitFor(BulkCommandList commandList) {
+    return waitFor(commandList.getItems());
+  }
+
+  @Override
+  public ListenableFuture<Command> waitFor(Command command, PollingPolicy policy) {
+    return getWatcher().watch(command, policy);
+  }
+
+  @Override
+  public ListenableFuture<List<Command>> waitFor(List<Command> commands, PollingPolicy policy) {
+    return getWatcher().watch(commands, policy);
+  }
+
+  @Override
+  public ListenableFuture<List<Command>> waitFor(BulkCommandList commandList, PollingPolicy policy) {
+    return waitFor(commandList.getItems(), policy);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncEvents;
+import com.axemblr.service.cm.models.events.Event;
+import com.axemblr.service.cm.models.events.EventQueryResult;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+/**
+ * Asynchronous Cloudera Manager /events API implementation.
+ */
+public class DefaultAsyncEvents implements AsyncEvents {
+
+  private final String mountPoint;
+  private AsyncWebResource resource;
+
+  public DefaultAsyncEvents(AsyncWebResource resource) {
+    this("/api/v1/events", resource);
+  }
+
+  public DefaultAsyncEvents(String mountPoint, AsyncWebResource resource) {
+    this.mountPoint = checkNotNull(mountPoint);
+    this.resource = resource.path(mountPoint);
+  }
+
+  public String getMountPoint() {
+    return mountPoint;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public ListenableFuture<EventQueryResult> queryEvents(int maxResults, int resultOffset, String query) {
+    return immediateFailedFuture(new UnsupportedOperationException("Not implemented yet."));
+  }
+
+  @Override
+  public ListenableFuture<Event> getEventById(String eventId) {
+    return immediateFailedFuture(new UnsupportedOperationException("Not implemented yet."));
+  }
+}
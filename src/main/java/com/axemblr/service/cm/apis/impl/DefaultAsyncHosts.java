@@ -0,0 +1,134 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncHosts;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.delete;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.post;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.put;
+import com.axemblr.service.cm.models.cm.Config;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.axemblr.service.cm.models.hosts.HostList;
+import com.axemblr.service.cm.models.hosts.MetricList;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Asynchronous Cloudera Manager Hosts API implementation.
+ * <p/>
+ * http://cloudera.github.com/cm_api/apidocs/v1/path__hosts.html
+ * http://cloudera.github.com/cm_api/apidocs/v1/path__hosts_-hostId-.html
+ * http://cloudera.github.com/cm_api/apidocs/v1/path__hosts_-hostId-_config.html
+ * http://cloudera.github.com/cm_api/apidocs/v1/path__hosts_-hostId-_metrics.html
+ */
+public class DefaultAsyncHosts implements AsyncHosts {
+
+  private final String mountPoint;
+  private final AsyncWebResource resource;
+
+  public DefaultAsyncHosts(AsyncWebResource resource) {
+    this("/api/v1/hosts", resource);
+  }
+
+  public DefaultAsyncHosts(String mountPoint, AsyncWebResource resource) {
+    this.mountPoint = checkNotNull(mountPoint);
+    this.resource = checkNotNull(resource).path(mountPoint);
+  }
+
+  public String getMountPoint() {
+    return mountPoint;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public ListenableFuture<HostList> createHosts(Set<Host> hostsToCreate) {
+    return post(resource, HostList.class, new HostList(hostsToCreate));
+  }
+
+  @Override
+  public ListenableFuture<HostList> list() {
+    return get(resource, HostList.class);
+  }
+
+  @Override
+  public ListenableFuture<HostList> deleteAll() {
+    return delete(resource, HostList.class);
+  }
+
+  @Override
+  public ListenableFuture<Host> getHostById(String hostId) {
+    return get(resource.path(hostId), Host.class);
+  }
+
+  @Override
+  public ListenableFuture<Host> updateHost(String hostId, Host updatedHost) {
+    return put(resource.path(checkNotNull(hostId)), Host.class, checkNotNull(updatedHost));
+  }
+
+  @Override
+  public ListenableFuture<Host> removeHostById(String hostId) {
+    return delete(resource.path(hostId), Host.class);
+  }
+
+  @Override
+  public ListenableFuture<Host> removeHost(Host host) {
+    return removeHostById(checkNotNull(host).getHostId());
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> getHostConfig(String hostId) {
+    return get(resource.path(hostId).path("config"), ConfigList.class);
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> getHostConfig(Host host) {
+    return getHostConfig(checkNotNull(host).getHostId());
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> updateHostConfig(String hostId, List<Config> newConfig) {
+    return put(resource.path(hostId).path("config"), ConfigList.class, new ConfigList(newConfig));
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> updateHostConfig(Host host, List<Config> newConfig) {
+    return updateHostConfig(checkNotNull(host).getHostId(), newConfig);
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> updateHostConfig(String hostId, List<Config> newConfig, String message) {
+    if (message != null) {
+      return put(resource.path(hostId).path("config")
+          .queryParam("message", message), ConfigList.class, new ConfigList(newConfig));
+    } else {
+      return updateHostConfig(hostId, newConfig);
+    }
+  }
+
+  @Override
+  public ListenableFuture<MetricList> getHostMetrics(String hostId,
+                                                     String startDate,
+                                                     String endDate,
+                                                     boolean queryNetwork,
+                                                     String interfaces,
+                                                     boolean queryStorage,
+                                                     String storageIds,
+                                                     String metrics) {
+    return immediateFailedFuture(new UnsupportedOperationException("Not yet supported"));
+  }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncServiceAPI;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.delete;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.post;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.put;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ACTIVITIES;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ACTIVITY_CHILDREN;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ACTIVITY_METRICS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.COMMAND;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.COMMANDS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.CONFIG;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.CONFIG_VIEW;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.HDFS_FAILOVER;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.METRICS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.NAME_SERVICE;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.NAME_SERVICES;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.NAME_SERVICE_METRICS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLES;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_COMMAND;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_COMMANDS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_CONFIG;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_LOG;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_METRICS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.SIMILAR_ACTIVITIES;
+import com.axemblr.service.cm.models.clusters.ActivityList;
+import com.axemblr.service.cm.models.clusters.HdfsDisableHaArguments;
+import com.axemblr.service.cm.models.clusters.HdfsFailoverArguments;
+import com.axemblr.service.cm.models.clusters.HdfsHaArguments;
+import com.axemblr.service.cm.models.clusters.NameService;
+import com.axemblr.service.cm.models.clusters.NameServiceList;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.cm.BulkCommandList;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleNameList;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import com.axemblr.service.cm.models.hosts.MetricList;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+/**
+ * Asynchronous implementation for Cluster Service API
+ */
+public class DefaultAsyncServiceAPI implements AsyncServiceAPI {
+
+  private final String serviceName;
+  private final AsyncWebResource resource;
+
+  public DefaultAsyncServiceAPI(AsyncWebResource clusterResource, String serviceName) {
+    this.serviceName = checkNotNull(serviceName);
+    this.resource = clusterResource.path("services").path(serviceName);
+  }
+
+  public String getServiceName() {
+    return serviceName;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public ListenableFuture<ActivityList> getAllActivities(String query, int resultOffset, int maxResults) {
+    return get(ACTIVITIES.resolve(resource, query, Integer.toString(maxResults),
+        Integer.toString(resultOffset)), ActivityList.class);
+  }
+
+  @Override
+  public ListenableFuture<ActivityList> getActivityChildren(String activityId, int maxResults, int resultOffset) {
+    return get(ACTIVITY_CHILDREN.resolve(resource, activityId, Integer.toString(maxResults),
+        Integer.toString(resultOffset)), ActivityList.class);
+  }
+
+  @Override
+  public ListenableFuture<MetricList> getActivityMetrics(String activityId, long from, long to, String query) {
+    return get(ACTIVITY_METRICS.resolve(resource, activityId, Long.toString(from),
+        Long.toString(to), query), MetricList.class);
+  }
+
+  @Override
+  public ListenableFuture<ActivityList> getSimilarActivities(String activityId) {
+    return get(SIMILAR_ACTIVITIES.resolve(resource, activityId), ActivityList.class);
+  }
+
+  @Override
+  public ListenableFuture<CommandList> getActiveCommands() {
+    return get(COMMANDS.resolve(resource), CommandList.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> decommissionRoles(RoleNameList rolesToDecommission) {
+    return post(COMMAND.resolve(resource, "decommission"), Command.class, rolesToDecommission);
+  }
+
+  @Override
+  public ListenableFuture<Command> deployClientConfig(RoleNameList rolesToConfigure) {
+    return post(COMMAND.resolve(resource, "deployClientConfig"), Command.class, rolesToConfigure);
+  }
+
+  @Override
+  public ListenableFuture<Command> createHBaseRoot() {
+    return post(COMMAND.resolve(resource, "hbaseCreateRoot"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> disableHdfsAutoFailover() {
+    return immediateFailedFuture(new UnsupportedOperationException("Not implemented yet"));
+    // see request body: http://cloudera.github.com/cm_api/apidocs/v1/path__clusters_-clusterName-_services_-serviceName-_commands_hdfsDisableAutoFailover.html
+    //return post(COMMAND.resolve(resource, "hdfsDisableAutoFailover"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> enableHdfsAutoFailover(HdfsFailoverArguments failoverArguments) {
+    return post(COMMAND.resolve(resource, "hdfsEnableAutoFailover"), Command.class, failoverArguments);
+  }
+
+  @Override
+  public ListenableFuture<Command> disableHdfsHa(HdfsDisableHaArguments disableHaArguments) {
+    return post(COMMAND.resolve(resource, "hdfsDisableHa"), Command.class, disableHaArguments);
+  }
+
+  @Override
+  public ListenableFuture<Command> enableHdfsHa(HdfsHaArguments haArguments) {
+    return post(COMMAND.resolve(resource, "hdfsEnableHa"), Command.class, haArguments);
+  }
+
+  @Override
+  public ListenableFuture<Command> hdfsFailover(RoleNameList names, boolean forceFailover) {
+    return post(HDFS_FAILOVER.resolve(resource, Boolean.toString(forceFailover)), Command.class, names);
+  }
+
+  @Override
+  public ListenableFuture<Command> hueCreateHiveWarehouse() {
+    return post(COMMAND.resolve(resource, "hueCreateHiveWarehouse"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> restart() {
+    return post(COMMAND.resolve(resource, "restart"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> start() {
+    return post(COMMAND.resolve(resource, "start"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> stop() {
+    return post(COMMAND.resolve(resource, "stop"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> cleanUpZookeeper() {
+    return post(COMMAND.resolve(resource, "zooKeeperCleanup"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<Command> initZooKeeper() {
+    return post(COMMAND.resolve(resource, "zooKeeperInit"), Command.class);
+  }
+
+  @Override
+  public ListenableFuture<ServiceConfig> getConfig() {
+    return get(CONFIG.resolve(resource), ServiceConfig.class);
+  }
+
+  @Override
+  public ListenableFuture<ServiceConfig> getConfig(boolean fullView) {
+    if (fullView) {
+      return get(CONFIG_VIEW.resolve(resource, "full"), ServiceConfig.class);
+    }
+    return get(CONFIG.resolve(resource), ServiceConfig.class);
+  }
+
+  @Override
+  public ListenableFuture<ServiceConfig> updateConfig(ServiceConfig newConfig) {
+    return put(CONFIG.resolve(resource), ServiceConfig.class, newConfig);
+  }
+
+  @Override
+  public ListenableFuture<MetricList> getMetrics(long from, long to, String metrics) {
+    return get(METRICS.resolve(resource, Long.toString(from), Long.toString(to), metrics), MetricList.class);
+  }
+
+  @Override
+  public ListenableFuture<NameServiceList> getNameServices() {
+    return get(NAME_SERVICES.resolve(resource), NameServiceList.class);
+  }
+
+  @Override
+  public ListenableFuture<NameService> getNameServiceDetails(String nameService) {
+    return get(NAME_SERVICE.resolve(resource, nameService), NameService.class);
+  }
+
+  @Override
+  public ListenableFuture<MetricList> getNameServiceMetrics(String nameservice, String metrics, long from, long to) {
+    return get(NAME_SERVICE_METRICS.resolve(resource, nameservice, metrics, Long.toString(from),
+        Long.toString(to)), MetricList.class);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> bootstrapHdfsStandby(RoleNameList standByNodes) {
+    return post(ROLE_COMMAND.resolve(resource, "hdfsBootstrapStandBy"), BulkCommandList.class, standByNodes);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> hdfsFormat(RoleNameList nameNodesToFormat) {
+    return post(ROLE_COMMAND.resolve(resource, "hdfsFormat"), BulkCommandList.class, nameNodesToFormat);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> hdfsInitializeAutoFailover(RoleNameList controllersToInitialize) {
+    return post(ROLE_COMMAND.resolve(resource, "hdfsInitializaAutoFailover"),
+        BulkCommandList.class, controllersToInitialize);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> hdfsInitializeSharedDir(RoleNameList roleNames) {
+    return post(ROLE_COMMAND.resolve(resource, "hdfsInitializeSharedDir"), BulkCommandList.class, roleNames);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> hueSyncDb(RoleNameList hueServerRoles) {
+    return post(ROLE_COMMAND.resolve(resource, "hueSyncDb"), BulkCommandList.class, hueServerRoles);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> refresh(RoleNameList rolesNames) {
+    return post(ROLE_COMMAND.resolve(resource, "refresh"), BulkCommandList.class, rolesNames);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> restart(RoleNameList roleNames) {
+    return post(ROLE_COMMAND.resolve(resource, "restart"), BulkCommandList.class, roleNames);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> start(RoleNameList roleNames) {
+    return post(ROLE_COMMAND.resolve(resource, "start"), BulkCommandList.class, roleNames);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> stop(RoleNameList roleNames) {
+    return post(ROLE_COMMAND.resolve(resource, "stop"), BulkCommandList.class, roleNames);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> zooKeeperCleanUp(RoleNameList roleNames) {
+    return post(ROLE_COMMAND.resolve(resource, "zooKeeperCleanup"), BulkCommandList.class, roleNames);
+  }
+
+  @Override
+  public ListenableFuture<BulkCommandList> zooKeeperInit(RoleNameList roleNames) {
+    return post(ROLE_COMMAND.resolve(resource, "zooKeeperInit"), BulkCommandList.class, roleNames);
+  }
+
+  @Override
+  public ListenableFuture<RoleList> getRoles() {
+    return get(ROLES.resolve(resource), RoleList.class);
+  }
+
+  @Override
+  public ListenableFuture<RoleList> createRoles(RoleList newRoles) {
+    return post(ROLES.resolve(resource), RoleList.class, newRoles);
+  }
+
+  @Override
+  public ListenableFuture<Role> getRoleDetails(String roleName) {
+    return get(ROLE.resolve(resource, roleName), Role.class);
+  }
+
+  @Override
+  public ListenableFuture<Role> deleteRole(String roleName) {
+    return delete(ROLE.resolve(resource, roleName), Role.class);
+  }
+
+  @Override
+  public ListenableFuture<CommandList> getActiveRoleCommands(String roleName) {
+    return get(ROLE_COMMANDS.resolve(resource, roleName), CommandList.class);
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> getRoleConfig(String roleName) {
+    return get(ROLE_CONFIG.resolve(resource, roleName, null), ConfigList.class);
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> updateRoleConfig(String roleName, ConfigList newConfig, String message) {
+    return put(ROLE_CONFIG.resolve(resource, roleName, message), ConfigList.class, newConfig);
+  }
+
+  @Override
+  public ListenableFuture<ConfigList> updateRoleConfig(String roleName, ConfigList newConfig) {
+    return updateRoleConfig(roleName, newConfig, null);
+  }
+
+  @Override
+  public ListenableFuture<String> getRoleFullLog(String roleName) {
+    return get(ROLE_LOG.resolve(resource, roleName, "full"), String.class);
+  }
+
+  @Override
+  public ListenableFuture<String> getRoleStandrdError(String roleName) {
+    return get(ROLE_LOG.resolve(resource, roleName, "stderr"), String.class);
+  }
+
+  @Override
+  public ListenableFuture<String> getRoleStandardOut(String roleName) {
+    return get(ROLE_LOG.resolve(resource, roleName, "stdout"), String.class);
+  }
+
+  @Override
+  public ListenableFuture<MetricList> getRoleMetrics(String roleName, String metrics, long from, long to) {
+    return get(ROLE_METRICS.resolve(resource, roleName, metrics, Long.toString(from),
+        Long.toString(to)), MetricList.class);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncTools;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import com.axemblr.service.cm.models.tools.EchoMessage;
+import com.axemblr.service.cm.models.tools.ErrorMessage;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Asynchronous implementation for Cloudera Manager tools API.
+ * <p/>
+ * http://cloudera.github.com/cm_api/apidocs/v1/path__tools_echo.html
+ */
+public class DefaultAsyncTools implements AsyncTools {
+
+  private final String mountPoint;
+  private final AsyncWebResource resource;
+
+  public DefaultAsyncTools(AsyncWebResource resource) {
+    this("/api/v1/tools", resource);
+  }
+
+  public DefaultAsyncTools(String mountPoint, AsyncWebResource resource) {
+    this.mountPoint = checkNotNull(mountPoint);
+    this.resource = checkNotNull(resource).path(mountPoint);
+  }
+
+  public String getMountPoint() {
+    return mountPoint;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public ListenableFuture<EchoMessage> echo(String message) {
+    return get(resource.path("/echo")
+        .queryParam("message", message)
+        .accept(MediaType.APPLICATION_JSON_TYPE), EchoMessage.class);
+  }
+
+  @Override
+  public ListenableFuture<ErrorMessage> echoError(String message) {
+    return get(resource.path("/echoError")
+        .queryParam("message", message)
+        .accept(MediaType.APPLICATION_JSON_TYPE), ErrorMessage.class);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncUsers;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.get;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.post;
+import static com.axemblr.service.cm.apis.impl.ListenableResponses.put;
+import com.axemblr.service.cm.models.users.User;
+import com.axemblr.service.cm.models.users.UserList;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncWebResource;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Set;
+
+/**
+ * Asynchronous implementation for User API.
+ * <p/>
+ * http://cloudera.github.com/cm_api/apidocs/v1/path__users_-userName-.html
+ */
+public class DefaultAsyncUsers implements AsyncUsers {
+
+  private final String mountPoint;
+  private final AsyncWebResource resource;
+
+
+  public DefaultAsyncUsers(AsyncWebResource resource) {
+    this("/api/v1/users", resource);
+  }
+
+  public DefaultAsyncUsers(String mountPoint, AsyncWebResource origin) {
+    this.mountPoint = checkNotNull(mountPoint);
+    this.resource = checkNotNull(origin).path(mountPoint);
+  }
+
+  public String getMountPoint() {
+    return mountPoint;
+  }
+
+  public AsyncWebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public ListenableFuture<UserList> createUsers(Set<User> usersToCreate) {
+    return post(resource.type(MediaType.APPLICATION_JSON_TYPE), UserList.class, new UserList(usersToCreate));
+  }
+
+  @Override
+  public ListenableFuture<UserList> list() {
+    return get(resource, UserList.class);
+  }
+
+  @Override
+  public ListenableFuture<User> delete(String user) {
+    return ListenableResponses.delete(resource.path(user), User.class);
+  }
+
+  @Override
+  public ListenableFuture<User> delete(User user) {
+    return delete(user.getName());
+  }
+
+  @Override
+  public ListenableFuture<User> details(String user) {
+    return get(resource.path(user), User.class);
+  }
+
+  @Override
+  public ListenableFuture<User> update(User updatedInfo) {
+    return put(resource.path(updatedInfo.getName()), User.class, updatedInfo);
+  }
+}
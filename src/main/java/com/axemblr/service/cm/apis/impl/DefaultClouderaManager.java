@@ -10,6 +10,7 @@ package com.axemblr.service.cm.apis.impl;
 import com.axemblr.service.cm.apis.ClouderaManagementCommands;
 import com.axemblr.service.cm.apis.ClouderaManagementService;
 import com.axemblr.service.cm.apis.ClouderaManager;
+import com.axemblr.service.cm.apis.RemoteLog;
 import com.axemblr.service.cm.models.cm.CmVersionInfo;
 import com.axemblr.service.cm.models.cm.CollectDiagnosticDataArguments;
 import com.axemblr.service.cm.models.cm.Config;
@@ -29,6 +30,7 @@ public class DefaultClouderaManager implements ClouderaManager, ClouderaManageme
 
   private final String mountPoint;
   private final WebResource resource;
+  private final ClouderaManagementService service;
 
   public DefaultClouderaManager(WebResource resource) {
     this("/api/v1/cm", resource);
@@ -37,6 +39,7 @@ public class DefaultClouderaManager implements ClouderaManager, ClouderaManageme
   public DefaultClouderaManager(String mountPoint, WebResource resource) {
     this.mountPoint = checkNotNull(mountPoint);
     this.resource = checkNotNull(resource).path(mountPoint);
+    this.service = new DefaultClouderaManagementService(this.resource);
   }
 
   public String getMountPoint() {
@@ -57,6 +60,11 @@ public class DefaultClouderaManager implements ClouderaManager, ClouderaManageme
     return resource.path("log").get(String.class);
   }
 
+  @Override
+  public RemoteLog getLog() {
+    return new DefaultRemoteLog(resource.path("log"));
+  }
+
   @Override
   public License getLicense() {
     return resource.path("license").get(License.class);
@@ -79,7 +87,7 @@ public class DefaultClouderaManager implements ClouderaManager, ClouderaManageme
 
   @Override
   public ClouderaManagementService getService() {
-    return new DefaultClouderaManagementService(resource);
+    return service;
   }
 
 
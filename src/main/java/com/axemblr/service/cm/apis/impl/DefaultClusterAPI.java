@@ -7,6 +7,7 @@
 
 package com.axemblr.service.cm.apis.impl;
 
+import com.axemblr.service.cm.apis.CloseableIterator;
 import com.axemblr.service.cm.apis.ClusterAPI;
 import com.axemblr.service.cm.apis.ServiceAPI;
 import com.axemblr.service.cm.models.cm.Service;
@@ -15,8 +16,12 @@ import com.axemblr.service.cm.models.cm.ServiceSetupList;
 import com.axemblr.service.cm.models.commands.Command;
 import com.axemblr.service.cm.models.commands.CommandList;
 import static com.google.common.base.Preconditions.checkNotNull;
+import com.sun.jersey.api.client.GenericType;
 import com.sun.jersey.api.client.WebResource;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Cloudera Manager /clusters/{cluster} API implementation.
  */
@@ -24,6 +29,8 @@ public class DefaultClusterAPI implements ClusterAPI {
 
   private final String clusterName;
   private final WebResource resource;
+  private final ConcurrentMap<String, ServiceAPI> services =
+      new ConcurrentHashMap<String, ServiceAPI>();
 
   public DefaultClusterAPI(WebResource resource, String clusterName) {
     this.clusterName = checkNotNull(clusterName);
@@ -61,6 +68,12 @@ public class DefaultClusterAPI implements ClusterAPI {
     return resource.path("services").get(ServiceList.class);
   }
 
+  @Override
+  public CloseableIterator<Service> streamServices() {
+    return resource.path("services").get(new GenericType<CloseableIterator<Service>>() {
+    });
+  }
+
   @Override
   public ServiceList registerServices(ServiceSetupList servicesToCreate) {
     return resource.path("services").post(ServiceList.class, servicesToCreate);
@@ -73,11 +86,20 @@ public class DefaultClusterAPI implements ClusterAPI {
 
   @Override
   public Service deleteService(String serviceName) {
+    services.remove(serviceName);
     return resource.path("services").path(serviceName).delete(Service.class);
   }
 
   @Override
   public ServiceAPI getService(String serviceName) {
-    return new DefaultServiceAPI(resource, serviceName);
+    ServiceAPI service = services.get(serviceName);
+    if (service == null) {
+      ServiceAPI created = new DefaultServiceAPI(resource, serviceName);
+      service = services.putIfAbsent(serviceName, created);
+      if (service == null) {
+        service = created;
+      }
+    }
+    return service;
   }
 }
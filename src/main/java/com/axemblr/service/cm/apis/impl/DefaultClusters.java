@@ -14,6 +14,8 @@ import com.axemblr.service.cm.models.clusters.ClusterList;
 import com.sun.jersey.api.client.WebResource;
 
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Cloudera Manager /clusters API implementation.
@@ -22,6 +24,8 @@ public class DefaultClusters implements Clusters {
 
   private final String mountPoint;
   private final WebResource resource;
+  private final ConcurrentMap<String, ClusterAPI> clusters =
+      new ConcurrentHashMap<String, ClusterAPI>();
 
   public DefaultClusters(WebResource resource) {
     this("/api/v1/clusters", resource);
@@ -52,7 +56,15 @@ public class DefaultClusters implements Clusters {
 
   @Override
   public ClusterAPI getCluster(String clusterName) {
-    return new DefaultClusterAPI(resource, clusterName);
+    ClusterAPI cluster = clusters.get(clusterName);
+    if (cluster == null) {
+      ClusterAPI created = new DefaultClusterAPI(resource, clusterName);
+      cluster = clusters.putIfAbsent(clusterName, created);
+      if (cluster == null) {
+        cluster = created;
+      }
+    }
+    return cluster;
   }
 
   @Override
@@ -62,6 +74,7 @@ public class DefaultClusters implements Clusters {
 
   @Override
   public Cluster deleteCluster(String clusterName) {
+    clusters.remove(clusterName);
     return resource.path(clusterName).delete(Cluster.class);
   }
 }
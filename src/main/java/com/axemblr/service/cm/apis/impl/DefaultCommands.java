@@ -8,6 +8,9 @@
 package com.axemblr.service.cm.apis.impl;
 
 import com.axemblr.service.cm.apis.Commands;
+import com.axemblr.service.cm.apis.PollingPolicy;
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
 import com.axemblr.service.cm.models.cm.BulkCommandList;
 import com.axemblr.service.cm.models.commands.Command;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -17,7 +20,10 @@ import com.google.common.collect.Lists;
 import com.sun.jersey.api.client.WebResource;
 
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Cloudera Manager Commands API implementation.
@@ -27,20 +33,44 @@ import java.util.concurrent.TimeUnit;
  */
 public class DefaultCommands implements Commands {
 
+  /**
+   * @deprecated the waitFor methods follow {@link PollingPolicy#defaults()} unless told otherwise
+   */
+  @Deprecated
   public static final int DEFAULT_RETRY_INTERVAL = 1;
 
   private final String mountPoint;
   private final WebResource resource;
-  private int retryInterval;
+  private final CommandWatcher watcher;
+  private volatile PollingPolicy pollingPolicy;
 
   public DefaultCommands(WebResource resource) {
     this("/api/v1/commands", resource);
   }
 
+  public DefaultCommands(WebResource resource, CommandWatcher watcher) {
+    this("/api/v1/commands", resource, watcher);
+  }
+
   public DefaultCommands(String mountPoint, WebResource resource) {
+    this(mountPoint, resource, null);
+  }
+
+  /**
+   * @param watcher when not null, lists of commands are waited for concurrently through the watcher
+   */
+  public DefaultCommands(String mountPoint, WebResource resource, CommandWatcher watcher) {
     this.mountPoint = checkNotNull(mountPoint);
     this.resource = checkNotNull(resource).path(mountPoint);
-    this.retryInterval = DEFAULT_RETRY_INTERVAL;
+    this.watcher = watcher;
+    this.pollingPolicy = PollingPolicy.defaults();
+  }
+
+  private DefaultCommands(DefaultCommands commands, PollingPolicy pollingPolicy) {
+    this.mountPoint = commands.mountPoint;
+    this.resource = commands.resource;
+    this.watcher = commands.watcher;
+    this.pollingPolicy = checkNotNull(pollingPolicy);
   }
 
   public String getMountPoint() {
@@ -63,7 +93,7 @@ public class DefaultCommands implements Commands {
 
   @Override
   public Command abort(Command command) {
-    return abort(command);
+    return abort(command.getId());
   }
 
   @Override
@@ -73,19 +103,44 @@ public class DefaultCommands implements Commands {
 
   @Override
   public Command waitFor(Command command) throws InterruptedException {
-    Command response = details(command);
-    while (response.isActive()) {
-      TimeUnit.SECONDS.sleep(getRetryInterval());
+    return waitFor(command, pollingPolicy);
+  }
+
+  @Override
+  public Command waitFor(Command command, PollingPolicy policy) throws InterruptedException {
+    checkNotNull(policy);
+    Deadline deadline = Deadline.current();
+    long startNanos = System.nanoTime();
+    int attempts = 0;
+    Command response = null;
+    long delayMs;
+    while ((delayMs = policy.nextDelayMs(attempts, elapsedMs(startNanos))) >= 0) {
+      if (deadline != null && delayMs >= deadline.remaining(TimeUnit.MILLISECONDS)) {
+        throw new DeadlineExceededException("Deadline expires before command " + command.getId() + " finished");
+      }
+      TimeUnit.MILLISECONDS.sleep(delayMs);
       response = details(command);
+      attempts++;
+      if (!response.isActive()) {
+        break;
+      }
     }
     return response;
   }
 
   @Override
   public List<Command> waitFor(List<Command> commands) throws InterruptedException {
+    return waitFor(commands, pollingPolicy);
+  }
+
+  @Override
+  public List<Command> waitFor(List<Command> commands, PollingPolicy policy) throws InterruptedException {
+    if (watcher != null) {
+      return ImmutableList.copyOf(getResult(watcher.watch(commands, policy)));
+    }
     List<Command> finishedCommands = Lists.newArrayList();
     for (Command cmd : commands) {
-      finishedCommands.add(waitFor(cmd));
+      finishedCommands.add(waitFor(cmd, policy));
     }
     return ImmutableList.copyOf(finishedCommands);
   }
@@ -96,14 +151,62 @@ public class DefaultCommands implements Commands {
     return waitFor(commandList.getItems());
   }
 
+  @Override
+  public List<Command> waitFor(BulkCommandList commandList, PollingPolicy policy) throws InterruptedException {
+    return waitFor(commandList.getItems(), policy);
+  }
+
+  /**
+   * Changes the policy of this object, and of every caller that shares it, to a fixed interval.
+   */
   @Override
   public Commands withQueryInterval(int seconds) {
     checkArgument(seconds > 0, "Retry interval must be larger than 0 seconds");
-    this.retryInterval = seconds;
+    this.pollingPolicy = PollingPolicy.fixed(seconds, TimeUnit.SECONDS);
     return this;
   }
 
+  @Override
+  public Commands withPollingPolicy(PollingPolicy policy) {
+    return new DefaultCommands(this, policy);
+  }
+
+  public PollingPolicy getPollingPolicy() {
+    return pollingPolicy;
+  }
+
+  /**
+   * @return the interval between the first queries of the polling policy, rounded up to whole seconds
+   * @deprecated use {@link #getPollingPolicy()}
+   */
+  @Deprecated
   public int getRetryInterval() {
-    return retryInterval;
+    return (int) TimeUnit.MILLISECONDS.toSeconds(pollingPolicy.getInitialIntervalMs() + 999);
+  }
+
+  public CommandWatcher getWatcher() {
+    return watcher;
+  }
+
+  private static long elapsedMs(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+
+  private static <T> T getResult(Future<T> future) throws InterruptedException {
+    Deadline deadline = Deadline.current();
+    try {
+      return (deadline == null) ? future.get() : future.get(deadline.remaining(TimeUnit.NANOSECONDS),
+          TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      future.cancel(false);
+      throw e;
+    } catch (TimeoutException e) {
+      throw new DeadlineExceededException("Deadline expired waiting for commands to finish", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
   }
 }
@@ -7,6 +7,7 @@
 
 package com.axemblr.service.cm.apis.impl;
 
+import com.axemblr.service.cm.apis.CloseableIterator;
 import com.axemblr.service.cm.apis.Hosts;
 import com.axemblr.service.cm.models.cm.Config;
 import com.axemblr.service.cm.models.cm.ConfigList;
@@ -14,6 +15,7 @@ import com.axemblr.service.cm.models.hosts.Host;
 import com.axemblr.service.cm.models.hosts.HostList;
 import com.axemblr.service.cm.models.hosts.MetricList;
 import static com.google.common.base.Preconditions.checkNotNull;
+import com.sun.jersey.api.client.GenericType;
 import com.sun.jersey.api.client.WebResource;
 
 import java.util.List;
@@ -59,6 +61,12 @@ public class DefaultHosts implements Hosts {
     return resource.get(HostList.class);
   }
 
+  @Override
+  public CloseableIterator<Host> streamHosts() {
+    return resource.get(new GenericType<CloseableIterator<Host>>() {
+    });
+  }
+
   @Override
   public HostList deleteAll() {
     return resource.delete(HostList.class);
@@ -0,0 +1,227 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.CloseableIterator;
+import com.axemblr.service.cm.apis.RemoteLog;
+import com.google.common.base.Charsets;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closeables;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.UniformInterfaceException;
+import com.sun.jersey.api.client.WebResource;
+
+import javax.ws.rs.core.MediaType;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Log file read from a plain text resource, e.g. /cm/log or /clusters/{c}/services/{s}/roles/{r}/logs/full.
+ */
+public class DefaultRemoteLog implements RemoteLog {
+
+  private static final int RANGE_NOT_SATISFIABLE = 416;
+  private static final long TRANSFER_CHUNK_BYTES = 1024 * 1024;
+
+  private final WebResource resource;
+
+  public DefaultRemoteLog(WebResource resource) {
+    this.resource = checkNotNull(resource, "resource is null");
+  }
+
+  public WebResource getResource() {
+    return resource;
+  }
+
+  @Override
+  public InputStream openStream() {
+    return fetch(null).getEntityInputStream();
+  }
+
+  @Override
+  public Reader openReader() {
+    return readerOf(fetch(null));
+  }
+
+  @Override
+  public CloseableIterator<String> lines() {
+    return new LineIterator(new BufferedReader(openReader()));
+  }
+
+  @Override
+  public byte[] tailBytes(int maxBytes) {
+    checkArgument(maxBytes >= 0, "maxBytes must be positive or zero");
+    if (maxBytes == 0) {
+      return new byte[0];
+    }
+    ClientResponse response = fetch("bytes=-" + maxBytes);
+    if (response.getStatus() == RANGE_NOT_SATISFIABLE) {
+      response.close();
+      return new byte[0];  // empty log
+    }
+    InputStream in = response.getEntityInputStream();
+    try {
+      // a server that ignored the range sends the whole log, read it through keeping only the end
+      return tailBytes(in, maxBytes);
+    } catch (IOException e) {
+      throw new ClientHandlerException(e);
+    } finally {
+      Closeables.closeQuietly(in);
+    }
+  }
+
+  @Override
+  public List<String> tailLines(int maxLines) {
+    checkArgument(maxLines >= 0, "maxLines must be positive or zero");
+    Reader reader = openReader();
+    try {
+      return tailLines(reader, maxLines);
+    } catch (IOException e) {
+      throw new ClientHandlerException(e);
+    } finally {
+      Closeables.closeQuietly(reader);
+    }
+  }
+
+  @Override
+  public long writeTo(File target) throws IOException {
+    checkNotNull(target, "target is null");
+    ReadableByteChannel source = Channels.newChannel(openStream());
+    try {
+      FileOutputStream out = new FileOutputStream(target);
+      try {
+        FileChannel channel = out.getChannel();
+        long position = 0;
+        long transferred;
+        while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK_BYTES)) > 0) {
+          position += transferred;
+        }
+        return position;
+      } finally {
+        out.close();
+      }
+    } finally {
+      Closeables.closeQuietly(source);
+    }
+  }
+
+  private ClientResponse fetch(String range) {
+    WebResource.Builder request = resource.accept(MediaType.TEXT_PLAIN_TYPE, MediaType.WILDCARD_TYPE);
+    if (range != null) {
+      request.header("Range", range);
+    }
+    ClientResponse response = request.get(ClientResponse.class);
+    if (response.getStatus() >= 300 && !(range != null && response.getStatus() == RANGE_NOT_SATISFIABLE)) {
+      throw new UniformInterfaceException(response);
+    }
+    return response;
+  }
+
+  private static Reader readerOf(ClientResponse response) {
+    Charset charset = Charsets.UTF_8;
+    MediaType type = response.getType();
+    String name = (type == null) ? null : type.getParameters().get("charset");
+    if (name != null) {
+      charset = Charset.forName(name);
+    }
+    return new InputStreamReader(response.getEntityInputStream(), charset);
+  }
+
+  /**
+   * Reads the stream to the end and returns the last bytes, using a ring buffer of {@code maxBytes}.
+   */
+  static byte[] tailBytes(InputStream in, int maxBytes) throws IOException {
+    byte[] ring = new byte[maxBytes];
+    long total = 0;
+    int read;
+    while ((read = in.read(ring, (int) (total % maxBytes), maxBytes - (int) (total % maxBytes))) != -1) {
+      total += read;
+    }
+    if (total <= maxBytes) {
+      byte[] result = new byte[(int) total];
+      System.arraycopy(ring, 0, result, 0, result.length);
+      return result;
+    }
+    int start = (int) (total % maxBytes);
+    byte[] result = new byte[maxBytes];
+    System.arraycopy(ring, start, result, 0, maxBytes - start);
+    System.arraycopy(ring, 0, result, maxBytes - start, start);
+    return result;
+  }
+
+  /**
+   * Reads the text to the end and returns the last lines, keeping at most {@code maxLines} in memory.
+   */
+  static List<String> tailLines(Reader reader, int maxLines) throws IOException {
+    if (maxLines == 0) {
+      return ImmutableList.of();
+    }
+    BufferedReader lines = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader);
+    Deque<String> tail = new ArrayDeque<String>(maxLines);
+    String line;
+    while ((line = lines.readLine()) != null) {
+      if (tail.size() == maxLines) {
+        tail.removeFirst();
+      }
+      tail.addLast(line);
+    }
+    return ImmutableList.copyOf(tail);
+  }
+
+  static class LineIterator extends AbstractIterator<String> implements CloseableIterator<String> {
+
+    private final BufferedReader reader;
+    private boolean closed;
+
+    LineIterator(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    protected String computeNext() {
+      if (closed) {
+        return endOfData();
+      }
+      try {
+        String line = reader.readLine();
+        if (line == null) {
+          close();
+          return endOfData();
+        }
+        return line;
+      } catch (IOException e) {
+        close();
+        throw new ClientHandlerException(e);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        Closeables.closeQuietly(reader);
+      }
+    }
+  }
+}
@@ -7,7 +7,31 @@
 
 package com.axemblr.service.cm.apis.impl;
 
+import com.axemblr.service.cm.apis.CloseableIterator;
+import com.axemblr.service.cm.apis.RemoteLog;
+import com.axemblr.service.cm.apis.RoleLogType;
 import com.axemblr.service.cm.apis.ServiceAPI;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ACTIVITIES;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ACTIVITY_CHILDREN;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ACTIVITY_METRICS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.COMMAND;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.COMMANDS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.CONFIG;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.CONFIG_VIEW;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.HDFS_FAILOVER;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.METRICS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.NAME_SERVICE;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.NAME_SERVICES;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.NAME_SERVICE_METRICS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLES;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_COMMAND;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_COMMANDS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_CONFIG;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_LOG;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.ROLE_METRICS;
+import static com.axemblr.service.cm.apis.impl.ServiceEndpoints.SIMILAR_ACTIVITIES;
+import com.axemblr.service.cm.models.clusters.Activity;
 import com.axemblr.service.cm.models.clusters.ActivityList;
 import com.axemblr.service.cm.models.clusters.HdfsDisableHaArguments;
 import com.axemblr.service.cm.models.clusters.HdfsFailoverArguments;
@@ -24,6 +48,7 @@ import com.axemblr.service.cm.models.commands.Command;
 import com.axemblr.service.cm.models.commands.CommandList;
 import com.axemblr.service.cm.models.hosts.MetricList;
 import static com.google.common.base.Preconditions.checkNotNull;
+import com.sun.jersey.api.client.GenericType;
 import com.sun.jersey.api.client.WebResource;
 
 /**
@@ -49,256 +74,247 @@ public class DefaultServiceAPI implements ServiceAPI {
 
   @Override
   public ActivityList getAllActivities(String query, int resultOffset, int maxResults) {
-    return resource.path("activities")
-        .queryParam("query", query)
-        .queryParam("maxResults", Integer.toString(maxResults))
-        .queryParam("resultOffset", Integer.toString(resultOffset))
+    return ACTIVITIES.resolve(resource, query, Integer.toString(maxResults), Integer.toString(resultOffset))
         .get(ActivityList.class);
   }
 
+  @Override
+  public CloseableIterator<Activity> streamAllActivities(String query, int resultOffset, int maxResults) {
+    return ACTIVITIES.resolve(resource, query, Integer.toString(maxResults), Integer.toString(resultOffset))
+        .get(new GenericType<CloseableIterator<Activity>>() {
+        });
+  }
+
   @Override
   public ActivityList getActivityChildren(String activityId, int maxResults, int resultOffset) {
-    return resource.path("activities").path(activityId).path("children")
-        .queryParam("maxResults", Integer.toString(maxResults))
-        .queryParam("resultOffset", Integer.toString(resultOffset))
+    return ACTIVITY_CHILDREN.resolve(resource, activityId, Integer.toString(maxResults),
+        Integer.toString(resultOffset))
         .get(ActivityList.class);
   }
 
   @Override
   public MetricList getActivityMetrics(String activityId, long from, long to, String query) {
-    return resource.path("activities").path(activityId).path("metrics")
-        .queryParam("from", Long.toString(from))
-        .queryParam("to", Long.toString(to))
-        .queryParam("query", query)
+    return ACTIVITY_METRICS.resolve(resource, activityId, Long.toString(from), Long.toString(to), query)
         .get(MetricList.class);
   }
 
   @Override
   public ActivityList getSimilarActivities(String activityId) {
-    return resource.path("activities").path(activityId).path("similar").get(ActivityList.class);
+    return SIMILAR_ACTIVITIES.resolve(resource, activityId).get(ActivityList.class);
   }
 
   @Override
   public CommandList getActiveCommands() {
-    return resource.path("commands").get(CommandList.class);
+    return COMMANDS.resolve(resource).get(CommandList.class);
   }
 
   @Override
   public Command decommissionRoles(RoleNameList rolesToDecommission) {
-    return resource.path("commands").path("decommission").post(Command.class, rolesToDecommission);
+    return COMMAND.resolve(resource, "decommission").post(Command.class, rolesToDecommission);
   }
 
   @Override
   public Command deployClientConfig(RoleNameList rolesToConfigure) {
-    return resource.path("commands").path("deployClientConfig").post(Command.class, rolesToConfigure);
+    return COMMAND.resolve(resource, "deployClientConfig").post(Command.class, rolesToConfigure);
   }
 
   @Override
   public Command createHBaseRoot() {
-    return resource.path("commands").path("hbaseCreateRoot").post(Command.class);
+    return COMMAND.resolve(resource, "hbaseCreateRoot").post(Command.class);
   }
 
   @Override
   public Command disableHdfsAutoFailover() {
     throw new UnsupportedOperationException("Not implemented yet");
     // see request body: http://cloudera.github.com/cm_api/apidocs/v1/path__clusters_-clusterName-_services_-serviceName-_commands_hdfsDisableAutoFailover.html
-    //return resource.path("commands").path("hdfsDisableAutoFailover").post(Command.class);
+    //return COMMAND.resolve(resource, "hdfsDisableAutoFailover").post(Command.class);
   }
 
   @Override
   public Command enableHdfsAutoFailover(HdfsFailoverArguments failoverArguments) {
-    return resource.path("commands").path("hdfsEnableAutoFailover").post(Command.class, failoverArguments);
+    return COMMAND.resolve(resource, "hdfsEnableAutoFailover").post(Command.class, failoverArguments);
   }
 
   @Override
   public Command disableHdfsHa(HdfsDisableHaArguments disableHaArguments) {
-    return resource.path("commands").path("hdfsDisableHa").post(Command.class, disableHaArguments);
+    return COMMAND.resolve(resource, "hdfsDisableHa").post(Command.class, disableHaArguments);
   }
 
   @Override
   public Command enableHdfsHa(HdfsHaArguments haArguments) {
-    return resource.path("commands").path("hdfsEnableHa").post(Command.class, haArguments);
+    return COMMAND.resolve(resource, "hdfsEnableHa").post(Command.class, haArguments);
   }
 
   @Override
   public Command hdfsFailover(RoleNameList names, boolean forceFailover) {
-    return resource.path("commands").path("hdfsFailover")
-        .queryParam("force", Boolean.toString(forceFailover))
-        .post(Command.class, names);
+    return HDFS_FAILOVER.resolve(resource, Boolean.toString(forceFailover)).post(Command.class, names);
   }
 
   @Override
   public Command hueCreateHiveWarehouse() {
-    return resource.path("commands").path("hueCreateHiveWarehouse").post(Command.class);
+    return COMMAND.resolve(resource, "hueCreateHiveWarehouse").post(Command.class);
   }
 
   @Override
   public Command restart() {
-    return resource.path("commands").path("restart").post(Command.class);
+    return COMMAND.resolve(resource, "restart").post(Command.class);
   }
 
   @Override
   public Command start() {
-    return resource.path("commands").path("start").post(Command.class);
+    return COMMAND.resolve(resource, "start").post(Command.class);
   }
 
   @Override
   public Command stop() {
-    return resource.path("commands").path("stop").post(Command.class);
+    return COMMAND.resolve(resource, "stop").post(Command.class);
   }
 
   @Override
   public Command cleanUpZookeeper() {
-    return resource.path("commands").path("zooKeeperCleanup").post(Command.class);
+    return COMMAND.resolve(resource, "zooKeeperCleanup").post(Command.class);
   }
 
   @Override
   public Command initZooKeeper() {
-    return resource.path("commands").path("zooKeeperInit").post(Command.class);
+    return COMMAND.resolve(resource, "zooKeeperInit").post(Command.class);
   }
 
   @Override
   public ServiceConfig getConfig() {
-    return resource.path("config").get(ServiceConfig.class);
+    return CONFIG.resolve(resource).get(ServiceConfig.class);
   }
 
   @Override
   public ServiceConfig getConfig(boolean fullView) {
     if (fullView) {
-      return resource.path("config").queryParam("view", "full").get(ServiceConfig.class);
+      return CONFIG_VIEW.resolve(resource, "full").get(ServiceConfig.class);
     }
-    return resource.path("config").get(ServiceConfig.class);
+    return CONFIG.resolve(resource).get(ServiceConfig.class);
   }
 
   @Override
   public ServiceConfig updateConfig(ServiceConfig newConfig) {
-    return resource.path("config").put(ServiceConfig.class, newConfig);
+    return CONFIG.resolve(resource).put(ServiceConfig.class, newConfig);
   }
 
   @Override
   public MetricList getMetrics(long from, long to, String metrics) {
-    return resource.path("metrics")
-        .queryParam("from", Long.toString(from))
-        .queryParam("to", Long.toString(to))
-        .queryParam("metrics", metrics)
+    return METRICS.resolve(resource, Long.toString(from), Long.toString(to), metrics)
         .get(MetricList.class);
   }
 
   @Override
   public NameServiceList getNameServices() {
-    return resource.path("nameservices").get(NameServiceList.class);
+    return NAME_SERVICES.resolve(resource).get(NameServiceList.class);
   }
 
   @Override
   public NameService getNameServiceDetails(String nameService) {
-    return resource.path("nameservice").path(nameService).get(NameService.class);
+    return NAME_SERVICE.resolve(resource, nameService).get(NameService.class);
   }
 
   @Override
   public MetricList getNameServiceMetrics(String nameservice, String metrics, long from, long to) {
-    return resource.path(nameservice).path("metrics")
-        .queryParam("metrics", metrics)
-        .queryParam("from", Long.toString(from))
-        .queryParam("to", Long.toString(to))
+    return NAME_SERVICE_METRICS.resolve(resource, nameservice, metrics, Long.toString(from), Long.toString(to))
         .get(MetricList.class);
   }
 
   @Override
   public BulkCommandList bootstrapHdfsStandby(RoleNameList standByNodes) {
-    return resource.path("roleCommands").path("hdfsBootstrapStandBy").post(BulkCommandList.class, standByNodes);
+    return ROLE_COMMAND.resolve(resource, "hdfsBootstrapStandBy").post(BulkCommandList.class, standByNodes);
   }
 
   @Override
   public BulkCommandList hdfsFormat(RoleNameList nameNodesToFormat) {
-    return resource.path("roleCommands").path("hdfsFormat").post(BulkCommandList.class, nameNodesToFormat);
+    return ROLE_COMMAND.resolve(resource, "hdfsFormat").post(BulkCommandList.class, nameNodesToFormat);
   }
 
   @Override
   public BulkCommandList hdfsInitializeAutoFailover(RoleNameList controllersToInitialize) {
-    return resource.path("roleCommands").path("hdfsInitializaAutoFailover")
+    return ROLE_COMMAND.resolve(resource, "hdfsInitializaAutoFailover")
         .post(BulkCommandList.class, controllersToInitialize);
   }
 
   @Override
   public BulkCommandList hdfsInitializeSharedDir(RoleNameList roleNames) {
-    return resource.path("roleCommands").path("hdfsInitializeSharedDir").post(BulkCommandList.class, roleNames);
+    return ROLE_COMMAND.resolve(resource, "hdfsInitializeSharedDir").post(BulkCommandList.class, roleNames);
   }
 
   @Override
   public BulkCommandList hueSyncDb(RoleNameList hueServerRoles) {
-    return resource.path("roleCommands").path("hueSyncDb").post(BulkCommandList.class, hueServerRoles);
+    return ROLE_COMMAND.resolve(resource, "hueSyncDb").post(BulkCommandList.class, hueServerRoles);
   }
 
   @Override
   public BulkCommandList refresh(RoleNameList rolesNames) {
-    return resource.path("roleCommands").path("refresh").post(BulkCommandList.class, rolesNames);
+    return ROLE_COMMAND.resolve(resource, "refresh").post(BulkCommandList.class, rolesNames);
   }
 
   @Override
   public BulkCommandList restart(RoleNameList roleNames) {
-    return resource.path("roleCommands").path("restart").post(BulkCommandList.class, roleNames);
+    return ROLE_COMMAND.resolve(resource, "restart").post(BulkCommandList.class, roleNames);
   }
 
   @Override
   public BulkCommandList start(RoleNameList roleNames) {
-    return resource.path("roleCommands").path("start").post(BulkCommandList.class, roleNames);
+    return ROLE_COMMAND.resolve(resource, "start").post(BulkCommandList.class, roleNames);
   }
 
   @Override
   public BulkCommandList stop(RoleNameList roleNames) {
-    return resource.path("roleCommands").path("stop").post(BulkCommandList.class, roleNames);
+    return ROLE_COMMAND.resolve(resource, "stop").post(BulkCommandList.class, roleNames);
   }
 
   @Override
   public BulkCommandList zooKeeperCleanUp(RoleNameList roleNames) {
-    return resource.path("roleCommands").path("zooKeeperCleanup").post(BulkCommandList.class, roleNames);
+    return ROLE_COMMAND.resolve(resource, "zooKeeperCleanup").post(BulkCommandList.class, roleNames);
   }
 
   @Override
   public BulkCommandList zooKeeperInit(RoleNameList roleNames) {
-    return resource.path("roleCommands").path("zooKeeperInit").post(BulkCommandList.class, roleNames);
+    return ROLE_COMMAND.resolve(resource, "zooKeeperInit").post(BulkCommandList.class, roleNames);
   }
 
   @Override
   public RoleList getRoles() {
-    return resource.path("roles").get(RoleList.class);
+    return ROLES.resolve(resource).get(RoleList.class);
+  }
+
+  @Override
+  public CloseableIterator<Role> streamRoles() {
+    return ROLES.resolve(resource).get(new GenericType<CloseableIterator<Role>>() {
+    });
   }
 
   @Override
   public RoleList createRoles(RoleList newRoles) {
-    return resource.path("roles").post(RoleList.class, newRoles);
+    return ROLES.resolve(resource).post(RoleList.class, newRoles);
   }
 
   @Override
   public Role getRoleDetails(String roleName) {
-    return resource.path("roles").path(roleName).get(Role.class);
+    return ROLE.resolve(resource, roleName).get(Role.class);
   }
 
   @Override
   public Role deleteRole(String roleName) {
-    return resource.path("roles").path(roleName).delete(Role.class);
+    return ROLE.resolve(resource, roleName).delete(Role.class);
   }
 
   @Override
   public CommandList getActiveRoleCommands(String roleName) {
-    return resource.path("roles").path(roleName).path("commands").get(CommandList.class);
+    return ROLE_COMMANDS.resolve(resource, roleName).get(CommandList.class);
   }
 
   @Override
   public ConfigList getRoleConfig(String roleName) {
-    return resource.path("roles").path(roleName).path("config").get(ConfigList.class);
+    return ROLE_CONFIG.resolve(resource, roleName, null).get(ConfigList.class);
   }
 
   @Override
   public ConfigList updateRoleConfig(String roleName, ConfigList newConfig, String message) {
-    if (message != null) {
-      return resource.path("roles").path(roleName).path("config")
-          .queryParam("message", message)
-          .put(ConfigList.class, newConfig);
-    } else {
-      return resource.path("roles").path(roleName).path("config")
-          .put(ConfigList.class, newConfig);
-    }
+    return ROLE_CONFIG.resolve(resource, roleName, message).put(ConfigList.class, newConfig);
   }
 
   @Override
@@ -308,25 +324,27 @@ public class DefaultServiceAPI implements ServiceAPI {
 
   @Override
   public String getRoleFullLog(String roleName) {
-    return resource.path("roles").path(roleName).path("logs").path("full").get(String.class);
+    return ROLE_LOG.resolve(resource, roleName, "full").get(String.class);
   }
 
   @Override
   public String getRoleStandrdError(String roleName) {
-    return resource.path("roles").path(roleName).path("logs").path("stderr").get(String.class);
+    return ROLE_LOG.resolve(resource, roleName, "stderr").get(String.class);
   }
 
   @Override
   public String getRoleStandardOut(String roleName) {
-    return resource.path("roles").path(roleName).path("logs").path("stdout").get(String.class);
+    return ROLE_LOG.resolve(resource, roleName, "stdout").get(String.class);
+  }
+
+  @Override
+  public RemoteLog getRoleLog(String roleName, RoleLogType type) {
+    return new DefaultRemoteLog(ROLE_LOG.resolve(resource, roleName, type.getPath()));
   }
 
   @Override
   public MetricList getRoleMetrics(String roleName, String metrics, long from, long to) {
-    return resource.path("roles").path(roleName).path("logs").path("metrics")
-        .queryParam("metrics", metrics)
-        .queryParam("from", Long.toString(from))
-        .queryParam("to", Long.toString(to))
+    return ROLE_METRICS.resolve(resource, roleName, metrics, Long.toString(from), Long.toString(to))
         .get(MetricList.class);
   }
 }
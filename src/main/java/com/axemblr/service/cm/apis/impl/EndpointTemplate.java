@@ -0,0 +1,254 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.base.Charsets;
+import com.sun.jersey.api.client.AsyncWebResource;
+import com.sun.jersey.api.client.WebResource;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Precompiled relative URI template, e.g. {@code roles/{role}/metrics?from={from}&to={to}}.
+ * <p/>
+ * Expanding a template builds the whole relative URI in a single pass, so a request needs one derived
+ * {@link WebResource} instead of one for every {@code path()} and {@code queryParam()} call. Variables must span
+ * a whole path segment or a whole query parameter value. Path values are encoded as single segments (a {@code /}
+ * in a name becomes {@code %2F}); query parameters whose value is null are left out. Values that need encoding
+ * are looked up in a bounded cache since the same cluster, service and role names come back on every call.
+ */
+public final class EndpointTemplate {
+
+  static final int MAX_CACHED_ENCODINGS = 4096;
+
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+  private static final int ESTIMATED_VALUE_LENGTH = 16;
+
+  private static final ConcurrentMap<String, String> PATH_ENCODINGS = new ConcurrentHashMap<String, String>();
+  private static final ConcurrentMap<String, String> QUERY_ENCODINGS = new ConcurrentHashMap<String, String>();
+
+  /**
+   * @param template relative path with optional query, variables written as {@code {name}}
+   */
+  public static EndpointTemplate compile(String template) {
+    return new EndpointTemplate(template);
+  }
+
+  private final String template;
+  private final List<String> variables = new ArrayList<String>();
+  private final String[] segments;
+  private final int[] segmentVariables;
+  private final String[] queryNames;
+  private final String[] queryValues;
+  private final int[] queryVariables;
+  private final int estimatedLength;
+
+  private EndpointTemplate(String template) {
+    this.template = checkNotNull(template);
+    checkArgument(!template.startsWith("/"), "Template must be relative: %s", template);
+
+    int queryStart = template.indexOf('?');
+    String path = (queryStart == -1) ? template : template.substring(0, queryStart);
+    String query = (queryStart == -1) ? "" : template.substring(queryStart + 1);
+
+    String[] pathParts = path.isEmpty() ? new String[0] : path.split("/", -1);
+    segments = new String[pathParts.length];
+    segmentVariables = new int[pathParts.length];
+    int length = 0;
+    for (int i = 0; i < pathParts.length; i++) {
+      segmentVariables[i] = variableOf(pathParts[i]);
+      segments[i] = (segmentVariables[i] == -1) ? encode(pathParts[i], false) : null;
+      length += (segments[i] == null) ? ESTIMATED_VALUE_LENGTH : segments[i].length() + 1;
+    }
+
+    String[] queryParts = query.isEmpty() ? new String[0] : query.split("&");
+    queryNames = new String[queryParts.length];
+    queryValues = new String[queryParts.length];
+    queryVariables = new int[queryParts.length];
+    for (int i = 0; i < queryParts.length; i++) {
+      int equals = queryParts[i].indexOf('=');
+      checkArgument(equals > 0, "Query parameter without a name or value in %s", template);
+      queryNames[i] = encode(queryParts[i].substring(0, equals), true);
+      String value = queryParts[i].substring(equals + 1);
+      queryVariables[i] = variableOf(value);
+      queryValues[i] = (queryVariables[i] == -1) ? encode(value, true) : null;
+      length += queryNames[i].length() + 2 + ESTIMATED_VALUE_LENGTH;
+    }
+    this.estimatedLength = length;
+  }
+
+  private int variableOf(String part) {
+    int open = part.indexOf('{');
+    if (open == -1) {
+      checkArgument(part.indexOf('}') == -1, "Unbalanced braces in %s", template);
+      return -1;
+    }
+    checkArgument(open == 0 && part.indexOf('}') == part.length() - 1 && part.length() > 2,
+        "Variables must span a whole path segment or query value in %s", template);
+    String name = part.substring(1, part.length() - 1);
+    checkArgument(!variables.contains(name), "Duplicate variable %s in %s", name, template);
+    variables.add(name);
+    return variables.size() - 1;
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  /**
+   * @return the variable names, in the order their values are passed to {@link #expand(String...)}
+   */
+  public List<String> getVariables() {
+    return Collections.unmodifiableList(variables);
+  }
+
+  /**
+   * @param values one value for each variable, in order; only query values may be null
+   * @return the encoded relative URI
+   */
+  public String expand(String... values) {
+    checkArgument(values.length == variables.size(), "Template %s expects %s values but got %s",
+        template, variables.size(), values.length);
+    StringBuilder uri = new StringBuilder(estimatedLength);
+    for (int i = 0; i < segments.length; i++) {
+      if (i > 0) {
+        uri.append('/');
+      }
+      if (segmentVariables[i] == -1) {
+        uri.append(segments[i]);
+      } else {
+        String value = values[segmentVariables[i]];
+        checkNotNull(value, "No value for variable %s of %s", variables.get(segmentVariables[i]), template);
+        uri.append(encode(value, false));
+      }
+    }
+    char separator = '?';
+    for (int i = 0; i < queryNames.length; i++) {
+      String value = (queryVariables[i] == -1) ? queryValues[i] : values[queryVariables[i]];
+      if (value != null) {
+        uri.append(separator).append(queryNames[i]).append('=')
+            .append((queryVariables[i] == -1) ? value : encode(value, true));
+        separator = '&';
+      }
+    }
+    return uri.toString();
+  }
+
+  /**
+   * @return the resource at the expanded URI, relative to the given one
+   */
+  public WebResource resolve(WebResource base, String... values) {
+    return base.uri(URI.create(expand(values)));
+  }
+
+  /**
+   * @return the resource at the expanded URI, relative to the given one
+   */
+  public AsyncWebResource resolve(AsyncWebResource base, String... values) {
+    return base.uri(URI.create(expand(values)));
+  }
+
+  static String encode(String value, boolean query) {
+    int i = 0;
+    while (i < value.length() && isAllowed(value.charAt(i), query)) {
+      i++;
+    }
+    if (i == value.length()) {
+      return value;
+    }
+    ConcurrentMap<String, String> cache = query ? QUERY_ENCODINGS : PATH_ENCODINGS;
+    String encoded = cache.get(value);
+    if (encoded == null) {
+      encoded = percentEncode(value, query);
+      if (cache.size() < MAX_CACHED_ENCODINGS) {
+        cache.put(value, encoded);
+      }
+    }
+    return encoded;
+  }
+
+  private static String percentEncode(String value, boolean query) {
+    byte[] bytes = value.getBytes(Charsets.UTF_8);
+    StringBuilder encoded = new StringBuilder(bytes.length + 16);
+    for (byte b : bytes) {
+      int c = b & 0xFF;
+      if (c < 0x80 && isAllowed((char) c, query)) {
+        encoded.append((char) c);
+      } else {
+        encoded.append('%').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+      }
+    }
+    return encoded.toString();
+  }
+
+  /**
+   * Unreserved characters, sub-delimiters and '@' are allowed in path segments (RFC 3986). ':' is encoded so that
+   * a leading segment can't be mistaken for a URI scheme. Query values also allow ':', '/' and '?' but not the
+   * '&', '=' and '+' separators.
+   */
+  private static boolean isAllowed(char c, boolean query) {
+    if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+      return true;
+    }
+    switch (c) {
+      case '-':
+      case '.':
+      case '_':
+      case '~':
+      case '!':
+      case '$':
+      case '\'':
+      case '(':
+      case ')':
+      case '*':
+      case ',':
+      case ';':
+      case '@':
+        return true;
+      case ':':
+      case '/':
+      case '?':
+        return query;
+      case '&':
+      case '=':
+      case '+':
+        return !query;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    EndpointTemplate that = (EndpointTemplate) o;
+    return template.equals(that.template);
+  }
+
+  @Override
+  public int hashCode() {
+    return template.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "EndpointTemplate{" +
+        "template='" + template + '\'' +
+        ", variables=" + variables +
+        '}';
+  }
+}
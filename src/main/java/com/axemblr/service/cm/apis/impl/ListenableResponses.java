@@ -0,0 +1,116 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.AsyncUniformInterface;
+import com.sun.jersey.api.client.GenericType;
+import com.sun.jersey.api.client.async.ITypeListener;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Adapts Jersey {@link AsyncUniformInterface} calls to Guava {@link ListenableFuture}s.
+ * <p/>
+ * The request is handed to Jersey together with a completion listener, so no thread waits on the response:
+ * the returned future is completed from the client's executor once the server answers. Cancelling the returned
+ * future also cancels the underlying request.
+ */
+final class ListenableResponses {
+
+  private ListenableResponses() {
+  }
+
+  static <T> ListenableFuture<T> get(AsyncUniformInterface resource, Class<T> type) {
+    ResponseFuture<T> future = new ResponseFuture<T>(type);
+    future.setDelegate(resource.get(future));
+    return future;
+  }
+
+  static <T> ListenableFuture<T> post(AsyncUniformInterface resource, Class<T> type) {
+    ResponseFuture<T> future = new ResponseFuture<T>(type);
+    future.setDelegate(resource.post(future));
+    return future;
+  }
+
+  static <T> ListenableFuture<T> post(AsyncUniformInterface resource, Class<T> type, Object entity) {
+    ResponseFuture<T> future = new ResponseFuture<T>(type);
+    future.setDelegate(resource.post(future, entity));
+    return future;
+  }
+
+  static <T> ListenableFuture<T> put(AsyncUniformInterface resource, Class<T> type, Object entity) {
+    ResponseFuture<T> future = new ResponseFuture<T>(type);
+    future.setDelegate(resource.put(future, entity));
+    return future;
+  }
+
+  static <T> ListenableFuture<T> delete(AsyncUniformInterface resource, Class<T> type) {
+    ResponseFuture<T> future = new ResponseFuture<T>(type);
+    future.setDelegate(resource.delete(future));
+    return future;
+  }
+
+  /**
+   * A {@link ListenableFuture} that is also the Jersey completion listener for the request it represents.
+   */
+  private static class ResponseFuture<T> extends AbstractFuture<T> implements ITypeListener<T> {
+
+    private final Class<T> type;
+    private volatile Future<T> delegate;
+
+    ResponseFuture(Class<T> type) {
+      this.type = type;
+    }
+
+    void setDelegate(Future<T> delegate) {
+      this.delegate = delegate;
+      if (isCancelled()) {
+        delegate.cancel(false);
+      }
+    }
+
+    @Override
+    public Class<T> getType() {
+      return type;
+    }
+
+    @Override
+    public GenericType<T> getGenericType() {
+      return null;
+    }
+
+    @Override
+    public void onComplete(Future<T> response) throws InterruptedException {
+      try {
+        set(response.get());
+      } catch (ExecutionException e) {
+        setException(e.getCause());
+      } catch (CancellationException e) {
+        cancel(false);
+      } catch (RuntimeException e) {
+        setException(e);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!super.cancel(mayInterruptIfRunning)) {
+        return false;
+      }
+      Future<T> request = delegate;
+      if (request != null) {
+        request.cancel(mayInterruptIfRunning);
+      }
+      return true;
+    }
+  }
+}
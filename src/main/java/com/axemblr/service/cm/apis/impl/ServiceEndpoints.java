@@ -0,0 +1,51 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import static com.axemblr.service.cm.apis.impl.EndpointTemplate.compile;
+
+/**
+ * Endpoints of a cluster service, relative to {@code /clusters/{cluster}/services/{service}}. Shared by the
+ * synchronous and the asynchronous implementation.
+ */
+final class ServiceEndpoints {
+
+  static final EndpointTemplate ACTIVITIES =
+      compile("activities?query={query}&maxResults={maxResults}&resultOffset={resultOffset}");
+  static final EndpointTemplate ACTIVITY_CHILDREN =
+      compile("activities/{activity}/children?maxResults={maxResults}&resultOffset={resultOffset}");
+  static final EndpointTemplate ACTIVITY_METRICS =
+      compile("activities/{activity}/metrics?from={from}&to={to}&query={query}");
+  static final EndpointTemplate SIMILAR_ACTIVITIES = compile("activities/{activity}/similar");
+
+  static final EndpointTemplate COMMANDS = compile("commands");
+  static final EndpointTemplate COMMAND = compile("commands/{command}");
+  static final EndpointTemplate HDFS_FAILOVER = compile("commands/hdfsFailover?force={force}");
+
+  static final EndpointTemplate CONFIG = compile("config");
+  static final EndpointTemplate CONFIG_VIEW = compile("config?view={view}");
+  static final EndpointTemplate METRICS = compile("metrics?from={from}&to={to}&metrics={metrics}");
+
+  static final EndpointTemplate NAME_SERVICES = compile("nameservices");
+  static final EndpointTemplate NAME_SERVICE = compile("nameservice/{nameservice}");
+  static final EndpointTemplate NAME_SERVICE_METRICS =
+      compile("{nameservice}/metrics?metrics={metrics}&from={from}&to={to}");
+
+  static final EndpointTemplate ROLE_COMMAND = compile("roleCommands/{command}");
+
+  static final EndpointTemplate ROLES = compile("roles");
+  static final EndpointTemplate ROLE = compile("roles/{role}");
+  static final EndpointTemplate ROLE_COMMANDS = compile("roles/{role}/commands");
+  static final EndpointTemplate ROLE_CONFIG = compile("roles/{role}/config?message={message}");
+  static final EndpointTemplate ROLE_LOG = compile("roles/{role}/logs/{log}");
+  static final EndpointTemplate ROLE_METRICS =
+      compile("roles/{role}/logs/metrics?metrics={metrics}&from={from}&to={to}");
+
+  private ServiceEndpoints() {
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.CloseableIterator;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.AbstractIterator;
+import com.sun.jersey.api.client.ClientHandlerException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Reads list responses ({@code {"items": [...]}}) as a {@link CloseableIterator} that deserializes one item at a
+ * time, so the memory used doesn't depend on the size of the response.
+ * <p/>
+ * Request it with a generic type, e.g. {@code resource.get(new GenericType<CloseableIterator<Host>>() {})}.
+ * Jersey leaves the response stream open because the iterator is {@link java.io.Closeable}.
+ */
+@Provider
+@Consumes(MediaType.APPLICATION_JSON)
+public class StreamingItemsReader implements MessageBodyReader<CloseableIterator<?>> {
+
+  private final ObjectMapper mapper;
+
+  public StreamingItemsReader(ObjectMapper mapper) {
+    this.mapper = checkNotNull(mapper);
+  }
+
+  @Override
+  public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return type == CloseableIterator.class && itemTypeOf(genericType) != null;
+  }
+
+  @Override
+  public CloseableIterator<?> readFrom(Class<CloseableIterator<?>> type, Type genericType, Annotation[] annotations,
+                                       MediaType mediaType, MultivaluedMap<String, String> httpHeaders,
+                                       InputStream entityStream) throws IOException, WebApplicationException {
+    JsonParser parser = mapper.getJsonFactory().createJsonParser(entityStream);
+    try {
+      boolean hasItems = moveToItems(parser);
+      return new ItemsIterator<Object>(mapper, parser, entityStream, itemTypeOf(genericType), hasItems);
+    } catch (IOException e) {
+      parser.close();
+      entityStream.close();
+      throw e;
+    } catch (RuntimeException e) {
+      parser.close();
+      entityStream.close();
+      throw e;
+    }
+  }
+
+  private static Class<?> itemTypeOf(Type genericType) {
+    if (genericType instanceof ParameterizedType) {
+      Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+      if (arguments.length == 1 && arguments[0] instanceof Class) {
+        return (Class<?>) arguments[0];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Positions the parser on the start of the items array.
+   *
+   * @return false if the response has no items field
+   */
+  private static boolean moveToItems(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Expected a JSON object, found " + parser.getCurrentToken());
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if ("items".equals(field)) {
+        if (value == JsonToken.VALUE_NULL) {
+          return false;
+        }
+        if (value != JsonToken.START_ARRAY) {
+          throw new IOException("Expected the items array, found " + value);
+        }
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  private static class ItemsIterator<T> extends AbstractIterator<T> implements CloseableIterator<T> {
+
+    private final ObjectMapper mapper;
+    private final JsonParser parser;
+    private final InputStream entityStream;
+    private final Class<T> itemType;
+    private boolean closed;
+
+    @SuppressWarnings("unchecked")
+    ItemsIterator(ObjectMapper mapper, JsonParser parser, InputStream entityStream, Class<?> itemType,
+                  boolean hasItems) {
+      this.mapper = mapper;
+      this.parser = parser;
+      this.entityStream = entityStream;
+      this.itemType = (Class<T>) itemType;
+      if (!hasItems) {
+        close();
+      }
+    }
+
+    @Override
+    protected T computeNext() {
+      if (closed) {
+        return endOfData();
+      }
+      try {
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+          close();
+          return endOfData();
+        }
+        return mapper.readValue(parser, itemType);
+      } catch (IOException e) {
+        close();
+        throw new ClientHandlerException(e);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        parser.close();
+        entityStream.close();
+      } catch (IOException e) {
+        throw new ClientHandlerException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.auth;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.jersey.core.util.Base64;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Authenticates with HTTP Basic credentials once and then reuses the session cookie set by the server, which is
+ * much cheaper for the server to check than the credentials.
+ * <p/>
+ * Requests carry the session cookie when there is one and the credentials otherwise. When the server rejects a
+ * session (401, e.g. because it expired or the server restarted) the cookie is dropped and the request is sent
+ * again once with the credentials, which also establishes a new session.
+ */
+public class SessionAuthFilter extends ClientFilter {
+
+  private static final int UNAUTHORIZED = 401;
+
+  private final String authorization;
+  private final SessionCookieStore cookies;
+
+  public SessionAuthFilter(String user, String password) {
+    this(user, password, new SessionCookieStore());
+  }
+
+  public SessionAuthFilter(String user, String password, SessionCookieStore cookies) {
+    try {
+      this.authorization = "Basic " + new String(Base64.encode(checkNotNull(user) + ":" + checkNotNull(password)),
+          "ASCII");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+    this.cookies = checkNotNull(cookies);
+  }
+
+  public SessionCookieStore getCookieStore() {
+    return cookies;
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    String cookieHeader = cookies.getCookieHeader();
+    if (cookieHeader == null) {
+      return authenticate(request);
+    }
+    ClientRequest withSession = request.clone();
+    withSession.getProperties().putAll(request.getProperties());
+    withSession.getHeaders().putSingle(HttpHeaders.COOKIE, cookieHeader);
+    ClientResponse response = getNext().handle(withSession);
+    if (response.getStatus() != UNAUTHORIZED) {
+      cookies.update(response.getCookies());
+      return response;
+    }
+    response.close();
+    cookies.invalidate(cookieHeader);
+    return authenticate(request);
+  }
+
+  private ClientResponse authenticate(ClientRequest request) {
+    request.getHeaders().putSingle(HttpHeaders.AUTHORIZATION, authorization);
+    ClientResponse response = getNext().handle(request);
+    cookies.update(response.getCookies());
+    return response;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.auth;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import javax.ws.rs.core.NewCookie;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cookies set by the Cloudera Manager server, shared by all the threads using a client.
+ * <p/>
+ * The store keeps an immutable snapshot of the cookies that is replaced on every change, so reading the
+ * {@code Cookie} header for a request never blocks. Cookies are not scoped by host or path: a client talks to a
+ * single server.
+ */
+public class SessionCookieStore {
+
+  private volatile Snapshot snapshot = new Snapshot(ImmutableMap.<String, StoredCookie>of());
+
+  /**
+   * @return the value of the {@code Cookie} request header, or null if there are no cookies
+   */
+  public String getCookieHeader() {
+    return snapshot.header(System.currentTimeMillis());
+  }
+
+  /**
+   * @return true if there is at least one cookie that didn't expire
+   */
+  public boolean hasCookies() {
+    return getCookieHeader() != null;
+  }
+
+  /**
+   * Stores the cookies of a response. Cookies with a max age of 0 are removed.
+   */
+  public synchronized void update(List<NewCookie> cookies) {
+    if (cookies.isEmpty()) {
+      return;
+    }
+    long nowMs = System.currentTimeMillis();
+    Map<String, StoredCookie> updated = Maps.newLinkedHashMap(snapshot.cookies);
+    for (NewCookie cookie : cookies) {
+      if (cookie.getMaxAge() == 0) {
+        updated.remove(cookie.getName());
+      } else {
+        long expiresAtMs = (cookie.getMaxAge() < 0) ? Long.MAX_VALUE
+            : nowMs + TimeUnit.SECONDS.toMillis(cookie.getMaxAge());
+        updated.put(cookie.getName(), new StoredCookie(cookie.getValue(), expiresAtMs));
+      }
+    }
+    snapshot = new Snapshot(ImmutableMap.copyOf(updated));
+  }
+
+  /**
+   * Drops all the cookies if they are still the ones sent in a rejected request, so that a session established
+   * concurrently by another thread is kept.
+   *
+   * @param rejectedHeader the {@code Cookie} header of the request the server rejected
+   * @return true if the cookies were dropped
+   */
+  public synchronized boolean invalidate(String rejectedHeader) {
+    if (rejectedHeader != null && !rejectedHeader.equals(getCookieHeader())) {
+      return false;
+    }
+    clear();
+    return true;
+  }
+
+  public synchronized void clear() {
+    snapshot = new Snapshot(ImmutableMap.<String, StoredCookie>of());
+  }
+
+  @Override
+  public String toString() {
+    return "SessionCookieStore{" +
+        "cookies=" + snapshot.cookies.keySet() +
+        '}';
+  }
+
+  private static class StoredCookie {
+
+    private final String value;
+    private final long expiresAtMs;
+
+    StoredCookie(String value, long expiresAtMs) {
+      this.value = value;
+      this.expiresAtMs = expiresAtMs;
+    }
+  }
+
+  private static class Snapshot {
+
+    private final Map<String, StoredCookie> cookies;
+    private final String header;
+    private final long expiresAtMs;
+
+    Snapshot(Map<String, StoredCookie> cookies) {
+      this.cookies = cookies;
+      StringBuilder header = new StringBuilder();
+      long expiresAtMs = Long.MAX_VALUE;
+      for (Map.Entry<String, StoredCookie> cookie : cookies.entrySet()) {
+        if (header.length() > 0) {
+          header.append("; ");
+        }
+        header.append(cookie.getKey()).append('=').append(cookie.getValue().value);
+        expiresAtMs = Math.min(expiresAtMs, cookie.getValue().expiresAtMs);
+      }
+      this.header = (header.length() == 0) ? null : header.toString();
+      this.expiresAtMs = expiresAtMs;
+    }
+
+    /**
+     * A session whose first cookie expired is treated as gone, the server will set a new one.
+     */
+    String header(long nowMs) {
+      return (nowMs < expiresAtMs) ? header : null;
+    }
+  }
+}
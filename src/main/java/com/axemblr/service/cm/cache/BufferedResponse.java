@@ -0,0 +1,121 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.MessageBodyWorkers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A response read fully into memory so that it can be handed to several callers, each one getting a fresh
+ * {@link ClientResponse} to deserialize.
+ * <p/>
+ * Session cookies and hop-by-hop headers are not kept: they belong to the exchange that fetched the response, and
+ * replaying them would bring back a session the server has since replaced or hand it to another caller.
+ */
+public class BufferedResponse {
+
+  private static final int READ_BUFFER_BYTES = 8 * 1024;
+
+  private static final Set<String> DROPPED_HEADERS = ImmutableSortedSet.orderedBy(String.CASE_INSENSITIVE_ORDER)
+      .add("Set-Cookie", "Set-Cookie2")
+      .add("Connection", "Keep-Alive", "Proxy-Authenticate", "Proxy-Authorization", "Proxy-Connection", "TE",
+          "Trailer", "Transfer-Encoding", "Upgrade")
+      .build();
+
+  private final int status;
+  private final InBoundHeaders headers;
+  private final byte[] body;
+
+  BufferedResponse(int status, InBoundHeaders headers, byte[] body) {
+    this.status = status;
+    this.headers = checkNotNull(headers);
+    this.body = checkNotNull(body);
+  }
+
+  /**
+   * Reads the body of a response into memory, unless it is larger than {@code maxBytes}.
+   * <p/>
+   * The response stays readable in both cases: its entity is replaced with the buffered bytes, or with the bytes
+   * read so far followed by the rest of the original stream if the body was too large.
+   *
+   * @return the buffered response, or null if the body is larger than {@code maxBytes}
+   */
+  public static BufferedResponse read(ClientResponse response, int maxBytes) {
+    InputStream in = response.getEntityInputStream();
+    if (in == null) {
+      return new BufferedResponse(response.getStatus(), storedHeadersOf(response.getHeaders()), new byte[0]);
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(maxBytes + 1, READ_BUFFER_BYTES));
+      byte[] buffer = new byte[READ_BUFFER_BYTES];
+      while (out.size() <= maxBytes) {
+        int read = in.read(buffer, 0, Math.min(buffer.length, maxBytes + 1 - out.size()));
+        if (read == -1) {
+          break;
+        }
+        out.write(buffer, 0, read);
+      }
+      if (out.size() > maxBytes) {
+        response.setEntityInputStream(new SequenceInputStream(new ByteArrayInputStream(out.toByteArray()), in));
+        return null;
+      }
+      in.close();
+      byte[] body = out.toByteArray();
+      response.setEntityInputStream(new ByteArrayInputStream(body));
+      return new BufferedResponse(response.getStatus(), storedHeadersOf(response.getHeaders()), body);
+    } catch (IOException e) {
+      throw new ClientHandlerException(e);
+    }
+  }
+
+  /**
+   * @return a copy of the headers without the ones that must not be replayed
+   */
+  private static InBoundHeaders storedHeadersOf(Map<String, List<String>> headers) {
+    InBoundHeaders stored = copyOf(headers);
+    stored.keySet().removeAll(DROPPED_HEADERS);
+    return stored;
+  }
+
+  private static InBoundHeaders copyOf(Map<String, List<String>> headers) {
+    InBoundHeaders copy = new InBoundHeaders();
+    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+      copy.put(header.getKey(), Lists.newArrayList(header.getValue()));
+    }
+    return copy;
+  }
+
+  /**
+   * @return a new response with the buffered status, headers and body
+   */
+  public ClientResponse toResponse(MessageBodyWorkers workers) {
+    return new ClientResponse(status, copyOf(headers), new ByteArrayInputStream(body), workers);
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public int getLength() {
+    return body.length;
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the client side cache of GET responses.
+ * <p/>
+ * Each endpoint template (e.g. {@code /clusters/{c}/services/{s}/config}, see
+ * {@link com.axemblr.service.cm.metrics.EndpointTemplates}) has its own time to live. Endpoints without one use the
+ * default time to live, which is 0 (not cached) unless changed. By default only metadata that rarely changes is
+ * cached: the version, the role types, the cluster list and service configuration.
+ */
+public class CacheConfig {
+
+  public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+  public static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+  public static final long DEFAULT_TTL_MS = 0;
+
+  public static final Map<String, Long> DEFAULT_ENDPOINT_TTLS_MS = ImmutableMap.<String, Long>builder()
+      .put("/cm/version", TimeUnit.MINUTES.toMillis(10))
+      .put("/cm/service/roleTypes", TimeUnit.MINUTES.toMillis(10))
+      .put("/clusters", TimeUnit.SECONDS.toMillis(30))
+      .put("/clusters/{c}", TimeUnit.SECONDS.toMillis(30))
+      .put("/clusters/{c}/services/{s}/config", TimeUnit.SECONDS.toMillis(30))
+      .put("/clusters/{c}/services/{s}/roleTypes", TimeUnit.MINUTES.toMillis(10))
+      .build();
+
+  private final long maxBytes;
+  private final int maxEntryBytes;
+  private final long defaultTtlMs;
+  private final Map<String, Long> endpointTtlsMs;
+
+  private CacheConfig(long maxBytes, int maxEntryBytes, long defaultTtlMs, Map<String, Long> endpointTtlsMs) {
+    this.maxBytes = maxBytes;
+    this.maxEntryBytes = maxEntryBytes;
+    this.defaultTtlMs = defaultTtlMs;
+    this.endpointTtlsMs = ImmutableMap.copyOf(endpointTtlsMs);
+  }
+
+  /**
+   * Cache settings with all the default values.
+   */
+  public static CacheConfig defaults() {
+    return builder().build();
+  }
+
+  public static CacheConfigBuilder builder() {
+    return new CacheConfigBuilder();
+  }
+
+  /**
+   * Maximum total size of the cached response bodies. Least recently used entries are evicted first.
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Responses larger than this are never cached.
+   */
+  public int getMaxEntryBytes() {
+    return maxEntryBytes;
+  }
+
+  /**
+   * Time to live for endpoints without a policy of their own, 0 if they are not cached.
+   */
+  public long getDefaultTtlMs() {
+    return defaultTtlMs;
+  }
+
+  /**
+   * Time to live by endpoint template.
+   */
+  public Map<String, Long> getEndpointTtlsMs() {
+    return endpointTtlsMs;
+  }
+
+  /**
+   * @param template an endpoint template, e.g. {@code /clusters/{c}}
+   * @return how long responses of the endpoint are cached, 0 if they are not
+   */
+  public long getTtlMs(String template) {
+    Long ttlMs = endpointTtlsMs.get(template);
+    return (ttlMs == null) ? defaultTtlMs : ttlMs;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheConfig{" +
+        "maxBytes=" + maxBytes +
+        ", maxEntryBytes=" + maxEntryBytes +
+        ", defaultTtlMs=" + defaultTtlMs +
+        ", endpointTtlsMs=" + endpointTtlsMs +
+        '}';
+  }
+
+  public static class CacheConfigBuilder {
+
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private int maxEntryBytes = DEFAULT_MAX_ENTRY_BYTES;
+    private long defaultTtlMs = DEFAULT_TTL_MS;
+    private Map<String, Long> endpointTtlsMs = Maps.newHashMap(DEFAULT_ENDPOINT_TTLS_MS);
+
+    private CacheConfigBuilder() {
+    }
+
+    public CacheConfigBuilder withMaxBytes(long maxBytes) {
+      checkArgument(maxBytes > 0, "Cache size must be larger than 0");
+      this.maxBytes = maxBytes;
+      return this;
+    }
+
+    public CacheConfigBuilder withMaxEntryBytes(int maxEntryBytes) {
+      checkArgument(maxEntryBytes > 0, "Maximum entry size must be larger than 0");
+      this.maxEntryBytes = maxEntryBytes;
+      return this;
+    }
+
+    /**
+     * Cache the endpoints without a policy of their own for the given time. Use 0 to not cache them.
+     */
+    public CacheConfigBuilder withDefaultTtl(long duration, TimeUnit unit) {
+      checkArgument(duration >= 0, "Time to live must not be negative");
+      this.defaultTtlMs = checkNotNull(unit).toMillis(duration);
+      return this;
+    }
+
+    /**
+     * Cache the responses of an endpoint for the given time. Use 0 to never cache it.
+     *
+     * @param template endpoint template, e.g. {@code /clusters/{c}/services/{s}/config}
+     */
+    public CacheConfigBuilder withTtl(String template, long duration, TimeUnit unit) {
+      checkArgument(duration >= 0, "Time to live must not be negative");
+      endpointTtlsMs.put(checkNotNull(template), checkNotNull(unit).toMillis(duration));
+      return this;
+    }
+
+    /**
+     * Drop the default endpoint policies. Call it before {@link #withTtl} to cache only the endpoints set there.
+     */
+    public CacheConfigBuilder withoutDefaultTtls() {
+      endpointTtlsMs.keySet().removeAll(DEFAULT_ENDPOINT_TTLS_MS.keySet());
+      return this;
+    }
+
+    public CacheConfig build() {
+      checkArgument(maxEntryBytes <= maxBytes, "Maximum entry size (%s) can't exceed the cache size (%s)",
+          maxEntryBytes, maxBytes);
+      return new CacheConfig(maxBytes, maxEntryBytes, defaultTtlMs, endpointTtlsMs);
+    }
+  }
+}
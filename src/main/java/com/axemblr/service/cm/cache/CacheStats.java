@@ -0,0 +1,105 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+/**
+ * Snapshot of the cache counters, either for one endpoint or for the whole cache.
+ */
+public class CacheStats {
+
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final long invalidations;
+
+  public CacheStats(long hits, long misses, long evictions, long invalidations) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.invalidations = invalidations;
+  }
+
+  /**
+   * Requests answered from the cache.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Requests to cacheable endpoints that went to the server, because there was no entry or it had expired.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Entries removed to keep the cache under its size limit.
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Entries removed by mutating requests or explicit invalidation.
+   */
+  public long getInvalidations() {
+    return invalidations;
+  }
+
+  public long getRequestCount() {
+    return hits + misses;
+  }
+
+  /**
+   * @return the fraction of requests answered from the cache, 1.0 if there were no requests
+   */
+  public double getHitRate() {
+    long requests = getRequestCount();
+    return (requests == 0) ? 1.0 : (double) hits / requests;
+  }
+
+  public CacheStats plus(CacheStats other) {
+    return new CacheStats(hits + other.hits, misses + other.misses, evictions + other.evictions,
+        invalidations + other.invalidations);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    CacheStats that = (CacheStats) o;
+
+    if (evictions != that.evictions) return false;
+    if (hits != that.hits) return false;
+    if (invalidations != that.invalidations) return false;
+    if (misses != that.misses) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = (int) (hits ^ (hits >>> 32));
+    result = 31 * result + (int) (misses ^ (misses >>> 32));
+    result = 31 * result + (int) (evictions ^ (evictions >>> 32));
+    result = 31 * result + (int) (invalidations ^ (invalidations >>> 32));
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStats{" +
+        "hits=" + hits +
+        ", misses=" + misses +
+        ", evictions=" + evictions +
+        ", invalidations=" + invalidations +
+        '}';
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+import com.axemblr.service.cm.metrics.EndpointTemplates;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableList;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.jersey.spi.MessageBodyWorkers;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import java.util.List;
+
+/**
+ * Answers GET requests from a {@link ResponseCache} and invalidates it after requests that change resources.
+ * <p/>
+ * Responses are keyed by URI and the request headers that change them, such as {@code Accept} and {@code Range}.
+ * Only successful responses of endpoints with a time to live are stored. Every caller gets its own copy of the
+ * cached body to deserialize, so the API objects returned are never shared.
+ */
+public class CachingFilter extends ClientFilter {
+
+  private static final int OK = 200;
+
+  /**
+   * Request headers that change the response, such as the byte range asked for by a log tail.
+   */
+  private static final List<String> VARYING_HEADERS = ImmutableList.of(HttpHeaders.ACCEPT,
+      HttpHeaders.ACCEPT_LANGUAGE, "Range", "If-Range");
+
+  private final ResponseCache cache;
+  private final MessageBodyWorkers workers;
+
+  /**
+   * @param workers the readers of the client, used to deserialize cached responses
+   */
+  public CachingFilter(ResponseCache cache, MessageBodyWorkers workers) {
+    this.cache = checkNotNull(cache);
+    this.workers = checkNotNull(workers);
+  }
+
+  public ResponseCache getCache() {
+    return cache;
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    String path = request.getURI().getPath();
+    if (!HttpMethod.GET.equals(request.getMethod())) {
+      try {
+        return getNext().handle(request);
+      } finally {
+        cache.invalidateAfterChange(path);
+      }
+    }
+    String template = EndpointTemplates.templateOf(path);
+    long ttlMs = cache.getConfig().getTtlMs(template);
+    if (ttlMs <= 0) {
+      return getNext().handle(request);
+    }
+    String key = keyOf(request);
+    BufferedResponse cached = cache.get(key, template);
+    if (cached != null) {
+      return cached.toResponse(workers);
+    }
+    long generation = cache.generation();
+    ClientResponse response = getNext().handle(request);
+    if (response.getStatus() == OK) {
+      BufferedResponse buffered = BufferedResponse.read(response, cache.getConfig().getMaxEntryBytes());
+      if (buffered != null) {
+        cache.put(key, template, path, buffered, ttlMs, generation);
+      }
+    }
+    return response;
+  }
+
+  static String keyOf(ClientRequest request) {
+    StringBuilder key = new StringBuilder();
+    for (String header : VARYING_HEADERS) {
+      List<Object> values = request.getHeaders().get(header);
+      if (values != null) {
+        key.append(header).append(':');
+        for (Object value : values) {
+          key.append(ClientRequest.getHeaderValue(value)).append(',');
+        }
+        key.append(' ');
+      }
+    }
+    return key.append(request.getURI().toASCIIString()).toString();
+  }
+}
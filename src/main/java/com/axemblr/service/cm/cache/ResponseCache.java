@@ -0,0 +1,249 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+import com.axemblr.service.cm.metrics.EndpointTemplates;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded store of GET responses with a time to live per endpoint, see {@link CacheConfig}.
+ * <p/>
+ * Entries are keyed by the full request URI (path and query parameters) and the accepted media types. Requests
+ * that change a resource drop the cached responses of that resource, of everything below it and of its parents,
+ * so a listing doesn't outlive the creation or deletion of one of its items. Call {@link #invalidate(String)} for
+ * changes made by other clients.
+ */
+public class ResponseCache {
+
+  private final CacheConfig config;
+  private final Cache<String, Entry> entries;
+  private final ConcurrentMap<String, EndpointCounters> counters = new ConcurrentHashMap<String, EndpointCounters>();
+  private final AtomicLong generation = new AtomicLong();
+
+  public ResponseCache(CacheConfig config) {
+    this.config = checkNotNull(config);
+    this.entries = CacheBuilder.newBuilder()
+        .maximumWeight(config.getMaxBytes())
+        .weigher(new Weigher<String, Entry>() {
+          @Override
+          public int weigh(String key, Entry entry) {
+            return key.length() + entry.response.getLength();
+          }
+        })
+        .removalListener(new RemovalListener<String, Entry>() {
+          @Override
+          public void onRemoval(RemovalNotification<String, Entry> notification) {
+            if (notification.getCause() == RemovalCause.SIZE) {
+              countersOf(notification.getValue().template).evictions.incrementAndGet();
+            }
+          }
+        })
+        .build();
+  }
+
+  public CacheConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * @return the number of cached responses, including the expired ones not cleaned up yet
+   */
+  public long size() {
+    return entries.size();
+  }
+
+  /**
+   * Drops the cached responses for a resource, everything below it and its parents.
+   *
+   * @param path resource path with or without the /api/vN prefix, e.g. {@code /clusters/Cluster 1/services}
+   */
+  public void invalidate(String path) {
+    generation.incrementAndGet();
+    String resource = normalize(path);
+    Iterator<Entry> iterator = entries.asMap().values().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (isRelated(entry.path, resource)) {
+        iterator.remove();
+        countersOf(entry.template).invalidations.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Drops all the cached responses.
+   */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    for (Entry entry : entries.asMap().values()) {
+      countersOf(entry.template).invalidations.incrementAndGet();
+    }
+    entries.invalidateAll();
+  }
+
+  /**
+   * @return the counters of all the endpoints together
+   */
+  public CacheStats getStats() {
+    CacheStats total = new CacheStats(0, 0, 0, 0);
+    for (EndpointCounters endpoint : counters.values()) {
+      total = total.plus(endpoint.snapshot());
+    }
+    return total;
+  }
+
+  /**
+   * @param template endpoint template, e.g. {@code /clusters/{c}}
+   * @return the counters of the endpoint
+   */
+  public CacheStats getStats(String template) {
+    EndpointCounters endpoint = counters.get(template);
+    return (endpoint == null) ? new CacheStats(0, 0, 0, 0) : endpoint.snapshot();
+  }
+
+  /**
+   * @return the counters of every cacheable endpoint requested so far, sorted by template
+   */
+  public SortedMap<String, CacheStats> getEndpointStats() {
+    SortedMap<String, CacheStats> stats = Maps.newTreeMap();
+    for (Map.Entry<String, EndpointCounters> endpoint : counters.entrySet()) {
+      stats.put(endpoint.getKey(), endpoint.getValue().snapshot());
+    }
+    return ImmutableSortedMap.copyOfSorted(stats);
+  }
+
+  /**
+   * @return a value to pass to {@link #put} so that responses fetched while an invalidation ran are dropped
+   */
+  long generation() {
+    return generation.get();
+  }
+
+  BufferedResponse get(String key, String template) {
+    Entry entry = entries.getIfPresent(key);
+    if (entry != null && System.nanoTime() - entry.expiresAtNanos < 0) {
+      countersOf(template).hits.incrementAndGet();
+      return entry.response;
+    }
+    if (entry != null) {
+      entries.asMap().remove(key, entry);
+    }
+    countersOf(template).misses.incrementAndGet();
+    return null;
+  }
+
+  void put(String key, String template, String path, BufferedResponse response, long ttlMs, long generation) {
+    if (this.generation.get() != generation) {
+      return;
+    }
+    long expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    Entry entry = new Entry(normalize(path), template, response, expiresAtNanos);
+    entries.put(key, entry);
+    if (this.generation.get() != generation) {
+      // an invalidation started after the first check may have looked for the entry before it was stored
+      entries.asMap().remove(key, entry);
+    }
+  }
+
+  /**
+   * Drops what a request changing the given resource makes stale. Commands change the state of the resource they
+   * are issued on, so {@code POST /clusters/c1/services/s1/commands/restart} invalidates
+   * {@code /clusters/c1/services/s1}. Changes to a top level command, e.g. {@code POST /commands/123/abort}, only
+   * invalidate that command and the command list.
+   */
+  void invalidateAfterChange(String path) {
+    String resource = normalize(path);
+    int commands = Math.max(resource.indexOf("/commands/"), resource.indexOf("/roleCommands/"));
+    if (commands > 0) {
+      resource = resource.substring(0, commands);
+    }
+    invalidate(resource);
+  }
+
+  static String normalize(String path) {
+    String relative = EndpointTemplates.relativePathOf(path);
+    while (relative.endsWith("/")) {
+      relative = relative.substring(0, relative.length() - 1);
+    }
+    return relative;
+  }
+
+  /**
+   * @return true if {@code path} is the resource, below it or one of its parents
+   */
+  static boolean isRelated(String path, String resource) {
+    return isSameOrBelow(path, resource) || isSameOrBelow(resource, path);
+  }
+
+  private static boolean isSameOrBelow(String path, String parent) {
+    return path.startsWith(parent) && (path.length() == parent.length() || path.charAt(parent.length()) == '/');
+  }
+
+  private EndpointCounters countersOf(String template) {
+    EndpointCounters endpoint = counters.get(template);
+    if (endpoint == null) {
+      EndpointCounters created = new EndpointCounters();
+      endpoint = counters.putIfAbsent(template, created);
+      if (endpoint == null) {
+        endpoint = created;
+      }
+    }
+    return endpoint;
+  }
+
+  @Override
+  public String toString() {
+    return "ResponseCache{" +
+        "size=" + size() +
+        ", stats=" + getStats() +
+        '}';
+  }
+
+  private static class Entry {
+
+    private final String path;
+    private final String template;
+    private final BufferedResponse response;
+    private final long expiresAtNanos;
+
+    Entry(String path, String template, BufferedResponse response, long expiresAtNanos) {
+      this.path = path;
+      this.template = template;
+      this.response = response;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+
+  private static class EndpointCounters {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    CacheStats snapshot() {
+      return new CacheStats(hits.get(), misses.get(), evictions.get(), invalidations.get());
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.util.concurrent.SettableFuture;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.jersey.spi.MessageBodyWorkers;
+
+import javax.ws.rs.HttpMethod;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces identical GET requests issued concurrently: the first one goes to the server, the others wait for it
+ * and get a copy of its response.
+ * <p/>
+ * Requests are identical when they have the same URI, accepted media types and byte range (the same key as the
+ * {@link ResponseCache}). The response is only buffered when other requests joined while it was in flight, so
+ * requests without contention are not slowed down. If the body is larger than {@code maxResponseBytes}, or the
+ * first request fails on its own deadline, the waiting requests go to the server on their own. Waiting requests
+ * give up when their {@link Deadline} expires.
+ */
+public class SingleFlightFilter extends ClientFilter {
+
+  public static final int DEFAULT_MAX_RESPONSE_BYTES = 4 * 1024 * 1024;
+
+  private final MessageBodyWorkers workers;
+  private final int maxResponseBytes;
+  private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<String, Flight>();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  public SingleFlightFilter(MessageBodyWorkers workers) {
+    this(workers, DEFAULT_MAX_RESPONSE_BYTES);
+  }
+
+  /**
+   * @param workers          the readers of the client, used to deserialize shared responses
+   * @param maxResponseBytes responses larger than this are not shared
+   */
+  public SingleFlightFilter(MessageBodyWorkers workers, int maxResponseBytes) {
+    checkArgument(maxResponseBytes > 0, "Maximum response size must be larger than 0");
+    this.workers = checkNotNull(workers);
+    this.maxResponseBytes = maxResponseBytes;
+  }
+
+  /**
+   * @return the number of GET requests seen by the filter
+   */
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * @return the number of GET requests answered with the response of another request
+   */
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    if (!HttpMethod.GET.equals(request.getMethod())) {
+      return getNext().handle(request);
+    }
+    requests.incrementAndGet();
+    String key = CachingFilter.keyOf(request);
+    Flight flight = new Flight();
+    while (true) {
+      Flight leader = inFlight.putIfAbsent(key, flight);
+      if (leader == null) {
+        return lead(key, flight, request);
+      }
+      if (leader.join()) {
+        BufferedResponse shared = leader.await();
+        if (shared == null) {
+          return getNext().handle(request);
+        }
+        coalesced.incrementAndGet();
+        return shared.toResponse(workers);
+      }
+      // the leader completed between the lookup and the join, try again
+    }
+  }
+
+  private ClientResponse lead(String key, Flight flight, ClientRequest request) {
+    ClientResponse response;
+    try {
+      response = getNext().handle(request);
+    } catch (RuntimeException e) {
+      inFlight.remove(key, flight);
+      if (flight.land() > 0) {
+        flight.result.setException(e);
+      }
+      throw e;
+    }
+    inFlight.remove(key, flight);
+    if (flight.land() == 0) {
+      return response;
+    }
+    try {
+      flight.result.set(BufferedResponse.read(response, maxResponseBytes));
+    } catch (RuntimeException e) {
+      flight.result.setException(e);
+      throw e;
+    }
+    return response;
+  }
+
+  /**
+   * A request in progress and the requests waiting for its response.
+   */
+  private static class Flight {
+
+    private final SettableFuture<BufferedResponse> result = SettableFuture.create();
+    private int waiting;
+    private boolean landed;
+
+    /**
+     * @return false if the response is already being handed out and no more requests can wait for it
+     */
+    synchronized boolean join() {
+      if (landed) {
+        return false;
+      }
+      waiting++;
+      return true;
+    }
+
+    /**
+     * Stops accepting waiting requests.
+     *
+     * @return how many requests are waiting
+     */
+    synchronized int land() {
+      landed = true;
+      return waiting;
+    }
+
+    /**
+     * Waits for the response, no longer than the deadline of the calling thread.
+     *
+     * @return the shared response, or null if the waiting request must go to the server on its own because the
+     *         response was too large or the request in progress ran out of its own deadline
+     */
+    BufferedResponse await() {
+      Deadline deadline = Deadline.current();
+      try {
+        return (deadline == null) ? result.get() : result.get(deadline.remaining(TimeUnit.NANOSECONDS),
+            TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ClientHandlerException(e);
+      } catch (TimeoutException e) {
+        throw new DeadlineExceededException("Deadline expired waiting for a coalesced request", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof DeadlineExceededException) {
+          return null;
+        }
+        throw new ClientHandlerException("Coalesced request failed", e.getCause());
+      }
+    }
+  }
+}
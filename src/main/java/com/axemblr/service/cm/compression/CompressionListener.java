@@ -0,0 +1,29 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.compression;
+
+/**
+ * Receives the sizes of the bodies compressed and decompressed by the {@link GzipFilter}, e.g. to track the
+ * compression ratio of each endpoint.
+ * <p/>
+ * Endpoints are identified like in {@link com.axemblr.service.cm.metrics.ClientMetricsListener}. Methods are called
+ * from the threads issuing the requests, so they must be thread-safe and should return quickly. Exceptions thrown
+ * by listeners are ignored.
+ */
+public interface CompressionListener {
+
+  /**
+   * A request body was compressed before being sent.
+   */
+  public void requestCompressed(String endpoint, long uncompressedBytes, long compressedBytes);
+
+  /**
+   * A compressed response body was read and closed.
+   */
+  public void responseDecompressed(String endpoint, long compressedBytes, long uncompressedBytes);
+}
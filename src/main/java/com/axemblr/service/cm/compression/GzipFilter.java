@@ -0,0 +1,219 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.compression;
+
+import com.axemblr.service.cm.metrics.EndpointTemplates;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableList;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.sun.jersey.spi.MessageBodyWorkers;
+
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.MessageBodyWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiates gzip compressed responses and optionally compresses large request bodies.
+ * <p/>
+ * Every request asks for gzip with {@code Accept-Encoding}; compressed responses are decompressed transparently.
+ * When a request compression threshold is set, request bodies are serialized up front and sent compressed if they
+ * are at least that large. Install it outside the metrics filter so that the byte counts there are the ones on
+ * the wire.
+ */
+public class GzipFilter extends ClientFilter {
+
+  public static final int NO_REQUEST_COMPRESSION = -1;
+
+  private static final Logger LOG = Logger.getLogger(GzipFilter.class.getName());
+  private static final String GZIP = "gzip";
+  private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+  private final MessageBodyWorkers workers;
+  private final int minRequestBytes;
+  private final List<CompressionListener> listeners;
+
+  /**
+   * @param workers         the writers of the client, used to serialize request bodies
+   * @param minRequestBytes smallest request body that is compressed, or {@link #NO_REQUEST_COMPRESSION}
+   */
+  public GzipFilter(MessageBodyWorkers workers, int minRequestBytes, List<? extends CompressionListener> listeners) {
+    this.workers = checkNotNull(workers);
+    this.minRequestBytes = minRequestBytes;
+    this.listeners = ImmutableList.copyOf(listeners);
+  }
+
+  public int getMinRequestBytes() {
+    return minRequestBytes;
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    String endpoint = EndpointTemplates.endpointOf(request.getMethod(), request.getURI().getRawPath());
+    if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+      request.getHeaders().putSingle(HttpHeaders.ACCEPT_ENCODING, GZIP);
+    }
+    if (minRequestBytes != NO_REQUEST_COMPRESSION && request.getEntity() != null
+        && !request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+      compressEntity(request, endpoint);
+    }
+
+    ClientResponse response = getNext().handle(request);
+    String encoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+    if (GZIP.equalsIgnoreCase(encoding) && response.hasEntity()) {
+      response.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+      response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+      try {
+        CountingStream compressed = new CountingStream(response.getEntityInputStream());
+        response.setEntityInputStream(new DecompressingStream(new GZIPInputStream(compressed), compressed,
+            endpoint));
+      } catch (IOException e) {
+        response.close();
+        throw new ClientHandlerException(e);
+      }
+    }
+    return response;
+  }
+
+  private void compressEntity(ClientRequest request, String endpoint) {
+    byte[] body = serialize(request);
+    if (body.length < minRequestBytes) {
+      request.setEntity(body);
+      return;
+    }
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+    try {
+      GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+      gzip.write(body);
+      gzip.close();
+    } catch (IOException e) {
+      throw new ClientHandlerException(e);
+    }
+    request.setEntity(compressed.toByteArray());
+    request.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+    for (CompressionListener listener : listeners) {
+      try {
+        listener.requestCompressed(endpoint, body.length, compressed.size());
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Compression listener failed", e);
+      }
+    }
+  }
+
+  private byte[] serialize(ClientRequest request) {
+    Object entity = request.getEntity();
+    if (entity instanceof byte[]) {
+      return (byte[]) entity;
+    }
+    Class<?> type = entity.getClass();
+    Type genericType = type;
+    if (entity instanceof GenericEntity) {
+      GenericEntity<?> generic = (GenericEntity<?>) entity;
+      entity = generic.getEntity();
+      type = generic.getRawType();
+      genericType = generic.getType();
+    }
+    Object contentType = request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+    MediaType mediaType = (contentType == null) ? MediaType.APPLICATION_JSON_TYPE
+        : MediaType.valueOf(ClientRequest.getHeaderValue(contentType));
+    @SuppressWarnings("unchecked")  // the writer was looked up for the class of the entity
+    MessageBodyWriter<Object> writer = (MessageBodyWriter<Object>) workers.getMessageBodyWriter(type, genericType,
+        NO_ANNOTATIONS, mediaType);
+    if (writer == null) {
+      throw new ClientHandlerException("No writer for " + type.getName() + " and media type " + mediaType);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      writer.writeTo(entity, type, genericType, NO_ANNOTATIONS, mediaType, request.getHeaders(), out);
+    } catch (IOException e) {
+      throw new ClientHandlerException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static class CountingStream extends FilterInputStream {
+
+    long count;
+
+    CountingStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      if (b != -1) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = in.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = in.skip(n);
+      count += skipped;
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+
+  private class DecompressingStream extends CountingStream {
+
+    private final CountingStream compressed;
+    private final String endpoint;
+    private final AtomicBoolean reported = new AtomicBoolean(false);
+
+    DecompressingStream(InputStream in, CountingStream compressed, String endpoint) {
+      super(in);
+      this.compressed = compressed;
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      if (reported.compareAndSet(false, true)) {
+        for (CompressionListener listener : listeners) {
+          try {
+            listener.responseDecompressed(endpoint, compressed.count, count);
+          } catch (RuntimeException e) {
+            LOG.log(Level.FINE, "Compression listener failed", e);
+          }
+        }
+      }
+    }
+  }
+}
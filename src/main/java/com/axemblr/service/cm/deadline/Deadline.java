@@ -0,0 +1,189 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.deadline;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a unit of work must be done, e.g. a whole deployment step or a user request.
+ * <p/>
+ * Entering a deadline makes it the current deadline of the thread until the returned scope is closed. Every HTTP
+ * call made by a client in the meantime, including the asynchronous ones and the queries made to wait for
+ * commands, has its connect and read timeouts capped to the remaining time and fails with a
+ * {@link DeadlineExceededException} once the deadline has passed:
+ * <pre>
+ * Deadline.Scope scope = Deadline.after(2, TimeUnit.MINUTES).enter();
+ * try {
+ *   client.commands().waitFor(client.clusters().getCluster(name).startCommand());
+ * } finally {
+ *   scope.close();
+ * }
+ * </pre>
+ * Deadlines nest: entering a deadline later than the current one keeps the current one.
+ */
+public final class Deadline implements Comparable<Deadline> {
+
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<Deadline>();
+
+  /**
+   * @return a deadline the given amount of time from now
+   */
+  public static Deadline after(long duration, TimeUnit unit) {
+    checkArgument(duration >= 0, "Duration can't be negative");
+    return new Deadline(System.nanoTime() + unit.toNanos(duration));
+  }
+
+  /**
+   * @return the deadline of the calling thread, or null if it didn't enter one
+   */
+  public static Deadline current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * @return a task that runs with the deadline that is current now, for handing work to other threads
+   */
+  public static Runnable propagate(final Runnable task) {
+    checkNotNull(task);
+    final Deadline deadline = current();
+    if (deadline == null) {
+      return task;
+    }
+    return new Runnable() {
+      @Override
+      public void run() {
+        Scope scope = deadline.enter();
+        try {
+          task.run();
+        } finally {
+          scope.close();
+        }
+      }
+    };
+  }
+
+  private final long deadlineNanos;
+
+  private Deadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * @return the time left, or 0 if the deadline passed
+   */
+  public long remaining(TimeUnit unit) {
+    return unit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+  }
+
+  public boolean isExpired() {
+    return deadlineNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * @param timeoutMs a socket timeout, 0 meaning no timeout
+   * @return the smaller of the timeout and the remaining time, never 0 so that it isn't taken for no timeout
+   */
+  public int capTimeoutMs(int timeoutMs) {
+    long remainingMs = Math.max(1, remaining(TimeUnit.MILLISECONDS));
+    return (int) ((timeoutMs <= 0) ? Math.min(remainingMs, Integer.MAX_VALUE) : Math.min(remainingMs, timeoutMs));
+  }
+
+  /**
+   * @return the earlier of the two deadlines
+   */
+  public Deadline min(Deadline other) {
+    return (other == null || compareTo(other) <= 0) ? this : other;
+  }
+
+  /**
+   * Make this deadline, or the current one if it is earlier, the deadline of the calling thread.
+   *
+   * @return the scope to close, on the same thread, to restore the previous deadline
+   */
+  public Scope enter() {
+    Deadline previous = CURRENT.get();
+    CURRENT.set(min(previous));
+    return new Scope(previous);
+  }
+
+  /**
+   * Run the task within this deadline.
+   */
+  public <T> T call(Callable<T> task) throws Exception {
+    Scope scope = enter();
+    try {
+      return task.call();
+    } finally {
+      scope.close();
+    }
+  }
+
+  @Override
+  public int compareTo(Deadline other) {
+    long difference = deadlineNanos - other.deadlineNanos;
+    return (difference < 0) ? -1 : ((difference == 0) ? 0 : 1);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    Deadline deadline = (Deadline) o;
+    return deadlineNanos == deadline.deadlineNanos;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (deadlineNanos ^ (deadlineNanos >>> 32));
+  }
+
+  @Override
+  public String toString() {
+    return "Deadline{" +
+        "remainingMs=" + remaining(TimeUnit.MILLISECONDS) +
+        '}';
+  }
+
+  /**
+   * The time a deadline is current on a thread.
+   */
+  public static final class Scope implements Closeable {
+
+    private final Deadline previous;
+    private final Thread thread = Thread.currentThread();
+    private boolean closed;
+
+    private Scope(Deadline previous) {
+      this.previous = previous;
+    }
+
+    /**
+     * Restore the deadline that was current before entering this scope. Calling it again has no effect.
+     */
+    @Override
+    public void close() {
+      checkState(thread == Thread.currentThread(), "A deadline scope must be closed by the thread that entered it");
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.deadline;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+
+/**
+ * Thrown when the current {@link Deadline} passed before a request was sent, while waiting for its response or
+ * while waiting for a command to finish.
+ */
+public class DeadlineExceededException extends ClientHandlerException {
+
+  private static final long serialVersionUID = 1L;
+
+  public DeadlineExceededException(String message) {
+    super(message);
+  }
+
+  public DeadlineExceededException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
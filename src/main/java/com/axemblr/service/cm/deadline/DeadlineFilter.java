@@ -0,0 +1,61 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.deadline;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.config.ClientConfig;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Applies the current {@link Deadline} of the thread to every request.
+ * <p/>
+ * Requests are not sent once the deadline passed, and the connect and read timeouts of the others are capped to
+ * the remaining time through the {@link ClientConfig#PROPERTY_CONNECT_TIMEOUT} and
+ * {@link ClientConfig#PROPERTY_READ_TIMEOUT} request properties. I/O errors raised after the deadline passed are
+ * reported as {@link DeadlineExceededException}s. Install it inside the retry and concurrency limit filters, so that
+ * every attempt gets the time left after waiting.
+ */
+public class DeadlineFilter extends ClientFilter {
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    Deadline deadline = Deadline.current();
+    if (deadline == null) {
+      return getNext().handle(request);
+    }
+    if (deadline.isExpired()) {
+      throw new DeadlineExceededException("Deadline expired before sending " + request.getMethod() + " "
+          + request.getURI());
+    }
+    Map<String, Object> properties = request.getProperties();
+    properties.put(ClientConfig.PROPERTY_CONNECT_TIMEOUT,
+        deadline.capTimeoutMs(timeoutOf(properties.get(ClientConfig.PROPERTY_CONNECT_TIMEOUT))));
+    properties.put(ClientConfig.PROPERTY_READ_TIMEOUT,
+        deadline.capTimeoutMs(timeoutOf(properties.get(ClientConfig.PROPERTY_READ_TIMEOUT))));
+    try {
+      return getNext().handle(request);
+    } catch (DeadlineExceededException e) {
+      throw e;
+    } catch (ClientHandlerException e) {
+      if (e.getCause() instanceof IOException && deadline.isExpired()) {
+        throw new DeadlineExceededException("Deadline expired waiting for " + request.getMethod() + " "
+            + request.getURI(), e.getCause());
+      }
+      throw e;
+    }
+  }
+
+  private static int timeoutOf(Object property) {
+    return (property instanceof Integer) ? (Integer) property : 0;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.deadline;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the tasks on the given executor with the {@link Deadline} that was current when they were submitted, so
+ * that asynchronous requests keep the deadline of the caller.
+ */
+public class DeadlinePropagatingExecutor extends AbstractExecutorService {
+
+  private final ExecutorService delegate;
+
+  public DeadlinePropagatingExecutor(ExecutorService delegate) {
+    this.delegate = checkNotNull(delegate);
+  }
+
+  public ExecutorService getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    delegate.execute(Deadline.propagate(command));
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+}
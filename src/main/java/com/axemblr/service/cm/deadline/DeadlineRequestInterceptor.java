@@ -0,0 +1,39 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.deadline;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Caps the connection lease, connect and socket timeouts of Apache HttpClient requests to the time left until the
+ * current {@link Deadline}.
+ * <p/>
+ * The Jersey handler for Apache HttpClient ignores the timeout properties of the requests, so the pooled client
+ * installs this interceptor instead. It runs on the calling thread before a connection is leased.
+ */
+public class DeadlineRequestInterceptor implements HttpRequestInterceptor {
+
+  @Override
+  public void process(HttpRequest request, HttpContext context) {
+    Deadline deadline = Deadline.current();
+    if (deadline == null) {
+      return;
+    }
+    HttpClientContext clientContext = HttpClientContext.adapt(context);
+    RequestConfig config = clientContext.getRequestConfig();
+    clientContext.setRequestConfig(RequestConfig.copy(config)
+        .setConnectionRequestTimeout(deadline.capTimeoutMs(config.getConnectionRequestTimeout()))
+        .setConnectTimeout(deadline.capTimeoutMs(config.getConnectTimeout()))
+        .setSocketTimeout(deadline.capTimeoutMs(config.getSocketTimeout()))
+        .build());
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.hedge;
+
+import com.axemblr.service.cm.metrics.EndpointTemplates;
+import com.axemblr.service.cm.retry.RetryBudget;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for hedging GET requests to latency sensitive endpoints.
+ * <p/>
+ * When the response to a hedged GET did not arrive after the {@link #getPercentile() percentile} of the recent
+ * latencies of its endpoint, an identical request is sent and the first response wins. Hedges are paid from a
+ * {@link RetryBudget} filled by a small fraction of the requests, so they can only add that much load. Endpoints
+ * are named by their templates, see {@link EndpointTemplates#endpointOf(String, String)}.
+ */
+public class HedgeConfig {
+
+  public static final String SERVICE_DETAILS = "GET /clusters/{c}/services/{s}";
+  public static final String ROLE_DETAILS = "GET /clusters/{c}/services/{s}/roles/{r}";
+
+  public static final Set<String> DEFAULT_ENDPOINTS = ImmutableSet.of(SERVICE_DETAILS, ROLE_DETAILS);
+  public static final double DEFAULT_PERCENTILE = 95;
+  public static final int DEFAULT_WINDOW_SIZE = 256;
+  public static final int DEFAULT_MIN_SAMPLES = 20;
+  public static final long DEFAULT_MIN_DELAY_MS = 5;
+  public static final double DEFAULT_BUDGET_RATIO = 0.05;
+  public static final int DEFAULT_BUDGET_MIN_HEDGES = 5;
+  public static final int DEFAULT_BUDGET_MAX_HEDGES = 50;
+
+  private final Set<String> endpoints;
+  private final double percentile;
+  private final int windowSize;
+  private final int minSamples;
+  private final long minDelayMs;
+  private final double budgetRatio;
+  private final int budgetMinHedges;
+  private final int budgetMaxHedges;
+
+  private HedgeConfig(HedgeConfigBuilder builder) {
+    this.endpoints = ImmutableSet.copyOf(builder.endpoints);
+    this.percentile = builder.percentile;
+    this.windowSize = builder.windowSize;
+    this.minSamples = builder.minSamples;
+    this.minDelayMs = builder.minDelayMs;
+    this.budgetRatio = builder.budgetRatio;
+    this.budgetMinHedges = builder.budgetMinHedges;
+    this.budgetMaxHedges = builder.budgetMaxHedges;
+  }
+
+  /**
+   * Hedge the service and role details at the 95th percentile, with hedges capped to 5% of the requests.
+   */
+  public static HedgeConfig defaults() {
+    return builder().build();
+  }
+
+  public static HedgeConfigBuilder builder() {
+    return new HedgeConfigBuilder();
+  }
+
+  /**
+   * Endpoint templates whose GET requests are hedged, e.g. {@link #SERVICE_DETAILS}.
+   */
+  public Set<String> getEndpoints() {
+    return endpoints;
+  }
+
+  /**
+   * Percentile of the recent latencies after which a hedge is sent.
+   */
+  public double getPercentile() {
+    return percentile;
+  }
+
+  /**
+   * Number of recent latencies kept per endpoint.
+   */
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * Latencies needed before an endpoint is hedged.
+   */
+  public int getMinSamples() {
+    return minSamples;
+  }
+
+  /**
+   * Shortest wait before a hedge, so that fast endpoints are not hedged on noise.
+   */
+  public long getMinDelayMs() {
+    return minDelayMs;
+  }
+
+  /**
+   * Fraction of the hedged endpoint requests that can be sent twice, see {@link RetryBudget}.
+   */
+  public double getBudgetRatio() {
+    return budgetRatio;
+  }
+
+  public int getBudgetMinHedges() {
+    return budgetMinHedges;
+  }
+
+  public int getBudgetMaxHedges() {
+    return budgetMaxHedges;
+  }
+
+  @Override
+  public String toString() {
+    return "HedgeConfig{" +
+        "endpoints=" + endpoints +
+        ", percentile=" + percentile +
+        ", windowSize=" + windowSize +
+        ", minSamples=" + minSamples +
+        ", minDelayMs=" + minDelayMs +
+        ", budgetRatio=" + budgetRatio +
+        ", budgetMinHedges=" + budgetMinHedges +
+        ", budgetMaxHedges=" + budgetMaxHedges +
+        '}';
+  }
+
+  public static class HedgeConfigBuilder {
+
+    private Set<String> endpoints = DEFAULT_ENDPOINTS;
+    private double percentile = DEFAULT_PERCENTILE;
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+    private int minSamples = DEFAULT_MIN_SAMPLES;
+    private long minDelayMs = DEFAULT_MIN_DELAY_MS;
+    private double budgetRatio = DEFAULT_BUDGET_RATIO;
+    private int budgetMinHedges = DEFAULT_BUDGET_MIN_HEDGES;
+    private int budgetMaxHedges = DEFAULT_BUDGET_MAX_HEDGES;
+
+    private HedgeConfigBuilder() {
+    }
+
+    /**
+     * @param endpoints templates of the hedged endpoints, e.g. {@code GET /clusters/{c}/services/{s}}
+     */
+    public HedgeConfigBuilder withEndpoints(Set<String> endpoints) {
+      for (String endpoint : endpoints) {
+        checkArgument(endpoint.startsWith("GET /"), "Only GET endpoints can be hedged: %s", endpoint);
+      }
+      this.endpoints = endpoints;
+      return this;
+    }
+
+    public HedgeConfigBuilder withPercentile(double percentile) {
+      checkArgument(percentile > 0 && percentile < 100, "Percentile must be in the (0, 100) range");
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * @param windowSize number of recent latencies kept per endpoint
+     * @param minSamples latencies needed before an endpoint is hedged
+     */
+    public HedgeConfigBuilder withWindow(int windowSize, int minSamples) {
+      checkArgument(minSamples > 0 && minSamples <= windowSize, "Expected 0 < minSamples <= windowSize");
+      this.windowSize = windowSize;
+      this.minSamples = minSamples;
+      return this;
+    }
+
+    public HedgeConfigBuilder withMinDelay(long minDelay, TimeUnit unit) {
+      checkArgument(minDelay >= 0, "Minimum delay must not be negative");
+      this.minDelayMs = checkNotNull(unit).toMillis(minDelay);
+      return this;
+    }
+
+    /**
+     * @param ratio     fraction of the requests that can be hedged
+     * @param minHedges hedges always available, e.g. when there is little traffic
+     * @param maxHedges hedges that can be saved up while responses are fast
+     */
+    public HedgeConfigBuilder withBudget(double ratio, int minHedges, int maxHedges) {
+      checkArgument(ratio >= 0 && ratio <= 1, "Hedge ratio must be in the [0, 1] range");
+      checkArgument(minHedges >= 0 && minHedges <= maxHedges, "Expected 0 <= minHedges <= maxHedges");
+      this.budgetRatio = ratio;
+      this.budgetMinHedges = minHedges;
+      this.budgetMaxHedges = maxHedges;
+      return this;
+    }
+
+    public HedgeConfig build() {
+      return new HedgeConfig(this);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.hedge;
+
+import com.axemblr.service.cm.metrics.EndpointTemplates;
+import com.axemblr.service.cm.retry.RetryBudget;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.util.concurrent.SettableFuture;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import javax.ws.rs.HttpMethod;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends a second, identical GET when the response of a latency sensitive endpoint is late, see
+ * {@link HedgeConfig}.
+ * <p/>
+ * Once an endpoint has enough recent latencies its requests are sent from the given executor while the caller
+ * waits for the first response. The request that loses is cancelled if it didn't start yet, otherwise its response
+ * is closed as soon as it arrives, which releases the connection. A failed attempt only fails the call when the
+ * other one fails too. Install it outside the retry filter, so that each attempt is retried on its own, and give
+ * it an executor that propagates the {@link com.axemblr.service.cm.deadline.Deadline} of the caller.
+ */
+public class HedgingFilter extends ClientFilter {
+
+  private final HedgeConfig config;
+  private final ExecutorService executor;
+  private final RetryBudget budget;
+  private final ConcurrentMap<String, LatencyWindow> windows = new ConcurrentHashMap<String, LatencyWindow>();
+  private final AtomicLong hedges = new AtomicLong();
+  private final AtomicLong hedgeWins = new AtomicLong();
+  private final AtomicLong rejectedHedges = new AtomicLong();
+
+  /**
+   * @param executor runs the attempts of the hedged endpoints, it should not queue tasks
+   */
+  public HedgingFilter(HedgeConfig config, ExecutorService executor) {
+    this.config = checkNotNull(config);
+    this.executor = checkNotNull(executor);
+    this.budget = new RetryBudget(config.getBudgetRatio(), config.getBudgetMinHedges(),
+        config.getBudgetMaxHedges());
+  }
+
+  public HedgeConfig getConfig() {
+    return config;
+  }
+
+  public RetryBudget getBudget() {
+    return budget;
+  }
+
+  /**
+   * @return the number of requests sent a second time because the first response was late
+   */
+  public long getHedgeCount() {
+    return hedges.get();
+  }
+
+  /**
+   * @return the number of hedges answered before the request they were sent for
+   */
+  public long getHedgeWinCount() {
+    return hedgeWins.get();
+  }
+
+  /**
+   * @return the number of hedges not sent because the budget was exhausted
+   */
+  public long getRejectedHedgeCount() {
+    return rejectedHedges.get();
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    if (!HttpMethod.GET.equals(request.getMethod())) {
+      return getNext().handle(request);
+    }
+    String endpoint = EndpointTemplates.endpointOf(request.getMethod(), request.getURI().getRawPath());
+    if (!config.getEndpoints().contains(endpoint)) {
+      return getNext().handle(request);
+    }
+    LatencyWindow window = windowOf(endpoint);
+    budget.deposit();
+    long percentileMicros = window.getPercentileMicros();
+    if (percentileMicros < 0) {
+      return new Attempt(request, window, null).send();
+    }
+    long delayMicros = Math.max(percentileMicros, TimeUnit.MILLISECONDS.toMicros(config.getMinDelayMs()));
+    return hedge(request, window, delayMicros);
+  }
+
+  private ClientResponse hedge(ClientRequest request, LatencyWindow window, long delayMicros) {
+    // copied before the primary attempt starts, filters may change the properties of the original
+    ClientRequest copy = copyOf(request);
+    HedgedCall call = new HedgedCall();
+    Future<?> primary;
+    try {
+      primary = executor.submit(new Attempt(request, window, call));
+    } catch (RejectedExecutionException e) {
+      return new Attempt(request, window, null).send();
+    }
+    try {
+      try {
+        return call.result.get(delayMicros, TimeUnit.MICROSECONDS);
+      } catch (TimeoutException e) {
+        // the response is late
+      }
+      if (call.result.isDone()) {
+        return call.result.get();
+      }
+      if (!budget.tryWithdraw()) {
+        rejectedHedges.incrementAndGet();
+        return call.result.get();
+      }
+      Attempt hedge = new Attempt(copy, window, call);
+      Future<?> hedged;
+      try {
+        call.outstanding.incrementAndGet();
+        hedged = executor.submit(hedge);
+      } catch (RejectedExecutionException e) {
+        call.outstanding.decrementAndGet();
+        return call.result.get();
+      }
+      hedges.incrementAndGet();
+      ClientResponse response = call.result.get();
+      if (call.winner.get() == hedge) {
+        hedgeWins.incrementAndGet();
+        primary.cancel(false);
+      } else {
+        hedged.cancel(false);
+      }
+      return response;
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      call.result.cancel(false);
+      throw new ClientHandlerException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ClientHandlerException(e.getCause());
+    }
+  }
+
+  private static ClientRequest copyOf(ClientRequest request) {
+    ClientRequest copy = request.clone();
+    copy.getProperties().putAll(request.getProperties());
+    copy.setAdapter(request.getAdapter());
+    return copy;
+  }
+
+  private LatencyWindow windowOf(String endpoint) {
+    LatencyWindow window = windows.get(endpoint);
+    if (window == null) {
+      LatencyWindow created = new LatencyWindow(config.getWindowSize(), config.getMinSamples(),
+          config.getPercentile());
+      window = windows.putIfAbsent(endpoint, created);
+      if (window == null) {
+        window = created;
+      }
+    }
+    return window;
+  }
+
+  /**
+   * The attempts made for one request; the first response completes the result.
+   */
+  private static class HedgedCall {
+    private final SettableFuture<ClientResponse> result = SettableFuture.create();
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+    private final AtomicReference<Attempt> winner = new AtomicReference<Attempt>();
+  }
+
+  private class Attempt implements Runnable {
+
+    private final ClientRequest request;
+    private final LatencyWindow window;
+    private final HedgedCall call;
+
+    Attempt(ClientRequest request, LatencyWindow window, HedgedCall call) {
+      this.request = request;
+      this.window = window;
+      this.call = call;
+    }
+
+    ClientResponse send() {
+      long startNanos = System.nanoTime();
+      ClientResponse response = getNext().handle(request);
+      window.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+      return response;
+    }
+
+    @Override
+    public void run() {
+      ClientResponse response;
+      try {
+        response = send();
+      } catch (RuntimeException e) {
+        // the call only fails with the error of the last attempt standing
+        if (call.outstanding.decrementAndGet() == 0) {
+          call.result.setException(e);
+        }
+        return;
+      }
+      call.outstanding.decrementAndGet();
+      if (!call.winner.compareAndSet(null, this) || !call.result.set(response)) {
+        response.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.hedge;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+/**
+ * The most recent latencies of an endpoint and a percentile over them.
+ * <p/>
+ * Unlike the cumulative histograms used for metrics it forgets old values, so the percentile follows the current
+ * behavior of the server. The percentile is computed again after every eighth of the window was replaced.
+ */
+class LatencyWindow {
+
+  private final long[] samples;
+  private final int minSamples;
+  private final double percentile;
+  private final int updateInterval;
+  private int next;
+  private int size;
+  private int recordedSinceUpdate;
+  private long percentileMicros = -1;
+
+  LatencyWindow(int windowSize, int minSamples, double percentile) {
+    checkArgument(minSamples > 0 && minSamples <= windowSize, "Expected 0 < minSamples <= windowSize");
+    this.samples = new long[windowSize];
+    this.minSamples = minSamples;
+    this.percentile = percentile;
+    this.updateInterval = Math.max(1, windowSize / 8);
+  }
+
+  synchronized void record(long micros) {
+    samples[next] = micros;
+    next = (next + 1) % samples.length;
+    size = Math.min(size + 1, samples.length);
+    recordedSinceUpdate++;
+    if (size >= minSamples && (percentileMicros < 0 || recordedSinceUpdate >= updateInterval)) {
+      long[] sorted = Arrays.copyOf(samples, size);
+      Arrays.sort(sorted);
+      int rank = (int) Math.ceil(size * percentile / 100);
+      percentileMicros = sorted[Math.max(0, rank - 1)];
+      recordedSinceUpdate = 0;
+    }
+  }
+
+  /**
+   * @return the percentile of the recent latencies, or -1 while there are fewer than the minimum samples
+   */
+  synchronized long getPercentileMicros() {
+    return percentileMicros;
+  }
+}
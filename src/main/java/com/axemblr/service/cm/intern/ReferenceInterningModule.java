@@ -0,0 +1,127 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.intern;
+
+import com.axemblr.service.cm.models.clusters.ClusterRef;
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.RoleRef;
+import com.axemblr.service.cm.models.hosts.HostRef;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.Version;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.deser.std.StdDeserializer;
+import org.codehaus.jackson.map.module.SimpleModule;
+
+import java.io.IOException;
+
+/**
+ * Deserializes {@link ClusterRef}, {@link ServiceRef}, {@link RoleRef} and {@link HostRef} to canonical
+ * instances. Large responses repeat the same references many times, in the role refs of every host and the host
+ * and service refs of every role, command and activity. With this module equal references and the names in them
+ * share one instance.
+ * <p/>
+ * The canonical instances are held in weak intern tables and are released once nothing else refers to them.
+ * Interning costs a hash lookup per reference and per name, so it pays off for clients that keep large models
+ * around, not for ones that read a response and drop it.
+ */
+public class ReferenceInterningModule extends SimpleModule {
+
+  private final Interner<String> strings = Interners.newWeakInterner();
+  private final Interner<ClusterRef> clusterRefs = Interners.newWeakInterner();
+  private final Interner<ServiceRef> serviceRefs = Interners.newWeakInterner();
+  private final Interner<RoleRef> roleRefs = Interners.newWeakInterner();
+  private final Interner<HostRef> hostRefs = Interners.newWeakInterner();
+
+  public ReferenceInterningModule() {
+    super("ReferenceInterningModule", new Version(1, 0, 0, null));
+    addDeserializer(ClusterRef.class, new RefDeserializer<ClusterRef>(ClusterRef.class, "clusterName") {
+      @Override
+      ClusterRef create(String[] values) {
+        return clusterRefs.intern(new ClusterRef(values[0]));
+      }
+    });
+    addDeserializer(ServiceRef.class, new RefDeserializer<ServiceRef>(ServiceRef.class,
+        "clusterName", "serviceName") {
+      @Override
+      ServiceRef create(String[] values) {
+        return serviceRefs.intern(new ServiceRef(values[0], values[1]));
+      }
+    });
+    addDeserializer(RoleRef.class, new RefDeserializer<RoleRef>(RoleRef.class,
+        "clusterName", "serviceName", "roleName") {
+      @Override
+      RoleRef create(String[] values) {
+        return roleRefs.intern(new RoleRef(values[0], values[1], values[2]));
+      }
+    });
+    addDeserializer(HostRef.class, new RefDeserializer<HostRef>(HostRef.class, "hostId") {
+      @Override
+      HostRef create(String[] values) {
+        return hostRefs.intern(new HostRef(values[0]));
+      }
+    });
+  }
+
+  /**
+   * Reads a flat object of string properties, interns the values and builds the reference from them.
+   */
+  private abstract class RefDeserializer<T> extends StdDeserializer<T> {
+
+    private final String[] properties;
+
+    RefDeserializer(Class<T> type, String... properties) {
+      super(type);
+      this.properties = properties;
+    }
+
+    abstract T create(String[] values);
+
+    @Override
+    public T deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+      JsonToken token = jp.getCurrentToken();
+      if (token == JsonToken.START_OBJECT) {
+        token = jp.nextToken();
+      }
+      String[] values = new String[properties.length];
+      for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+        String name = jp.getCurrentName();
+        JsonToken value = jp.nextToken();
+        int index = indexOf(name);
+        if (index < 0) {
+          handleUnknownProperty(jp, ctxt, getValueClass(), name);
+        } else if (value == JsonToken.VALUE_NULL) {
+          values[index] = null;
+        } else if (value.isScalarValue()) {
+          values[index] = strings.intern(jp.getText());
+        } else {
+          throw ctxt.mappingException(getValueClass(), value);
+        }
+      }
+      if (token != JsonToken.END_OBJECT) {
+        throw ctxt.mappingException(getValueClass(), token);
+      }
+      try {
+        return create(values);
+      } catch (RuntimeException e) {
+        throw ctxt.instantiationException(getValueClass(), e);
+      }
+    }
+
+    private int indexOf(String name) {
+      for (int i = 0; i < properties.length; i++) {
+        if (properties[i].equals(name)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+}
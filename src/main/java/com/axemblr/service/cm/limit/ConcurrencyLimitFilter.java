@@ -0,0 +1,88 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.limit;
+
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import com.axemblr.service.cm.metrics.EndpointTemplates;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.Maps;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Caps the requests in flight for each {@link EndpointFamily} with an adaptive {@link ConcurrencyLimiter}.
+ * <p/>
+ * The slot is held until the response headers arrive. Install it inside the retry filter, so a request waiting
+ * to be retried doesn't hold a slot, and outside the metrics filter, so the time spent waiting for a slot isn't
+ * counted as server latency.
+ */
+public class ConcurrencyLimitFilter extends ClientFilter {
+
+  private static final int TOO_MANY_REQUESTS = 429;
+  private static final int SERVICE_UNAVAILABLE = 503;
+
+  private final LimiterConfig config;
+  private final Map<EndpointFamily, ConcurrencyLimiter> limiters;
+
+  public ConcurrencyLimitFilter(LimiterConfig config) {
+    this.config = checkNotNull(config);
+    Map<EndpointFamily, ConcurrencyLimiter> limiters = Maps.newEnumMap(EndpointFamily.class);
+    for (EndpointFamily family : EndpointFamily.values()) {
+      limiters.put(family, new ConcurrencyLimiter(family, config));
+    }
+    this.limiters = Collections.unmodifiableMap(limiters);
+  }
+
+  public LimiterConfig getConfig() {
+    return config;
+  }
+
+  public ConcurrencyLimiter getLimiter(EndpointFamily family) {
+    return limiters.get(family);
+  }
+
+  public Map<EndpointFamily, ConcurrencyLimiter> getLimiters() {
+    return limiters;
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    String template = EndpointTemplates.templateOf(request.getURI().getRawPath());
+    ConcurrencyLimiter limiter = limiters.get(EndpointFamily.of(template));
+    limiter.acquire();
+
+    long startNanos = System.nanoTime();
+    ClientResponse response;
+    try {
+      response = getNext().handle(request);
+    } catch (ClientHandlerException e) {
+      limiter.release(System.nanoTime() - startNanos,
+          e.getCause() instanceof IOException && !(e instanceof DeadlineExceededException));
+      throw e;
+    } catch (RuntimeException e) {
+      limiter.release(System.nanoTime() - startNanos, false);
+      throw e;
+    }
+    int status = response.getStatus();
+    limiter.release(System.nanoTime() - startNanos, status == TOO_MANY_REQUESTS || status == SERVICE_UNAVAILABLE);
+    return response;
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrencyLimitFilter{" +
+        "limiters=" + limiters.values() +
+        '}';
+  }
+}
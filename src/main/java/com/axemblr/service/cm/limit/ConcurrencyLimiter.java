@@ -0,0 +1,192 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.limit;
+
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.sun.jersey.api.client.ClientHandlerException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit on the number of requests in flight for one {@link EndpointFamily}, see {@link LimiterConfig}.
+ */
+public class ConcurrencyLimiter {
+
+  /**
+   * Number of samples after which the lowest latency is measured again, so it follows changes on the server.
+   */
+  private static final int MIN_LATENCY_WINDOW = 500;
+
+  private final EndpointFamily family;
+  private final LimiterConfig config;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition slotFreed = lock.newCondition();
+
+  private double limit;
+  private int inFlight;
+  private int waiting;
+  private long minLatencyNanos = Long.MAX_VALUE;
+  private int samples;
+  private long rejected;
+
+  public ConcurrencyLimiter(EndpointFamily family, LimiterConfig config) {
+    this.family = checkNotNull(family);
+    this.config = checkNotNull(config);
+    this.limit = config.getInitialLimit();
+  }
+
+  public EndpointFamily getFamily() {
+    return family;
+  }
+
+  /**
+   * Takes a slot, waiting for one to be freed if the limit is reached. The wait ends at the current
+   * {@link Deadline} if it comes before the maximum wait.
+   *
+   * @throws LimitExceededException    if the queue is full or no slot was freed in time
+   * @throws DeadlineExceededException if the deadline expired before a slot was freed
+   */
+  public void acquire() {
+    lock.lock();
+    try {
+      if (inFlight < (int) limit) {
+        inFlight++;
+        return;
+      }
+      if (waiting >= config.getMaxQueueSize()) {
+        rejected++;
+        throw new LimitExceededException(family, "Too many requests waiting for " + family + " endpoints");
+      }
+      waiting++;
+      try {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMs());
+        Deadline deadline = Deadline.current();
+        boolean deadlineFirst = deadline != null && deadline.remaining(TimeUnit.NANOSECONDS) < remainingNanos;
+        if (deadlineFirst) {
+          remainingNanos = deadline.remaining(TimeUnit.NANOSECONDS);
+        }
+        while (inFlight >= (int) limit) {
+          if (remainingNanos <= 0 && deadlineFirst) {
+            throw new DeadlineExceededException("Deadline expired waiting to send a request to " + family
+                + " endpoints, " + inFlight + " requests in flight");
+          }
+          if (remainingNanos <= 0) {
+            rejected++;
+            throw new LimitExceededException(family, "Timed out waiting to send a request to " + family
+                + " endpoints, " + inFlight + " requests in flight");
+          }
+          remainingNanos = slotFreed.awaitNanos(remainingNanos);
+        }
+        inFlight++;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ClientHandlerException(e);
+      } finally {
+        waiting--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Frees a slot and adjusts the limit.
+   *
+   * @param latencyNanos time the request took
+   * @param overloaded   true if the server failed in a way that suggests overload
+   */
+  public void release(long latencyNanos, boolean overloaded) {
+    lock.lock();
+    try {
+      boolean limitUsed = inFlight * 2 >= limit;
+      inFlight--;
+      boolean slow = config.getLatencyTolerance() != LimiterConfig.NO_LATENCY_LIMIT
+          && minLatencyNanos != Long.MAX_VALUE
+          && latencyNanos > config.getLatencyTolerance() * minLatencyNanos;
+      if (++samples >= MIN_LATENCY_WINDOW) {
+        samples = 0;
+        minLatencyNanos = latencyNanos;
+      } else {
+        minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+      }
+      if (overloaded || slow) {
+        limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+      } else if (limitUsed) {
+        limit = Math.min(config.getMaxLimit(), limit + 1);
+      }
+      slotFreed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the current limit on requests in flight
+   */
+  public int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of requests waiting for a slot
+   */
+  public int getWaiting() {
+    lock.lock();
+    try {
+      return waiting;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of requests that failed because they got no slot
+   */
+  public long getRejectedCount() {
+    lock.lock();
+    try {
+      return rejected;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    lock.lock();
+    try {
+      return "ConcurrencyLimiter{" +
+          "family=" + family +
+          ", limit=" + (int) limit +
+          ", inFlight=" + inFlight +
+          ", waiting=" + waiting +
+          ", rejected=" + rejected +
+          '}';
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.limit;
+
+/**
+ * Groups of endpoints that load the server in a similar way and get a concurrency limit of their own, so that
+ * e.g. a burst of metric queries doesn't starve command submissions.
+ */
+public enum EndpointFamily {
+
+  /**
+   * Commands and role commands, e.g. {@code /clusters/{c}/services/{s}/roleCommands/restart}.
+   */
+  COMMANDS,
+
+  /**
+   * Configuration reads and updates.
+   */
+  CONFIG,
+
+  /**
+   * Metric and activity queries.
+   */
+  METRICS,
+
+  /**
+   * Roles, their logs and role types.
+   */
+  ROLES,
+
+  /**
+   * Everything else: clusters, services, hosts, users, tools and so on.
+   */
+  OTHER;
+
+  /**
+   * @param template an endpoint template, e.g. {@code /clusters/{c}/services/{s}/config}, see
+   *                 {@link com.axemblr.service.cm.metrics.EndpointTemplates}
+   * @return the family of the endpoint
+   */
+  public static EndpointFamily of(String template) {
+    if (template.contains("/commands") || template.contains("/roleCommands")) {
+      return COMMANDS;
+    }
+    if (template.contains("/config")) {
+      return CONFIG;
+    }
+    if (template.contains("/metrics") || template.contains("/activities")) {
+      return METRICS;
+    }
+    if (template.contains("/roles") || template.contains("/roleTypes")) {
+      return ROLES;
+    }
+    return OTHER;
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.limit;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+
+/**
+ * Thrown instead of sending a request when its endpoint family is at its concurrency limit and the request could
+ * not get a slot, because the queue was full or the maximum wait expired.
+ */
+public class LimitExceededException extends ClientHandlerException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final EndpointFamily family;
+
+  public LimitExceededException(EndpointFamily family, String message) {
+    super(message);
+    this.family = family;
+  }
+
+  public EndpointFamily getFamily() {
+    return family;
+  }
+}
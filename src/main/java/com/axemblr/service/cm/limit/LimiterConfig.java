@@ -0,0 +1,180 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.limit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the adaptive concurrency limit applied to each {@link EndpointFamily}.
+ * <p/>
+ * The limit follows an additive increase / multiplicative decrease rule: it grows by one when requests succeed
+ * while the limit is being used, and shrinks by {@code backoffRatio} when the server shows signs of overload,
+ * i.e. a connection error, a 429 or 503 response, or a latency above {@code latencyTolerance} times the lowest
+ * latency seen recently. Requests above the limit wait up to {@code maxWaitMs} in a queue of at most
+ * {@code maxQueueSize} requests.
+ */
+public class LimiterConfig {
+
+  public static final int DEFAULT_INITIAL_LIMIT = 10;
+  public static final int DEFAULT_MIN_LIMIT = 1;
+  public static final int DEFAULT_MAX_LIMIT = 50;
+  public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+  public static final double DEFAULT_LATENCY_TOLERANCE = 4;
+  public static final long DEFAULT_MAX_WAIT_MS = 30 * 1000;
+  public static final int DEFAULT_MAX_QUEUE_SIZE = 1000;
+  public static final double NO_LATENCY_LIMIT = 0;
+
+  private final int initialLimit;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final double latencyTolerance;
+  private final long maxWaitMs;
+  private final int maxQueueSize;
+
+  private LimiterConfig(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance,
+                        long maxWaitMs, int maxQueueSize) {
+    this.initialLimit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.latencyTolerance = latencyTolerance;
+    this.maxWaitMs = maxWaitMs;
+    this.maxQueueSize = maxQueueSize;
+  }
+
+  /**
+   * Limiter settings with all the default values.
+   */
+  public static LimiterConfig defaults() {
+    return builder().build();
+  }
+
+  public static LimiterConfigBuilder builder() {
+    return new LimiterConfigBuilder();
+  }
+
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  /**
+   * Factor applied to the limit when the server is overloaded.
+   */
+  public double getBackoffRatio() {
+    return backoffRatio;
+  }
+
+  /**
+   * Latencies above this multiple of the lowest recent latency count as overload, 0 to ignore latency.
+   */
+  public double getLatencyTolerance() {
+    return latencyTolerance;
+  }
+
+  /**
+   * How long a request may wait for a free slot before failing.
+   */
+  public long getMaxWaitMs() {
+    return maxWaitMs;
+  }
+
+  /**
+   * Maximum number of requests waiting for a slot in one family; requests beyond it fail right away.
+   */
+  public int getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  @Override
+  public String toString() {
+    return "LimiterConfig{" +
+        "initialLimit=" + initialLimit +
+        ", minLimit=" + minLimit +
+        ", maxLimit=" + maxLimit +
+        ", backoffRatio=" + backoffRatio +
+        ", latencyTolerance=" + latencyTolerance +
+        ", maxWaitMs=" + maxWaitMs +
+        ", maxQueueSize=" + maxQueueSize +
+        '}';
+  }
+
+  public static class LimiterConfigBuilder {
+
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+    private double latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+    private long maxWaitMs = DEFAULT_MAX_WAIT_MS;
+    private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+
+    private LimiterConfigBuilder() {
+    }
+
+    public LimiterConfigBuilder withInitialLimit(int initialLimit) {
+      checkArgument(initialLimit > 0, "Initial limit must be larger than 0");
+      this.initialLimit = initialLimit;
+      return this;
+    }
+
+    public LimiterConfigBuilder withLimits(int minLimit, int maxLimit) {
+      checkArgument(minLimit > 0 && minLimit <= maxLimit, "Expected 0 < minLimit <= maxLimit");
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      return this;
+    }
+
+    public LimiterConfigBuilder withBackoffRatio(double backoffRatio) {
+      checkArgument(backoffRatio > 0 && backoffRatio < 1, "Backoff ratio must be in the (0, 1) range");
+      this.backoffRatio = backoffRatio;
+      return this;
+    }
+
+    /**
+     * @param latencyTolerance multiple of the lowest recent latency that counts as overload, at least 1, or
+     *                         {@link #NO_LATENCY_LIMIT} to react to errors only
+     */
+    public LimiterConfigBuilder withLatencyTolerance(double latencyTolerance) {
+      checkArgument(latencyTolerance == NO_LATENCY_LIMIT || latencyTolerance >= 1,
+          "Latency tolerance must be at least 1");
+      this.latencyTolerance = latencyTolerance;
+      return this;
+    }
+
+    public LimiterConfigBuilder withMaxWait(long duration, TimeUnit unit) {
+      checkArgument(duration >= 0, "Maximum wait must not be negative");
+      this.maxWaitMs = checkNotNull(unit).toMillis(duration);
+      return this;
+    }
+
+    public LimiterConfigBuilder withMaxQueueSize(int maxQueueSize) {
+      checkArgument(maxQueueSize >= 0, "Queue size must not be negative");
+      this.maxQueueSize = maxQueueSize;
+      return this;
+    }
+
+    public LimiterConfig build() {
+      checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit,
+          "Initial limit (%s) must be between %s and %s", initialLimit, minLimit, maxLimit);
+      return new LimiterConfig(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance, maxWaitMs,
+          maxQueueSize);
+    }
+  }
+}
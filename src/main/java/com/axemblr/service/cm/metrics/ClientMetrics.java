@@ -0,0 +1,202 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import com.axemblr.service.cm.compression.CompressionListener;
+import com.axemblr.service.cm.retry.CircuitBreaker;
+import com.axemblr.service.cm.retry.RetryListener;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableSortedMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Aggregates the client measurements per endpoint and optionally exposes them as JMX MBeans.
+ * <p/>
+ * Each endpoint is registered as an {@link EndpointMetricsMXBean} named
+ * {@code com.axemblr.service.cm:type=ClientMetrics,client="<name>",endpoint="<method> <template>"}.
+ * Endpoints seen after {@link #registerMBeans()} was called are registered as they appear.
+ */
+public class ClientMetrics implements ClientMetricsListener, RetryListener, CompressionListener {
+
+  public static final String JMX_DOMAIN = "com.axemblr.service.cm";
+
+  private static final Logger LOG = Logger.getLogger(ClientMetrics.class.getName());
+  private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+  private final String name;
+  private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<String, EndpointMetrics>();
+  private MBeanServer mbeanServer;
+
+  public ClientMetrics() {
+    this("client-" + INSTANCES.incrementAndGet());
+  }
+
+  /**
+   * @param name used to tell apart the MBeans of different clients running in the same JVM
+   */
+  public ClientMetrics(String name) {
+    this.name = checkNotNull(name);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the metrics of an endpoint, e.g. {@code GET /clusters/{c}/services}, or null if it was never called
+   */
+  public EndpointMetrics getEndpoint(String endpoint) {
+    return endpoints.get(endpoint);
+  }
+
+  /**
+   * @return all the endpoints called so far, sorted by name
+   */
+  public Map<String, EndpointMetrics> getEndpoints() {
+    return ImmutableSortedMap.copyOf(endpoints);
+  }
+
+  /**
+   * Register the MBeans with the platform MBean server.
+   */
+  public void registerMBeans() {
+    registerMBeans(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  public synchronized void registerMBeans(MBeanServer server) {
+    if (mbeanServer != null) {
+      unregisterMBeans();
+    }
+    mbeanServer = checkNotNull(server);
+    for (EndpointMetrics metrics : endpoints.values()) {
+      register(metrics);
+    }
+  }
+
+  public synchronized void unregisterMBeans() {
+    if (mbeanServer == null) {
+      return;
+    }
+    for (EndpointMetrics metrics : endpoints.values()) {
+      try {
+        ObjectName objectName = objectNameOf(metrics);
+        if (mbeanServer.isRegistered(objectName)) {
+          mbeanServer.unregisterMBean(objectName);
+        }
+      } catch (JMException e) {
+        LOG.log(Level.WARNING, "Unable to unregister metrics MBean for " + metrics.getEndpoint(), e);
+      }
+    }
+    mbeanServer = null;
+  }
+
+  @Override
+  public void requestStarted(String endpoint) {
+    metricsOf(endpoint).started();
+  }
+
+  @Override
+  public void requestCompleted(String endpoint, int status, long latencyNanos) {
+    metricsOf(endpoint).completed(status, latencyNanos);
+  }
+
+  @Override
+  public void requestFailed(String endpoint, long latencyNanos, Throwable cause) {
+    metricsOf(endpoint).failed(latencyNanos);
+  }
+
+  @Override
+  public void bytesSent(String endpoint, long bytes) {
+    metricsOf(endpoint).sent(bytes);
+  }
+
+  @Override
+  public void bytesReceived(String endpoint, long bytes) {
+    metricsOf(endpoint).received(bytes);
+  }
+
+  @Override
+  public void requestRetried(String endpoint, int attempt) {
+    metricsOf(endpoint).retried();
+  }
+
+  @Override
+  public void retryRejected(String endpoint) {
+    metricsOf(endpoint).retryRejected();
+  }
+
+  @Override
+  public void requestShortCircuited(String endpoint) {
+    metricsOf(endpoint).shortCircuited();
+  }
+
+  @Override
+  public void circuitStateChanged(String host, CircuitBreaker.State state) {
+    // logged by the retry filter, nothing to aggregate per endpoint
+  }
+
+  @Override
+  public void requestCompressed(String endpoint, long uncompressedBytes, long compressedBytes) {
+    metricsOf(endpoint).requestCompressed(uncompressedBytes, compressedBytes);
+  }
+
+  @Override
+  public void responseDecompressed(String endpoint, long compressedBytes, long uncompressedBytes) {
+    metricsOf(endpoint).responseDecompressed(compressedBytes, uncompressedBytes);
+  }
+
+  private EndpointMetrics metricsOf(String endpoint) {
+    EndpointMetrics metrics = endpoints.get(endpoint);
+    if (metrics == null) {
+      EndpointMetrics created = new EndpointMetrics(endpoint);
+      metrics = endpoints.putIfAbsent(endpoint, created);
+      if (metrics == null) {
+        metrics = created;
+        register(metrics);
+      }
+    }
+    return metrics;
+  }
+
+  private synchronized void register(EndpointMetrics metrics) {
+    if (mbeanServer == null) {
+      return;
+    }
+    try {
+      ObjectName objectName = objectNameOf(metrics);
+      if (!mbeanServer.isRegistered(objectName)) {
+        mbeanServer.registerMBean(metrics, objectName);
+      }
+    } catch (JMException e) {
+      LOG.log(Level.WARNING, "Unable to register metrics MBean for " + metrics.getEndpoint(), e);
+    }
+  }
+
+  private ObjectName objectNameOf(EndpointMetrics metrics) throws JMException {
+    return new ObjectName(JMX_DOMAIN + ":type=ClientMetrics,client=" + ObjectName.quote(name)
+        + ",endpoint=" + ObjectName.quote(metrics.getEndpoint()));
+  }
+
+  @Override
+  public String toString() {
+    return "ClientMetrics{" +
+        "name='" + name + '\'' +
+        ", endpoints=" + getEndpoints().values() +
+        '}';
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+/**
+ * Receives the measurements taken by {@link MetricsFilter} for every request made by the client.
+ * <p/>
+ * Implement this interface to export client metrics to a metrics backend and register it with
+ * {@link com.axemblr.service.cm.ClouderaManagerClient.ClouderaManagerBuilder#withMetricsListener(ClientMetricsListener)}.
+ * {@link ClientMetrics} is the implementation that aggregates the measurements and exposes them over JMX.
+ * <p/>
+ * Endpoints are identified by the HTTP method and the endpoint template, e.g.
+ * {@code POST /clusters/{c}/services/{s}/roleCommands/restart}. Methods are called from the threads issuing the
+ * requests, so they must be thread-safe and should return quickly. Exceptions thrown by listeners are ignored.
+ */
+public interface ClientMetricsListener {
+
+  /**
+   * A request was handed to the HTTP transport.
+   */
+  public void requestStarted(String endpoint);
+
+  /**
+   * The response headers were received.
+   *
+   * @param status       the HTTP status code
+   * @param latencyNanos time between the start of the request and the arrival of the response headers
+   */
+  public void requestCompleted(String endpoint, int status, long latencyNanos);
+
+  /**
+   * The request failed without a response, e.g. because the connection was refused or timed out.
+   */
+  public void requestFailed(String endpoint, long latencyNanos, Throwable cause);
+
+  /**
+   * The request body was written. Not called for requests without a body.
+   */
+  public void bytesSent(String endpoint, long bytes);
+
+  /**
+   * The response body was read and closed.
+   */
+  public void bytesReceived(String endpoint, long bytes);
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics collected for a single endpoint: latency histogram, byte counters, status code counters and the number
+ * of requests in flight.
+ */
+public class EndpointMetrics implements EndpointMetricsMXBean {
+
+  private final String endpoint;
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong rejectedRetries = new AtomicLong();
+  private final AtomicLong shortCircuited = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong requestBytesUncompressed = new AtomicLong();
+  private final AtomicLong requestBytesCompressed = new AtomicLong();
+  private final AtomicLong responseBytesUncompressed = new AtomicLong();
+  private final AtomicLong responseBytesCompressed = new AtomicLong();
+  private final ConcurrentMap<Integer, AtomicLong> statusCounts = new ConcurrentHashMap<Integer, AtomicLong>();
+
+  public EndpointMetrics(String endpoint) {
+    this.endpoint = checkNotNull(endpoint);
+  }
+
+  void started() {
+    requests.incrementAndGet();
+    inFlight.incrementAndGet();
+  }
+
+  void completed(int status, long latencyNanos) {
+    inFlight.decrementAndGet();
+    latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+    AtomicLong counter = statusCounts.get(status);
+    if (counter == null) {
+      AtomicLong existing = statusCounts.putIfAbsent(status, counter = new AtomicLong());
+      if (existing != null) {
+        counter = existing;
+      }
+    }
+    counter.incrementAndGet();
+  }
+
+  void failed(long latencyNanos) {
+    inFlight.decrementAndGet();
+    failures.incrementAndGet();
+    latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+  }
+
+  void retried() {
+    retries.incrementAndGet();
+  }
+
+  void retryRejected() {
+    rejectedRetries.incrementAndGet();
+  }
+
+  void shortCircuited() {
+    shortCircuited.incrementAndGet();
+  }
+
+  void sent(long bytes) {
+    bytesSent.addAndGet(bytes);
+  }
+
+  void received(long bytes) {
+    bytesReceived.addAndGet(bytes);
+  }
+
+  void requestCompressed(long uncompressedBytes, long compressedBytes) {
+    requestBytesUncompressed.addAndGet(uncompressedBytes);
+    requestBytesCompressed.addAndGet(compressedBytes);
+  }
+
+  void responseDecompressed(long compressedBytes, long uncompressedBytes) {
+    responseBytesCompressed.addAndGet(compressedBytes);
+    responseBytesUncompressed.addAndGet(uncompressedBytes);
+  }
+
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  @Override
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  @Override
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  @Override
+  public long getFailureCount() {
+    return failures.get();
+  }
+
+  @Override
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  @Override
+  public long getRetryCount() {
+    return retries.get();
+  }
+
+  @Override
+  public long getRejectedRetryCount() {
+    return rejectedRetries.get();
+  }
+
+  @Override
+  public long getShortCircuitedCount() {
+    return shortCircuited.get();
+  }
+
+  @Override
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  @Override
+  public double getRequestCompressionRatio() {
+    return ratioOf(requestBytesUncompressed.get(), requestBytesCompressed.get());
+  }
+
+  @Override
+  public double getResponseCompressionRatio() {
+    return ratioOf(responseBytesUncompressed.get(), responseBytesCompressed.get());
+  }
+
+  private static double ratioOf(long uncompressedBytes, long compressedBytes) {
+    return (compressedBytes == 0) ? 0 : (double) uncompressedBytes / compressedBytes;
+  }
+
+  @Override
+  public Map<Integer, Long> getStatusCounts() {
+    Map<Integer, Long> counts = Maps.newTreeMap();
+    for (Map.Entry<Integer, AtomicLong> entry : statusCounts.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().get());
+    }
+    // not a SortedMap, MXBeans can't convert those with a custom comparator
+    return ImmutableMap.copyOf(counts);
+  }
+
+  @Override
+  public double getLatencyMeanMs() {
+    return latency.getMeanMs();
+  }
+
+  @Override
+  public double getLatencyMaxMs() {
+    return latency.getMaxMs();
+  }
+
+  @Override
+  public double getLatency50thPercentileMs() {
+    return latency.getPercentileMs(50);
+  }
+
+  @Override
+  public double getLatency95thPercentileMs() {
+    return latency.getPercentileMs(95);
+  }
+
+  @Override
+  public double getLatency99thPercentileMs() {
+    return latency.getPercentileMs(99);
+  }
+
+  @Override
+  public String toString() {
+    return "EndpointMetrics{" +
+        "endpoint='" + endpoint + '\'' +
+        ", requests=" + requests +
+        ", failures=" + failures +
+        ", inFlight=" + inFlight +
+        ", retries=" + retries +
+        ", bytesSent=" + bytesSent +
+        ", bytesReceived=" + bytesReceived +
+        ", responseCompressionRatio=" + getResponseCompressionRatio() +
+        ", statusCounts=" + getStatusCounts() +
+        ", latencyMeanMs=" + getLatencyMeanMs() +
+        ", latency99thPercentileMs=" + getLatency99thPercentileMs() +
+        '}';
+  }
+}
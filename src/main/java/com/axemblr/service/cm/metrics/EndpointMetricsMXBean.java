@@ -0,0 +1,68 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics collected for one endpoint.
+ */
+public interface EndpointMetricsMXBean {
+
+  public String getEndpoint();
+
+  public long getRequestCount();
+
+  public long getFailureCount();
+
+  public int getInFlight();
+
+  /**
+   * @return number of attempts made after the first one, see {@link com.axemblr.service.cm.retry.RetryFilter}
+   */
+  public long getRetryCount();
+
+  /**
+   * @return number of retries not made because the retry budget was exhausted
+   */
+  public long getRejectedRetryCount();
+
+  /**
+   * @return number of requests failed without being sent because the circuit breaker was open
+   */
+  public long getShortCircuitedCount();
+
+  public long getBytesSent();
+
+  public long getBytesReceived();
+
+  /**
+   * @return uncompressed over compressed size of the request bodies gzipped so far, or 0 if none was
+   */
+  public double getRequestCompressionRatio();
+
+  /**
+   * @return uncompressed over compressed size of the gzipped response bodies read so far, or 0 if none was
+   */
+  public double getResponseCompressionRatio();
+
+  /**
+   * @return number of responses received for each HTTP status code
+   */
+  public Map<Integer, Long> getStatusCounts();
+
+  public double getLatencyMeanMs();
+
+  public double getLatencyMaxMs();
+
+  public double getLatency50thPercentileMs();
+
+  public double getLatency95thPercentileMs();
+
+  public double getLatency99thPercentileMs();
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Maps request paths to the endpoint templates used to group metrics, e.g.
+ * {@code /api/v1/clusters/Cluster%201/services/hdfs1/roleCommands/restart} becomes
+ * {@code /clusters/{c}/services/{s}/roleCommands/restart}.
+ */
+public final class EndpointTemplates {
+
+  /**
+   * Collections whose next path segment is the name of an item.
+   */
+  private static final Map<String, String> ITEM_PLACEHOLDERS = ImmutableMap.<String, String>builder()
+      .put("clusters", "{c}")
+      .put("services", "{s}")
+      .put("roles", "{r}")
+      .put("hosts", "{h}")
+      .put("activities", "{a}")
+      .put("nameservices", "{ns}")
+      .put("nameservice", "{ns}")
+      .put("users", "{u}")
+      .put("roleTypes", "{t}")
+      .build();
+
+  private static final Pattern API_PREFIX = Pattern.compile("^.*?/api/v\\d+(?=/|$)");
+  private static final Pattern NUMBER = Pattern.compile("\\d+");
+
+  private EndpointTemplates() {
+  }
+
+  /**
+   * @param method the HTTP method
+   * @param path   the raw request path
+   * @return the method followed by the endpoint template, e.g. {@code GET /clusters/{c}/services}
+   */
+  public static String endpointOf(String method, String path) {
+    return method + " " + templateOf(path);
+  }
+
+  /**
+   * @param path the raw request path, with or without the /api/vN prefix
+   * @return the path with item names replaced by placeholders and without the API prefix
+   */
+  public static String templateOf(String path) {
+    String relative = relativePathOf(path);
+    StringBuilder template = new StringBuilder(relative.length());
+    String[] segments = relative.split("/");
+    String previous = null;
+    for (int i = 0; i < segments.length; i++) {
+      String segment = segments[i];
+      if (segment.isEmpty()) {
+        continue;
+      }
+      template.append('/');
+      String placeholder = (previous == null) ? null : ITEM_PLACEHOLDERS.get(previous);
+      if (placeholder == null && "{s}".equals(previous) && i + 1 < segments.length
+          && "metrics".equals(segments[i + 1])) {
+        placeholder = "{ns}";  // the metrics of a nameservice are read from services/{s}/{nameservice}/metrics
+      }
+      if (placeholder != null) {
+        template.append(placeholder);
+      } else if ("commands".equals(previous) && NUMBER.matcher(segment).matches()) {
+        template.append("{id}");
+      } else {
+        template.append(segment);
+      }
+      previous = (placeholder != null) ? placeholder : segment;
+    }
+    return (template.length() == 0) ? "/" : template.toString();
+  }
+
+  /**
+   * @param path a request path, with or without the /api/vN prefix
+   * @return the path without the API prefix, e.g. {@code /clusters/Cluster%201/services}
+   */
+  public static String relativePathOf(String path) {
+    return API_PREFIX.matcher(path).replaceFirst("");
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with microsecond resolution.
+ * <p/>
+ * Values are counted in log-linear buckets: every power of two is split in {@link #SUB_BUCKETS} equal buckets,
+ * so percentiles are reported with a relative error below 1 / {@link #SUB_BUCKETS} using a fixed amount of memory
+ * no matter how many values are recorded.
+ */
+public class LatencyHistogram {
+
+  static final int SUB_BUCKETS = 8;
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int MAX_POWER = 40;  // about 12 days, in microseconds
+  private static final int BUCKETS = SUB_BUCKETS + (MAX_POWER - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sumMicros = new AtomicLong();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  public void record(long duration, TimeUnit unit) {
+    long micros = Math.max(0, unit.toMicros(duration));
+    counts.incrementAndGet(bucketOf(micros));
+    count.incrementAndGet();
+    sumMicros.addAndGet(micros);
+    long max;
+    while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros)) {
+      // retry until this value is stored or a larger one was recorded concurrently
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public double getMeanMs() {
+    long n = count.get();
+    return (n == 0) ? 0 : sumMicros.get() / 1000.0 / n;
+  }
+
+  public double getMaxMs() {
+    return maxMicros.get() / 1000.0;
+  }
+
+  /**
+   * @param percentile value in the (0, 100] range
+   * @return the upper bound of the bucket holding the requested percentile, in milliseconds
+   */
+  public double getPercentileMs(double percentile) {
+    checkArgument(percentile > 0 && percentile <= 100, "Percentile must be in the (0, 100] range");
+    long total = 0;
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(total * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        // the last bucket also holds every value too large for the others
+        return (i == BUCKETS - 1) ? getMaxMs() : Math.min(upperBoundOf(i), maxMicros.get()) / 1000.0;
+      }
+    }
+    return getMaxMs();
+  }
+
+  static int bucketOf(long micros) {
+    if (micros < SUB_BUCKETS) {
+      return (int) micros;
+    }
+    int power = 63 - Long.numberOfLeadingZeros(micros);
+    if (power > MAX_POWER) {
+      return BUCKETS - 1;
+    }
+    int shift = power - SUB_BUCKET_BITS;
+    int subBucket = (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.jersey.api.client.AbstractClientRequestAdapter;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientRequestAdapter;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures every request and reports to the registered {@link ClientMetricsListener}s.
+ * <p/>
+ * Install it as the filter closest to the transport (i.e. add it to the client first) so that the latency covers
+ * only the HTTP exchange and the byte counts match what goes over the wire.
+ */
+public class MetricsFilter extends ClientFilter {
+
+  private static final Logger LOG = Logger.getLogger(MetricsFilter.class.getName());
+
+  private final List<ClientMetricsListener> listeners;
+
+  public MetricsFilter(List<? extends ClientMetricsListener> listeners) {
+    this.listeners = ImmutableList.copyOf(listeners);
+  }
+
+  public List<ClientMetricsListener> getListeners() {
+    return listeners;
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    final String endpoint = EndpointTemplates.endpointOf(request.getMethod(), request.getURI().getRawPath());
+    for (ClientMetricsListener listener : listeners) {
+      try {
+        listener.requestStarted(endpoint);
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Metrics listener failed", e);
+      }
+    }
+    if (request.getEntity() != null) {
+      request.setAdapter(new CountingAdapter(request.getAdapter(), endpoint));
+    }
+
+    long startNanos = System.nanoTime();
+    ClientResponse response;
+    try {
+      response = getNext().handle(request);
+    } catch (RuntimeException e) {
+      requestFailed(endpoint, System.nanoTime() - startNanos, e);
+      throw e;
+    }
+    long latencyNanos = System.nanoTime() - startNanos;
+    for (ClientMetricsListener listener : listeners) {
+      try {
+        listener.requestCompleted(endpoint, response.getStatus(), latencyNanos);
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Metrics listener failed", e);
+      }
+    }
+    InputStream entity = response.getEntityInputStream();
+    if (entity != null) {
+      response.setEntityInputStream(new CountingResponseStream(entity, endpoint));
+    }
+    return response;
+  }
+
+  private void requestFailed(String endpoint, long latencyNanos, Throwable cause) {
+    for (ClientMetricsListener listener : listeners) {
+      try {
+        listener.requestFailed(endpoint, latencyNanos, cause);
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Metrics listener failed", e);
+      }
+    }
+  }
+
+  private void bytesSent(String endpoint, long bytes) {
+    for (ClientMetricsListener listener : listeners) {
+      try {
+        listener.bytesSent(endpoint, bytes);
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Metrics listener failed", e);
+      }
+    }
+  }
+
+  private void bytesReceived(String endpoint, long bytes) {
+    for (ClientMetricsListener listener : listeners) {
+      try {
+        listener.bytesReceived(endpoint, bytes);
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Metrics listener failed", e);
+      }
+    }
+  }
+
+  /**
+   * Counts the bytes written to the connection, after any other adapter (e.g. compression) was applied.
+   */
+  private class CountingAdapter extends AbstractClientRequestAdapter {
+
+    private final String endpoint;
+
+    CountingAdapter(ClientRequestAdapter adapter, String endpoint) {
+      super(adapter);
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public OutputStream adapt(ClientRequest request, OutputStream out) throws IOException {
+      OutputStream counting = new CountingRequestStream(out, endpoint);
+      return (getAdapter() == null) ? counting : getAdapter().adapt(request, counting);
+    }
+  }
+
+  private class CountingRequestStream extends FilterOutputStream {
+
+    private final String endpoint;
+    private final AtomicBoolean reported = new AtomicBoolean(false);
+    private long count;
+
+    CountingRequestStream(OutputStream out, String endpoint) {
+      super(out);
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      if (reported.compareAndSet(false, true)) {
+        bytesSent(endpoint, count);
+      }
+    }
+  }
+
+  private class CountingResponseStream extends FilterInputStream {
+
+    private final String endpoint;
+    private final AtomicBoolean reported = new AtomicBoolean(false);
+    private long count;
+
+    CountingResponseStream(InputStream in, String endpoint) {
+      super(in);
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      if (b != -1) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = in.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = in.skip(n);
+      count += skipped;
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      if (reported.compareAndSet(false, true)) {
+        bytesReceived(endpoint, count);
+      }
+    }
+  }
+}
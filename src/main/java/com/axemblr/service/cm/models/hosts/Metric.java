@@ -7,9 +7,10 @@
 
 package com.axemblr.service.cm.models.hosts;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.collect.ImmutableList;
-import org.codehaus.jackson.annotate.JsonCreator;
-import org.codehaus.jackson.annotate.JsonProperty;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
 
 import java.util.List;
 
@@ -21,28 +22,31 @@ import java.util.List;
  * <li>displayName</li>
  * <li>description</li>
  * </ul>
+ * The readings are stored in columns, see {@link #getSeries()}, and deserialized straight into them.
  * <br/>
  * http://cloudera.github.com/cm_api/apidocs/v1/ns0_apiMetric.html
  */
+@JsonDeserialize(using = MetricDeserializer.class)
 public class Metric {
   private final String name;
   private final String context;
   private final String unit;
-  private final ImmutableList<MetricData> data;
+  private final MetricSeries series;
   private final String displayName;
   private final String description;
+  private volatile ImmutableList<MetricData> data;
 
-  @JsonCreator
-  public Metric(@JsonProperty("name") String name,
-                @JsonProperty("context") String context,
-                @JsonProperty("unit") String unit,
-                @JsonProperty("data") List<MetricData> data,
-                @JsonProperty("displayName") String displayName,
-                @JsonProperty("description") String description) {
+  public Metric(String name, String context, String unit, List<MetricData> data, String displayName,
+                String description) {
+    this(name, context, unit, MetricSeries.of((data == null) ? ImmutableList.<MetricData>of() : data), displayName,
+        description);
+  }
+
+  Metric(String name, String context, String unit, MetricSeries series, String displayName, String description) {
     this.name = name;
     this.context = context;
     this.unit = unit;
-    this.data = (data == null) ? ImmutableList.<MetricData>of() : ImmutableList.copyOf(data);
+    this.series = checkNotNull(series);
     this.displayName = displayName;
     this.description = description;
   }
@@ -75,12 +79,28 @@ public class Metric {
   }
 
   /**
-   * List of readings retrieved from the monitors.
+   * List of readings retrieved from the monitors. The list is built from {@link #getSeries()} on the first call,
+   * iterate the series instead to avoid one object per reading.
    *
    * @return
    */
   public ImmutableList<MetricData> getData() {
-    return data;
+    ImmutableList<MetricData> result = data;
+    if (result == null) {
+      result = series.toMetricData();
+      data = result;
+    }
+    return result;
+  }
+
+  /**
+   * Readings retrieved from the monitors, as timestamp and value columns.
+   *
+   * @return
+   */
+  @JsonIgnore
+  public MetricSeries getSeries() {
+    return series;
   }
 
   /**
@@ -109,7 +129,7 @@ public class Metric {
     Metric metric = (Metric) o;
 
     if (context != null ? !context.equals(metric.context) : metric.context != null) return false;
-    if (data != null ? !data.equals(metric.data) : metric.data != null) return false;
+    if (!series.equals(metric.series)) return false;
     if (description != null ? !description.equals(metric.description) : metric.description != null) return false;
     if (displayName != null ? !displayName.equals(metric.displayName) : metric.displayName != null) return false;
     if (name != null ? !name.equals(metric.name) : metric.name != null) return false;
@@ -123,7 +143,7 @@ public class Metric {
     int result = name != null ? name.hashCode() : 0;
     result = 31 * result + (context != null ? context.hashCode() : 0);
     result = 31 * result + (unit != null ? unit.hashCode() : 0);
-    result = 31 * result + (data != null ? data.hashCode() : 0);
+    result = 31 * result + series.hashCode();
     result = 31 * result + (displayName != null ? displayName.hashCode() : 0);
     result = 31 * result + (description != null ? description.hashCode() : 0);
     return result;
@@ -135,7 +155,7 @@ public class Metric {
         "name='" + name + '\'' +
         ", context='" + context + '\'' +
         ", unit='" + unit + '\'' +
-        ", data=" + data +
+        ", series=" + series +
         ", displayName='" + displayName + '\'' +
         ", description='" + description + '\'' +
         '}';
@@ -0,0 +1,136 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.models.hosts;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a {@link Metric} and writes its data points straight into the columns of a {@link MetricSeries}, without a
+ * {@link MetricData} object per point. The points are collected in columns reused by each thread and copied once
+ * into columns of the exact size.
+ */
+class MetricDeserializer extends StdDeserializer<Metric> {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private static final ThreadLocal<Columns> SCRATCH = new ThreadLocal<Columns>() {
+    @Override
+    protected Columns initialValue() {
+      return new Columns();
+    }
+  };
+
+  MetricDeserializer() {
+    super(Metric.class);
+  }
+
+  @Override
+  public Metric deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.START_OBJECT) {
+      token = jp.nextToken();
+    }
+    String name = null;
+    String context = null;
+    String unit = null;
+    String displayName = null;
+    String description = null;
+    MetricSeries series = null;
+    for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+      String field = jp.getCurrentName();
+      token = jp.nextToken();
+      if (field.equals("data")) {
+        series = readSeries(jp, ctxt);
+      } else if (field.equals("name")) {
+        name = textOf(jp, ctxt);
+      } else if (field.equals("context")) {
+        context = textOf(jp, ctxt);
+      } else if (field.equals("unit")) {
+        unit = textOf(jp, ctxt);
+      } else if (field.equals("displayName")) {
+        displayName = textOf(jp, ctxt);
+      } else if (field.equals("description")) {
+        description = textOf(jp, ctxt);
+      } else {
+        handleUnknownProperty(jp, ctxt, Metric.class, field);
+      }
+    }
+    if (token != JsonToken.END_OBJECT) {
+      throw ctxt.mappingException(Metric.class, token);
+    }
+    return new Metric(name, context, unit, (series == null) ? MetricSeries.of(new long[0], new double[0]) : series,
+        displayName, description);
+  }
+
+  private String textOf(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (!token.isScalarValue()) {
+      throw ctxt.mappingException(String.class, token);
+    }
+    return jp.getText();
+  }
+
+  private MetricSeries readSeries(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (token != JsonToken.START_ARRAY) {
+      throw ctxt.mappingException(MetricSeries.class, token);
+    }
+    Columns scratch = SCRATCH.get();
+    long[] timestamps = scratch.timestamps;
+    double[] values = scratch.values;
+    int size = 0;
+    while ((token = jp.nextToken()) != JsonToken.END_ARRAY) {
+      if (token != JsonToken.START_OBJECT) {
+        throw ctxt.mappingException(MetricData.class, token);
+      }
+      if (size == timestamps.length) {
+        timestamps = Arrays.copyOf(timestamps, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+        scratch.timestamps = timestamps;
+        scratch.values = values;
+      }
+      long timestamp = 0;
+      double value = 0;
+      while ((token = jp.nextToken()) == JsonToken.FIELD_NAME) {
+        String field = jp.getCurrentName();
+        jp.nextToken();
+        if (field.equals("timestamp")) {
+          timestamp = _parseLongPrimitive(jp, ctxt);
+        } else if (field.equals("value")) {
+          value = _parseDoublePrimitive(jp, ctxt);
+        } else {
+          handleUnknownProperty(jp, ctxt, MetricData.class, field);
+        }
+      }
+      if (token != JsonToken.END_OBJECT) {
+        throw ctxt.mappingException(MetricData.class, token);
+      }
+      timestamps[size] = timestamp;
+      values[size] = value;
+      size++;
+    }
+    return new MetricSeries(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+  }
+
+  private static class Columns {
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+  }
+}
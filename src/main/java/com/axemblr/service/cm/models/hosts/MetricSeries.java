@@ -0,0 +1,124 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.models.hosts;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The readings of a {@link Metric} stored as two primitive columns, timestamps and values. Holds a series of
+ * thousands of points in two arrays instead of one {@link MetricData} object per point.
+ */
+public final class MetricSeries {
+
+  private static final MetricSeries EMPTY = new MetricSeries(new long[0], new double[0]);
+
+  private final long[] timestamps;
+  private final double[] values;
+
+  /**
+   * Takes ownership of the arrays, which must have the same length.
+   */
+  MetricSeries(long[] timestamps, double[] values) {
+    checkArgument(timestamps.length == values.length, "Columns have different lengths");
+    this.timestamps = timestamps;
+    this.values = values;
+  }
+
+  public static MetricSeries of(List<MetricData> data) {
+    if (data.isEmpty()) {
+      return EMPTY;
+    }
+    long[] timestamps = new long[data.size()];
+    double[] values = new double[data.size()];
+    int i = 0;
+    for (MetricData point : data) {
+      timestamps[i] = point.getTimestamp();
+      values[i] = point.getValue();
+      i++;
+    }
+    return new MetricSeries(timestamps, values);
+  }
+
+  public static MetricSeries of(long[] timestamps, double[] values) {
+    return (timestamps.length == 0 && values.length == 0) ? EMPTY
+        : new MetricSeries(timestamps.clone(), values.clone());
+  }
+
+  /**
+   * @return the number of readings
+   */
+  public int size() {
+    return timestamps.length;
+  }
+
+  public boolean isEmpty() {
+    return timestamps.length == 0;
+  }
+
+  public long getTimestamp(int index) {
+    checkElementIndex(index, timestamps.length);
+    return timestamps[index];
+  }
+
+  public double getValue(int index) {
+    checkElementIndex(index, values.length);
+    return values[index];
+  }
+
+  /**
+   * @return a copy of the timestamps column
+   */
+  public long[] getTimestamps() {
+    return timestamps.clone();
+  }
+
+  /**
+   * @return a copy of the values column
+   */
+  public double[] getValues() {
+    return values.clone();
+  }
+
+  /**
+   * @return one {@link MetricData} object per reading
+   */
+  public ImmutableList<MetricData> toMetricData() {
+    ImmutableList.Builder<MetricData> data = ImmutableList.builder();
+    for (int i = 0; i < timestamps.length; i++) {
+      data.add(new MetricData(timestamps[i], values[i]));
+    }
+    return data.build();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof MetricSeries)) return false;
+
+    MetricSeries that = (MetricSeries) o;
+
+    return Arrays.equals(timestamps, that.timestamps) && Arrays.equals(values, that.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(timestamps) + Arrays.hashCode(values);
+  }
+
+  @Override
+  public String toString() {
+    return "MetricSeries{" +
+        "size=" + timestamps.length +
+        '}';
+  }
+}
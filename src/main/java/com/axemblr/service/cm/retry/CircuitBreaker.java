@@ -0,0 +1,118 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.retry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Circuit breaker for one host.
+ * <p/>
+ * After {@code failureThreshold} consecutive failures the circuit opens and requests fail fast for
+ * {@code openMs}. Then a single probe request is let through (half open): if it succeeds the circuit closes,
+ * otherwise it opens again.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final String host;
+  private final int failureThreshold;
+  private final long openMs;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAtMs;
+  private boolean probeInFlight;
+
+  public CircuitBreaker(String host, int failureThreshold, long openMs) {
+    checkArgument(failureThreshold > 0, "Failure threshold must be larger than 0");
+    checkArgument(openMs >= 0, "Open duration must not be negative");
+    this.host = checkNotNull(host);
+    this.failureThreshold = failureThreshold;
+    this.openMs = openMs;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * @return true if a request can be sent now. When the circuit is half open only one request is allowed and
+   *         its outcome must be reported with {@link #onSuccess()} or {@link #onFailure(long)}.
+   */
+  public synchronized boolean allowRequest(long nowMs) {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (nowMs - openedAtMs < openMs) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        probeInFlight = true;
+        return true;
+      default:
+        if (probeInFlight) {
+          return false;
+        }
+        probeInFlight = true;
+        return true;
+    }
+  }
+
+  /**
+   * @return the new state if it changed, null otherwise
+   */
+  public synchronized State onSuccess() {
+    consecutiveFailures = 0;
+    probeInFlight = false;
+    if (state == State.CLOSED) {
+      return null;
+    }
+    state = State.CLOSED;
+    return state;
+  }
+
+  /**
+   * Reports a request that failed for reasons unrelated to the server, e.g. the request entity could not be
+   * written. Lets another probe through if the circuit is half open.
+   */
+  public synchronized void onIgnored() {
+    probeInFlight = false;
+  }
+
+  /**
+   * @return the new state if it changed, null otherwise
+   */
+  public synchronized State onFailure(long nowMs) {
+    consecutiveFailures++;
+    probeInFlight = false;
+    if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+      state = State.OPEN;
+      openedAtMs = nowMs;
+      return state;
+    }
+    return null;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "CircuitBreaker{" +
+        "host='" + host + '\'' +
+        ", state=" + state +
+        ", consecutiveFailures=" + consecutiveFailures +
+        '}';
+  }
+}
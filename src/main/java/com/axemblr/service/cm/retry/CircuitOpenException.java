@@ -0,0 +1,30 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.retry;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker of the host is open, i.e. the server recently
+ * failed too many requests in a row.
+ */
+public class CircuitOpenException extends ClientHandlerException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String host;
+
+  public CircuitOpenException(String host) {
+    super("Circuit breaker open for " + host + ", not sending the request");
+    this.host = host;
+  }
+
+  public String getHost() {
+    return host;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.retry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries to a fraction of the requests, so that retries can't multiply the load on a server that is
+ * already overloaded.
+ * <p/>
+ * Every request deposits {@code ratio} of a token and every retry withdraws a whole one. The balance starts at
+ * {@code minRetries} tokens, which also allows some retries when there is little traffic, and never exceeds
+ * {@code maxRetries} tokens.
+ */
+public class RetryBudget {
+
+  private static final long SCALE = 1000;
+
+  private final long depositPerRequest;
+  private final long maxBalance;
+  private final AtomicLong balance;
+
+  /**
+   * @param ratio      fraction of the requests that can be retried, e.g. 0.2
+   * @param minRetries tokens available at start
+   * @param maxRetries maximum tokens that can accumulate
+   */
+  public RetryBudget(double ratio, int minRetries, int maxRetries) {
+    checkArgument(ratio >= 0, "Retry ratio must not be negative");
+    checkArgument(minRetries >= 0 && minRetries <= maxRetries, "Expected 0 <= minRetries <= maxRetries");
+    this.depositPerRequest = Math.round(ratio * SCALE);
+    this.maxBalance = maxRetries * SCALE;
+    this.balance = new AtomicLong(minRetries * SCALE);
+  }
+
+  /**
+   * Called for every request that is sent for the first time.
+   */
+  public void deposit() {
+    long current;
+    do {
+      current = balance.get();
+      if (current >= maxBalance) {
+        return;
+      }
+    } while (!balance.compareAndSet(current, Math.min(maxBalance, current + depositPerRequest)));
+  }
+
+  /**
+   * @return true if a retry can be made now
+   */
+  public boolean tryWithdraw() {
+    long current;
+    do {
+      current = balance.get();
+      if (current < SCALE) {
+        return false;
+      }
+    } while (!balance.compareAndSet(current, current - SCALE));
+    return true;
+  }
+
+  /**
+   * @return the number of retries that can be made now
+   */
+  public long getAvailableRetries() {
+    return balance.get() / SCALE;
+  }
+}
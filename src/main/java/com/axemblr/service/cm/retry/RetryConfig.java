@@ -0,0 +1,211 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.retry;
+
+import com.axemblr.service.cm.apis.PollingPolicy;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for retrying failed GET requests and for the per host circuit breakers.
+ * <p/>
+ * A GET is retried when the connection fails or the server answers with one of the retryable status codes
+ * (502, 503 and 504 by default). The delay between attempts follows a {@link PollingPolicy}, which adds
+ * exponential backoff and jitter; a Retry-After header sent by the server is honored up to the maximum interval.
+ * Requests using other methods are never retried, but their failures count for the circuit breaker.
+ */
+public class RetryConfig {
+
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+  public static final PollingPolicy DEFAULT_BACKOFF = PollingPolicy.builder()
+      .withInitialInterval(200, TimeUnit.MILLISECONDS)
+      .withMultiplier(2)
+      .withMaxInterval(5, TimeUnit.SECONDS)
+      .withJitter(0.5)
+      .build();
+  public static final Set<Integer> DEFAULT_RETRYABLE_STATUSES = ImmutableSet.of(502, 503, 504);
+  public static final double DEFAULT_BUDGET_RATIO = 0.2;
+  public static final int DEFAULT_BUDGET_MIN_RETRIES = 10;
+  public static final int DEFAULT_BUDGET_MAX_RETRIES = 100;
+  public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  public static final long DEFAULT_OPEN_MS = 10 * 1000;
+
+  private final int maxAttempts;
+  private final PollingPolicy backoff;
+  private final Set<Integer> retryableStatuses;
+  private final double budgetRatio;
+  private final int budgetMinRetries;
+  private final int budgetMaxRetries;
+  private final boolean circuitBreakerEnabled;
+  private final int failureThreshold;
+  private final long openMs;
+
+  private RetryConfig(RetryConfigBuilder builder) {
+    this.maxAttempts = builder.maxAttempts;
+    this.backoff = builder.backoff;
+    this.retryableStatuses = ImmutableSet.copyOf(builder.retryableStatuses);
+    this.budgetRatio = builder.budgetRatio;
+    this.budgetMinRetries = builder.budgetMinRetries;
+    this.budgetMaxRetries = builder.budgetMaxRetries;
+    this.circuitBreakerEnabled = builder.circuitBreakerEnabled;
+    this.failureThreshold = builder.failureThreshold;
+    this.openMs = builder.openMs;
+  }
+
+  /**
+   * Retry settings with all the default values.
+   */
+  public static RetryConfig defaults() {
+    return builder().build();
+  }
+
+  public static RetryConfigBuilder builder() {
+    return new RetryConfigBuilder();
+  }
+
+  /**
+   * Maximum number of times a GET is sent, including the first one.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Delays between attempts. A deadline on the policy bounds the total time spent retrying.
+   */
+  public PollingPolicy getBackoff() {
+    return backoff;
+  }
+
+  /**
+   * Status codes meaning the server is temporarily unable to answer.
+   */
+  public Set<Integer> getRetryableStatuses() {
+    return retryableStatuses;
+  }
+
+  /**
+   * Fraction of the requests that can be retried, see {@link RetryBudget}.
+   */
+  public double getBudgetRatio() {
+    return budgetRatio;
+  }
+
+  public int getBudgetMinRetries() {
+    return budgetMinRetries;
+  }
+
+  public int getBudgetMaxRetries() {
+    return budgetMaxRetries;
+  }
+
+  public boolean isCircuitBreakerEnabled() {
+    return circuitBreakerEnabled;
+  }
+
+  /**
+   * Consecutive failures that open the circuit of a host.
+   */
+  public int getFailureThreshold() {
+    return failureThreshold;
+  }
+
+  /**
+   * How long requests fail fast once the circuit is open, before a probe request is let through.
+   */
+  public long getOpenMs() {
+    return openMs;
+  }
+
+  @Override
+  public String toString() {
+    return "RetryConfig{" +
+        "maxAttempts=" + maxAttempts +
+        ", backoff=" + backoff +
+        ", retryableStatuses=" + retryableStatuses +
+        ", budgetRatio=" + budgetRatio +
+        ", budgetMinRetries=" + budgetMinRetries +
+        ", budgetMaxRetries=" + budgetMaxRetries +
+        ", circuitBreakerEnabled=" + circuitBreakerEnabled +
+        ", failureThreshold=" + failureThreshold +
+        ", openMs=" + openMs +
+        '}';
+  }
+
+  public static class RetryConfigBuilder {
+
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private PollingPolicy backoff = DEFAULT_BACKOFF;
+    private Set<Integer> retryableStatuses = DEFAULT_RETRYABLE_STATUSES;
+    private double budgetRatio = DEFAULT_BUDGET_RATIO;
+    private int budgetMinRetries = DEFAULT_BUDGET_MIN_RETRIES;
+    private int budgetMaxRetries = DEFAULT_BUDGET_MAX_RETRIES;
+    private boolean circuitBreakerEnabled = true;
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private long openMs = DEFAULT_OPEN_MS;
+
+    private RetryConfigBuilder() {
+    }
+
+    public RetryConfigBuilder withMaxAttempts(int maxAttempts) {
+      checkArgument(maxAttempts > 0, "Maximum number of attempts must be larger than 0");
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    public RetryConfigBuilder withBackoff(PollingPolicy backoff) {
+      this.backoff = checkNotNull(backoff);
+      return this;
+    }
+
+    public RetryConfigBuilder withRetryableStatuses(Set<Integer> retryableStatuses) {
+      this.retryableStatuses = checkNotNull(retryableStatuses);
+      return this;
+    }
+
+    /**
+     * @param ratio      fraction of the requests that can be retried
+     * @param minRetries retries always available, e.g. when there is little traffic
+     * @param maxRetries retries that can be saved up while requests succeed
+     */
+    public RetryConfigBuilder withBudget(double ratio, int minRetries, int maxRetries) {
+      checkArgument(ratio >= 0, "Retry ratio must not be negative");
+      checkArgument(minRetries >= 0 && minRetries <= maxRetries, "Expected 0 <= minRetries <= maxRetries");
+      this.budgetRatio = ratio;
+      this.budgetMinRetries = minRetries;
+      this.budgetMaxRetries = maxRetries;
+      return this;
+    }
+
+    /**
+     * @param failureThreshold consecutive failures that open the circuit of a host
+     * @param openDuration     how long requests to the host fail fast
+     */
+    public RetryConfigBuilder withCircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+      checkArgument(failureThreshold > 0, "Failure threshold must be larger than 0");
+      checkArgument(openDuration >= 0, "Open duration must not be negative");
+      this.circuitBreakerEnabled = true;
+      this.failureThreshold = failureThreshold;
+      this.openMs = checkNotNull(unit).toMillis(openDuration);
+      return this;
+    }
+
+    public RetryConfigBuilder withoutCircuitBreaker() {
+      this.circuitBreakerEnabled = false;
+      return this;
+    }
+
+    public RetryConfig build() {
+      return new RetryConfig(this);
+    }
+  }
+}
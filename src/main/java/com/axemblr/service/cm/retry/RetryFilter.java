@@ -0,0 +1,248 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.retry;
+
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import com.axemblr.service.cm.metrics.EndpointTemplates;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import javax.ws.rs.HttpMethod;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Retries GET requests that failed because the server was temporarily unavailable and stops sending requests to
+ * a host that keeps failing, see {@link RetryConfig}.
+ * <p/>
+ * Install it outside the metrics filter so that every attempt is measured on its own. A request is not retried when
+ * the backoff would outlast the current {@link Deadline}. Requests that ran out of their deadline are neither
+ * retried nor counted as failures of the host.
+ */
+public class RetryFilter extends ClientFilter {
+
+  private static final Logger LOG = Logger.getLogger(RetryFilter.class.getName());
+  private static final String RETRY_AFTER = "Retry-After";
+
+  private final RetryConfig config;
+  private final RetryBudget budget;
+  private final List<RetryListener> listeners;
+  private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong rejectedRetries = new AtomicLong();
+  private final AtomicLong shortCircuited = new AtomicLong();
+
+  public RetryFilter(RetryConfig config, List<? extends RetryListener> listeners) {
+    this.config = checkNotNull(config);
+    this.budget = new RetryBudget(config.getBudgetRatio(), config.getBudgetMinRetries(),
+        config.getBudgetMaxRetries());
+    this.listeners = ImmutableList.copyOf(listeners);
+  }
+
+  public RetryConfig getConfig() {
+    return config;
+  }
+
+  public RetryBudget getBudget() {
+    return budget;
+  }
+
+  /**
+   * @return the number of requests sent again after a failure
+   */
+  public long getRetryCount() {
+    return retries.get();
+  }
+
+  /**
+   * @return the number of retries not made because the budget was exhausted
+   */
+  public long getRejectedRetryCount() {
+    return rejectedRetries.get();
+  }
+
+  /**
+   * @return the number of requests failed without being sent because a circuit was open
+   */
+  public long getShortCircuitedCount() {
+    return shortCircuited.get();
+  }
+
+  /**
+   * @return the state of the circuit breaker of every host contacted so far
+   */
+  public Map<String, CircuitBreaker.State> getCircuitStates() {
+    ImmutableMap.Builder<String, CircuitBreaker.State> states = ImmutableMap.builder();
+    for (CircuitBreaker breaker : breakers.values()) {
+      states.put(breaker.getHost(), breaker.getState());
+    }
+    return states.build();
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    String endpoint = EndpointTemplates.endpointOf(request.getMethod(), request.getURI().getRawPath());
+    CircuitBreaker breaker = config.isCircuitBreakerEnabled() ? breakerOf(request.getURI()) : null;
+    boolean retryable = HttpMethod.GET.equals(request.getMethod());
+    budget.deposit();
+
+    long startNanos = System.nanoTime();
+    for (int attempt = 1; ; attempt++) {
+      if (breaker != null && !breaker.allowRequest(System.currentTimeMillis())) {
+        shortCircuited.incrementAndGet();
+        for (RetryListener listener : listeners) {
+          try {
+            listener.requestShortCircuited(endpoint);
+          } catch (RuntimeException e) {
+            LOG.log(Level.FINE, "Retry listener failed", e);
+          }
+        }
+        throw new CircuitOpenException(breaker.getHost());
+      }
+
+      ClientResponse response = null;
+      try {
+        response = getNext().handle(request);
+      } catch (ClientHandlerException e) {
+        if (e instanceof DeadlineExceededException || !(e.getCause() instanceof IOException)) {
+          // an expired deadline says nothing about the health of the server
+          if (breaker != null) {
+            breaker.onIgnored();
+          }
+          throw e;
+        }
+        recordOutcome(breaker, false);
+        if (!retryable || !retryAfter(endpoint, attempt, startNanos, 0)) {
+          throw e;
+        }
+        continue;
+      } catch (RuntimeException e) {
+        // not an outcome of the server, but a half open circuit must still learn that its probe is over
+        if (breaker != null) {
+          breaker.onIgnored();
+        }
+        throw e;
+      }
+
+      boolean unavailable = config.getRetryableStatuses().contains(response.getStatus());
+      recordOutcome(breaker, !unavailable);
+      if (!unavailable || !retryable || !retryAfter(endpoint, attempt, startNanos, retryAfterMs(response))) {
+        return response;
+      }
+      response.close();
+    }
+  }
+
+  /**
+   * Waits before the next attempt, if one is allowed.
+   *
+   * @return false if the request should not be retried
+   */
+  private boolean retryAfter(String endpoint, int attempt, long startNanos, long serverDelayMs) {
+    if (attempt >= config.getMaxAttempts()) {
+      return false;
+    }
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    long delayMs = config.getBackoff().nextDelayMs(attempt, elapsedMs);
+    if (delayMs < 0) {
+      return false;
+    }
+    delayMs = Math.max(delayMs, Math.min(serverDelayMs, config.getBackoff().getMaxIntervalMs()));
+    Deadline deadline = Deadline.current();
+    if (deadline != null && delayMs >= deadline.remaining(TimeUnit.MILLISECONDS)) {
+      return false;  // the next attempt would not be sent anyway
+    }
+    if (!budget.tryWithdraw()) {
+      rejectedRetries.incrementAndGet();
+      for (RetryListener listener : listeners) {
+        try {
+          listener.retryRejected(endpoint);
+        } catch (RuntimeException e) {
+          LOG.log(Level.FINE, "Retry listener failed", e);
+        }
+      }
+      return false;
+    }
+    try {
+      Thread.sleep(delayMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    retries.incrementAndGet();
+    for (RetryListener listener : listeners) {
+      try {
+        listener.requestRetried(endpoint, attempt + 1);
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Retry listener failed", e);
+      }
+    }
+    return true;
+  }
+
+  private void recordOutcome(CircuitBreaker breaker, boolean success) {
+    if (breaker == null) {
+      return;
+    }
+    CircuitBreaker.State changed = success ? breaker.onSuccess() : breaker.onFailure(System.currentTimeMillis());
+    if (changed == null) {
+      return;
+    }
+    LOG.log(changed == CircuitBreaker.State.OPEN ? Level.WARNING : Level.INFO,
+        "Circuit breaker for " + breaker.getHost() + " is now " + changed);
+    for (RetryListener listener : listeners) {
+      try {
+        listener.circuitStateChanged(breaker.getHost(), changed);
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Retry listener failed", e);
+      }
+    }
+  }
+
+  private CircuitBreaker breakerOf(URI uri) {
+    String host = uri.getHost() + ":" + uri.getPort();
+    CircuitBreaker breaker = breakers.get(host);
+    if (breaker == null) {
+      CircuitBreaker created = new CircuitBreaker(host, config.getFailureThreshold(), config.getOpenMs());
+      breaker = breakers.putIfAbsent(host, created);
+      if (breaker == null) {
+        breaker = created;
+      }
+    }
+    return breaker;
+  }
+
+  /**
+   * @return the delay asked by the server in a Retry-After header, in milliseconds, or 0
+   */
+  private static long retryAfterMs(ClientResponse response) {
+    String value = response.getHeaders().getFirst(RETRY_AFTER);
+    if (value == null) {
+      return 0;
+    }
+    try {
+      return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+    } catch (NumberFormatException e) {
+      return 0;  // HTTP dates are not worth the trouble here
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.retry;
+
+/**
+ * Receives the decisions taken by the {@link RetryFilter}.
+ * <p/>
+ * Endpoints are identified like in {@link com.axemblr.service.cm.metrics.ClientMetricsListener}, e.g.
+ * {@code GET /clusters/{c}/services}. Methods are called from the threads issuing the requests, so they must be
+ * thread-safe and should return quickly. Exceptions thrown by listeners are ignored.
+ */
+public interface RetryListener {
+
+  /**
+   * A request is sent again after a failure.
+   *
+   * @param attempt the number of the attempt about to be made, 2 for the first retry
+   */
+  public void requestRetried(String endpoint, int attempt);
+
+  /**
+   * A request could have been retried but the retry budget was exhausted.
+   */
+  public void retryRejected(String endpoint);
+
+  /**
+   * A request failed without being sent because the circuit breaker of the host is open.
+   */
+  public void requestShortCircuited(String endpoint);
+
+  /**
+   * The circuit breaker of a host changed state.
+   *
+   * @param host the host and port, e.g. {@code cm.example.com:7180}
+   */
+  public void circuitStateChanged(String host, CircuitBreaker.State state);
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.clusters.Cluster;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.Service;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A cluster in a {@link ClusterSnapshot}, with its services.
+ */
+public final class ClusterNode {
+
+  private final ClusterSnapshot snapshot;
+  private final Cluster cluster;
+  private final ImmutableMap<String, ServiceNode> services;
+
+  ClusterNode(ClusterSnapshot snapshot, Cluster cluster, Collection<Service> services,
+              Map<ServiceRef, ? extends Collection<Role>> roles, Map<ServiceRef, ServiceConfig> configs) {
+    this.snapshot = snapshot;
+    this.cluster = cluster;
+    ImmutableMap.Builder<String, ServiceNode> serviceNodes = ImmutableMap.builder();
+    if (services != null) {
+      for (Service service : services) {
+        ServiceRef ref = new ServiceRef(cluster.getName(), service.getName());
+        serviceNodes.put(service.getName(), new ServiceNode(this, service, roles.get(ref), configs.get(ref)));
+      }
+    }
+    this.services = serviceNodes.build();
+  }
+
+  public ClusterSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  public Cluster getCluster() {
+    return cluster;
+  }
+
+  public String getName() {
+    return cluster.getName();
+  }
+
+  public ImmutableCollection<ServiceNode> getServices() {
+    return services.values();
+  }
+
+  /**
+   * @return the service with the given name, or null
+   */
+  public ServiceNode getService(String name) {
+    return services.get(name);
+  }
+
+  @Override
+  public String toString() {
+    return "ClusterNode{" +
+        "name='" + getName() + '\'' +
+        ", services=" + services.keySet() +
+        '}';
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.clusters.Cluster;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Immutable picture of the clusters, services, roles, service configurations and hosts of a server at one time.
+ * <p/>
+ * The nodes are linked both ways: a cluster lists its services, a service its roles and configuration, a role
+ * points to its service and host, and a host lists the roles it runs. Lookups by name are constant time.
+ *
+ * @see ClusterSnapshotter
+ */
+public final class ClusterSnapshot {
+
+  private final long takenAtMillis;
+  private final ImmutableMap<String, ClusterNode> clusters;
+  private final ImmutableMap<String, HostNode> hosts;
+  private final ImmutableListMultimap<String, RoleNode> rolesByHost;
+
+  /**
+   * @param services services of each cluster, by cluster name
+   * @param roles    roles of each service
+   * @param configs  configuration of each service
+   */
+  ClusterSnapshot(long takenAtMillis, Collection<Cluster> clusters,
+                  Map<String, ? extends Collection<Service>> services,
+                  Map<ServiceRef, ? extends Collection<Role>> roles,
+                  Map<ServiceRef, ServiceConfig> configs,
+                  Collection<Host> hosts) {
+    this.takenAtMillis = takenAtMillis;
+
+    ImmutableMap.Builder<String, ClusterNode> clusterNodes = ImmutableMap.builder();
+    ImmutableListMultimap.Builder<String, RoleNode> roleNodesByHost = ImmutableListMultimap.builder();
+    for (Cluster cluster : clusters) {
+      ClusterNode node = new ClusterNode(this, cluster, services.get(cluster.getName()), roles, configs);
+      clusterNodes.put(cluster.getName(), node);
+      for (ServiceNode service : node.getServices()) {
+        for (RoleNode role : service.getRoles()) {
+          if (role.getRole().getHostRef() != null) {
+            roleNodesByHost.put(role.getRole().getHostRef().getHostId(), role);
+          }
+        }
+      }
+    }
+    this.clusters = clusterNodes.build();
+    this.rolesByHost = roleNodesByHost.build();
+
+    ImmutableMap.Builder<String, HostNode> hostNodes = ImmutableMap.builder();
+    for (Host host : hosts) {
+      hostNodes.put(host.getHostId(), new HostNode(this, host));
+    }
+    this.hosts = hostNodes.build();
+  }
+
+  /**
+   * @return when the walk that built the snapshot started, in milliseconds since the epoch
+   */
+  public long getTakenAtMillis() {
+    return takenAtMillis;
+  }
+
+  public ImmutableCollection<ClusterNode> getClusters() {
+    return clusters.values();
+  }
+
+  /**
+   * @return the cluster with the given name, or null
+   */
+  public ClusterNode getCluster(String name) {
+    return clusters.get(name);
+  }
+
+  public ImmutableCollection<HostNode> getHosts() {
+    return hosts.values();
+  }
+
+  /**
+   * @return the host with the given id, or null
+   */
+  public HostNode getHost(String hostId) {
+    return hosts.get(hostId);
+  }
+
+  /**
+   * @return the service with the given reference, or null
+   */
+  public ServiceNode getService(ServiceRef ref) {
+    ClusterNode cluster = clusters.get(ref.getClusterName());
+    return (cluster == null) ? null : cluster.getService(ref.getServiceName());
+  }
+
+  public ImmutableSet<String> getClusterNames() {
+    return clusters.keySet();
+  }
+
+  /**
+   * @return the roles that run on the host, which may be missing from the snapshot
+   */
+  ImmutableCollection<RoleNode> getRolesOnHost(String hostId) {
+    return rolesByHost.get(hostId);
+  }
+
+  @Override
+  public String toString() {
+    return "ClusterSnapshot{" +
+        "takenAtMillis=" + takenAtMillis +
+        ", clusters=" + clusters.keySet() +
+        ", hosts=" + hosts.size() +
+        ", roles=" + rolesByHost.size() +
+        '}';
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.apis.AsyncClusters;
+import com.axemblr.service.cm.apis.AsyncHosts;
+import com.axemblr.service.cm.apis.AsyncServiceAPI;
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import com.axemblr.service.cm.models.clusters.Cluster;
+import com.axemblr.service.cm.models.clusters.ClusterList;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.cm.ServiceList;
+import com.axemblr.service.cm.models.hosts.HostList;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reads the clusters, services, roles, service configurations and hosts of a server into a
+ * {@link ClusterSnapshot}.
+ * <p/>
+ * The walk uses the asynchronous APIs: the host list is read while the clusters are, the services of all the
+ * clusters are read at the same time, and so are the roles and configurations of all the services. At most
+ * {@code parallelism} requests are in flight at once, the others wait in a queue without holding a thread. The
+ * snapshot fails if any request fails. Calls made within a {@link Deadline} are bounded by it.
+ */
+public class ClusterSnapshotter {
+
+  public static final int DEFAULT_PARALLELISM = 8;
+
+  private final AsyncClusters clusters;
+  private final AsyncHosts hosts;
+  private final int parallelism;
+
+  public ClusterSnapshotter(ClouderaManagerClient client) {
+    this(client, DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * @param parallelism maximum number of requests in flight for one snapshot
+   */
+  public ClusterSnapshotter(ClouderaManagerClient client, int parallelism) {
+    this(client.asyncClusters(), client.asyncHosts(), parallelism);
+  }
+
+  public ClusterSnapshotter(AsyncClusters clusters, AsyncHosts hosts, int parallelism) {
+    checkArgument(parallelism > 0, "Parallelism must be larger than 0");
+    this.clusters = checkNotNull(clusters);
+    this.hosts = checkNotNull(hosts);
+    this.parallelism = parallelism;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Take a snapshot and wait for it.
+   */
+  public ClusterSnapshot snapshot() throws InterruptedException {
+    ListenableFuture<ClusterSnapshot> future = snapshotAsync();
+    Deadline deadline = Deadline.current();
+    try {
+      return (deadline == null) ? future.get() : future.get(deadline.remaining(TimeUnit.NANOSECONDS),
+          TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      future.cancel(false);
+      throw e;
+    } catch (TimeoutException e) {
+      future.cancel(false);
+      throw new DeadlineExceededException("Deadline expired before the snapshot was complete", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /**
+   * Start taking a snapshot.
+   *
+   * @return a future completed with the snapshot once all the requests are done
+   */
+  public ListenableFuture<ClusterSnapshot> snapshotAsync() {
+    return new Walk().start();
+  }
+
+  /**
+   * The requests and the partial results of one snapshot.
+   */
+  private class Walk {
+
+    private final long startMillis = System.currentTimeMillis();
+    private final InFlightLimit limit = new InFlightLimit(parallelism);
+    private final ConcurrentMap<String, Collection<Service>> services =
+        new ConcurrentHashMap<String, Collection<Service>>();
+    private final ConcurrentMap<ServiceRef, Collection<Role>> roles =
+        new ConcurrentHashMap<ServiceRef, Collection<Role>>();
+    private final ConcurrentMap<ServiceRef, ServiceConfig> configs = new ConcurrentHashMap<ServiceRef, ServiceConfig>();
+
+    ListenableFuture<ClusterSnapshot> start() {
+      final ListenableFuture<HostList> hostList = limit.submit(new Request<HostList>() {
+        @Override
+        public ListenableFuture<HostList> send() {
+          return hosts.list();
+        }
+      });
+      final ListenableFuture<ClusterList> clusterList = limit.submit(new Request<ClusterList>() {
+        @Override
+        public ListenableFuture<ClusterList> send() {
+          return clusters.getAllClusters();
+        }
+      });
+      ListenableFuture<List<Object>> clustersRead = Futures.transform(clusterList,
+          new AsyncFunction<ClusterList, List<Object>>() {
+            @Override
+            public ListenableFuture<List<Object>> apply(ClusterList list) {
+              List<ListenableFuture<?>> reads = Lists.newArrayList();
+              for (Cluster cluster : list.getItems()) {
+                reads.add(readCluster(cluster.getName()));
+              }
+              return Futures.<Object>allAsList(reads);
+            }
+          });
+      ListenableFuture<List<Object>> allRead = Futures.<Object>allAsList(
+          ImmutableList.<ListenableFuture<?>>of(hostList, clustersRead));
+      return Futures.transform(allRead,
+          new Function<List<Object>, ClusterSnapshot>() {
+            @Override
+            public ClusterSnapshot apply(List<Object> done) {
+              return new ClusterSnapshot(startMillis, Futures.getUnchecked(clusterList).getItems(), services, roles,
+                  configs, Futures.getUnchecked(hostList).getItems());
+            }
+          });
+    }
+
+    private ListenableFuture<List<Object>> readCluster(final String clusterName) {
+      ListenableFuture<ServiceList> serviceList = limit.submit(new Request<ServiceList>() {
+        @Override
+        public ListenableFuture<ServiceList> send() {
+          return clusters.getCluster(clusterName).getServices();
+        }
+      });
+      return Futures.transform(serviceList, new AsyncFunction<ServiceList, List<Object>>() {
+        @Override
+        public ListenableFuture<List<Object>> apply(ServiceList list) {
+          services.put(clusterName, list.getItems());
+          List<ListenableFuture<?>> reads = Lists.newArrayList();
+          for (Service service : list.getItems()) {
+            reads.add(readService(new ServiceRef(clusterName, service.getName())));
+          }
+          return Futures.<Object>allAsList(reads);
+        }
+      });
+    }
+
+    private ListenableFuture<List<Object>> readService(final ServiceRef ref) {
+      final AsyncServiceAPI service = clusters.getCluster(ref.getClusterName()).getService(ref.getServiceName());
+      ListenableFuture<RoleList> roleList = limit.submit(new Request<RoleList>() {
+        @Override
+        public ListenableFuture<RoleList> send() {
+          return service.getRoles();
+        }
+      });
+      ListenableFuture<ServiceConfig> config = limit.submit(new Request<ServiceConfig>() {
+        @Override
+        public ListenableFuture<ServiceConfig> send() {
+          return service.getConfig();
+        }
+      });
+      ListenableFuture<Object> rolesRead = Futures.transform(roleList, new Function<RoleList, Object>() {
+        @Override
+        public Object apply(RoleList list) {
+          roles.put(ref, list.getItems());
+          return list;
+        }
+      });
+      ListenableFuture<Object> configRead = Futures.transform(config, new Function<ServiceConfig, Object>() {
+        @Override
+        public Object apply(ServiceConfig result) {
+          configs.put(ref, result);
+          return result;
+        }
+      });
+      return Futures.<Object>allAsList(ImmutableList.<ListenableFuture<?>>of(rolesRead, configRead));
+    }
+  }
+
+  /**
+   * An asynchronous request, sent once the limit allows it.
+   */
+  private interface Request<T> {
+    ListenableFuture<T> send();
+  }
+
+  /**
+   * Caps the requests in flight. A request is sent by the thread that submits it or by the one that completes an
+   * earlier request, so no thread blocks waiting for a slot.
+   */
+  private static class InFlightLimit {
+
+    private final Semaphore slots;
+    private final Queue<Runnable> queued = new ConcurrentLinkedQueue<Runnable>();
+
+    InFlightLimit(int maxInFlight) {
+      this.slots = new Semaphore(maxInFlight);
+    }
+
+    <T> ListenableFuture<T> submit(final Request<T> request) {
+      final SettableFuture<T> result = SettableFuture.create();
+      queued.add(new Runnable() {
+        @Override
+        public void run() {
+          if (result.isCancelled()) {
+            release();
+            return;
+          }
+          final ListenableFuture<T> response;
+          try {
+            response = request.send();
+          } catch (RuntimeException e) {
+            result.setException(e);
+            release();
+            return;
+          }
+          response.addListener(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                result.set(Uninterruptibles.getUninterruptibly(response));
+              } catch (ExecutionException e) {
+                result.setException(e.getCause());
+              } catch (CancellationException e) {
+                result.cancel(false);
+              }
+              release();
+            }
+          }, MoreExecutors.sameThreadExecutor());
+        }
+      });
+      sendQueued();
+      return result;
+    }
+
+    private void release() {
+      slots.release();
+      sendQueued();
+    }
+
+    private void sendQueued() {
+      while (!queued.isEmpty() && slots.tryAcquire()) {
+        Runnable next = queued.poll();
+        if (next == null) {
+          slots.release();
+        } else {
+          next.run();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.hosts.Host;
+
+/**
+ * A 64 bit hash of the fields of an entity that change at runtime, plus the ones that place it in the topology.
+ * Comparing two fingerprints is much cheaper than comparing the entities with {@code equals}, which walks the
+ * health checks too.
+ */
+abstract class Fingerprint<V> {
+
+  private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  static final Fingerprint<Host> HOST = new Fingerprint<Host>() {
+    @Override
+    long of(Host host) {
+      long hash = mix(0, host.getHostId());
+      hash = mix(hash, host.getHostname());
+      hash = mix(hash, host.getIpAddress());
+      hash = mix(hash, host.getRackId());
+      hash = mix(hash, host.getRoleRefs());
+      hash = mix(hash, host.getHealthSummary());
+      return mix(hash, (host.getLastHeartbeat() == null) ? 0 : host.getLastHeartbeat().getMillis());
+    }
+  };
+
+  static final Fingerprint<Service> SERVICE = new Fingerprint<Service>() {
+    @Override
+    long of(Service service) {
+      long hash = mix(0, service.getName());
+      hash = mix(hash, service.getType());
+      hash = mix(hash, service.getServiceState());
+      hash = mix(hash, service.getHealthSummary());
+      return mix(hash, service.isConfigStale() ? 1 : 2);
+    }
+  };
+
+  static final Fingerprint<Role> ROLE = new Fingerprint<Role>() {
+    @Override
+    long of(Role role) {
+      long hash = mix(0, role.getName());
+      hash = mix(hash, role.getType());
+      hash = mix(hash, role.getHostRef());
+      hash = mix(hash, role.getRoleState());
+      hash = mix(hash, role.getHealthSummary());
+      hash = mix(hash, role.getHaStatus());
+      return mix(hash, role.isConfigStale() ? 1 : 2);
+    }
+  };
+
+  abstract long of(V value);
+
+  private static long mix(long hash, Object field) {
+    return mix(hash, (field == null) ? 0 : field.hashCode());
+  }
+
+  private static long mix(long hash, long field) {
+    hash = (hash + field) * MULTIPLIER;
+    return hash ^ (hash >>> 29);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.hosts.Host;
+import com.google.common.collect.ImmutableCollection;
+
+/**
+ * A host in a {@link ClusterSnapshot}, with the roles it runs.
+ */
+public final class HostNode {
+
+  private final ClusterSnapshot snapshot;
+  private final Host host;
+
+  HostNode(ClusterSnapshot snapshot, Host host) {
+    this.snapshot = snapshot;
+    this.host = host;
+  }
+
+  public ClusterSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  public Host getHost() {
+    return host;
+  }
+
+  public String getHostId() {
+    return host.getHostId();
+  }
+
+  /**
+   * @return the roles of all the clusters in the snapshot that run on this host
+   */
+  public ImmutableCollection<RoleNode> getRoles() {
+    return snapshot.getRolesOnHost(host.getHostId());
+  }
+
+  @Override
+  public String toString() {
+    return "HostNode{" +
+        "hostId='" + getHostId() + '\'' +
+        ", hostname='" + host.getHostname() + '\'' +
+        '}';
+  }
+}
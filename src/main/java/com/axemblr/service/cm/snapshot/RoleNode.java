@@ -0,0 +1,55 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.cm.Role;
+
+/**
+ * A role in a {@link ClusterSnapshot}, linked to its service and host.
+ */
+public final class RoleNode {
+
+  private final ServiceNode service;
+  private final Role role;
+
+  RoleNode(ServiceNode service, Role role) {
+    this.service = service;
+    this.role = role;
+  }
+
+  public ServiceNode getService() {
+    return service;
+  }
+
+  public Role getRole() {
+    return role;
+  }
+
+  public String getName() {
+    return role.getName();
+  }
+
+  /**
+   * @return the host running the role, or null if the host list of the snapshot doesn't contain it
+   */
+  public HostNode getHost() {
+    if (role.getHostRef() == null) {
+      return null;
+    }
+    return service.getCluster().getSnapshot().getHost(role.getHostRef().getHostId());
+  }
+
+  @Override
+  public String toString() {
+    return "RoleNode{" +
+        "service='" + service.getName() + '\'' +
+        ", name='" + getName() + '\'' +
+        ", type=" + role.getType() +
+        '}';
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.Service;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+
+/**
+ * A service in a {@link ClusterSnapshot}, with its roles and configuration.
+ */
+public final class ServiceNode {
+
+  private final ClusterNode cluster;
+  private final Service service;
+  private final ImmutableMap<String, RoleNode> roles;
+  private final ServiceConfig config;
+
+  ServiceNode(ClusterNode cluster, Service service, Collection<Role> roles, ServiceConfig config) {
+    this.cluster = cluster;
+    this.service = service;
+    this.config = config;
+    ImmutableMap.Builder<String, RoleNode> roleNodes = ImmutableMap.builder();
+    if (roles != null) {
+      for (Role role : roles) {
+        roleNodes.put(role.getName(), new RoleNode(this, role));
+      }
+    }
+    this.roles = roleNodes.build();
+  }
+
+  public ClusterNode getCluster() {
+    return cluster;
+  }
+
+  public Service getService() {
+    return service;
+  }
+
+  public String getName() {
+    return service.getName();
+  }
+
+  public ServiceRef getRef() {
+    return new ServiceRef(cluster.getName(), service.getName());
+  }
+
+  public ImmutableCollection<RoleNode> getRoles() {
+    return roles.values();
+  }
+
+  /**
+   * @return the role with the given name, or null
+   */
+  public RoleNode getRole(String name) {
+    return roles.get(name);
+  }
+
+  /**
+   * @return the service and role type configuration, summary view
+   */
+  public ServiceConfig getConfig() {
+    return config;
+  }
+
+  @Override
+  public String toString() {
+    return "ServiceNode{" +
+        "cluster='" + cluster.getName() + '\'' +
+        ", name='" + getName() + '\'' +
+        ", roles=" + roles.keySet() +
+        '}';
+  }
+}
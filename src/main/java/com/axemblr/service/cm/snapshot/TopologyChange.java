@@ -0,0 +1,66 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+/**
+ * A host, service or role that was added, removed or modified between two refreshes.
+ *
+ * @param <K> the key of the entity: host id, {@link com.axemblr.service.cm.models.clusters.ServiceRef} or
+ *            {@link com.axemblr.service.cm.models.cm.RoleRef}
+ * @param <V> the entity
+ */
+public final class TopologyChange<K, V> {
+
+  public enum Kind {
+    ADDED,
+    REMOVED,
+    MODIFIED
+  }
+
+  private final Kind kind;
+  private final K key;
+  private final V previous;
+  private final V current;
+
+  TopologyChange(Kind kind, K key, V previous, V current) {
+    this.kind = kind;
+    this.key = key;
+    this.previous = previous;
+    this.current = current;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public K getKey() {
+    return key;
+  }
+
+  /**
+   * @return the entity before the change, null when added
+   */
+  public V getPrevious() {
+    return previous;
+  }
+
+  /**
+   * @return the entity after the change, null when removed
+   */
+  public V getCurrent() {
+    return current;
+  }
+
+  @Override
+  public String toString() {
+    return "TopologyChange{" +
+        "kind=" + kind +
+        ", key=" + key +
+        '}';
+  }
+}
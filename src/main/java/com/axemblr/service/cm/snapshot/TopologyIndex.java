@@ -0,0 +1,323 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleRef;
+import com.axemblr.service.cm.models.cm.RoleType;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.cm.ServiceList;
+import com.axemblr.service.cm.models.cm.ServiceType;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.axemblr.service.cm.models.hosts.HostList;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lookup tables over the hosts, services and roles of a server: host to roles, service to roles, role type to
+ * roles, rack to hosts and cluster to services. Each lookup reads one table instead of scanning every host and role.
+ * <p/>
+ * The index is built from the lists returned by the API, or from a {@link ClusterSnapshot}, and kept current by
+ * putting or removing single hosts, services and roles. Roles are indexed by their {@link Role#getHostRef()}, so a
+ * role stays on its host id even while the host itself is not in the index.
+ * <p/>
+ * All methods are synchronized; the lookups return immutable copies.
+ */
+public class TopologyIndex {
+
+  private final Map<String, Host> hosts = Maps.newHashMap();
+  private final Map<ServiceRef, Service> services = Maps.newHashMap();
+  private final Map<RoleRef, Role> roles = Maps.newHashMap();
+
+  private final SetMultimap<String, RoleRef> rolesByHost = LinkedHashMultimap.create();
+  private final SetMultimap<ServiceRef, RoleRef> rolesByService = LinkedHashMultimap.create();
+  private final EnumMap<RoleType, Set<RoleRef>> rolesByType = new EnumMap<RoleType, Set<RoleRef>>(RoleType.class);
+  private final SetMultimap<String, String> hostsByRack = LinkedHashMultimap.create();
+  private final SetMultimap<String, ServiceRef> servicesByCluster = LinkedHashMultimap.create();
+  private final EnumMap<ServiceType, Set<ServiceRef>> servicesByType =
+      new EnumMap<ServiceType, Set<ServiceRef>>(ServiceType.class);
+
+  /**
+   * Index all the hosts, services and roles of a snapshot.
+   */
+  public static TopologyIndex of(ClusterSnapshot snapshot) {
+    TopologyIndex index = new TopologyIndex();
+    for (HostNode host : snapshot.getHosts()) {
+      index.putHost(host.getHost());
+    }
+    for (ClusterNode cluster : snapshot.getClusters()) {
+      for (ServiceNode service : cluster.getServices()) {
+        index.putService(cluster.getName(), service.getService());
+        for (RoleNode role : service.getRoles()) {
+          index.putRole(service.getRef(), role.getRole());
+        }
+      }
+    }
+    return index;
+  }
+
+  public synchronized void putHosts(HostList list) {
+    for (Host host : list.getItems()) {
+      putHost(host);
+    }
+  }
+
+  public synchronized void putServices(String clusterName, ServiceList list) {
+    for (Service service : list.getItems()) {
+      putService(clusterName, service);
+    }
+  }
+
+  public synchronized void putRoles(ServiceRef serviceRef, RoleList list) {
+    for (Role role : list.getItems()) {
+      putRole(serviceRef, role);
+    }
+  }
+
+  /**
+   * Add a host or replace the one with the same id.
+   */
+  public synchronized void putHost(Host host) {
+    checkNotNull(host.getHostId(), "Host id is null");
+    removeHost(host.getHostId());
+    hosts.put(host.getHostId(), host);
+    if (host.getRackId() != null) {
+      hostsByRack.put(host.getRackId(), host.getHostId());
+    }
+  }
+
+  /**
+   * Remove a host. The roles on the host are kept.
+   *
+   * @return the removed host, or null
+   */
+  public synchronized Host removeHost(String hostId) {
+    Host removed = hosts.remove(hostId);
+    if (removed != null && removed.getRackId() != null) {
+      hostsByRack.remove(removed.getRackId(), hostId);
+    }
+    return removed;
+  }
+
+  /**
+   * Add a service or replace the one with the same name in the cluster. The roles of the service are kept.
+   */
+  public synchronized void putService(String clusterName, Service service) {
+    checkNotNull(clusterName, "Cluster name is null");
+    checkNotNull(service.getName(), "Service name is null");
+    ServiceRef ref = new ServiceRef(clusterName, service.getName());
+    unindexService(ref);
+    services.put(ref, service);
+    servicesByCluster.put(clusterName, ref);
+    if (service.getType() != null) {
+      setOf(servicesByType, service.getType()).add(ref);
+    }
+  }
+
+  /**
+   * Remove a service and all its roles.
+   *
+   * @return the removed service, or null
+   */
+  public synchronized Service removeService(ServiceRef ref) {
+    for (RoleRef roleRef : ImmutableList.copyOf(rolesByService.get(ref))) {
+      removeRole(roleRef);
+    }
+    return unindexService(ref);
+  }
+
+  /**
+   * Add a role or replace the one with the same name in the service.
+   *
+   * @param serviceRef the service of the role, used when the role has no service reference
+   */
+  public synchronized void putRole(ServiceRef serviceRef, Role role) {
+    ServiceRef owner = (role.getServiceRef() != null) ? role.getServiceRef() : checkNotNull(serviceRef);
+    checkArgument(owner.getClusterName() != null && owner.getServiceName() != null,
+        "Role %s has an incomplete service reference", role.getName());
+    checkNotNull(role.getName(), "Role name is null");
+    RoleRef ref = new RoleRef(owner.getClusterName(), owner.getServiceName(), role.getName());
+    removeRole(ref);
+    roles.put(ref, role);
+    rolesByService.put(owner, ref);
+    if (role.getHostRef() != null && role.getHostRef().getHostId() != null) {
+      rolesByHost.put(role.getHostRef().getHostId(), ref);
+    }
+    if (role.getType() != null) {
+      setOf(rolesByType, role.getType()).add(ref);
+    }
+  }
+
+  /**
+   * Remove a role.
+   *
+   * @return the removed role, or null
+   */
+  public synchronized Role removeRole(RoleRef ref) {
+    Role removed = roles.remove(ref);
+    if (removed == null) {
+      return null;
+    }
+    rolesByService.remove(new ServiceRef(ref.getClusterName(), ref.getServiceName()), ref);
+    if (removed.getHostRef() != null && removed.getHostRef().getHostId() != null) {
+      rolesByHost.remove(removed.getHostRef().getHostId(), ref);
+    }
+    if (removed.getType() != null) {
+      removeFrom(rolesByType, removed.getType(), ref);
+    }
+    return removed;
+  }
+
+  public synchronized Host getHost(String hostId) {
+    return hosts.get(hostId);
+  }
+
+  public synchronized Service getService(ServiceRef ref) {
+    return services.get(ref);
+  }
+
+  public synchronized Role getRole(RoleRef ref) {
+    return roles.get(ref);
+  }
+
+  public synchronized ImmutableList<Role> getRolesOnHost(String hostId) {
+    return rolesOf(rolesByHost.get(hostId));
+  }
+
+  public synchronized ImmutableList<Role> getRolesOfService(ServiceRef ref) {
+    return rolesOf(rolesByService.get(ref));
+  }
+
+  public synchronized ImmutableList<Role> getRolesOfType(RoleType type) {
+    return rolesOf(rolesByType.get(type));
+  }
+
+  public synchronized ImmutableList<Host> getHostsInRack(String rackId) {
+    ImmutableList.Builder<Host> result = ImmutableList.builder();
+    for (String hostId : hostsByRack.get(rackId)) {
+      result.add(hosts.get(hostId));
+    }
+    return result.build();
+  }
+
+  /**
+   * @return the roles on all the hosts of a rack
+   */
+  public synchronized ImmutableList<Role> getRolesInRack(String rackId) {
+    ImmutableList.Builder<Role> result = ImmutableList.builder();
+    for (String hostId : hostsByRack.get(rackId)) {
+      result.addAll(rolesOf(rolesByHost.get(hostId)));
+    }
+    return result.build();
+  }
+
+  /**
+   * @return the ids of the hosts that run at least one role of the given type
+   */
+  public synchronized ImmutableSet<String> getHostIdsWithRoleType(RoleType type) {
+    ImmutableSet.Builder<String> result = ImmutableSet.builder();
+    for (Role role : rolesOf(rolesByType.get(type))) {
+      if (role.getHostRef() != null && role.getHostRef().getHostId() != null) {
+        result.add(role.getHostRef().getHostId());
+      }
+    }
+    return result.build();
+  }
+
+  public synchronized ImmutableList<Service> getServicesOfCluster(String clusterName) {
+    return servicesOf(servicesByCluster.get(clusterName));
+  }
+
+  public synchronized ImmutableList<Service> getServicesOfType(ServiceType type) {
+    return servicesOf(servicesByType.get(type));
+  }
+
+  public synchronized int getHostCount() {
+    return hosts.size();
+  }
+
+  public synchronized int getServiceCount() {
+    return services.size();
+  }
+
+  public synchronized int getRoleCount() {
+    return roles.size();
+  }
+
+  private Service unindexService(ServiceRef ref) {
+    Service removed = services.remove(ref);
+    if (removed != null) {
+      servicesByCluster.remove(ref.getClusterName(), ref);
+      if (removed.getType() != null) {
+        removeFrom(servicesByType, removed.getType(), ref);
+      }
+    }
+    return removed;
+  }
+
+  private ImmutableList<Role> rolesOf(Collection<RoleRef> refs) {
+    if (refs == null) {
+      return ImmutableList.of();
+    }
+    ImmutableList.Builder<Role> result = ImmutableList.builder();
+    for (RoleRef ref : refs) {
+      result.add(roles.get(ref));
+    }
+    return result.build();
+  }
+
+  private ImmutableList<Service> servicesOf(Collection<ServiceRef> refs) {
+    if (refs == null) {
+      return ImmutableList.of();
+    }
+    ImmutableList.Builder<Service> result = ImmutableList.builder();
+    for (ServiceRef ref : refs) {
+      result.add(services.get(ref));
+    }
+    return result.build();
+  }
+
+  private static <K extends Enum<K>, V> Set<V> setOf(EnumMap<K, Set<V>> map, K key) {
+    Set<V> values = map.get(key);
+    if (values == null) {
+      values = Sets.newLinkedHashSet();
+      map.put(key, values);
+    }
+    return values;
+  }
+
+  private static <K extends Enum<K>, V> void removeFrom(EnumMap<K, Set<V>> map, K key, V value) {
+    Set<V> values = map.get(key);
+    if (values != null && values.remove(value) && values.isEmpty()) {
+      map.remove(key);
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "TopologyIndex{" +
+        "hosts=" + hosts.size() +
+        ", services=" + services.size() +
+        ", roles=" + roles.size() +
+        ", racks=" + hostsByRack.keySet().size() +
+        '}';
+  }
+}
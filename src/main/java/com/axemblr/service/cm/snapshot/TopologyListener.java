@@ -0,0 +1,33 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleRef;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.hosts.Host;
+
+import java.util.List;
+
+/**
+ * Receives the changes found by a {@link TopologyRefresher}. Each method is called once per refresh, on the
+ * refreshing thread, and only when there is at least one change of its kind. Exceptions thrown by a listener are
+ * logged and ignored.
+ */
+public interface TopologyListener {
+
+  /**
+   * @param changes changes keyed by host id
+   */
+  public void hostsChanged(List<TopologyChange<String, Host>> changes);
+
+  public void servicesChanged(List<TopologyChange<ServiceRef, Service>> changes);
+
+  public void rolesChanged(List<TopologyChange<RoleRef, Role>> changes);
+}
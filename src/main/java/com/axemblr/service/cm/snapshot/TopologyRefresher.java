@@ -0,0 +1,244 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.clusters.Cluster;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleRef;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.hosts.Host;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a topology current by comparing each new {@link ClusterSnapshot} with the previous one.
+ * <p/>
+ * Hosts, services and roles are matched by key and compared by {@link Fingerprint}, a hash of their heartbeat,
+ * state, health summary, stale configuration flag and placement. Listeners are told only about the entities that
+ * were added, removed or modified. An unchanged entity keeps the instance read by an earlier refresh, so the
+ * current snapshot and the {@link TopologyIndex} hold long-lived objects while the freshly read copies are
+ * dropped right away. The index is updated with the changes only.
+ * <p/>
+ * The first refresh reports every entity as added. Refreshes are serialized.
+ */
+public class TopologyRefresher {
+
+  private static final Logger LOG = Logger.getLogger(TopologyRefresher.class.getName());
+
+  private final ClusterSnapshotter snapshotter;
+  private final List<TopologyListener> listeners;
+  private final TopologyIndex index = new TopologyIndex();
+
+  private Map<String, Fingerprinted<Host>> hosts = Maps.newHashMap();
+  private Map<ServiceRef, Fingerprinted<Service>> services = Maps.newHashMap();
+  private Map<RoleRef, Fingerprinted<Role>> roles = Maps.newHashMap();
+  private ClusterSnapshot current;
+
+  public TopologyRefresher(ClusterSnapshotter snapshotter, List<? extends TopologyListener> listeners) {
+    this.snapshotter = checkNotNull(snapshotter);
+    this.listeners = ImmutableList.copyOf(listeners);
+  }
+
+  /**
+   * Take a new snapshot and apply it.
+   *
+   * @return the current snapshot
+   */
+  public ClusterSnapshot refresh() throws InterruptedException {
+    return apply(snapshotter.snapshot());
+  }
+
+  /**
+   * Compare a snapshot with the current one, update the index and notify the listeners.
+   *
+   * @return the new current snapshot, made of the previous instances of the unchanged entities
+   */
+  public synchronized ClusterSnapshot apply(ClusterSnapshot fresh) {
+    Map<String, Host> freshHosts = Maps.newLinkedHashMap();
+    for (HostNode host : fresh.getHosts()) {
+      freshHosts.put(host.getHostId(), host.getHost());
+    }
+    Map<ServiceRef, Service> freshServices = Maps.newLinkedHashMap();
+    Map<RoleRef, Role> freshRoles = Maps.newLinkedHashMap();
+    Map<ServiceRef, ServiceConfig> configs = Maps.newHashMap();
+    for (ClusterNode cluster : fresh.getClusters()) {
+      for (ServiceNode service : cluster.getServices()) {
+        freshServices.put(service.getRef(), service.getService());
+        if (service.getConfig() != null) {
+          configs.put(service.getRef(), service.getConfig());
+        }
+        for (RoleNode role : service.getRoles()) {
+          freshRoles.put(new RoleRef(cluster.getName(), service.getName(), role.getName()), role.getRole());
+        }
+      }
+    }
+
+    Map<String, Fingerprinted<Host>> nextHosts = Maps.newHashMap();
+    List<TopologyChange<String, Host>> hostChanges = diff(hosts, freshHosts, Fingerprint.HOST, nextHosts);
+    Map<ServiceRef, Fingerprinted<Service>> nextServices = Maps.newHashMap();
+    List<TopologyChange<ServiceRef, Service>> serviceChanges =
+        diff(services, freshServices, Fingerprint.SERVICE, nextServices);
+    Map<RoleRef, Fingerprinted<Role>> nextRoles = Maps.newHashMap();
+    List<TopologyChange<RoleRef, Role>> roleChanges = diff(roles, freshRoles, Fingerprint.ROLE, nextRoles);
+
+    updateIndex(hostChanges, serviceChanges, roleChanges);
+    hosts = nextHosts;
+    services = nextServices;
+    roles = nextRoles;
+    current = rebuild(fresh, freshHosts.keySet(), freshServices.keySet(), freshRoles.keySet(), configs);
+
+    notifyListeners(hostChanges, serviceChanges, roleChanges);
+    return current;
+  }
+
+  /**
+   * @return the last snapshot applied, or null before the first refresh
+   */
+  public synchronized ClusterSnapshot getCurrent() {
+    return current;
+  }
+
+  /**
+   * @return an index over the current snapshot, updated in place by each refresh
+   */
+  public TopologyIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Match the fresh entities with the previous ones and keep the previous instance of each unchanged entity.
+   */
+  private static <K, V> List<TopologyChange<K, V>> diff(Map<K, Fingerprinted<V>> previous, Map<K, V> fresh,
+                                                        Fingerprint<V> fingerprint,
+                                                        Map<K, Fingerprinted<V>> next) {
+    List<TopologyChange<K, V>> changes = Lists.newArrayList();
+    for (Map.Entry<K, V> entry : fresh.entrySet()) {
+      long print = fingerprint.of(entry.getValue());
+      Fingerprinted<V> before = previous.get(entry.getKey());
+      if (before == null) {
+        changes.add(new TopologyChange<K, V>(TopologyChange.Kind.ADDED, entry.getKey(), null, entry.getValue()));
+        next.put(entry.getKey(), new Fingerprinted<V>(entry.getValue(), print));
+      } else if (before.fingerprint != print) {
+        changes.add(new TopologyChange<K, V>(TopologyChange.Kind.MODIFIED, entry.getKey(), before.value,
+            entry.getValue()));
+        next.put(entry.getKey(), new Fingerprinted<V>(entry.getValue(), print));
+      } else {
+        next.put(entry.getKey(), before);
+      }
+    }
+    for (Map.Entry<K, Fingerprinted<V>> entry : previous.entrySet()) {
+      if (!fresh.containsKey(entry.getKey())) {
+        changes.add(new TopologyChange<K, V>(TopologyChange.Kind.REMOVED, entry.getKey(), entry.getValue().value,
+            null));
+      }
+    }
+    return ImmutableList.copyOf(changes);
+  }
+
+  private void updateIndex(List<TopologyChange<String, Host>> hostChanges,
+                           List<TopologyChange<ServiceRef, Service>> serviceChanges,
+                           List<TopologyChange<RoleRef, Role>> roleChanges) {
+    for (TopologyChange<String, Host> change : hostChanges) {
+      if (change.getKind() == TopologyChange.Kind.REMOVED) {
+        index.removeHost(change.getKey());
+      } else {
+        index.putHost(change.getCurrent());
+      }
+    }
+    for (TopologyChange<ServiceRef, Service> change : serviceChanges) {
+      if (change.getKind() == TopologyChange.Kind.REMOVED) {
+        index.removeService(change.getKey());
+      } else {
+        index.putService(change.getKey().getClusterName(), change.getCurrent());
+      }
+    }
+    for (TopologyChange<RoleRef, Role> change : roleChanges) {
+      RoleRef ref = change.getKey();
+      if (change.getKind() == TopologyChange.Kind.REMOVED) {
+        index.removeRole(ref);
+      } else {
+        index.putRole(new ServiceRef(ref.getClusterName(), ref.getServiceName()), change.getCurrent());
+      }
+    }
+  }
+
+  /**
+   * Build the nodes of the fresh snapshot again around the retained instances.
+   */
+  private ClusterSnapshot rebuild(ClusterSnapshot fresh, Collection<String> hostIds,
+                                  Collection<ServiceRef> serviceRefs, Collection<RoleRef> roleRefs,
+                                  Map<ServiceRef, ServiceConfig> configs) {
+    List<Cluster> clusterList = Lists.newArrayList();
+    for (ClusterNode cluster : fresh.getClusters()) {
+      clusterList.add(cluster.getCluster());
+    }
+    Map<String, List<Service>> servicesByCluster = Maps.newHashMap();
+    for (ServiceRef ref : serviceRefs) {
+      listOf(servicesByCluster, ref.getClusterName()).add(services.get(ref).value);
+    }
+    Map<ServiceRef, List<Role>> rolesByService = Maps.newHashMap();
+    for (RoleRef ref : roleRefs) {
+      listOf(rolesByService, new ServiceRef(ref.getClusterName(), ref.getServiceName())).add(roles.get(ref).value);
+    }
+    List<Host> hostList = Lists.newArrayList();
+    for (String hostId : hostIds) {
+      hostList.add(hosts.get(hostId).value);
+    }
+    return new ClusterSnapshot(fresh.getTakenAtMillis(), clusterList, servicesByCluster, rolesByService, configs,
+        hostList);
+  }
+
+  private static <K, V> List<V> listOf(Map<K, List<V>> map, K key) {
+    List<V> values = map.get(key);
+    if (values == null) {
+      values = Lists.newArrayList();
+      map.put(key, values);
+    }
+    return values;
+  }
+
+  private void notifyListeners(List<TopologyChange<String, Host>> hostChanges,
+                               List<TopologyChange<ServiceRef, Service>> serviceChanges,
+                               List<TopologyChange<RoleRef, Role>> roleChanges) {
+    for (TopologyListener listener : listeners) {
+      try {
+        if (!hostChanges.isEmpty()) {
+          listener.hostsChanged(hostChanges);
+        }
+        if (!serviceChanges.isEmpty()) {
+          listener.servicesChanged(serviceChanges);
+        }
+        if (!roleChanges.isEmpty()) {
+          listener.rolesChanged(roleChanges);
+        }
+      } catch (RuntimeException e) {
+        LOG.log(Level.FINE, "Topology listener failed", e);
+      }
+    }
+  }
+
+  private static class Fingerprinted<V> {
+    private final V value;
+    private final long fingerprint;
+
+    Fingerprinted(V value, long fingerprint) {
+      this.value = value;
+      this.fingerprint = fingerprint;
+    }
+  }
+}
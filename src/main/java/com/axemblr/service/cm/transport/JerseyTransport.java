@@ -0,0 +1,110 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.transport;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.WebResource;
+import com.sun.jersey.api.client.config.ClientConfig;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport that sends the requests through a Jersey client, e.g. one backed by the pooled Apache HttpClient.
+ * <p/>
+ * Bodies are passed through as streams, so the client only needs the providers that ship with Jersey. Filters
+ * installed on the client run for every request. Request timeouts are passed as client properties, which the
+ * default handler honors.
+ */
+public class JerseyTransport implements Transport {
+
+  /**
+   * @return a transport over a Jersey client with the default {@code HttpURLConnection} handler
+   */
+  public static JerseyTransport create() {
+    return new JerseyTransport(Client.create());
+  }
+
+  private final Client client;
+
+  /**
+   * @param client the Jersey client, destroyed when the transport is closed
+   */
+  public JerseyTransport(Client client) {
+    this.client = checkNotNull(client);
+  }
+
+  public Client getClient() {
+    return client;
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws IOException {
+    WebResource resource = client.resource(request.getUri());
+    if (request.getConnectTimeoutMs() != TransportRequest.DEFAULT_TIMEOUT) {
+      resource.setProperty(ClientConfig.PROPERTY_CONNECT_TIMEOUT, request.getConnectTimeoutMs());
+    }
+    if (request.getReadTimeoutMs() != TransportRequest.DEFAULT_TIMEOUT) {
+      resource.setProperty(ClientConfig.PROPERTY_READ_TIMEOUT, request.getReadTimeoutMs());
+    }
+    WebResource.Builder builder = resource.getRequestBuilder();
+    for (Map.Entry<String, String> header : request.getHeaders().entries()) {
+      builder.header(header.getKey(), header.getValue());
+    }
+
+    final RequestEntity entity = request.getEntity();
+    ClientResponse response;
+    try {
+      if (entity == null) {
+        response = builder.method(request.getMethod(), ClientResponse.class);
+      } else {
+        response = builder.method(request.getMethod(), ClientResponse.class, new StreamingOutput() {
+          @Override
+          public void write(OutputStream out) throws IOException {
+            entity.writeTo(out);
+          }
+        });
+      }
+    } catch (ClientHandlerException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e;
+    }
+
+    ListMultimap<String, String> headers = ArrayListMultimap.create();
+    for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+      headers.putAll(header.getKey(), header.getValue());
+    }
+    InputStream body = response.getEntityInputStream();
+    return new TransportResponse(response.getStatus(), headers,
+        (body == null) ? new ByteArrayInputStream(new byte[0]) : body);
+  }
+
+  @Override
+  public void close() {
+    client.destroy();
+  }
+
+  @Override
+  public String toString() {
+    return "JerseyTransport{" +
+        "client=" + client +
+        '}';
+  }
+}
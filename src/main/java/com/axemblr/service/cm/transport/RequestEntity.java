@@ -0,0 +1,27 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.transport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Body of a {@link TransportRequest}, written by the transport straight to the connection.
+ */
+public interface RequestEntity {
+
+  /**
+   * @return the size of the body in bytes, or -1 if it is only known after writing it
+   */
+  public long getSize();
+
+  /**
+   * Write the body and close the stream. May be called again if the transport re-sends the request.
+   */
+  public void writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Service provider interface for the HTTP stack that carries the requests of the client.
+ * <p/>
+ * A transport only moves bytes: the API implementations, the filters (metrics, cache, retries, ...) and the JSON
+ * mapping stay the same whatever transport is used. This makes it possible to benchmark HTTP stacks against each
+ * other or to answer requests in-process in tests. Implementations must be thread-safe.
+ *
+ * @see UrlConnectionTransport
+ * @see JerseyTransport
+ * @see TransportClientHandler
+ */
+public interface Transport extends Closeable {
+
+  /**
+   * Send the request and wait for the response status and headers. The caller must close the response, which
+   * usually reads the body first.
+   *
+   * @throws IOException if the request couldn't be sent or the response couldn't be read
+   */
+  public TransportResponse execute(TransportRequest request) throws IOException;
+
+  /**
+   * Release the connections and threads held by the transport.
+   */
+  @Override
+  public void close();
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.transport;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.TerminatingClientHandler;
+import com.sun.jersey.api.client.config.ClientConfig;
+import com.sun.jersey.core.header.InBoundHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Terminates the Jersey filter chain of the client with a {@link Transport}.
+ * <p/>
+ * The request entity is serialized by the providers of the client while the transport writes the body, and the
+ * response body is handed back to them unread. The {@link ClientConfig#PROPERTY_CONNECT_TIMEOUT} and
+ * {@link ClientConfig#PROPERTY_READ_TIMEOUT} properties of the client or the request override the timeouts of
+ * the transport.
+ */
+public class TransportClientHandler extends TerminatingClientHandler {
+
+  private final Transport transport;
+
+  public TransportClientHandler(Transport transport) {
+    this.transport = checkNotNull(transport);
+  }
+
+  public Transport getTransport() {
+    return transport;
+  }
+
+  @Override
+  public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+    // the entity writer adds the Content-Type header when missing, so it is created before copying the headers
+    RequestEntityWriter writer = (request.getEntity() == null) ? null : getRequestEntityWriter(request);
+    TransportRequest.TransportRequestBuilder builder = TransportRequest.builder(request.getMethod(),
+        request.getURI());
+    for (Map.Entry<String, List<Object>> header : request.getHeaders().entrySet()) {
+      for (Object value : header.getValue()) {
+        builder.withHeader(header.getKey(), ClientRequest.getHeaderValue(value));
+      }
+    }
+    builder.withTimeouts(timeoutOf(request, ClientConfig.PROPERTY_CONNECT_TIMEOUT),
+        timeoutOf(request, ClientConfig.PROPERTY_READ_TIMEOUT));
+    if (writer != null) {
+      // adapters (e.g. compression) change the size of the body
+      builder.withEntity(new WriterEntity(writer, (request.getAdapter() == null) ? writer.getSize() : -1));
+    }
+
+    TransportResponse response;
+    try {
+      response = transport.execute(builder.build());
+    } catch (IOException e) {
+      throw new ClientHandlerException(e);
+    }
+    InBoundHeaders headers = new InBoundHeaders();
+    for (Map.Entry<String, String> header : response.getHeaders().entries()) {
+      headers.add(header.getKey(), header.getValue());
+    }
+    return new ClientResponse(response.getStatus(), headers, response.getBody(), getMessageBodyWorkers());
+  }
+
+  private static int timeoutOf(ClientRequest request, String property) {
+    Object value = request.getProperties().get(property);
+    return (value instanceof Integer) ? Math.max(0, (Integer) value) : TransportRequest.DEFAULT_TIMEOUT;
+  }
+
+  private static class WriterEntity implements RequestEntity {
+
+    private final RequestEntityWriter writer;
+    private final long size;
+
+    WriterEntity(RequestEntityWriter writer, long size) {
+      this.writer = writer;
+      this.size = size;
+    }
+
+    @Override
+    public long getSize() {
+      return size;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      writer.writeRequestEntity(out);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.transport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import java.net.URI;
+
+/**
+ * A fully resolved HTTP request: method, URI, headers, optional body and optional timeouts.
+ */
+public class TransportRequest {
+
+  /**
+   * Timeout value telling the transport to use its own setting.
+   */
+  public static final int DEFAULT_TIMEOUT = -1;
+
+  public static TransportRequestBuilder builder(String method, URI uri) {
+    return new TransportRequestBuilder(method, uri);
+  }
+
+  private final String method;
+  private final URI uri;
+  private final ImmutableListMultimap<String, String> headers;
+  private final RequestEntity entity;
+  private final int connectTimeoutMs;
+  private final int readTimeoutMs;
+
+  private TransportRequest(TransportRequestBuilder builder) {
+    this.method = builder.method;
+    this.uri = builder.uri;
+    this.headers = builder.headers.build();
+    this.entity = builder.entity;
+    this.connectTimeoutMs = builder.connectTimeoutMs;
+    this.readTimeoutMs = builder.readTimeoutMs;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public URI getUri() {
+    return uri;
+  }
+
+  public ListMultimap<String, String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * @return the body, or null for requests without one
+   */
+  public RequestEntity getEntity() {
+    return entity;
+  }
+
+  /**
+   * @return time to wait for a connection, 0 to wait forever or {@link #DEFAULT_TIMEOUT}
+   */
+  public int getConnectTimeoutMs() {
+    return connectTimeoutMs;
+  }
+
+  /**
+   * @return time to wait for data from the server, 0 to wait forever or {@link #DEFAULT_TIMEOUT}
+   */
+  public int getReadTimeoutMs() {
+    return readTimeoutMs;
+  }
+
+  @Override
+  public String toString() {
+    return "TransportRequest{" +
+        "method='" + method + '\'' +
+        ", uri=" + uri +
+        ", headers=" + headers.keySet() +
+        ", hasEntity=" + (entity != null) +
+        ", connectTimeoutMs=" + connectTimeoutMs +
+        ", readTimeoutMs=" + readTimeoutMs +
+        '}';
+  }
+
+  public static class TransportRequestBuilder {
+
+    private final String method;
+    private final URI uri;
+    private final ImmutableListMultimap.Builder<String, String> headers = ImmutableListMultimap.builder();
+    private RequestEntity entity;
+    private int connectTimeoutMs = DEFAULT_TIMEOUT;
+    private int readTimeoutMs = DEFAULT_TIMEOUT;
+
+    private TransportRequestBuilder(String method, URI uri) {
+      this.method = checkNotNull(method);
+      this.uri = checkNotNull(uri);
+    }
+
+    public TransportRequestBuilder withHeader(String name, String value) {
+      headers.put(name, value);
+      return this;
+    }
+
+    public TransportRequestBuilder withEntity(RequestEntity entity) {
+      this.entity = checkNotNull(entity);
+      return this;
+    }
+
+    /**
+     * Override the timeouts of the transport for this request, e.g. to honor a deadline.
+     *
+     * @param connectTimeoutMs time to wait for a connection, 0 to wait forever or {@link #DEFAULT_TIMEOUT}
+     * @param readTimeoutMs    time to wait for data from the server, 0 to wait forever or {@link #DEFAULT_TIMEOUT}
+     */
+    public TransportRequestBuilder withTimeouts(int connectTimeoutMs, int readTimeoutMs) {
+      checkArgument(connectTimeoutMs >= DEFAULT_TIMEOUT, "Connect timeout can't be negative");
+      checkArgument(readTimeoutMs >= DEFAULT_TIMEOUT, "Read timeout can't be negative");
+      this.connectTimeoutMs = connectTimeoutMs;
+      this.readTimeoutMs = readTimeoutMs;
+      return this;
+    }
+
+    public TransportRequest build() {
+      return new TransportRequest(this);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.transport;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Status, headers and body stream of a response received by a {@link Transport}.
+ * <p/>
+ * Closing the response closes the body, which lets the transport reuse or release the connection.
+ */
+public class TransportResponse implements Closeable {
+
+  private final int status;
+  private final ImmutableListMultimap<String, String> headers;
+  private final InputStream body;
+
+  /**
+   * @param body the response body, empty for responses without one
+   */
+  public TransportResponse(int status, ListMultimap<String, String> headers, InputStream body) {
+    this.status = status;
+    this.headers = ImmutableListMultimap.copyOf(headers);
+    this.body = checkNotNull(body);
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public ListMultimap<String, String> getHeaders() {
+    return headers;
+  }
+
+  public InputStream getBody() {
+    return body;
+  }
+
+  @Override
+  public void close() throws IOException {
+    body.close();
+  }
+
+  @Override
+  public String toString() {
+    return "TransportResponse{" +
+        "status=" + status +
+        ", headers=" + headers.keySet() +
+        '}';
+  }
+}
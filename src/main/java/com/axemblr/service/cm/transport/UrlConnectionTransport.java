@@ -0,0 +1,123 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.transport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lightweight transport built only on {@link HttpURLConnection}, with the keep-alive connection cache of the JDK.
+ * <p/>
+ * Bodies of known size are streamed with a fixed length, the others are buffered by the JDK to compute the
+ * {@code Content-Length}. Redirects are followed.
+ */
+public class UrlConnectionTransport implements Transport {
+
+  public static final int DEFAULT_CONNECT_TIMEOUT_MS = 10 * 1000;
+  public static final int DEFAULT_READ_TIMEOUT_MS = 0;  // no timeout, like the Jersey transport
+
+  private static final byte[] NO_BODY = new byte[0];
+
+  private final int connectTimeoutMs;
+  private final int readTimeoutMs;
+
+  public UrlConnectionTransport() {
+    this(DEFAULT_CONNECT_TIMEOUT_MS, DEFAULT_READ_TIMEOUT_MS);
+  }
+
+  /**
+   * @param connectTimeoutMs time to wait for a connection, or 0 to wait forever; requests may override it
+   * @param readTimeoutMs    time to wait for data from the server, or 0 to wait forever; requests may override it
+   */
+  public UrlConnectionTransport(int connectTimeoutMs, int readTimeoutMs) {
+    checkArgument(connectTimeoutMs >= 0, "Connect timeout can't be negative");
+    checkArgument(readTimeoutMs >= 0, "Read timeout can't be negative");
+    this.connectTimeoutMs = connectTimeoutMs;
+    this.readTimeoutMs = readTimeoutMs;
+  }
+
+  public int getConnectTimeoutMs() {
+    return connectTimeoutMs;
+  }
+
+  public int getReadTimeoutMs() {
+    return readTimeoutMs;
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) request.getUri().toURL().openConnection();
+    try {
+      connection.setRequestMethod(request.getMethod());
+      connection.setConnectTimeout((request.getConnectTimeoutMs() == TransportRequest.DEFAULT_TIMEOUT)
+          ? connectTimeoutMs : request.getConnectTimeoutMs());
+      connection.setReadTimeout((request.getReadTimeoutMs() == TransportRequest.DEFAULT_TIMEOUT)
+          ? readTimeoutMs : request.getReadTimeoutMs());
+      connection.setInstanceFollowRedirects(true);
+      for (Map.Entry<String, String> header : request.getHeaders().entries()) {
+        connection.addRequestProperty(header.getKey(), header.getValue());
+      }
+
+      RequestEntity entity = request.getEntity();
+      if (entity != null) {
+        connection.setDoOutput(true);
+        long size = entity.getSize();
+        if (size >= 0 && size <= Integer.MAX_VALUE) {
+          connection.setFixedLengthStreamingMode((int) size);
+        }
+        OutputStream out = connection.getOutputStream();
+        try {
+          entity.writeTo(out);
+        } finally {
+          out.close();
+        }
+      }
+
+      int status = connection.getResponseCode();
+      ListMultimap<String, String> headers = ArrayListMultimap.create();
+      for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+        if (header.getKey() != null) {  // the status line
+          headers.putAll(header.getKey(), header.getValue());
+        }
+      }
+      InputStream body = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+      return new TransportResponse(status, headers, (body == null) ? new ByteArrayInputStream(NO_BODY) : body);
+
+    } catch (IOException e) {
+      connection.disconnect();
+      throw e;
+    } catch (RuntimeException e) {
+      connection.disconnect();
+      throw e;
+    }
+  }
+
+  /**
+   * Nothing to release, idle connections are closed by the JDK keep-alive cache.
+   */
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public String toString() {
+    return "UrlConnectionTransport{" +
+        "connectTimeoutMs=" + connectTimeoutMs +
+        ", readTimeoutMs=" + readTimeoutMs +
+        '}';
+  }
+}
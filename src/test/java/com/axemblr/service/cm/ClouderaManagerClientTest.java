@@ -0,0 +1,116 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm;
+
+import com.axemblr.service.cm.apis.AsyncClusterAPI;
+import com.axemblr.service.cm.apis.AsyncServiceAPI;
+import com.axemblr.service.cm.apis.ClusterAPI;
+import com.axemblr.service.cm.apis.ServiceAPI;
+import com.axemblr.service.cm.metrics.ClientMetrics;
+import com.axemblr.service.cm.transport.Transport;
+import com.axemblr.service.cm.transport.TransportRequest;
+import com.axemblr.service.cm.transport.TransportResponse;
+import com.google.common.collect.ImmutableListMultimap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the lifecycle of the client and the reuse of its API objects.
+ */
+public class ClouderaManagerClientTest {
+
+  private final AtomicInteger transportsClosed = new AtomicInteger();
+  private final Transport transport = new Transport() {
+    @Override
+    public TransportResponse execute(TransportRequest request) {
+      String body = "{\"items\":[]}";
+      if ("DELETE".equals(request.getMethod())) {
+        body = request.getUri().getPath().contains("/services/") ? "{\"name\":\"hdfs1\",\"type\":\"HDFS\"}"
+            : "{\"name\":\"Cluster 1\",\"version\":\"CDH4\"}";
+      }
+      return new TransportResponse(200, ImmutableListMultimap.of("Content-Type", "application/json"),
+          new ByteArrayInputStream(body.getBytes()));
+    }
+
+    @Override
+    public void close() {
+      transportsClosed.incrementAndGet();
+    }
+  };
+
+  @Test
+  public void testApiObjectsAreReused() {
+    ClouderaManagerClient client = newClient().build();
+    assertSame(client.commands(), client.commands());
+    assertSame(client.hosts(), client.hosts());
+    assertSame(client.users(), client.users());
+    assertSame(client.events(), client.events());
+    assertSame(client.clouderaManager(), client.clouderaManager());
+    assertSame(client.clouderaManager().getService(), client.clouderaManager().getService());
+    assertSame(client.clusters().getCluster("Cluster 1"), client.clusters().getCluster("Cluster 1"));
+    assertSame(client.clusters().getCluster("Cluster 1").getService("hdfs1"),
+        client.clusters().getCluster("Cluster 1").getService("hdfs1"));
+    assertSame(client.asyncClusters().getCluster("Cluster 1").getService("hdfs1"),
+        client.asyncClusters().getCluster("Cluster 1").getService("hdfs1"));
+    client.close();
+  }
+
+  @Test
+  public void testDeletedClustersAndServicesAreForgotten() throws Exception {
+    ClouderaManagerClient client = newClient().build();
+    ClusterAPI cluster = client.clusters().getCluster("Cluster 1");
+    ServiceAPI service = cluster.getService("hdfs1");
+    cluster.deleteService("hdfs1");
+    assertNotSame(service, cluster.getService("hdfs1"));
+    client.clusters().deleteCluster("Cluster 1");
+    assertNotSame(cluster, client.clusters().getCluster("Cluster 1"));
+
+    AsyncClusterAPI asyncCluster = client.asyncClusters().getCluster("Cluster 1");
+    AsyncServiceAPI asyncService = asyncCluster.getService("hdfs1");
+    asyncCluster.deleteService("hdfs1").get(5, TimeUnit.SECONDS);
+    assertNotSame(asyncService, asyncCluster.getService("hdfs1"));
+    client.asyncClusters().deleteCluster("Cluster 1").get(5, TimeUnit.SECONDS);
+    assertNotSame(asyncCluster, client.asyncClusters().getCluster("Cluster 1"));
+    client.close();
+  }
+
+  @Test
+  public void testCloseReleasesResources() throws Exception {
+    ClouderaManagerClient client = newClient().withMetrics().build();
+    client.hosts().list();
+    ClientMetrics metrics = client.getMetrics();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName hostsMBean = new ObjectName(ClientMetrics.JMX_DOMAIN + ":type=ClientMetrics,client="
+        + ObjectName.quote(metrics.getName()) + ",endpoint=" + ObjectName.quote("GET /hosts"));
+    assertTrue(server.isRegistered(hostsMBean));
+
+    assertFalse(client.isClosed());
+    client.close();
+    client.close();
+    assertTrue(client.isClosed());
+    assertFalse(server.isRegistered(hostsMBean));
+    assertEquals(1, transportsClosed.get());
+  }
+
+  private ClouderaManagerClient.ClouderaManagerBuilder newClient() {
+    return ClouderaManagerClient.withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin")
+        .withTransport(transport);
+  }
+}
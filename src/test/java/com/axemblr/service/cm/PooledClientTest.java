@@ -0,0 +1,186 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm;
+
+import com.axemblr.service.cm.models.hosts.HostList;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.config.ClientConfig;
+import com.sun.jersey.client.apache4.ApacheHttpClient4;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the configuration of the client backed by a pool of HTTP connections, and for the reuse of its
+ * connections against an in-process HTTP server.
+ */
+public class PooledClientTest {
+
+  @Test
+  public void testPoolLimitsAndTimeouts() {
+    RecordingClient client = new RecordingClient(ClouderaManagerClient.withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin")
+        .withConnectionPool(ConnectionPoolConfig.builder()
+            .withMaxTotal(7)
+            .withMaxPerRoute(3)
+            .withValidateAfterInactivity(500, TimeUnit.MILLISECONDS)
+            .withLeaseTimeout(2, TimeUnit.SECONDS)
+            .build())
+        .withConnectTimeout(1, TimeUnit.SECONDS)
+        .withReadTimeout(4, TimeUnit.SECONDS));
+    try {
+      assertEquals(7, client.connectionManager.getMaxTotal());
+      assertEquals(3, client.connectionManager.getDefaultMaxPerRoute());
+      assertEquals(500, client.connectionManager.getValidateAfterInactivity());
+
+      RequestConfig requestConfig = client.requestConfig();
+      assertEquals(1000, requestConfig.getConnectTimeout());
+      assertEquals(4000, requestConfig.getSocketTimeout());
+      assertEquals(2000, requestConfig.getConnectionRequestTimeout());
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testDefaults() {
+    RecordingClient client = new RecordingClient(ClouderaManagerClient.withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin")
+        .withConnectionPool());
+    try {
+      assertEquals(ConnectionPoolConfig.DEFAULT_MAX_TOTAL, client.connectionManager.getMaxTotal());
+      assertEquals(ConnectionPoolConfig.DEFAULT_MAX_PER_ROUTE, client.connectionManager.getDefaultMaxPerRoute());
+
+      RequestConfig requestConfig = client.requestConfig();
+      assertEquals(ClouderaManagerClient.DEFAULT_CONNECT_TIMEOUT_MS, requestConfig.getConnectTimeout());
+      assertEquals(ClouderaManagerClient.DEFAULT_READ_TIMEOUT_MS, requestConfig.getSocketTimeout());
+      assertEquals(ConnectionPoolConfig.DEFAULT_LEASE_TIMEOUT_MS, requestConfig.getConnectionRequestTimeout());
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testCloseShutsDownThePool() {
+    RecordingClient client = new RecordingClient(ClouderaManagerClient.withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin")
+        .withConnectionPool());
+    assertNotNull(client.connectionManager);
+    client.close();
+    try {
+      client.connectionManager.requestConnection(new HttpRoute(new HttpHost("localhost", 7180)), null);
+      fail("The pool should be shut down");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test
+  public void testConnectionsAreReusedAndReleased() throws Exception {
+    final Set<Integer> clientPorts = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        byte[] body = "{\"items\":[]}".getBytes(Charsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+      }
+    });
+    server.setExecutor(Executors.newFixedThreadPool(4));
+    server.start();
+    final RecordingClient client = new RecordingClient(ClouderaManagerClient
+        .withConnectionString("http://localhost:" + server.getAddress().getPort())
+        .withAuth("admin", "admin")
+        .withConnectionPool(ConnectionPoolConfig.builder().withMaxPerRoute(2).build()));
+    ExecutorService callers = Executors.newFixedThreadPool(4);
+    try {
+      for (int i = 0; i < 10; i++) {
+        assertTrue(client.hosts().list().getItems().isEmpty());
+      }
+      assertEquals(1, clientPorts.size());
+      assertEquals(0, client.connectionManager.getTotalStats().getLeased());
+      assertEquals(1, client.connectionManager.getTotalStats().getAvailable());
+
+      List<Future<HostList>> lists = Lists.newArrayList();
+      for (int i = 0; i < 40; i++) {
+        lists.add(callers.submit(new Callable<HostList>() {
+          @Override
+          public HostList call() {
+            return client.hosts().list();
+          }
+        }));
+      }
+      for (Future<HostList> list : lists) {
+        assertTrue(list.get(5, TimeUnit.SECONDS).getItems().isEmpty());
+      }
+      assertTrue(clientPorts.toString(), clientPorts.size() <= 2);
+      assertEquals(0, client.connectionManager.getTotalStats().getLeased());
+    } finally {
+      callers.shutdownNow();
+      client.close();
+      server.stop(0);
+      ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+  }
+
+  /**
+   * Keeps the connection manager and the HTTP client created for the pool. The fields are set from the constructor
+   * of the superclass, so they have no initializers.
+   */
+  private static class RecordingClient extends ClouderaManagerClient {
+    private PoolingHttpClientConnectionManager connectionManager;
+    private Client pooledClient;
+
+    RecordingClient(ClouderaManagerBuilder builder) {
+      super(builder);
+    }
+
+    @Override
+    protected Client createPooledClient(ClientConfig clientConfig, ConnectionPoolConfig config) {
+      pooledClient = super.createPooledClient(clientConfig, config);
+      return pooledClient;
+    }
+
+    @Override
+    protected PoolingHttpClientConnectionManager createConnectionManager(ConnectionPoolConfig config) {
+      connectionManager = super.createConnectionManager(config);
+      return connectionManager;
+    }
+
+    RequestConfig requestConfig() {
+      return ((Configurable) ((ApacheHttpClient4) pooledClient).getClientHandler().getHttpClient()).getConfig();
+    }
+  }
+}
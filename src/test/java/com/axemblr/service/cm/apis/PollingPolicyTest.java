@@ -0,0 +1,81 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the delays computed by {@link PollingPolicy}.
+ */
+public class PollingPolicyTest {
+
+  @Test
+  public void testFixedInterval() {
+    PollingPolicy policy = PollingPolicy.fixed(2, TimeUnit.SECONDS);
+    assertEquals(0, policy.nextDelayMs(0, 0));
+    assertEquals(2000, policy.nextDelayMs(1, 0));
+    assertEquals(2000, policy.nextDelayMs(10, 60000));
+  }
+
+  @Test
+  public void testExponentialBackoffIsCapped() {
+    PollingPolicy policy = PollingPolicy.builder()
+        .withInitialDelay(50, TimeUnit.MILLISECONDS)
+        .withInitialInterval(100, TimeUnit.MILLISECONDS)
+        .withMultiplier(2)
+        .withMaxInterval(1, TimeUnit.SECONDS)
+        .withJitter(0)
+        .build();
+    assertEquals(50, policy.nextDelayMs(0, 0));
+    assertEquals(100, policy.nextDelayMs(1, 0));
+    assertEquals(200, policy.nextDelayMs(2, 0));
+    assertEquals(800, policy.nextDelayMs(4, 0));
+    assertEquals(1000, policy.nextDelayMs(5, 0));
+    assertEquals(1000, policy.nextDelayMs(1000, 0));
+  }
+
+  @Test
+  public void testJitterStaysWithinBounds() {
+    PollingPolicy policy = PollingPolicy.builder()
+        .withInitialInterval(1000, TimeUnit.MILLISECONDS)
+        .withMultiplier(1)
+        .withMaxInterval(2, TimeUnit.SECONDS)
+        .withJitter(0.5)
+        .build();
+    for (int i = 0; i < 1000; i++) {
+      long delayMs = policy.nextDelayMs(1, 0);
+      assertTrue("delay out of range: " + delayMs, delayMs >= 500 && delayMs <= 1500);
+    }
+  }
+
+  @Test
+  public void testDeadline() {
+    PollingPolicy policy = PollingPolicy.builder()
+        .withInitialDelay(1, TimeUnit.SECONDS)
+        .withInitialInterval(1, TimeUnit.SECONDS)
+        .withJitter(0)
+        .withDeadline(3, TimeUnit.SECONDS)
+        .build();
+    assertEquals(1000, policy.nextDelayMs(0, 0));
+    assertEquals(500, policy.nextDelayMs(1, 2500));
+    assertEquals(-1, policy.nextDelayMs(2, 3000));
+    assertEquals(0, policy.nextDelayMs(0, 5000));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInitialIntervalLargerThanMaximum() {
+    PollingPolicy.builder()
+        .withInitialInterval(10, TimeUnit.SECONDS)
+        .withMaxInterval(1, TimeUnit.SECONDS)
+        .build();
+  }
+}
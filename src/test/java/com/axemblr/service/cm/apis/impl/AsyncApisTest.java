@@ -0,0 +1,253 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.apis.AsyncClouderaManagementCommands;
+import com.axemblr.service.cm.apis.AsyncClouderaManagementService;
+import com.axemblr.service.cm.apis.AsyncClouderaManager;
+import com.axemblr.service.cm.apis.AsyncClusterAPI;
+import com.axemblr.service.cm.apis.AsyncClusters;
+import com.axemblr.service.cm.apis.AsyncEvents;
+import com.axemblr.service.cm.apis.AsyncHosts;
+import com.axemblr.service.cm.apis.AsyncServiceAPI;
+import com.axemblr.service.cm.apis.AsyncTools;
+import com.axemblr.service.cm.apis.AsyncUsers;
+import com.axemblr.service.cm.apis.ClouderaManagementCommands;
+import com.axemblr.service.cm.apis.ClouderaManagementService;
+import com.axemblr.service.cm.apis.ClouderaManager;
+import com.axemblr.service.cm.apis.ClusterAPI;
+import com.axemblr.service.cm.apis.Clusters;
+import com.axemblr.service.cm.apis.Events;
+import com.axemblr.service.cm.apis.Hosts;
+import com.axemblr.service.cm.apis.ServiceAPI;
+import com.axemblr.service.cm.apis.Tools;
+import com.axemblr.service.cm.apis.Users;
+import com.axemblr.service.cm.models.clusters.HdfsDisableHaArguments;
+import com.axemblr.service.cm.models.clusters.HdfsFailoverArguments;
+import com.axemblr.service.cm.models.clusters.HdfsHaArguments;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.cm.CollectDiagnosticDataArguments;
+import com.axemblr.service.cm.models.cm.ConfigList;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleNameList;
+import com.axemblr.service.cm.models.cm.RoleType;
+import com.axemblr.service.cm.models.cm.ServiceSetupInfo;
+import com.axemblr.service.cm.models.cm.ServiceSetupList;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.axemblr.service.cm.models.users.User;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for the asynchronous APIs, each one against its synchronous twin.
+ */
+@RunWith(Parameterized.class)
+public class AsyncApisTest {
+
+  private final RecordingServer server = new RecordingServer();
+  private final Twin twin;
+  private ClouderaManagerClient client;
+
+  public AsyncApisTest(Twin twin) {
+    this.twin = twin;
+  }
+
+  @Parameterized.Parameters
+  public static Collection<Object[]> twins() {
+    List<Object[]> twins = Lists.newArrayList();
+    for (Twin twin : Twin.values()) {
+      twins.add(new Object[]{twin});
+    }
+    return twins;
+  }
+
+  @Before
+  public void setUp() {
+    client = server.newClient();
+  }
+
+  @After
+  public void tearDown() {
+    client.close();
+  }
+
+  @Test
+  public void testRequestsMatchSyncApi() throws Exception {
+    server.assertSameRequests(twin.syncType, twin.syncApi(client), twin.asyncType, twin.asyncApi(client),
+        twin.samples, twin.unsupported);
+  }
+
+  @Test
+  public void testErrorStatusFailsFutures() throws Exception {
+    server.respondWith(404);
+    server.assertFailWithStatus(404, twin.asyncType, twin.asyncApi(client), twin.samples, twin.unsupported);
+  }
+
+  /**
+   * Builds a map of sample arguments from parameter types followed by their values.
+   */
+  private static Map<Class<?>, Object> samples(Object... typesAndValues) {
+    Map<Class<?>, Object> samples = Maps.newHashMap();
+    for (int i = 0; i < typesAndValues.length; i += 2) {
+      samples.put((Class<?>) typesAndValues[i], typesAndValues[i + 1]);
+    }
+    return samples;
+  }
+
+  /**
+   * An asynchronous API, its synchronous twin, the arguments to call their methods with and the asynchronous
+   * methods that are not supported.
+   */
+  enum Twin {
+    TOOLS(Tools.class, AsyncTools.class, samples()) {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.tools();
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncTools();
+      }
+    },
+    USERS(Users.class, AsyncUsers.class, samples(User.class, new User("admin", "secret",
+        ImmutableSet.of("ROLE_ADMIN")))) {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.users();
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncUsers();
+      }
+    },
+    EVENTS(Events.class, AsyncEvents.class, samples(), "queryEvents", "getEventById") {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.events();
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncEvents();
+      }
+    },
+    HOSTS(Hosts.class, AsyncHosts.class, samples(Host.class, new Host("h1", "10.0.0.1", "host1", "/r1")),
+        "getHostMetrics") {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.hosts();
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncHosts();
+      }
+    },
+    CLUSTERS(Clusters.class, AsyncClusters.class, samples()) {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.clusters();
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncClusters();
+      }
+    },
+    CLUSTER(ClusterAPI.class, AsyncClusterAPI.class, samples(ServiceSetupList.class, null)) {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.clusters().getCluster("Cluster 1");
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncClusters().getCluster("Cluster 1");
+      }
+    },
+    SERVICE(ServiceAPI.class, AsyncServiceAPI.class, samples(RoleNameList.class, null,
+        HdfsFailoverArguments.class, null, HdfsDisableHaArguments.class, null, HdfsHaArguments.class, null,
+        ServiceConfig.class, null, RoleList.class, null, ConfigList.class, null), "disableHdfsAutoFailover") {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.clusters().getCluster("Cluster 1").getService("hdfs1");
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncClusters().getCluster("Cluster 1").getService("hdfs1");
+      }
+    },
+    CLOUDERA_MANAGER(ClouderaManager.class, AsyncClouderaManager.class, samples(), "updateLicense") {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.clouderaManager();
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncClouderaManager();
+      }
+    },
+    CLOUDERA_MANAGER_COMMANDS(ClouderaManagementCommands.class, AsyncClouderaManagementCommands.class,
+        samples(CollectDiagnosticDataArguments.class, null)) {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.clouderaManager();
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncClouderaManager();
+      }
+    },
+    MANAGEMENT_SERVICE(ClouderaManagementService.class, AsyncClouderaManagementService.class,
+        samples(ServiceSetupInfo.class, null, ServiceConfig.class, null, RoleNameList.class, null, RoleList.class,
+            null, ConfigList.class, null, Role.class, new Role("mgmt-SERVER", RoleType.SERVER, null))) {
+      @Override
+      Object syncApi(ClouderaManagerClient client) {
+        return client.clouderaManager().getService();
+      }
+
+      @Override
+      Object asyncApi(ClouderaManagerClient client) {
+        return client.asyncClouderaManager().getService();
+      }
+    };
+
+    private final Class<?> syncType;
+    private final Class<?> asyncType;
+    private final Map<Class<?>, Object> samples;
+    private final String[] unsupported;
+
+    Twin(Class<?> syncType, Class<?> asyncType, Map<Class<?>, Object> samples, String... unsupported) {
+      this.syncType = syncType;
+      this.asyncType = asyncType;
+      this.samples = samples;
+      this.unsupported = unsupported;
+    }
+
+    abstract Object syncApi(ClouderaManagerClient client);
+
+    abstract Object asyncApi(ClouderaManagerClient client);
+  }
+}
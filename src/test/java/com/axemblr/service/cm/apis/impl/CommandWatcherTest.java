@@ -0,0 +1,317 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.apis.AsyncCommands;
+import com.axemblr.service.cm.apis.PollingPolicy;
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import com.axemblr.service.cm.models.cm.BulkCommandList;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.commands.CommandList;
+import com.google.common.collect.ConcurrentHashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multiset;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link CommandWatcher}, against a fake commands API that answers with the state set by the test.
+ */
+public class CommandWatcherTest {
+
+  private static final PollingPolicy FAST = PollingPolicy.fixed(5, TimeUnit.MILLISECONDS);
+
+  private final FakeCommands commands = new FakeCommands();
+  private final CommandWatcher watcher = new CommandWatcher(commands, FAST);
+
+  @After
+  public void tearDown() {
+    watcher.shutdown();
+  }
+
+  private static Command command(long id, boolean active) {
+    return new Command(id, "Start", null, null, active, !active, null, null, null, null, null, null, null);
+  }
+
+  private static Command child(long id, long parentId, boolean active) {
+    return new Command(id, "Start", null, null, active, !active, null, null, null, null, null,
+        command(parentId, true), null);
+  }
+
+  private static Command parent(long id, boolean active, Command... children) {
+    return new Command(id, "Start", null, null, active, !active, null, null, null, null, null, null,
+        new CommandList(ImmutableList.copyOf(children)));
+  }
+
+  private void awaitWatchedCount(int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (watcher.getWatchedCount() != count && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(count, watcher.getWatchedCount());
+  }
+
+  private void awaitQueries(long commandId, int queries) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (commands.queries.count(commandId) < queries && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertTrue(commands.queries.count(commandId) >= queries);
+  }
+
+  private static Throwable failureOf(ListenableFuture<?> future) throws Exception {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      fail("Expected a failure");
+      return null;
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+  }
+
+  @Test
+  public void testCompletesOnceTheCommandFinished() throws Exception {
+    commands.states.put(1L, command(1, true));
+    ListenableFuture<Command> result = watcher.watch(command(1, true));
+    assertEquals(1, watcher.getWatchedCount());
+    awaitQueries(1, 3);
+    assertFalse(result.isDone());
+
+    commands.states.put(1L, command(1, false));
+    assertFalse(result.get(5, TimeUnit.SECONDS).isActive());
+    awaitWatchedCount(0);
+  }
+
+  @Test
+  public void testWatchingACommandTwiceSharesOneEntry() throws Exception {
+    commands.states.put(1L, command(1, true));
+    ListenableFuture<Command> first = watcher.watch(command(1, true));
+    assertSame(first, watcher.watch(command(1, true), PollingPolicy.defaults()));
+    assertEquals(1, watcher.getWatchedCount());
+
+    commands.states.put(1L, command(1, false));
+    first.get(5, TimeUnit.SECONDS);
+    awaitWatchedCount(0);
+  }
+
+  @Test
+  public void testFailedQueryFailsTheWatch() throws Exception {
+    assertTrue(failureOf(watcher.watch(command(404, true))) instanceof IllegalStateException);
+    awaitWatchedCount(0);
+  }
+
+  @Test
+  public void testShutdownCancelsWatchedCommands() throws Exception {
+    commands.states.put(1L, command(1, true));
+    ListenableFuture<Command> result = watcher.watch(command(1, true));
+    awaitQueries(1, 1);
+
+    watcher.shutdown();
+    assertTrue(result.isCancelled());
+  }
+
+  @Test
+  public void testWatchAfterShutdownIsCancelled() {
+    watcher.shutdown();
+    commands.states.put(1L, command(1, true));
+    assertTrue(watcher.watch(command(1, true)).isCancelled());
+  }
+
+  @Test
+  public void testPolicyDeadlineCompletesWithTheLastResponse() throws Exception {
+    commands.states.put(1L, command(1, true));
+    PollingPolicy policy = PollingPolicy.builder()
+        .withInitialInterval(5, TimeUnit.MILLISECONDS)
+        .withJitter(0)
+        .withDeadline(50, TimeUnit.MILLISECONDS)
+        .build();
+    assertTrue(watcher.watch(command(1, true), policy).get(5, TimeUnit.SECONDS).isActive());
+  }
+
+  @Test
+  public void testCallerDeadlineFailsTheWatch() throws Exception {
+    commands.states.put(1L, command(1, true));
+    ListenableFuture<Command> result;
+    Deadline.Scope scope = Deadline.after(50, TimeUnit.MILLISECONDS).enter();
+    try {
+      result = watcher.watch(command(1, true));
+    } finally {
+      scope.close();
+    }
+    assertTrue(failureOf(result) instanceof DeadlineExceededException);
+  }
+
+  @Test
+  public void testChildrenAreReadFromTheParent() throws Exception {
+    commands.states.put(10L, parent(10, true, child(11, 10, true), child(12, 10, true)));
+    ListenableFuture<List<Command>> results = watcher.watch(ImmutableList.of(child(11, 10, true),
+        child(12, 10, true)));
+    awaitQueries(10, 2);
+    assertEquals(3, watcher.getWatchedCount());
+
+    commands.states.put(10L, parent(10, true, child(11, 10, false), child(12, 10, true)));
+    awaitWatchedCount(2);
+    commands.states.put(10L, parent(10, false, child(11, 10, false), child(12, 10, false)));
+
+    List<Command> finished = results.get(5, TimeUnit.SECONDS);
+    assertEquals(11, finished.get(0).getId());
+    assertFalse(finished.get(0).isActive());
+    assertEquals(12, finished.get(1).getId());
+    assertFalse(finished.get(1).isActive());
+    assertEquals(0, commands.queries.count(11L));
+    assertEquals(0, commands.queries.count(12L));
+  }
+
+  @Test
+  public void testChildMissingFromTheParentIsQueriedOnItsOwn() throws Exception {
+    commands.states.put(10L, parent(10, true, child(11, 10, true)));
+    commands.states.put(12L, child(12, 10, true));
+    ListenableFuture<List<Command>> results = watcher.watch(ImmutableList.of(child(11, 10, true),
+        child(12, 10, true)));
+    awaitQueries(12, 1);
+    assertEquals(0, commands.queries.count(11L));
+
+    commands.states.put(12L, child(12, 10, false));
+    commands.states.put(10L, parent(10, false, child(11, 10, false)));
+    results.get(5, TimeUnit.SECONDS);
+    assertEquals(0, commands.queries.count(11L));
+  }
+
+  @Test
+  public void testChildrenAreQueriedOnTheirOwnOnceTheParentFinished() throws Exception {
+    commands.states.put(10L, parent(10, false, child(11, 10, true), child(12, 10, true)));
+    commands.states.put(11L, child(11, 10, true));
+    commands.states.put(12L, child(12, 10, true));
+    ListenableFuture<List<Command>> results = watcher.watch(ImmutableList.of(child(11, 10, true),
+        child(12, 10, true)));
+    awaitQueries(11, 1);
+    awaitQueries(12, 1);
+
+    commands.states.put(11L, child(11, 10, false));
+    commands.states.put(12L, child(12, 10, false));
+    results.get(5, TimeUnit.SECONDS);
+    awaitWatchedCount(0);
+  }
+
+  @Test
+  public void testChildThroughParentFollowsItsPolicyDeadline() throws Exception {
+    commands.states.put(10L, parent(10, true, child(11, 10, true), child(12, 10, true)));
+    commands.states.put(11L, child(11, 10, true));
+    commands.states.put(12L, child(12, 10, true));
+    // the parent is already watched without a deadline
+    ListenableFuture<Command> parentResult = watcher.watch(command(10, true));
+    PollingPolicy policy = PollingPolicy.builder()
+        .withInitialInterval(5, TimeUnit.MILLISECONDS)
+        .withJitter(0)
+        .withDeadline(50, TimeUnit.MILLISECONDS)
+        .build();
+
+    List<Command> children = watcher.watch(ImmutableList.of(child(11, 10, true), child(12, 10, true)), policy)
+        .get(5, TimeUnit.SECONDS);
+    assertTrue(children.get(0).isActive());
+    assertTrue(children.get(1).isActive());
+    assertFalse(parentResult.isDone());
+  }
+
+  @Test
+  public void testChildThroughParentFollowsTheCallerDeadline() throws Exception {
+    commands.states.put(10L, parent(10, true, child(11, 10, true), child(12, 10, true)));
+    commands.states.put(11L, child(11, 10, true));
+    commands.states.put(12L, child(12, 10, true));
+    ListenableFuture<Command> parentResult = watcher.watch(command(10, true));
+
+    ListenableFuture<List<Command>> children;
+    Deadline.Scope scope = Deadline.after(50, TimeUnit.MILLISECONDS).enter();
+    try {
+      children = watcher.watch(ImmutableList.of(child(11, 10, true), child(12, 10, true)));
+    } finally {
+      scope.close();
+    }
+    assertTrue(failureOf(children) instanceof DeadlineExceededException);
+    assertFalse(parentResult.isDone());
+  }
+
+  /**
+   * Answers details queries with the state set by the test and counts them. Unknown commands fail.
+   */
+  private static class FakeCommands implements AsyncCommands {
+
+    private final ConcurrentMap<Long, Command> states = new ConcurrentHashMap<Long, Command>();
+    private final Multiset<Long> queries = ConcurrentHashMultiset.create();
+
+    @Override
+    public ListenableFuture<Command> details(long commandId) {
+      queries.add(commandId);
+      Command state = states.get(commandId);
+      if (state == null) {
+        return immediateFailedFuture(new IllegalStateException("Unknown command " + commandId));
+      }
+      return immediateFuture(state);
+    }
+
+    @Override
+    public ListenableFuture<Command> details(Command command) {
+      return details(command.getId());
+    }
+
+    @Override
+    public ListenableFuture<Command> abort(long commandId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<Command> abort(Command command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<Command> waitFor(Command command) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<List<Command>> waitFor(List<Command> commands) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<List<Command>> waitFor(BulkCommandList commandList) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<Command> waitFor(Command command, PollingPolicy policy) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<List<Command>> waitFor(List<Command> commands, PollingPolicy policy) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<List<Command>> waitFor(BulkCommandList commandList, PollingPolicy policy) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
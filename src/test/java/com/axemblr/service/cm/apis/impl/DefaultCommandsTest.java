@@ -0,0 +1,77 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.apis.PollingPolicy;
+import static com.axemblr.service.cm.apis.impl.RecordingServer.assertFailsWithStatus;
+import com.axemblr.service.cm.models.commands.Command;
+import com.google.common.collect.ImmutableList;
+import com.sun.jersey.api.client.Client;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the polling settings of {@link DefaultCommands} and for its asynchronous twin.
+ */
+public class DefaultCommandsTest {
+
+  private final DefaultCommands commands = new DefaultCommands(Client.create().resource("http://localhost:7180"));
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testQueryIntervalChangesThisObject() {
+    assertEquals(PollingPolicy.defaults(), commands.getPollingPolicy());
+    assertEquals(DefaultCommands.DEFAULT_RETRY_INTERVAL, commands.getRetryInterval());
+
+    assertSame(commands, commands.withQueryInterval(3));
+    assertEquals(PollingPolicy.fixed(3, TimeUnit.SECONDS), commands.getPollingPolicy());
+    assertEquals(3, commands.getRetryInterval());
+  }
+
+  @Test
+  public void testAsyncRequestsMatchSyncApi() throws Exception {
+    RecordingServer server = new RecordingServer();
+    ClouderaManagerClient client = server.newClient();
+    Command command = new Command(7, "Start", null, null, true, false, null, null, null, null, null, null, null);
+    try {
+      client.commands().details(7);
+      client.commands().details(command);
+      client.commands().abort(7);
+      client.commands().abort(command);
+      List<String> expected = server.takeRequests();
+      assertEquals(ImmutableList.of("GET /api/v1/commands/7", "GET /api/v1/commands/7",
+          "POST /api/v1/commands/7/abort", "POST /api/v1/commands/7/abort"), expected);
+
+      client.asyncCommands().details(7).get();
+      client.asyncCommands().details(command).get();
+      client.asyncCommands().abort(7).get();
+      client.asyncCommands().abort(command).get();
+      assertEquals(expected, server.takeRequests());
+
+      server.respondWith(404);
+      assertFailsWithStatus(404, client.asyncCommands().details(7));
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testPollingPolicyReturnsACopy() {
+    PollingPolicy policy = PollingPolicy.fixed(500, TimeUnit.MILLISECONDS);
+    DefaultCommands copy = (DefaultCommands) commands.withPollingPolicy(policy);
+    assertNotSame(commands, copy);
+    assertSame(policy, copy.getPollingPolicy());
+    assertEquals(PollingPolicy.defaults(), commands.getPollingPolicy());
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+
+/**
+ * Unit tests for reading the end of a log without buffering all of it.
+ */
+public class DefaultRemoteLogTest {
+
+  @Test
+  public void testTailBytesShorterThanLog() throws Exception {
+    assertArrayEquals(bytes("6789"), DefaultRemoteLog.tailBytes(stream("0123456789"), 4));
+    assertArrayEquals(bytes("56789"), DefaultRemoteLog.tailBytes(stream("0123456789"), 5));
+  }
+
+  @Test
+  public void testTailBytesLongerThanLog() throws Exception {
+    assertArrayEquals(bytes("0123"), DefaultRemoteLog.tailBytes(stream("0123"), 10));
+    assertArrayEquals(bytes("0123"), DefaultRemoteLog.tailBytes(stream("0123"), 4));
+    assertArrayEquals(new byte[0], DefaultRemoteLog.tailBytes(stream(""), 4));
+  }
+
+  @Test
+  public void testTailBytesWithShortReads() throws Exception {
+    InputStream oneByteAtATime = new ByteArrayInputStream(bytes("abcdefghij")) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 1));
+      }
+    };
+    assertArrayEquals(bytes("hij"), DefaultRemoteLog.tailBytes(oneByteAtATime, 3));
+  }
+
+  @Test
+  public void testTailLines() throws Exception {
+    String log = "one\ntwo\r\nthree\nfour";
+    assertEquals(ImmutableList.of("three", "four"), DefaultRemoteLog.tailLines(new StringReader(log), 2));
+    assertEquals(ImmutableList.of("one", "two", "three", "four"),
+        DefaultRemoteLog.tailLines(new StringReader(log), 10));
+    assertEquals(ImmutableList.<String>of(), DefaultRemoteLog.tailLines(new StringReader(log), 0));
+  }
+
+  @Test
+  public void testLineIterator() {
+    DefaultRemoteLog.LineIterator lines = new DefaultRemoteLog.LineIterator(
+        new BufferedReader(new StringReader("a\nb\n\nc\n")));
+    assertEquals(ImmutableList.of("a", "b", "", "c"), Lists.newArrayList(lines));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(Charsets.UTF_8);
+  }
+
+  private static InputStream stream(String value) {
+    return new ByteArrayInputStream(bytes(value));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.WebResource;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Unit tests for expanding the precompiled endpoint templates.
+ */
+public class EndpointTemplateTest {
+
+  private final WebResource service = Client.create()
+      .resource("http://localhost:7180/api/v1/clusters/Cluster%201/services/hdfs1");
+
+  @Test
+  public void testExpand() {
+    EndpointTemplate template = EndpointTemplate.compile("roles/{role}/metrics?metrics={metrics}&from={from}");
+    assertEquals(ImmutableList.of("role", "metrics", "from"), template.getVariables());
+    assertEquals("roles/hdfs1-NAMENODE-1/metrics?metrics=cpu_percent,fd_open&from=10",
+        template.expand("hdfs1-NAMENODE-1", "cpu_percent,fd_open", "10"));
+  }
+
+  @Test
+  public void testValuesAreEncoded() {
+    EndpointTemplate template = EndpointTemplate.compile("roles/{role}/config?message={message}");
+    assertEquals("roles/a%20b%2Fc%3A%C8%9B/config?message=x%26y%3Dz%2Bw%20/ok",
+        template.expand("a b/c:\u021b", "x&y=z+w /ok"));
+  }
+
+  @Test
+  public void testNullQueryValuesAreLeftOut() {
+    EndpointTemplate template = EndpointTemplate.compile("activities?query={query}&maxResults={max}");
+    assertEquals("activities?maxResults=10", template.expand(null, "10"));
+    assertEquals("activities", template.expand(null, null));
+  }
+
+  @Test
+  public void testResolveMatchesPathChain() {
+    assertEquals(service.path("roles").path("hdfs1-DATANODE-1").path("config").getURI(),
+        ServiceEndpoints.ROLE_CONFIG.resolve(service, "hdfs1-DATANODE-1", null).getURI());
+    assertEquals(service.path("metrics").queryParam("from", "1").queryParam("to", "2")
+        .queryParam("metrics", "m").getURI(),
+        ServiceEndpoints.METRICS.resolve(service, "1", "2", "m").getURI());
+    assertEquals(service.path("roles").path("with space").getURI(),
+        ServiceEndpoints.ROLE.resolve(service, "with space").getURI());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongNumberOfValues() {
+    ServiceEndpoints.ROLE.expand("a", "b");
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullPathValue() {
+    ServiceEndpoints.ROLE.expand((String) null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPartialSegmentVariable() {
+    EndpointTemplate.compile("roles/prefix-{role}");
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.models.hosts.HostList;
+import com.axemblr.service.cm.transport.Transport;
+import com.axemblr.service.cm.transport.TransportRequest;
+import com.axemblr.service.cm.transport.TransportResponse;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for completing and cancelling the futures of the asynchronous APIs.
+ */
+public class ListenableResponsesTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("test-async-%d")
+      .build());
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicReference<String> requestThread = new AtomicReference<String>();
+  private final CountDownLatch firstRequestStarted = new CountDownLatch(1);
+  private final CountDownLatch firstRequestInterrupted = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private volatile boolean blockFirstRequest;
+
+  private final ClouderaManagerClient client = ClouderaManagerClient.withConnectionString("http://localhost:7180")
+      .withAuth("admin", "admin")
+      .withAsyncExecutor(executor)
+      .withTransport(new Transport() {
+        @Override
+        public TransportResponse execute(TransportRequest request) {
+          requestThread.set(Thread.currentThread().getName());
+          if (requests.incrementAndGet() == 1 && blockFirstRequest) {
+            firstRequestStarted.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              firstRequestInterrupted.countDown();
+              Thread.currentThread().interrupt();
+              throw new IllegalStateException(e);
+            }
+          }
+          return new TransportResponse(200, ImmutableListMultimap.of("Content-Type", "application/json"),
+              new ByteArrayInputStream("{\"items\":[]}".getBytes(Charsets.UTF_8)));
+        }
+
+        @Override
+        public void close() {
+        }
+      })
+      .build();
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    client.close();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testRequestAndCompletionRunOnTheExecutor() throws Exception {
+    blockFirstRequest = true;
+    final AtomicReference<String> listenerThread = new AtomicReference<String>();
+    final CountDownLatch listenerCalled = new CountDownLatch(1);
+    ListenableFuture<HostList> hosts = client.asyncHosts().list();
+    assertTrue(firstRequestStarted.await(5, TimeUnit.SECONDS));
+    hosts.addListener(new Runnable() {
+      @Override
+      public void run() {
+        listenerThread.set(Thread.currentThread().getName());
+        listenerCalled.countDown();
+      }
+    }, MoreExecutors.sameThreadExecutor());
+    release.countDown();
+
+    assertTrue(hosts.get(5, TimeUnit.SECONDS).getItems().isEmpty());
+    assertTrue(requestThread.get(), requestThread.get().startsWith("test-async-"));
+    assertTrue(listenerCalled.await(5, TimeUnit.SECONDS));
+    assertTrue(listenerThread.get(), listenerThread.get().startsWith("test-async-"));
+  }
+
+  @Test
+  public void testCancelInterruptsTheRequest() throws Exception {
+    blockFirstRequest = true;
+    ListenableFuture<HostList> blocked = client.asyncHosts().list();
+    assertTrue(firstRequestStarted.await(5, TimeUnit.SECONDS));
+
+    assertTrue(blocked.cancel(true));
+    assertTrue(blocked.isCancelled());
+    assertTrue(firstRequestInterrupted.await(5, TimeUnit.SECONDS));
+
+    // the only thread of the executor is free for the next request
+    assertTrue(client.asyncHosts().list().get(5, TimeUnit.SECONDS).getItems().isEmpty());
+    assertEquals(2, requests.get());
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.transport.Transport;
+import com.axemblr.service.cm.transport.TransportRequest;
+import com.axemblr.service.cm.transport.TransportResponse;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.jersey.api.client.UniformInterfaceException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An in-process transport that records the method and path of each request, for checking the asynchronous APIs
+ * against their synchronous twins.
+ */
+class RecordingServer implements Transport {
+
+  private final List<String> requests = Lists.newArrayList();
+  private volatile int status = 200;
+
+  ClouderaManagerClient newClient() {
+    return ClouderaManagerClient.withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin")
+        .withTransport(this)
+        .build();
+  }
+
+  void respondWith(int status) {
+    this.status = status;
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) {
+    String query = request.getUri().getRawQuery();
+    synchronized (requests) {
+      requests.add(request.getMethod() + " " + request.getUri().getRawPath() + ((query == null) ? "" : "?" + query));
+    }
+    return new TransportResponse(status, ImmutableListMultimap.of("Content-Type", "application/json"),
+        new ByteArrayInputStream("{}".getBytes(Charsets.UTF_8)));
+  }
+
+  @Override
+  public void close() {
+  }
+
+  /**
+   * @return the requests received since the last call
+   */
+  List<String> takeRequests() {
+    synchronized (requests) {
+      List<String> taken = ImmutableList.copyOf(requests);
+      requests.clear();
+      return taken;
+    }
+  }
+
+  /**
+   * Calls every method of the asynchronous API and its synchronous twin with the same arguments and checks that
+   * both send the same requests. The responses are not checked, the synchronous call may fail to read them.
+   *
+   * @param samples arguments by parameter type, strings, numbers, booleans and collections have defaults
+   * @param unsupported methods that must fail with {@link UnsupportedOperationException} without a request
+   */
+  void assertSameRequests(Class<?> syncType, Object syncApi, Class<?> asyncType, Object asyncApi,
+                          Map<Class<?>, Object> samples, String... unsupported) throws Exception {
+    Set<String> unsupportedMethods = ImmutableSet.copyOf(unsupported);
+    int checked = 0;
+    for (Method asyncMethod : asyncType.getMethods()) {
+      if (!ListenableFuture.class.equals(asyncMethod.getReturnType())) {
+        continue;
+      }
+      Method syncMethod = syncType.getMethod(asyncMethod.getName(), asyncMethod.getParameterTypes());
+      Object[] args = argumentsFor(asyncMethod.getParameterTypes(), samples);
+
+      takeRequests();
+      try {
+        syncMethod.invoke(syncApi, args);
+      } catch (InvocationTargetException e) {
+        // the empty response is not a valid model for most methods
+      }
+      List<String> expected = takeRequests();
+      ListenableFuture<?> future = (ListenableFuture<?>) asyncMethod.invoke(asyncApi, args);
+      Throwable failure = failureOf(future);
+      List<String> actual = takeRequests();
+
+      if (unsupportedMethods.contains(asyncMethod.getName())) {
+        assertTrue(asyncMethod + " should not be supported", failure instanceof UnsupportedOperationException);
+        assertTrue(asyncMethod + " sent " + actual, actual.isEmpty());
+      } else {
+        assertFalse(asyncMethod + " sent no request", expected.isEmpty());
+        assertEquals(asyncMethod.toString(), expected, actual);
+      }
+      checked++;
+    }
+    assertTrue("No asynchronous methods in " + asyncType, checked > 0);
+  }
+
+  /**
+   * Calls every supported method of the asynchronous API and checks that its future fails with the status the
+   * server answers with, see {@link #respondWith(int)}.
+   */
+  void assertFailWithStatus(int status, Class<?> asyncType, Object asyncApi, Map<Class<?>, Object> samples,
+                            String... unsupported) throws Exception {
+    Set<String> unsupportedMethods = ImmutableSet.copyOf(unsupported);
+    for (Method asyncMethod : asyncType.getMethods()) {
+      if (!ListenableFuture.class.equals(asyncMethod.getReturnType())
+          || unsupportedMethods.contains(asyncMethod.getName())) {
+        continue;
+      }
+      Object[] args = argumentsFor(asyncMethod.getParameterTypes(), samples);
+      Throwable failure = failureOf((ListenableFuture<?>) asyncMethod.invoke(asyncApi, args));
+      assertTrue(asyncMethod + " should fail with the status, got " + failure,
+          failure instanceof UniformInterfaceException);
+      assertEquals(asyncMethod.toString(), status, ((UniformInterfaceException) failure).getResponse().getStatus());
+    }
+  }
+
+  /**
+   * Checks that the future fails with the status the server answered with.
+   */
+  static void assertFailsWithStatus(int status, ListenableFuture<?> future) throws Exception {
+    Throwable failure = failureOf(future);
+    assertTrue("Expected the status, got " + failure, failure instanceof UniformInterfaceException);
+    assertEquals(status, ((UniformInterfaceException) failure).getResponse().getStatus());
+  }
+
+  private static Throwable failureOf(ListenableFuture<?> future) throws InterruptedException, TimeoutException {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      return null;
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+  }
+
+  private static Object[] argumentsFor(Class<?>[] types, Map<Class<?>, Object> samples) {
+    Object[] args = new Object[types.length];
+    for (int i = 0; i < types.length; i++) {
+      Class<?> type = types[i];
+      if (samples.containsKey(type)) {
+        args[i] = samples.get(type);
+      } else if (type == String.class) {
+        args[i] = "name" + i;
+      } else if (type == int.class) {
+        args[i] = 10 + i;
+      } else if (type == long.class) {
+        args[i] = 1000L + i;
+      } else if (type == boolean.class) {
+        args[i] = true;
+      } else if (type == Set.class) {
+        args[i] = ImmutableSet.of();
+      } else if (type == List.class) {
+        args[i] = ImmutableList.of();
+      } else {
+        fail("No sample for " + type + " in " + Arrays.toString(types));
+      }
+    }
+    return args;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.apis.impl;
+
+import com.axemblr.service.cm.SerializationTest;
+import com.axemblr.service.cm.apis.CloseableIterator;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.axemblr.service.cm.models.hosts.HostList;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.GenericType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Unit tests for reading list responses one item at a time.
+ */
+public class StreamingItemsReaderTest extends SerializationTest {
+
+  private static final Type HOSTS = new GenericType<CloseableIterator<Host>>() {
+  }.getType();
+
+  private final StreamingItemsReader reader = new StreamingItemsReader(mapper);
+
+  @Test
+  public void testIsReadableOnlyWithItemType() {
+    assertTrue(reader.isReadable(CloseableIterator.class, HOSTS, null, MediaType.APPLICATION_JSON_TYPE));
+    assertFalse(reader.isReadable(CloseableIterator.class, CloseableIterator.class, null,
+        MediaType.APPLICATION_JSON_TYPE));
+    assertFalse(reader.isReadable(HostList.class, HostList.class, null, MediaType.APPLICATION_JSON_TYPE));
+  }
+
+  @Test
+  public void testStreamMatchesList() throws Exception {
+    HostList list = mapper.readValue(new File("src/test/resources/host-list.json"), HostList.class);
+    CloseableIterator<Host> hosts = read(new FileInputStream("src/test/resources/host-list.json"));
+    assertEquals(ImmutableSet.copyOf(list.getItems()), ImmutableSet.copyOf(hosts));
+  }
+
+  @Test
+  public void testFieldsBeforeItemsAreSkipped() throws Exception {
+    CloseableIterator<Host> hosts = read(stream(
+        "{\"other\": {\"items\": [1]}, \"list\": [[], {}], \"items\": [{\"hostId\": \"h1\"}, {\"hostId\": \"h2\"}]}"));
+    assertEquals("h1", hosts.next().getHostId());
+    assertEquals("h2", hosts.next().getHostId());
+    assertFalse(hosts.hasNext());
+  }
+
+  @Test
+  public void testMissingItems() throws Exception {
+    assertFalse(read(stream("{}")).hasNext());
+    assertFalse(read(stream("{\"items\": null}")).hasNext());
+    assertFalse(read(stream("{\"items\": []}")).hasNext());
+  }
+
+  @Test
+  public void testCloseReleasesStream() throws Exception {
+    CloseTrackingStream in = new CloseTrackingStream(new FileInputStream("src/test/resources/host-list.json"));
+    CloseableIterator<Host> hosts = read(in);
+    hosts.next();
+    assertFalse(in.closed);
+    hosts.close();
+    assertTrue(in.closed);
+    assertFalse(hosts.hasNext());
+  }
+
+  @Test
+  public void testStreamClosedAtEnd() throws Exception {
+    CloseTrackingStream in = new CloseTrackingStream(new FileInputStream("src/test/resources/host-list.json"));
+    Lists.newArrayList(read(in));
+    assertTrue(in.closed);
+  }
+
+  @SuppressWarnings("unchecked")
+  private CloseableIterator<Host> read(InputStream in) throws IOException {
+    return (CloseableIterator<Host>) reader.readFrom(null, HOSTS, null, MediaType.APPLICATION_JSON_TYPE, null, in);
+  }
+
+  private static InputStream stream(String json) {
+    return new ByteArrayInputStream(json.getBytes(Charsets.UTF_8));
+  }
+
+  private static class CloseTrackingStream extends FilterInputStream {
+
+    private boolean closed;
+
+    CloseTrackingStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+}
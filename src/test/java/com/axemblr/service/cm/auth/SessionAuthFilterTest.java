@@ -0,0 +1,125 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.auth;
+
+import com.axemblr.service.cm.cache.CacheConfig;
+import com.axemblr.service.cm.cache.CachingFilter;
+import com.axemblr.service.cm.cache.ResponseCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.NewCookie;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for reusing the server session instead of sending the credentials with every request.
+ */
+public class SessionAuthFilterTest {
+
+  private final List<String> sent = Lists.newArrayList();
+  private String validSession = "s1";
+  private int sessions;
+  private final Client client = new Client(new ClientHandler() {
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+      Object cookie = request.getHeaders().getFirst(HttpHeaders.COOKIE);
+      Object authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+      sent.add(request.getMethod() + " " + (cookie != null ? cookie : authorization) + " " + request.getEntity());
+      InBoundHeaders headers = new InBoundHeaders();
+      int status = 200;
+      if (authorization != null) {
+        validSession = "s" + (++sessions);
+        headers.putSingle("Set-Cookie", "JSESSIONID=" + validSession + ";Path=/");
+      } else if (!("JSESSIONID=" + validSession).equals(cookie)) {
+        status = 401;
+      }
+      return new ClientResponse(status, headers, new ByteArrayInputStream(new byte[0]),
+          client.getMessageBodyWorkers());
+    }
+  });
+  private final SessionAuthFilter filter = new SessionAuthFilter("admin", "admin");
+
+  @Test
+  public void testCredentialsAreSentOnlyOnce() {
+    client.addFilter(filter);
+    get();
+    get();
+    get();
+    assertEquals(ImmutableList.of(
+        "GET Basic YWRtaW46YWRtaW4= null",
+        "GET JSESSIONID=s1 null",
+        "GET JSESSIONID=s1 null"), sent);
+  }
+
+  @Test
+  public void testRejectedSessionIsReplaced() {
+    client.addFilter(filter);
+    get();
+    validSession = "expired";
+    assertEquals(200, client.resource("http://localhost:7180/tools/echo").post(ClientResponse.class, "body")
+        .getStatus());
+    get();
+    assertEquals(ImmutableList.of(
+        "GET Basic YWRtaW46YWRtaW4= null",
+        "POST JSESSIONID=s1 body",
+        "POST Basic YWRtaW46YWRtaW4= body",
+        "GET JSESSIONID=s2 null"), sent);
+  }
+
+  @Test
+  public void testCachedResponsesDoNotBringBackAReplacedSession() {
+    client.addFilter(new CachingFilter(new ResponseCache(CacheConfig.builder()
+        .withDefaultTtl(1, TimeUnit.MINUTES)
+        .build()), client.getMessageBodyWorkers()));
+    client.addFilter(filter);
+    get();
+    validSession = "expired";
+    assertEquals(200, client.resource("http://localhost:7180/tools/echo").post(ClientResponse.class, "body")
+        .getStatus());
+    get();  // answered from the cache
+    assertEquals("JSESSIONID=s2", filter.getCookieStore().getCookieHeader());
+    assertEquals(200, client.resource("http://localhost:7180/hosts").get(ClientResponse.class).getStatus());
+    assertEquals(ImmutableList.of(
+        "GET Basic YWRtaW46YWRtaW4= null",
+        "POST JSESSIONID=s1 body",
+        "POST Basic YWRtaW46YWRtaW4= body",
+        "GET JSESSIONID=s2 null"), sent);
+  }
+
+  @Test
+  public void testCookieStore() {
+    SessionCookieStore store = new SessionCookieStore();
+    assertNull(store.getCookieHeader());
+    store.update(ImmutableList.of(new NewCookie("a", "1"), new NewCookie("b", "2")));
+    assertEquals("a=1; b=2", store.getCookieHeader());
+    assertFalse(store.invalidate("a=0"));
+    assertTrue(store.hasCookies());
+    store.update(ImmutableList.of(new NewCookie("b", "2", null, null, null, 0, false)));
+    assertEquals("a=1", store.getCookieHeader());
+    assertTrue(store.invalidate("a=1"));
+    assertFalse(store.hasCookies());
+  }
+
+  private void get() {
+    assertEquals(200, client.resource("http://localhost:7180/clusters").get(ClientResponse.class).getStatus());
+  }
+}
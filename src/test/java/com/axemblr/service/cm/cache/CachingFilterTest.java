@@ -0,0 +1,105 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+import com.google.common.base.Charsets;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.WebResource;
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for answering GET requests from the cache, against a server that echoes the path and byte range and
+ * starts a new session with every response.
+ */
+public class CachingFilterTest {
+
+  private static final int PARTIAL_CONTENT = 206;
+
+  private final AtomicInteger exchanges = new AtomicInteger();
+  private final Client client = new Client(new ClientHandler() {
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+      exchanges.incrementAndGet();
+      Object range = request.getHeaders().getFirst("Range");
+      String body = request.getURI().getPath() + ((range == null) ? "" : " " + range);
+      InBoundHeaders headers = new InBoundHeaders();
+      headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN);
+      headers.putSingle("Set-Cookie", "JSESSIONID=s" + exchanges.get() + ";Path=/");
+      headers.putSingle("Connection", "close");
+      return new ClientResponse((range == null) ? 200 : PARTIAL_CONTENT, headers,
+          new ByteArrayInputStream(body.getBytes(Charsets.UTF_8)), client.getMessageBodyWorkers());
+    }
+  });
+  private final ResponseCache cache = new ResponseCache(CacheConfig.builder()
+      .withDefaultTtl(1, TimeUnit.MINUTES)
+      .build());
+
+  @Before
+  public void setUp() {
+    client.addFilter(new CachingFilter(cache, client.getMessageBodyWorkers()));
+  }
+
+  @Test
+  public void testRepeatedRequestsAreAnsweredFromTheCache() {
+    assertEquals("/hosts/h1/logs", get("/hosts/h1/logs", null));
+    assertEquals("/hosts/h1/logs", get("/hosts/h1/logs", null));
+    assertEquals(1, exchanges.get());
+  }
+
+  @Test
+  public void testCachedResponsesDropSessionAndHopByHopHeaders() {
+    WebResource resource = client.resource("http://localhost:7180/clusters");
+    assertEquals("JSESSIONID=s1;Path=/", resource.get(ClientResponse.class).getHeaders().getFirst("Set-Cookie"));
+    ClientResponse cached = resource.get(ClientResponse.class);
+    assertEquals(1, exchanges.get());
+    assertEquals(MediaType.TEXT_PLAIN, cached.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+    assertFalse(cached.getHeaders().containsKey("Set-Cookie"));
+    assertFalse(cached.getHeaders().containsKey("Connection"));
+    assertEquals("/clusters", cached.getEntity(String.class));
+  }
+
+  @Test
+  public void testRangeRequestsAreNotAnsweredWithTheWholeBody() {
+    assertEquals("/hosts/h1/logs", get("/hosts/h1/logs", null));
+    assertEquals("/hosts/h1/logs bytes=-10", get("/hosts/h1/logs", "bytes=-10"));
+    assertEquals("/hosts/h1/logs bytes=-20", get("/hosts/h1/logs", "bytes=-20"));
+    assertEquals(3, exchanges.get());
+  }
+
+  @Test
+  public void testKeyDependsOnTheRange() {
+    URI uri = URI.create("http://localhost:7180/logs");
+    ClientRequest whole = ClientRequest.create().build(uri, "GET");
+    ClientRequest tail = ClientRequest.create().header("Range", "bytes=-10").build(uri, "GET");
+    assertEquals("http://localhost:7180/logs", CachingFilter.keyOf(whole));
+    assertEquals("Range:bytes=-10, http://localhost:7180/logs", CachingFilter.keyOf(tail));
+  }
+
+  private String get(String path, String range) {
+    WebResource resource = client.resource("http://localhost:7180").path(path);
+    if (range == null) {
+      return resource.get(String.class);
+    }
+    return resource.header("Range", range).get(String.class);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for expiration, invalidation and statistics of the {@link ResponseCache}.
+ */
+public class ResponseCacheTest {
+
+  private final ResponseCache cache = new ResponseCache(CacheConfig.defaults());
+
+  @Test
+  public void testDefaultPolicies() {
+    CacheConfig config = CacheConfig.builder()
+        .withTtl("/clusters/{c}/services", 5, TimeUnit.SECONDS)
+        .withTtl("/clusters", 0, TimeUnit.SECONDS)
+        .build();
+    assertEquals(600000, config.getTtlMs("/cm/version"));
+    assertEquals(5000, config.getTtlMs("/clusters/{c}/services"));
+    assertEquals(0, config.getTtlMs("/clusters"));
+    assertEquals(0, config.getTtlMs("/hosts"));
+    assertEquals(0, CacheConfig.builder().withoutDefaultTtls().build().getTtlMs("/cm/version"));
+  }
+
+  @Test
+  public void testHitsAndMisses() {
+    assertNull(cache.get("k1", "/cm/version"));
+    put("k1", "/cm/version", "/api/v1/cm/version", 60000);
+    assertNotNull(cache.get("k1", "/cm/version"));
+    assertNotNull(cache.get("k1", "/cm/version"));
+    assertEquals(new CacheStats(2, 1, 0, 0), cache.getStats("/cm/version"));
+    assertEquals(2.0 / 3, cache.getStats().getHitRate(), 0.001);
+  }
+
+  @Test
+  public void testExpiredEntriesAreMisses() throws Exception {
+    put("k1", "/cm/version", "/cm/version", 1);
+    Thread.sleep(5);
+    assertNull(cache.get("k1", "/cm/version"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testChangeInvalidatesResourceChildrenAndParents() {
+    put("clusters", "/clusters", "/api/v1/clusters", 60000);
+    put("services", "/clusters/{c}/services", "/api/v1/clusters/c1/services", 60000);
+    put("config", "/clusters/{c}/services/{s}/config", "/api/v1/clusters/c1/services/s1/config", 60000);
+    put("other", "/clusters/{c}/services/{s}/config", "/api/v1/clusters/c1/services/s10/config", 60000);
+
+    cache.invalidateAfterChange("/api/v1/clusters/c1/services/s1/commands/restart");
+
+    assertNull(cache.get("config", "/clusters/{c}/services/{s}/config"));
+    assertNull(cache.get("services", "/clusters/{c}/services"));
+    assertNull(cache.get("clusters", "/clusters"));
+    assertNotNull(cache.get("other", "/clusters/{c}/services/{s}/config"));
+    assertEquals(3, cache.getStats().getInvalidations());
+  }
+
+  @Test
+  public void testResponsesFetchedDuringInvalidationAreDropped() {
+    long generation = cache.generation();
+    cache.invalidate("/clusters");
+    cache.put("k1", "/clusters", "/clusters", response(), 60000, generation);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testResponsesStoredWhileInvalidationRunsAreDropped() {
+    final long generation = cache.generation();
+    BufferedResponse response = new BufferedResponse(200, new InBoundHeaders(), new byte[100]) {
+      private boolean invalidated;
+
+      @Override
+      public int getLength() {
+        // weighed by the cache after the generation check and before the entry is visible
+        if (!invalidated) {
+          invalidated = true;
+          cache.invalidate("/clusters");
+        }
+        return super.getLength();
+      }
+    };
+    cache.put("k1", "/clusters", "/clusters", response, 60000, generation);
+    assertNull(cache.get("k1", "/clusters"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testCommandAbortOnlyInvalidatesTheCommand() {
+    put("clusters", "/clusters", "/api/v1/clusters", 60000);
+    put("command", "/commands/{id}", "/api/v1/commands/123", 60000);
+    put("other", "/commands/{id}", "/api/v1/commands/124", 60000);
+
+    cache.invalidateAfterChange("/api/v1/commands/123/abort");
+
+    assertNull(cache.get("command", "/commands/{id}"));
+    assertNotNull(cache.get("other", "/commands/{id}"));
+    assertNotNull(cache.get("clusters", "/clusters"));
+  }
+
+  @Test
+  public void testSizeLimit() {
+    ResponseCache small = new ResponseCache(CacheConfig.builder().withMaxBytes(1024).withMaxEntryBytes(512).build());
+    for (int i = 0; i < 100; i++) {
+      small.put("k" + i, "/cm/version", "/cm/version", response(), 60000, small.generation());
+    }
+    assertTrue(small.size() < 100);
+    assertTrue(small.getStats().getEvictions() > 0);
+  }
+
+  @Test
+  public void testRelatedPaths() {
+    assertTrue(ResponseCache.isRelated("/clusters/c1", "/clusters/c1"));
+    assertTrue(ResponseCache.isRelated("/clusters/c1/services", "/clusters/c1"));
+    assertTrue(ResponseCache.isRelated("/clusters", "/clusters/c1"));
+    assertFalse(ResponseCache.isRelated("/clusters/c10", "/clusters/c1"));
+    assertFalse(ResponseCache.isRelated("/hosts", "/clusters/c1"));
+  }
+
+  private void put(String key, String template, String path, long ttlMs) {
+    cache.put(key, template, path, response(), ttlMs, cache.generation());
+  }
+
+  private static BufferedResponse response() {
+    return new BufferedResponse(200, new InBoundHeaders(), new byte[100]);
+  }
+}
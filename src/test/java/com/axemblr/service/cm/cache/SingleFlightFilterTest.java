@@ -0,0 +1,198 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.cache;
+
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for sharing one response between concurrent identical requests.
+ */
+public class SingleFlightFilterTest {
+
+  private static final int THREADS = 10;
+
+  private final AtomicInteger exchanges = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final Client client = new Client(new ClientHandler() {
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+      int exchange = exchanges.incrementAndGet();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        throw new ClientHandlerException(e);
+      }
+      if (leaderRunsOutOfTime && exchange == 1) {
+        throw new DeadlineExceededException("Deadline expired waiting for GET " + request.getURI());
+      }
+      byte[] body = request.getURI().getPath().getBytes(Charsets.UTF_8);
+      return new ClientResponse(200, new InBoundHeaders(), new ByteArrayInputStream(body),
+          client.getMessageBodyWorkers());
+    }
+  });
+  private volatile boolean leaderRunsOutOfTime;
+  private final SingleFlightFilter filter = new SingleFlightFilter(client.getMessageBodyWorkers());
+
+  @Test
+  public void testConcurrentIdenticalRequestsShareOneExchange() throws Exception {
+    client.addFilter(filter);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<String>> results = Lists.newArrayList();
+      for (int i = 0; i < THREADS; i++) {
+        results.add(executor.submit(get("/clusters/c1")));
+      }
+      while (filter.getRequestCount() < THREADS) {
+        Thread.sleep(1);
+      }
+      Thread.sleep(100);  // let the last requests join the first one
+      release.countDown();
+      for (Future<String> result : results) {
+        assertEquals("/clusters/c1", result.get());
+      }
+      assertEquals(1, exchanges.get());
+      assertEquals(THREADS - 1, filter.getCoalescedCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testDifferentRequestsAreNotShared() throws Exception {
+    client.addFilter(filter);
+    release.countDown();
+    assertEquals("/clusters/c1", get("/clusters/c1").call());
+    assertEquals("/clusters/c2", get("/clusters/c2").call());
+    assertEquals("/clusters/c1", get("/clusters/c1").call());
+    assertEquals(3, exchanges.get());
+    assertEquals(0, filter.getCoalescedCount());
+  }
+
+  @Test
+  public void testRequestsForDifferentRangesAreNotShared() throws Exception {
+    client.addFilter(filter);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> whole = executor.submit(get("/hosts/h1/logs"));
+      Future<String> tail = executor.submit(new Callable<String>() {
+        @Override
+        public String call() {
+          return client.resource("http://localhost:7180").path("/hosts/h1/logs").header("Range", "bytes=-10")
+              .get(String.class);
+        }
+      });
+      while (filter.getRequestCount() < 2) {
+        Thread.sleep(1);
+      }
+      Thread.sleep(100);
+      release.countDown();
+      whole.get();
+      tail.get();
+      assertEquals(2, exchanges.get());
+      assertEquals(0, filter.getCoalescedCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWaitingRequestsGiveUpAtTheirDeadline() throws Exception {
+    client.addFilter(filter);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> leader = executor.submit(get("/clusters/c1"));
+      while (filter.getRequestCount() < 1) {
+        Thread.sleep(1);
+      }
+      Future<String> follower = executor.submit(withDeadline(50, get("/clusters/c1")));
+      try {
+        follower.get(5, TimeUnit.SECONDS);
+        fail("Expected the deadline to expire");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof DeadlineExceededException);
+      }
+      release.countDown();
+      assertEquals("/clusters/c1", leader.get());
+      assertEquals(1, exchanges.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWaitingRequestsGoOnTheirOwnWhenTheFirstRunsOutOfTime() throws Exception {
+    leaderRunsOutOfTime = true;
+    client.addFilter(filter);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> leader = executor.submit(get("/clusters/c1"));
+      while (filter.getRequestCount() < 1) {
+        Thread.sleep(1);
+      }
+      Future<String> follower = executor.submit(get("/clusters/c1"));
+      while (filter.getRequestCount() < 2) {
+        Thread.sleep(1);
+      }
+      Thread.sleep(100);  // let the second request join the first one
+      release.countDown();
+      try {
+        leader.get();
+        fail("Expected the deadline to expire");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof DeadlineExceededException);
+      }
+      assertEquals("/clusters/c1", follower.get());
+      assertEquals(2, exchanges.get());
+      assertEquals(0, filter.getCoalescedCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <T> Callable<T> withDeadline(final long timeoutMs, final Callable<T> task) {
+    return new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+        return Deadline.after(timeoutMs, TimeUnit.MILLISECONDS).call(task);
+      }
+    };
+  }
+
+  private Callable<String> get(final String path) {
+    return new Callable<String>() {
+      @Override
+      public String call() {
+        return client.resource("http://localhost:7180").path(path).get(String.class);
+      }
+    };
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.compression;
+
+import com.axemblr.service.cm.metrics.ClientMetrics;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Unit tests for the gzip negotiation of responses and the compression of large request bodies.
+ */
+public class GzipFilterTest {
+
+  private static final String BODY = Strings.repeat("{\"name\":\"hdfs1\",\"type\":\"HDFS\"},", 100);
+
+  private final ClientMetrics metrics = new ClientMetrics();
+  private Object sentEntity;
+  private Object sentEncoding;
+  private final Client client = new Client(new ClientHandler() {
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+      sentEntity = request.getEntity();
+      sentEncoding = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+      InBoundHeaders headers = new InBoundHeaders();
+      byte[] body = BODY.getBytes(Charsets.UTF_8);
+      if ("gzip".equals(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING))) {
+        headers.putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+        body = gzip(body);
+      }
+      return new ClientResponse(200, headers, new ByteArrayInputStream(body), client.getMessageBodyWorkers());
+    }
+  });
+
+  @Test
+  public void testResponseIsDecompressed() {
+    client.addFilter(new GzipFilter(client.getMessageBodyWorkers(), GzipFilter.NO_REQUEST_COMPRESSION,
+        ImmutableList.of(metrics)));
+    ClientResponse response = client.resource("http://localhost:7180/api/v1/clusters").get(ClientResponse.class);
+    assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(BODY, response.getEntity(String.class));
+
+    double ratio = metrics.getEndpoint("GET /clusters").getResponseCompressionRatio();
+    assertTrue("unexpected ratio " + ratio, ratio > 10);
+    assertEquals(0, metrics.getEndpoint("GET /clusters").getRequestCompressionRatio(), 0);
+  }
+
+  @Test
+  public void testOnlyLargeRequestsAreCompressed() throws IOException {
+    client.addFilter(new GzipFilter(client.getMessageBodyWorkers(), 1024, ImmutableList.of(metrics)));
+
+    client.resource("http://localhost:7180/api/v1/tools/echo").post(String.class, "small");
+    assertNull(sentEncoding);
+    assertEquals("small", new String((byte[]) sentEntity, Charsets.UTF_8));
+
+    client.resource("http://localhost:7180/api/v1/tools/echo").post(String.class, BODY);
+    assertEquals("gzip", sentEncoding);
+    byte[] decompressed = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream((byte[]) sentEntity)));
+    assertEquals(BODY, new String(decompressed, Charsets.UTF_8));
+    assertTrue(metrics.getEndpoint("POST /tools/echo").getRequestCompressionRatio() > 10);
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      GZIPOutputStream gzip = new GZIPOutputStream(out);
+      gzip.write(bytes);
+      gzip.close();
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
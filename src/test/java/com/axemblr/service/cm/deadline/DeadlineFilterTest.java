@@ -0,0 +1,161 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.deadline;
+
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.config.ClientConfig;
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for deadline scopes and for capping the request timeouts to the time left.
+ */
+public class DeadlineFilterTest {
+
+  private int requests;
+  private Object sentConnectTimeout;
+  private Object sentReadTimeout;
+  private boolean timeOut;
+  private final Client client = new Client(new ClientHandler() {
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+      requests++;
+      sentConnectTimeout = request.getProperties().get(ClientConfig.PROPERTY_CONNECT_TIMEOUT);
+      sentReadTimeout = request.getProperties().get(ClientConfig.PROPERTY_READ_TIMEOUT);
+      if (timeOut) {
+        try {
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        throw new ClientHandlerException(new SocketTimeoutException("Read timed out"));
+      }
+      return new ClientResponse(200, new InBoundHeaders(), new ByteArrayInputStream("ok".getBytes()),
+          client.getMessageBodyWorkers());
+    }
+  });
+
+  {
+    client.addFilter(new DeadlineFilter());
+    client.setConnectTimeout(10000);
+    client.setReadTimeout(60000);
+  }
+
+  @Test
+  public void testTimeoutsAreKeptWithoutDeadline() {
+    get();
+    assertEquals(10000, sentConnectTimeout);
+    assertEquals(60000, sentReadTimeout);
+  }
+
+  @Test
+  public void testTimeoutsAreCappedToTheRemainingTime() {
+    Deadline.Scope scope = Deadline.after(2, TimeUnit.SECONDS).enter();
+    try {
+      get();
+    } finally {
+      scope.close();
+    }
+    assertTrue("connect timeout " + sentConnectTimeout, (Integer) sentConnectTimeout <= 2000);
+    assertTrue("read timeout " + sentReadTimeout, (Integer) sentReadTimeout <= 2000);
+    assertTrue((Integer) sentReadTimeout > 0);
+  }
+
+  @Test
+  public void testExpiredDeadlineFailsWithoutSending() {
+    Deadline.Scope scope = Deadline.after(0, TimeUnit.MILLISECONDS).enter();
+    try {
+      get();
+      fail("expected the deadline to be exceeded");
+    } catch (DeadlineExceededException expected) {
+      assertEquals(0, requests);
+    } finally {
+      scope.close();
+    }
+  }
+
+  @Test
+  public void testTimeoutAfterTheDeadlineIsReportedAsExceeded() {
+    timeOut = true;
+    Deadline.Scope scope = Deadline.after(10, TimeUnit.MILLISECONDS).enter();
+    try {
+      get();
+      fail("expected the deadline to be exceeded");
+    } catch (DeadlineExceededException expected) {
+      assertTrue(expected.getCause() instanceof SocketTimeoutException);
+    } finally {
+      scope.close();
+    }
+  }
+
+  @Test
+  public void testScopesNestAndRestore() throws Exception {
+    final Deadline outer = Deadline.after(1, TimeUnit.SECONDS);
+    Deadline.Scope scope = outer.enter();
+    try {
+      Deadline.after(1, TimeUnit.HOURS).call(new Callable<Void>() {
+        @Override
+        public Void call() {
+          assertSame(outer, Deadline.current());
+          return null;
+        }
+      });
+      Deadline inner = Deadline.after(10, TimeUnit.MILLISECONDS);
+      Deadline.Scope innerScope = inner.enter();
+      assertSame(inner, Deadline.current());
+      innerScope.close();
+      assertSame(outer, Deadline.current());
+    } finally {
+      scope.close();
+    }
+    assertNull(Deadline.current());
+  }
+
+  @Test
+  public void testExecutorPropagatesTheDeadline() throws Exception {
+    ExecutorService executor = new DeadlinePropagatingExecutor(Executors.newSingleThreadExecutor());
+    Callable<Deadline> current = new Callable<Deadline>() {
+      @Override
+      public Deadline call() {
+        return Deadline.current();
+      }
+    };
+    try {
+      Deadline deadline = Deadline.after(1, TimeUnit.MINUTES);
+      Deadline.Scope scope = deadline.enter();
+      try {
+        assertSame(deadline, executor.submit(current).get());
+      } finally {
+        scope.close();
+      }
+      assertNull(executor.submit(current).get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void get() {
+    client.resource("http://localhost:7180/api/v1/clusters").get(String.class);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.deadline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.message.BasicHttpRequest;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for capping the timeouts of Apache HttpClient requests to the time left.
+ */
+public class DeadlineRequestInterceptorTest {
+
+  private final RequestConfig config = RequestConfig.custom()
+      .setConnectTimeout(10000)
+      .setSocketTimeout(0)
+      .setConnectionRequestTimeout(30000)
+      .build();
+
+  @Test
+  public void testTimeoutsAreKeptWithoutDeadline() {
+    HttpClientContext context = HttpClientContext.create();
+    context.setRequestConfig(config);
+    new DeadlineRequestInterceptor().process(new BasicHttpRequest("GET", "/api/v1/hosts"), context);
+    assertSame(config, context.getRequestConfig());
+  }
+
+  @Test
+  public void testTimeoutsAreCappedToTheDeadline() {
+    HttpClientContext context = HttpClientContext.create();
+    context.setRequestConfig(config);
+    Deadline.Scope scope = Deadline.after(500, TimeUnit.MILLISECONDS).enter();
+    try {
+      new DeadlineRequestInterceptor().process(new BasicHttpRequest("GET", "/api/v1/hosts"), context);
+    } finally {
+      scope.close();
+    }
+    RequestConfig capped = context.getRequestConfig();
+    assertTrue(capped.getConnectTimeout() > 0 && capped.getConnectTimeout() <= 500);
+    assertTrue("no timeout becomes the time left", capped.getSocketTimeout() > 0 && capped.getSocketTimeout() <= 500);
+    assertTrue(capped.getConnectionRequestTimeout() > 0 && capped.getConnectionRequestTimeout() <= 500);
+    assertEquals(config.isRedirectsEnabled(), capped.isRedirectsEnabled());
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.hedge;
+
+import com.google.common.collect.ImmutableSet;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for hedged GET requests and the hedge budget.
+ */
+public class HedgingFilterTest {
+
+  private static final String SERVICE = "http://localhost:7180/api/v1/clusters/c1/services/hdfs1";
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final AtomicInteger exchanges = new AtomicInteger();
+  private final AtomicInteger closedResponses = new AtomicInteger();
+  private volatile int slowExchange = -1;
+  private final Client client = new Client(new ClientHandler() {
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+      int exchange = exchanges.incrementAndGet();
+      if (exchange == slowExchange) {
+        try {
+          Thread.sleep(500);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return new ClientResponse(200, new InBoundHeaders(), new ByteArrayInputStream(("" + exchange).getBytes()) {
+        @Override
+        public void close() throws IOException {
+          closedResponses.incrementAndGet();
+        }
+      }, client.getMessageBodyWorkers());
+    }
+  });
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testLateResponseIsHedged() throws InterruptedException {
+    HedgingFilter filter = install(config().build());
+    warmUp(SERVICE);
+    slowExchange = exchanges.get() + 1;
+
+    long startNanos = System.nanoTime();
+    assertEquals("" + (slowExchange + 1), client.resource(SERVICE).get(String.class));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) < 400);
+    assertEquals(1, filter.getHedgeCount());
+    assertEquals(1, filter.getHedgeWinCount());
+
+    // the response of the slow request is closed once it arrives
+    int closed = closedResponses.get();
+    Thread.sleep(700);
+    assertEquals(closed + 1, closedResponses.get());
+  }
+
+  @Test
+  public void testHedgesAreCappedByTheBudget() {
+    HedgingFilter filter = install(config().withBudget(0, 0, 0).build());
+    warmUp(SERVICE);
+    slowExchange = exchanges.get() + 1;
+
+    assertEquals("" + slowExchange, client.resource(SERVICE).get(String.class));
+    assertEquals(0, filter.getHedgeCount());
+    assertEquals(1, filter.getRejectedHedgeCount());
+    assertEquals(slowExchange, exchanges.get());
+  }
+
+  @Test
+  public void testOtherEndpointsAreNotHedged() {
+    HedgingFilter filter = install(config().build());
+    String clusters = "http://localhost:7180/api/v1/clusters";
+    warmUp(clusters);
+    slowExchange = exchanges.get() + 1;
+
+    assertEquals("" + slowExchange, client.resource(clusters).get(String.class));
+    assertEquals(0, filter.getHedgeCount());
+  }
+
+  @Test
+  public void testPercentileOfRecentLatencies() {
+    LatencyWindow window = new LatencyWindow(10, 5, 90);
+    for (int i = 1; i <= 4; i++) {
+      window.record(i);
+    }
+    assertEquals(-1, window.getPercentileMicros());
+    for (int i = 5; i <= 10; i++) {
+      window.record(i);
+    }
+    assertEquals(9, window.getPercentileMicros());
+    for (int i = 0; i < 10; i++) {
+      window.record(100);
+    }
+    assertEquals(100, window.getPercentileMicros());
+  }
+
+  private HedgeConfig.HedgeConfigBuilder config() {
+    return HedgeConfig.builder()
+        .withEndpoints(ImmutableSet.of(HedgeConfig.SERVICE_DETAILS))
+        .withWindow(16, 4)
+        .withMinDelay(20, TimeUnit.MILLISECONDS);
+  }
+
+  private HedgingFilter install(HedgeConfig config) {
+    HedgingFilter filter = new HedgingFilter(config, executor);
+    client.addFilter(filter);
+    return filter;
+  }
+
+  private void warmUp(String uri) {
+    for (int i = 0; i < 8; i++) {
+      client.resource(uri).get(String.class);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.intern;
+
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleRef;
+import com.axemblr.service.cm.models.commands.Command;
+import com.axemblr.service.cm.models.hosts.HostList;
+import com.axemblr.service.cm.models.hosts.HostRef;
+import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.google.common.collect.Iterables;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link ReferenceInterningModule}.
+ */
+public class ReferenceInterningModuleTest {
+
+  private ObjectMapper plain;
+  private ObjectMapper interning;
+
+  @Before
+  public void setUp() {
+    plain = new ObjectMapper();
+    plain.registerModule(new GuavaModule());
+    interning = new ObjectMapper();
+    interning.registerModule(new GuavaModule());
+    interning.registerModule(new ReferenceInterningModule());
+  }
+
+  private static String roleList(String... hostIds) {
+    StringBuilder json = new StringBuilder("{\"items\":[");
+    for (int i = 0; i < hostIds.length; i++) {
+      json.append(i == 0 ? "" : ",")
+          .append("{\"name\":\"role-").append(i).append("\",\"type\":\"DATANODE\",")
+          .append("\"hostRef\":{\"hostId\":\"").append(hostIds[i]).append("\"},")
+          .append("\"serviceRef\":{\"clusterName\":\"c1\",\"serviceName\":\"hdfs1\"}}");
+    }
+    return json.append("]}").toString();
+  }
+
+  private static Role roleNamed(RoleList roles, String name) {
+    for (Role role : roles.getItems()) {
+      if (role.getName().equals(name)) {
+        return role;
+      }
+    }
+    throw new AssertionError("No role " + name);
+  }
+
+  @Test
+  public void testEqualReferencesShareOneInstance() throws IOException {
+    RoleList roles = interning.readValue(roleList("h1", "h1", "h2"), RoleList.class);
+    Role first = roleNamed(roles, "role-0");
+    Role second = roleNamed(roles, "role-1");
+    Role third = roleNamed(roles, "role-2");
+
+    assertSame(first.getHostRef(), second.getHostRef());
+    assertNotSame(first.getHostRef(), third.getHostRef());
+    assertSame(first.getServiceRef(), third.getServiceRef());
+
+    RoleList again = interning.readValue(roleList("h2"), RoleList.class);
+    assertSame(third.getHostRef(), Iterables.getOnlyElement(again.getItems()).getHostRef());
+  }
+
+  @Test
+  public void testNamesAreSharedAcrossReferenceTypes() throws IOException {
+    RoleList roles = interning.readValue(roleList("h1"), RoleList.class);
+    RoleRef roleRef = interning.readValue("{\"clusterName\":\"c1\",\"serviceName\":\"hdfs1\",\"roleName\":\"r\"}",
+        RoleRef.class);
+
+    Role role = Iterables.getOnlyElement(roles.getItems());
+    assertSame(role.getServiceRef().getClusterName(), roleRef.getClusterName());
+    assertSame(role.getServiceRef().getServiceName(), roleRef.getServiceName());
+  }
+
+  @Test
+  public void testSameModelsAsWithoutInterning() throws IOException {
+    assertEquals(plain.readValue(new File("src/test/resources/host-list.json"), HostList.class).getItems(),
+        interning.readValue(new File("src/test/resources/host-list.json"), HostList.class).getItems());
+    assertEquals(plain.readValue(new File("src/test/resources/role-list.json"), RoleList.class),
+        interning.readValue(new File("src/test/resources/role-list.json"), RoleList.class));
+    assertEquals(plain.readValue(new File("src/test/resources/command.json"), Command.class),
+        interning.readValue(new File("src/test/resources/command.json"), Command.class));
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void testUnknownPropertyFails() throws IOException {
+    interning.readValue("{\"hostId\":\"h1\",\"extra\":1}", HostRef.class);
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void testMissingRequiredNameFails() throws IOException {
+    interning.readValue("{}", HostRef.class);
+  }
+}
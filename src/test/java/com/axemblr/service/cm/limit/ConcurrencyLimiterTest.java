@@ -0,0 +1,150 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.limit;
+
+import com.axemblr.service.cm.deadline.Deadline;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the adaptive concurrency limits.
+ */
+public class ConcurrencyLimiterTest {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  public void testEndpointFamilies() {
+    assertEquals(EndpointFamily.COMMANDS, EndpointFamily.of("/clusters/{c}/services/{s}/roleCommands/restart"));
+    assertEquals(EndpointFamily.COMMANDS, EndpointFamily.of("/commands/{id}"));
+    assertEquals(EndpointFamily.CONFIG, EndpointFamily.of("/clusters/{c}/services/{s}/roles/{r}/config"));
+    assertEquals(EndpointFamily.METRICS, EndpointFamily.of("/hosts/{h}/metrics"));
+    assertEquals(EndpointFamily.ROLES, EndpointFamily.of("/clusters/{c}/services/{s}/roles"));
+    assertEquals(EndpointFamily.OTHER, EndpointFamily.of("/clusters"));
+  }
+
+  @Test
+  public void testLimitGrowsWhileUsedAndShrinksOnOverload() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(EndpointFamily.OTHER, LimiterConfig.builder()
+        .withInitialLimit(2)
+        .withLimits(1, 3)
+        .withLatencyTolerance(LimiterConfig.NO_LATENCY_LIMIT)
+        .build());
+    limiter.acquire();
+    limiter.acquire();
+    limiter.release(MS, false);
+    assertEquals(3, limiter.getLimit());
+    limiter.release(MS, false);
+    assertEquals(3, limiter.getLimit());
+
+    limiter.acquire();
+    limiter.release(MS, true);
+    assertEquals(2, limiter.getLimit());
+    for (int i = 0; i < 10; i++) {
+      limiter.acquire();
+      limiter.release(MS, true);
+    }
+    assertEquals(1, limiter.getLimit());
+  }
+
+  @Test
+  public void testSlowResponsesShrinkTheLimit() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(EndpointFamily.OTHER, LimiterConfig.builder()
+        .withInitialLimit(10)
+        .withLatencyTolerance(2)
+        .build());
+    limiter.acquire();
+    limiter.release(10 * MS, false);
+    limiter.acquire();
+    limiter.release(15 * MS, false);
+    assertEquals(10, limiter.getLimit());
+    limiter.acquire();
+    limiter.release(50 * MS, false);
+    assertEquals(9, limiter.getLimit());
+  }
+
+  @Test
+  public void testFullQueueRejectsRightAway() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(EndpointFamily.COMMANDS, LimiterConfig.builder()
+        .withInitialLimit(1)
+        .withMaxQueueSize(0)
+        .build());
+    limiter.acquire();
+    try {
+      limiter.acquire();
+      fail("Expected the request to be rejected");
+    } catch (LimitExceededException e) {
+      assertEquals(EndpointFamily.COMMANDS, e.getFamily());
+    }
+    assertEquals(1, limiter.getRejectedCount());
+  }
+
+  @Test
+  public void testWaitIsBounded() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(EndpointFamily.OTHER, LimiterConfig.builder()
+        .withInitialLimit(1)
+        .withMaxWait(20, TimeUnit.MILLISECONDS)
+        .build());
+    limiter.acquire();
+    long startNanos = System.nanoTime();
+    try {
+      limiter.acquire();
+      fail("Expected the wait to time out");
+    } catch (LimitExceededException e) {
+      assertTrue(System.nanoTime() - startNanos >= 20 * MS);
+    }
+    assertEquals(0, limiter.getWaiting());
+  }
+
+  @Test
+  public void testWaitEndsAtTheDeadline() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter(EndpointFamily.OTHER, LimiterConfig.builder()
+        .withInitialLimit(1)
+        .withMaxWait(1, TimeUnit.MINUTES)
+        .build());
+    limiter.acquire();
+    Deadline.Scope scope = Deadline.after(20, TimeUnit.MILLISECONDS).enter();
+    try {
+      limiter.acquire();
+      fail("Expected the deadline to expire");
+    } catch (DeadlineExceededException e) {
+      // expected, long before the maximum wait
+    } finally {
+      scope.close();
+    }
+    assertEquals(0, limiter.getWaiting());
+    assertEquals(1, limiter.getInFlight());
+  }
+
+  @Test
+  public void testWaitingRequestGetsFreedSlot() throws Exception {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(EndpointFamily.OTHER, LimiterConfig.builder()
+        .withInitialLimit(1)
+        .withLimits(1, 1)
+        .build());
+    limiter.acquire();
+    Thread releaser = new Thread() {
+      @Override
+      public void run() {
+        while (limiter.getWaiting() == 0) {
+          Thread.yield();
+        }
+        limiter.release(MS, false);
+      }
+    };
+    releaser.start();
+    limiter.acquire();
+    releaser.join();
+    assertEquals(1, limiter.getInFlight());
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for exposing {@link ClientMetrics} as MBeans.
+ */
+public class ClientMetricsTest {
+
+  private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+
+  private static ObjectName nameOf(ClientMetrics metrics, String endpoint) throws JMException {
+    return new ObjectName(ClientMetrics.JMX_DOMAIN + ":type=ClientMetrics,client="
+        + ObjectName.quote(metrics.getName()) + ",endpoint=" + ObjectName.quote(endpoint));
+  }
+
+  @Test
+  public void testEndpointsAreRegisteredBeforeAndAfterRegistration() throws Exception {
+    ClientMetrics metrics = new ClientMetrics("test");
+    metrics.requestStarted("GET /hosts");
+    metrics.requestCompleted("GET /hosts", 200, TimeUnit.MILLISECONDS.toNanos(5));
+
+    metrics.registerMBeans(server);
+    assertTrue(server.isRegistered(nameOf(metrics, "GET /hosts")));
+    assertEquals(1L, server.getAttribute(nameOf(metrics, "GET /hosts"), "RequestCount"));
+
+    metrics.requestStarted("GET /clusters");
+    assertTrue(server.isRegistered(nameOf(metrics, "GET /clusters")));
+    assertEquals(1, server.getAttribute(nameOf(metrics, "GET /clusters"), "InFlight"));
+  }
+
+  @Test
+  public void testUnregister() throws Exception {
+    ClientMetrics metrics = new ClientMetrics("test");
+    metrics.registerMBeans(server);
+    metrics.requestStarted("GET /hosts");
+
+    metrics.unregisterMBeans();
+    assertFalse(server.isRegistered(nameOf(metrics, "GET /hosts")));
+    metrics.unregisterMBeans();
+
+    metrics.requestStarted("GET /clusters");
+    assertFalse("Endpoints seen after unregistering are not registered",
+        server.isRegistered(nameOf(metrics, "GET /clusters")));
+
+    metrics.registerMBeans(server);
+    assertTrue(server.isRegistered(nameOf(metrics, "GET /hosts")));
+    assertTrue(server.isRegistered(nameOf(metrics, "GET /clusters")));
+  }
+
+  @Test
+  public void testClientsAreToldApartByName() throws Exception {
+    ClientMetrics first = new ClientMetrics();
+    ClientMetrics second = new ClientMetrics();
+    first.registerMBeans(server);
+    second.registerMBeans(server);
+    first.requestStarted("GET /hosts");
+    second.requestStarted("GET /hosts");
+
+    assertTrue(server.isRegistered(nameOf(first, "GET /hosts")));
+    assertTrue(server.isRegistered(nameOf(second, "GET /hosts")));
+    first.unregisterMBeans();
+    assertFalse(server.isRegistered(nameOf(first, "GET /hosts")));
+    assertTrue(server.isRegistered(nameOf(second, "GET /hosts")));
+  }
+}
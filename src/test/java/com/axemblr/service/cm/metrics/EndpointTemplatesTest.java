@@ -0,0 +1,56 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link EndpointTemplates}.
+ */
+public class EndpointTemplatesTest {
+
+  @Test
+  public void testItemNamesAreReplaced() {
+    assertEquals("/clusters/{c}/services/{s}/roleCommands/restart",
+        EndpointTemplates.templateOf("/api/v1/clusters/Cluster%201%20-%20CDH4/services/hdfs1/roleCommands/restart"));
+    assertEquals("/clusters/{c}/services/{s}/roles/{r}/config",
+        EndpointTemplates.templateOf("/api/v1/clusters/c1/services/hdfs1/roles/hdfs1-NAMENODE-1/config"));
+    assertEquals("/cm/service/roleTypes/{t}/config",
+        EndpointTemplates.templateOf("/api/v1/cm/service/roleTypes/HOSTMONITOR/config"));
+  }
+
+  @Test
+  public void testNameServices() {
+    assertEquals("/clusters/{c}/services/{s}/nameservices",
+        EndpointTemplates.templateOf("/api/v1/clusters/c1/services/hdfs1/nameservices"));
+    assertEquals("/clusters/{c}/services/{s}/nameservice/{ns}",
+        EndpointTemplates.templateOf("/api/v1/clusters/c1/services/hdfs1/nameservice/ns1"));
+    assertEquals("/clusters/{c}/services/{s}/nameservices/{ns}/metrics",
+        EndpointTemplates.templateOf("/api/v1/clusters/c1/services/hdfs1/nameservices/ns1/metrics"));
+    assertEquals("/clusters/{c}/services/{s}/{ns}/metrics",
+        EndpointTemplates.templateOf("/api/v1/clusters/c1/services/hdfs1/ns1/metrics"));
+    assertEquals("/clusters/{c}/services/{s}/metrics",
+        EndpointTemplates.templateOf("/api/v1/clusters/c1/services/hdfs1/metrics"));
+  }
+
+  @Test
+  public void testCommandIdsAreReplacedButCommandNamesAreKept() {
+    assertEquals("/commands/{id}/abort", EndpointTemplates.templateOf("/api/v1/commands/123/abort"));
+    assertEquals("/clusters/{c}/services/{s}/commands/hbaseCreateRoot",
+        EndpointTemplates.templateOf("/api/v1/clusters/c1/services/hbase1/commands/hbaseCreateRoot"));
+  }
+
+  @Test
+  public void testCollectionsAndContextPath() {
+    assertEquals("/hosts", EndpointTemplates.templateOf("/api/v1/hosts"));
+    assertEquals("/", EndpointTemplates.templateOf("/api/v1"));
+    assertEquals("/clusters", EndpointTemplates.templateOf("/cm-proxy/api/v1/clusters/"));
+    assertEquals("GET /hosts/{h}", EndpointTemplates.endpointOf("GET", "/api/v1/hosts/host1.example.com"));
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the buckets and percentiles of {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+  @Test
+  public void testSmallValuesHaveTheirOwnBucket() {
+    for (int micros = 0; micros < LatencyHistogram.SUB_BUCKETS; micros++) {
+      assertEquals(micros, LatencyHistogram.bucketOf(micros));
+      assertEquals(micros, LatencyHistogram.upperBoundOf(micros));
+    }
+  }
+
+  @Test
+  public void testBucketsAreContiguous() {
+    for (int bucket = 0; bucket < 300; bucket++) {
+      long upperBound = LatencyHistogram.upperBoundOf(bucket);
+      assertEquals(bucket, LatencyHistogram.bucketOf(upperBound));
+      assertEquals(bucket + 1, LatencyHistogram.bucketOf(upperBound + 1));
+    }
+  }
+
+  @Test
+  public void testRelativeErrorIsBounded() {
+    for (long micros = 1; micros < TimeUnit.HOURS.toMicros(1); micros = micros * 3 + 1) {
+      long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(micros));
+      assertTrue(upperBound >= micros);
+      assertTrue(micros + " rounded to " + upperBound,
+          (upperBound - micros) < (double) micros / LatencyHistogram.SUB_BUCKETS);
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getPercentileMs(50), 0);
+    for (int ms = 1; ms <= 100; ms++) {
+      histogram.record(ms, TimeUnit.MILLISECONDS);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(50.5, histogram.getMeanMs(), 1e-9);
+    assertEquals(100, histogram.getMaxMs(), 0);
+    assertEquals(50, histogram.getPercentileMs(50), 50.0 / LatencyHistogram.SUB_BUCKETS);
+    assertTrue(histogram.getPercentileMs(50) >= 50);
+    assertEquals(99, histogram.getPercentileMs(99), 99.0 / LatencyHistogram.SUB_BUCKETS);
+    assertEquals("capped at the largest value", 100, histogram.getPercentileMs(100), 0);
+  }
+
+  @Test
+  public void testValuesBeyondTheLastBucketAreKept() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(100, TimeUnit.DAYS);
+    histogram.record(-1, TimeUnit.MILLISECONDS);
+    assertEquals(2, histogram.getCount());
+    assertEquals(TimeUnit.DAYS.toMillis(100), histogram.getMaxMs(), 0);
+    assertEquals(0, histogram.getPercentileMs(50), 0);
+    assertEquals(TimeUnit.DAYS.toMillis(100), histogram.getPercentileMs(100), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPercentileMustBePositive() {
+    new LatencyHistogram().getPercentileMs(0);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.metrics;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.ConnectException;
+
+/**
+ * Unit tests for the measurements reported by {@link MetricsFilter}.
+ */
+public class MetricsFilterTest {
+
+  private final ClientMetrics metrics = new ClientMetrics("test");
+  private Object outcome = 200;
+  private final Client client = new Client(new ClientHandler() {
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+      if (outcome instanceof RuntimeException) {
+        throw (RuntimeException) outcome;
+      }
+      return new ClientResponse((Integer) outcome, new InBoundHeaders(),
+          new ByteArrayInputStream("{\"items\":[]}".getBytes()), client.getMessageBodyWorkers());
+    }
+  });
+
+  {
+    client.addFilter(new MetricsFilter(ImmutableList.of(new FailingListener(), metrics)));
+  }
+
+  private ClientResponse get(String path) {
+    return client.resource("http://localhost:7180" + path).get(ClientResponse.class);
+  }
+
+  @Test
+  public void testStatusCodesAreCountedPerEndpoint() {
+    get("/api/v1/hosts/h1").close();
+    get("/api/v1/hosts/h2").close();
+    outcome = 404;
+    get("/api/v1/hosts/h3").close();
+
+    EndpointMetrics host = metrics.getEndpoint("GET /hosts/{h}");
+    assertEquals(3, host.getRequestCount());
+    assertEquals(0, host.getFailureCount());
+    assertEquals(0, host.getInFlight());
+    assertEquals(ImmutableMap.of(200, 2L, 404, 1L), host.getStatusCounts());
+    assertEquals(3, host.getLatency().getCount());
+    assertNull(metrics.getEndpoint("GET /hosts"));
+  }
+
+  @Test
+  public void testFailuresAreCountedWithoutStatus() {
+    outcome = new ClientHandlerException(new ConnectException("refused"));
+    try {
+      get("/api/v1/clusters");
+      fail("The exception should be thrown to the caller");
+    } catch (ClientHandlerException expected) {
+    }
+
+    EndpointMetrics clusters = metrics.getEndpoint("GET /clusters");
+    assertEquals(1, clusters.getRequestCount());
+    assertEquals(1, clusters.getFailureCount());
+    assertEquals(0, clusters.getInFlight());
+    assertEquals(ImmutableMap.<Integer, Long>of(), clusters.getStatusCounts());
+    assertEquals(1, clusters.getLatency().getCount());
+  }
+
+  @Test
+  public void testBytesReceivedAreReportedOnClose() {
+    ClientResponse response = get("/api/v1/users");
+    EndpointMetrics users = metrics.getEndpoint("GET /users");
+    assertEquals(1, users.getRequestCount());
+    assertEquals(0, users.getBytesReceived());
+
+    assertEquals("{\"items\":[]}", response.getEntity(String.class));
+    assertEquals("{\"items\":[]}".length(), users.getBytesReceived());
+  }
+
+  /**
+   * Listeners that throw must not fail the requests or stop the other listeners.
+   */
+  private static class FailingListener implements ClientMetricsListener {
+
+    @Override
+    public void requestStarted(String endpoint) {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public void requestCompleted(String endpoint, int status, long latencyNanos) {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public void requestFailed(String endpoint, long latencyNanos, Throwable cause) {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public void bytesSent(String endpoint, long bytes) {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public void bytesReceived(String endpoint, long bytes) {
+      throw new IllegalStateException();
+    }
+  }
+}
@@ -11,11 +11,14 @@ import com.axemblr.service.cm.SerializationTest;
 import com.axemblr.service.cm.models.hosts.Metric;
 import com.axemblr.service.cm.models.hosts.MetricData;
 import com.axemblr.service.cm.models.hosts.MetricList;
+import com.axemblr.service.cm.models.hosts.MetricSeries;
 import com.google.common.base.CharMatcher;
 import com.google.common.collect.ImmutableList;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import org.codehaus.jackson.map.JsonMappingException;
 import org.junit.Test;
 
 import java.io.File;
@@ -58,6 +61,29 @@ public class HostsClassesSerializationTest extends SerializationTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void testMetricSeries() throws Exception {
+    StringBuilder json = new StringBuilder("{\"name\":\"cpu\",\"unit\":\"percent\",\"data\":[");
+    for (int i = 0; i < 100; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"timestamp\":").append(i * 60000L)
+          .append(",\"value\":").append(i / 2.0).append("}");
+    }
+    Metric metric = mapper.readValue(json.append("]}").toString(), Metric.class);
+
+    MetricSeries series = metric.getSeries();
+    assertEquals(100, series.size());
+    assertEquals(99 * 60000L, series.getTimestamp(99));
+    assertEquals(49.5, series.getValue(99), 0);
+    assertEquals(new MetricData(60000L, 0.5), metric.getData().get(1));
+    assertEquals(metric, mapper.readValue(mapper.writeValueAsString(metric), Metric.class));
+    assertArrayEquals(new long[]{0, 60000L}, MetricSeries.of(metric.getData().subList(0, 2)).getTimestamps());
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void testMetricDataUnknownPropertyFails() throws Exception {
+    mapper.readValue("{\"name\":\"cpu\",\"data\":[{\"timestamp\":1,\"other\":2}]}", Metric.class);
+  }
+
   @Test
   public void testDateTimeDeserialization() throws Exception {
     final String jsonDate = quoted(TIME1);
@@ -0,0 +1,185 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.retry;
+
+import com.axemblr.service.cm.apis.PollingPolicy;
+import com.axemblr.service.cm.deadline.DeadlineExceededException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientHandler;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.core.header.InBoundHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for retries, the retry budget and the circuit breaker.
+ */
+public class RetryFilterTest {
+
+  private static final PollingPolicy NO_DELAY = PollingPolicy.builder()
+      .withInitialInterval(1, TimeUnit.MILLISECONDS)
+      .withMaxInterval(1, TimeUnit.MILLISECONDS)
+      .withJitter(0)
+      .build();
+
+  private final List<Object> outcomes = Lists.newArrayList();
+  private int exchanges;
+  private final Client client = new Client(new ClientHandler() {
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+      exchanges++;
+      Object outcome = outcomes.isEmpty() ? 200 : outcomes.remove(0);
+      if (outcome instanceof RuntimeException) {
+        throw (RuntimeException) outcome;
+      }
+      return new ClientResponse((Integer) outcome, new InBoundHeaders(), new ByteArrayInputStream(new byte[0]),
+          client.getMessageBodyWorkers());
+    }
+  });
+
+  @Test
+  public void testGetIsRetriedUntilSuccess() {
+    RetryFilter filter = install(RetryConfig.builder().withBackoff(NO_DELAY).withoutCircuitBreaker().build());
+    outcomes.add(503);
+    outcomes.add(new ClientHandlerException(new ConnectException("refused")));
+    assertEquals(200, get());
+    assertEquals(3, exchanges);
+    assertEquals(2, filter.getRetryCount());
+  }
+
+  @Test
+  public void testAttemptsAreLimited() {
+    install(RetryConfig.builder().withBackoff(NO_DELAY).withMaxAttempts(2).withoutCircuitBreaker().build());
+    outcomes.addAll(ImmutableList.of(503, 503, 503));
+    assertEquals(503, get());
+    assertEquals(2, exchanges);
+  }
+
+  @Test
+  public void testOtherMethodsAreNotRetried() {
+    install(RetryConfig.builder().withBackoff(NO_DELAY).withoutCircuitBreaker().build());
+    outcomes.add(503);
+    assertEquals(503, client.resource("http://localhost:7180/clusters").post(ClientResponse.class).getStatus());
+    assertEquals(1, exchanges);
+  }
+
+  @Test
+  public void testBudgetLimitsRetries() {
+    RetryFilter filter = install(RetryConfig.builder()
+        .withBackoff(NO_DELAY)
+        .withBudget(0, 1, 1)
+        .withoutCircuitBreaker()
+        .build());
+    outcomes.addAll(ImmutableList.of(503, 503, 503, 503));
+    assertEquals(503, get());
+    assertEquals(503, get());
+    assertEquals(3, exchanges);
+    assertEquals(1, filter.getRetryCount());
+    assertEquals(2, filter.getRejectedRetryCount());
+  }
+
+  @Test
+  public void testCircuitOpensAfterConsecutiveFailures() {
+    RetryFilter filter = install(RetryConfig.builder()
+        .withBackoff(NO_DELAY)
+        .withMaxAttempts(1)
+        .withCircuitBreaker(2, 1, TimeUnit.HOURS)
+        .build());
+    outcomes.addAll(ImmutableList.of(503, 503));
+    get();
+    get();
+    try {
+      get();
+      fail("Expected the circuit to be open");
+    } catch (CircuitOpenException e) {
+      assertEquals("localhost:7180", e.getHost());
+    }
+    assertEquals(2, exchanges);
+    assertEquals(1, filter.getShortCircuitedCount());
+    assertEquals(CircuitBreaker.State.OPEN, filter.getCircuitStates().get("localhost:7180"));
+  }
+
+  @Test
+  public void testExpiredDeadlinesAreNotRetriedNorCountedAsFailures() {
+    RetryFilter filter = install(RetryConfig.builder()
+        .withBackoff(NO_DELAY)
+        .withCircuitBreaker(1, 1, TimeUnit.HOURS)
+        .build());
+    outcomes.add(new DeadlineExceededException("Deadline expired waiting for GET /clusters",
+        new SocketTimeoutException("Read timed out")));
+    try {
+      get();
+      fail("Expected the deadline to expire");
+    } catch (DeadlineExceededException e) {
+      // expected
+    }
+    assertEquals(1, exchanges);
+    assertEquals(0, filter.getRetryCount());
+    assertEquals(CircuitBreaker.State.CLOSED, filter.getCircuitStates().get("localhost:7180"));
+    assertEquals(200, get());
+  }
+
+  @Test
+  public void testProbeFailingInsideTheClientLetsTheNextProbeThrough() throws Exception {
+    RetryFilter filter = install(RetryConfig.builder()
+        .withBackoff(NO_DELAY)
+        .withMaxAttempts(1)
+        .withCircuitBreaker(1, 10, TimeUnit.MILLISECONDS)
+        .build());
+    outcomes.add(503);
+    outcomes.add(new IllegalStateException("handler bug"));
+    get();
+    Thread.sleep(20);
+    try {
+      get();
+      fail("Expected the probe to fail");
+    } catch (IllegalStateException e) {
+      assertEquals(CircuitBreaker.State.HALF_OPEN, filter.getCircuitStates().get("localhost:7180"));
+    }
+    assertEquals(200, get());
+    assertEquals(CircuitBreaker.State.CLOSED, filter.getCircuitStates().get("localhost:7180"));
+  }
+
+  @Test
+  public void testHalfOpenCircuitLetsOneProbeThrough() {
+    CircuitBreaker breaker = new CircuitBreaker("host:1", 1, 100);
+    assertTrue(breaker.allowRequest(0));
+    assertEquals(CircuitBreaker.State.OPEN, breaker.onFailure(0));
+    assertFalse(breaker.allowRequest(50));
+    assertTrue(breaker.allowRequest(100));
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertFalse(breaker.allowRequest(100));
+    assertEquals(CircuitBreaker.State.OPEN, breaker.onFailure(100));
+    assertTrue(breaker.allowRequest(200));
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.onSuccess());
+    assertTrue(breaker.allowRequest(200));
+  }
+
+  private RetryFilter install(RetryConfig config) {
+    RetryFilter filter = new RetryFilter(config, ImmutableList.<RetryListener>of());
+    client.addFilter(filter);
+    return filter;
+  }
+
+  private int get() {
+    return client.resource("http://localhost:7180/clusters").get(ClientResponse.class).getStatus();
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.transport.Transport;
+import com.axemblr.service.cm.transport.TransportRequest;
+import com.axemblr.service.cm.transport.TransportResponse;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link ClusterSnapshotter}, against an in-process transport.
+ */
+public class ClusterSnapshotterTest {
+
+  private static final String CLUSTERS = "{\"items\":[{\"name\":\"c1\",\"version\":\"CDH4\"}]}";
+  private static final String SERVICES = "{\"items\":[" +
+      "{\"name\":\"hdfs1\",\"type\":\"HDFS\"}," +
+      "{\"name\":\"hbase1\",\"type\":\"HBASE\"}," +
+      "{\"name\":\"zk1\",\"type\":\"ZOOKEEPER\"}]}";
+  private static final String HOSTS = "{\"items\":[" +
+      "{\"hostId\":\"h1\",\"hostname\":\"host1\",\"ipAddress\":\"10.0.0.1\",\"rackId\":\"/r1\"}," +
+      "{\"hostId\":\"h2\",\"hostname\":\"host2\",\"ipAddress\":\"10.0.0.2\",\"rackId\":\"/r1\"}]}";
+  private static final String CONFIG = "{\"items\":[{\"name\":\"dfs_replication\",\"value\":\"2\"}]}";
+
+  private ClouderaManagerClient client;
+
+  @After
+  public void tearDown() {
+    if (client != null) {
+      client.close();
+    }
+  }
+
+  private static String roles(String service, String type, String hostId) {
+    return "{\"items\":[{\"name\":\"" + service + "-" + type + "\",\"type\":\"" + type + "\"," +
+        "\"hostRef\":{\"hostId\":\"" + hostId + "\"}," +
+        "\"serviceRef\":{\"clusterName\":\"c1\",\"serviceName\":\"" + service + "\"}}]}";
+  }
+
+  private static Map<String, String> routes() {
+    Map<String, String> routes = Maps.newHashMap();
+    routes.put("/api/v1/clusters", CLUSTERS);
+    routes.put("/api/v1/hosts", HOSTS);
+    routes.put("/api/v1/clusters/c1/services", SERVICES);
+    routes.put("/api/v1/clusters/c1/services/hdfs1/roles", roles("hdfs1", "NAMENODE", "h1"));
+    routes.put("/api/v1/clusters/c1/services/hbase1/roles", roles("hbase1", "MASTER", "h1"));
+    routes.put("/api/v1/clusters/c1/services/zk1/roles", roles("zk1", "SERVER", "h2"));
+    routes.put("/api/v1/clusters/c1/services/hdfs1/config", CONFIG);
+    routes.put("/api/v1/clusters/c1/services/hbase1/config", CONFIG);
+    routes.put("/api/v1/clusters/c1/services/zk1/config", CONFIG);
+    return routes;
+  }
+
+  private static class FakeServer implements Transport {
+
+    private final Map<String, String> routes;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    FakeServer(Map<String, String> routes) {
+      this.routes = routes;
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) {
+      int current = inFlight.incrementAndGet();
+      requests.incrementAndGet();
+      while (true) {
+        int max = maxInFlight.get();
+        if (current <= max || maxInFlight.compareAndSet(max, current)) {
+          break;
+        }
+      }
+      try {
+        Thread.sleep(20);
+        String body = routes.get(request.getUri().getPath());
+        if (body == null) {
+          return new TransportResponse(404, ImmutableListMultimap.<String, String>of(),
+              new ByteArrayInputStream(new byte[0]));
+        }
+        return new TransportResponse(200, ImmutableListMultimap.of("Content-Type", "application/json"),
+            new ByteArrayInputStream(body.getBytes(Charsets.UTF_8)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private ClouderaManagerClient clientOf(Transport transport) {
+    client = ClouderaManagerClient.withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin")
+        .withTransport(transport)
+        .build();
+    return client;
+  }
+
+  @Test
+  public void testSnapshotIsCrossLinked() throws InterruptedException {
+    ClusterSnapshot snapshot = new ClusterSnapshotter(clientOf(new FakeServer(routes()))).snapshot();
+
+    ClusterNode cluster = snapshot.getCluster("c1");
+    assertNotNull(cluster);
+    assertSame(snapshot, cluster.getSnapshot());
+    assertEquals(3, cluster.getServices().size());
+
+    ServiceNode hdfs = cluster.getService("hdfs1");
+    assertSame(cluster, hdfs.getCluster());
+    assertNotNull(hdfs.getConfig());
+    RoleNode nameNode = Iterables.getOnlyElement(hdfs.getRoles());
+    assertSame(hdfs, nameNode.getService());
+
+    HostNode host = nameNode.getHost();
+    assertSame(snapshot.getHost("h1"), host);
+    assertEquals(2, host.getRoles().size());
+    assertTrue(host.getRoles().contains(nameNode));
+    assertEquals(1, snapshot.getHost("h2").getRoles().size());
+  }
+
+  @Test
+  public void testRequestsInFlightAreBounded() throws InterruptedException {
+    FakeServer server = new FakeServer(routes());
+    ClusterSnapshot snapshot = new ClusterSnapshotter(clientOf(server), 2).snapshot();
+
+    assertEquals(2, snapshot.getHosts().size());
+    assertEquals(9, server.requests.get());
+    assertTrue("max in flight " + server.maxInFlight.get(), server.maxInFlight.get() <= 2);
+  }
+
+  @Test
+  public void testFailedRequestFailsTheSnapshot() throws InterruptedException {
+    Map<String, String> routes = routes();
+    routes.remove("/api/v1/clusters/c1/services/zk1/config");
+    try {
+      new ClusterSnapshotter(clientOf(new FakeServer(routes))).snapshot();
+      fail("Expected the snapshot to fail");
+    } catch (RuntimeException expected) {
+    }
+  }
+}
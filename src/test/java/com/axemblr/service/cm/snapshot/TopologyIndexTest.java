@@ -0,0 +1,113 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleList;
+import com.axemblr.service.cm.models.cm.RoleRef;
+import com.axemblr.service.cm.models.cm.RoleType;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.cm.ServiceList;
+import com.axemblr.service.cm.models.cm.ServiceType;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.axemblr.service.cm.models.hosts.HostList;
+import com.axemblr.service.cm.models.hosts.HostRef;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TopologyIndex}.
+ */
+public class TopologyIndexTest {
+
+  private static final ServiceRef HDFS = new ServiceRef("c1", "hdfs1");
+  private static final ServiceRef HBASE = new ServiceRef("c1", "hbase1");
+
+  private TopologyIndex index;
+
+  @Before
+  public void setUp() {
+    index = new TopologyIndex();
+    index.putHosts(new HostList(Sets.newHashSet(
+        new Host("h1", "10.0.0.1", "host1", "/r1"),
+        new Host("h2", "10.0.0.2", "host2", "/r1"),
+        new Host("h3", "10.0.0.3", "host3", "/r2"))));
+    index.putServices("c1", new ServiceList(Sets.newHashSet(
+        service("hdfs1", ServiceType.HDFS), service("hbase1", ServiceType.HBASE))));
+    index.putRoles(HDFS, new RoleList(Sets.newHashSet(
+        new Role("nn", RoleType.NAMENODE, new HostRef("h1")),
+        new Role("dn1", RoleType.DATANODE, new HostRef("h2")),
+        new Role("dn2", RoleType.DATANODE, new HostRef("h3")))));
+    index.putRoles(HBASE, new RoleList(Sets.newHashSet(
+        new Role("rs1", RoleType.REGIONSERVER, new HostRef("h2")))));
+  }
+
+  private static Service service(String name, ServiceType type) {
+    return new Service(name, type, null, null, null, false, null, null);
+  }
+
+  @Test
+  public void testLookups() {
+    assertEquals(2, index.getRolesOnHost("h2").size());
+    assertEquals(3, index.getRolesOfService(HDFS).size());
+    assertEquals(2, index.getRolesOfType(RoleType.DATANODE).size());
+    assertEquals(0, index.getRolesOfType(RoleType.SERVER).size());
+    assertEquals(2, index.getHostsInRack("/r1").size());
+    assertEquals(3, index.getRolesInRack("/r1").size());
+    assertEquals(ImmutableSet.of("h2", "h3"), index.getHostIdsWithRoleType(RoleType.DATANODE));
+    assertEquals(2, index.getServicesOfCluster("c1").size());
+    assertEquals("hbase1", index.getServicesOfType(ServiceType.HBASE).get(0).getName());
+  }
+
+  @Test
+  public void testRoleMovedToAnotherHost() {
+    index.putRole(HDFS, new Role("dn2", RoleType.DATANODE, new HostRef("h1")));
+
+    assertEquals(4, index.getRoleCount());
+    assertEquals(0, index.getRolesOnHost("h3").size());
+    assertEquals(2, index.getRolesOnHost("h1").size());
+    assertEquals(ImmutableSet.of("h1", "h2"), index.getHostIdsWithRoleType(RoleType.DATANODE));
+  }
+
+  @Test
+  public void testHostMovedToAnotherRack() {
+    index.putHost(new Host("h2", "10.0.0.2", "host2", "/r2"));
+
+    assertEquals(3, index.getHostCount());
+    assertEquals(1, index.getHostsInRack("/r1").size());
+    assertEquals(2, index.getHostsInRack("/r2").size());
+    assertEquals(3, index.getRolesInRack("/r2").size());
+  }
+
+  @Test
+  public void testRemoveServiceRemovesItsRoles() {
+    Service removed = index.removeService(HDFS);
+
+    assertEquals("hdfs1", removed.getName());
+    assertNull(index.getRole(new RoleRef("c1", "hdfs1", "nn")));
+    assertEquals(1, index.getRoleCount());
+    assertTrue(index.getRolesOfType(RoleType.DATANODE).isEmpty());
+    assertTrue(index.getServicesOfType(ServiceType.HDFS).isEmpty());
+    assertEquals(1, index.getServicesOfCluster("c1").size());
+  }
+
+  @Test
+  public void testRemoveHostKeepsItsRoles() {
+    index.removeHost("h1");
+
+    assertNull(index.getHost("h1"));
+    assertEquals(1, index.getHostsInRack("/r1").size());
+    assertEquals(1, index.getRolesOnHost("h1").size());
+  }
+}
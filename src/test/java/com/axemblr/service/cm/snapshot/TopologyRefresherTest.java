@@ -0,0 +1,162 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.snapshot;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.models.clusters.Cluster;
+import com.axemblr.service.cm.models.clusters.ClusterVersion;
+import com.axemblr.service.cm.models.clusters.ServiceConfig;
+import com.axemblr.service.cm.models.clusters.ServiceRef;
+import com.axemblr.service.cm.models.cm.Role;
+import com.axemblr.service.cm.models.cm.RoleRef;
+import com.axemblr.service.cm.models.cm.RoleState;
+import com.axemblr.service.cm.models.cm.RoleType;
+import com.axemblr.service.cm.models.cm.Service;
+import com.axemblr.service.cm.models.cm.ServiceType;
+import com.axemblr.service.cm.models.hosts.Host;
+import com.axemblr.service.cm.models.hosts.HostRef;
+import com.axemblr.service.cm.transport.Transport;
+import com.axemblr.service.cm.transport.TransportRequest;
+import com.axemblr.service.cm.transport.TransportResponse;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link TopologyRefresher}.
+ */
+public class TopologyRefresherTest {
+
+  private static final ServiceRef HDFS = new ServiceRef("c1", "hdfs1");
+
+  private final List<TopologyChange<String, Host>> hostChanges = Lists.newArrayList();
+  private final List<TopologyChange<ServiceRef, Service>> serviceChanges = Lists.newArrayList();
+  private final List<TopologyChange<RoleRef, Role>> roleChanges = Lists.newArrayList();
+
+  private ClouderaManagerClient client;
+  private TopologyRefresher refresher;
+
+  @Before
+  public void setUp() {
+    client = ClouderaManagerClient.withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin")
+        .withTransport(new Transport() {
+          @Override
+          public TransportResponse execute(TransportRequest request) {
+            throw new UnsupportedOperationException("Snapshots are applied directly");
+          }
+
+          @Override
+          public void close() {
+          }
+        })
+        .build();
+    TopologyListener listener = new TopologyListener() {
+      @Override
+      public void hostsChanged(List<TopologyChange<String, Host>> changes) {
+        hostChanges.addAll(changes);
+      }
+
+      @Override
+      public void servicesChanged(List<TopologyChange<ServiceRef, Service>> changes) {
+        serviceChanges.addAll(changes);
+      }
+
+      @Override
+      public void rolesChanged(List<TopologyChange<RoleRef, Role>> changes) {
+        roleChanges.addAll(changes);
+      }
+    };
+    refresher = new TopologyRefresher(new ClusterSnapshotter(client), ImmutableList.of(listener));
+  }
+
+  @After
+  public void tearDown() {
+    client.close();
+  }
+
+  private void clearChanges() {
+    hostChanges.clear();
+    serviceChanges.clear();
+    roleChanges.clear();
+  }
+
+  private static ClusterSnapshot snapshot(RoleState dataNodeState, String... hostIds) {
+    List<Host> hosts = Lists.newArrayList();
+    for (String hostId : hostIds) {
+      hosts.add(new Host(hostId, "10.0.0." + hostId.substring(1), "host" + hostId, "/r1"));
+    }
+    Service hdfs = new Service("hdfs1", ServiceType.HDFS, null, null, null, false, null, null);
+    Role nameNode = new Role("nn", RoleType.NAMENODE, new HostRef("h1"));
+    Role dataNode = new Role("dn", RoleType.DATANODE, new HostRef("h2"), HDFS, dataNodeState, null, null, false,
+        null, null);
+    return new ClusterSnapshot(0, ImmutableList.of(new Cluster("c1", ClusterVersion.CDH4)),
+        ImmutableMap.of("c1", ImmutableList.of(hdfs)),
+        ImmutableMap.of(HDFS, ImmutableList.of(nameNode, dataNode)),
+        ImmutableMap.<ServiceRef, ServiceConfig>of(), hosts);
+  }
+
+  @Test
+  public void testFirstRefreshAddsEverything() {
+    refresher.apply(snapshot(RoleState.STARTED, "h1", "h2"));
+
+    assertEquals(2, hostChanges.size());
+    assertEquals(1, serviceChanges.size());
+    assertEquals(2, roleChanges.size());
+    for (TopologyChange<RoleRef, Role> change : roleChanges) {
+      assertEquals(TopologyChange.Kind.ADDED, change.getKind());
+    }
+    assertEquals(2, refresher.getIndex().getRoleCount());
+  }
+
+  @Test
+  public void testUnchangedEntitiesAreReused() {
+    ClusterSnapshot first = refresher.apply(snapshot(RoleState.STARTED, "h1", "h2"));
+    clearChanges();
+    ClusterSnapshot fresh = snapshot(RoleState.STARTED, "h1", "h2");
+    ClusterSnapshot second = refresher.apply(fresh);
+
+    assertTrue(hostChanges.isEmpty());
+    assertTrue(serviceChanges.isEmpty());
+    assertTrue(roleChanges.isEmpty());
+    assertNotSame(first.getHost("h1").getHost(), fresh.getHost("h1").getHost());
+    assertSame(first.getHost("h1").getHost(), second.getHost("h1").getHost());
+    assertSame(first.getService(HDFS).getRole("dn").getRole(), second.getService(HDFS).getRole("dn").getRole());
+    assertSame(second.getHost("h2"), second.getService(HDFS).getRole("dn").getHost());
+  }
+
+  @Test
+  public void testOnlyChangesAreReported() {
+    refresher.apply(snapshot(RoleState.STARTED, "h1", "h2", "h3"));
+    clearChanges();
+    ClusterSnapshot second = refresher.apply(snapshot(RoleState.STOPPED, "h1", "h2"));
+
+    TopologyChange<String, Host> removed = Iterables.getOnlyElement(hostChanges);
+    assertEquals(TopologyChange.Kind.REMOVED, removed.getKind());
+    assertEquals("h3", removed.getKey());
+    assertTrue(serviceChanges.isEmpty());
+    TopologyChange<RoleRef, Role> modified = Iterables.getOnlyElement(roleChanges);
+    assertEquals(TopologyChange.Kind.MODIFIED, modified.getKind());
+    assertEquals(RoleState.STARTED, modified.getPrevious().getRoleState());
+    assertEquals(RoleState.STOPPED, modified.getCurrent().getRoleState());
+
+    assertEquals(2, refresher.getIndex().getHostCount());
+    assertSame(modified.getCurrent(), refresher.getIndex().getRole(new RoleRef("c1", "hdfs1", "dn")));
+    assertSame(refresher.getCurrent(), second);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright S.C. Axemblr Software Solutions S.R.L. (c) 2012.
+ *
+ * This file is subject to the terms and conditions defined in file
+ * 'LICENSE.txt', which is part of this source code package.
+ */
+
+package com.axemblr.service.cm.transport;
+
+import com.axemblr.service.cm.ClouderaManagerClient;
+import com.axemblr.service.cm.models.clusters.ClusterList;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Unit tests for running the client over the transport SPI.
+ */
+public class TransportTest {
+
+  @Test
+  public void testInProcessTransport() throws IOException {
+    final byte[] clusters = Files.toByteArray(new File("src/test/resources/mock/clusters.json"));
+    final List<TransportRequest> sent = Lists.newArrayList();
+    Transport transport = new Transport() {
+      @Override
+      public TransportResponse execute(TransportRequest request) {
+        sent.add(request);
+        return new TransportResponse(200, ImmutableListMultimap.of("Content-Type", "application/json"),
+            new ByteArrayInputStream(clusters));
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    ClouderaManagerClient client = ClouderaManagerClient.withConnectionString("http://localhost:7180")
+        .withAuth("admin", "admin")
+        .withTransport(transport)
+        .build();
+
+    ClusterList list = client.clusters().getAllClusters();
+    assertEquals(2, list.getItems().size());
+    assertEquals("GET", sent.get(0).getMethod());
+    assertEquals(URI.create("http://localhost:7180/api/v1/clusters"), sent.get(0).getUri());
+    assertEquals("Basic YWRtaW46YWRtaW4=", Iterables.getOnlyElement(sent.get(0).getHeaders().get("Authorization")));
+  }
+
+  @Test
+  public void testUrlConnectionTransport() throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        byte[] body = ByteStreams.toByteArray(exchange.getRequestBody());
+        int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+        exchange.getResponseHeaders().add("X-Method", exchange.getRequestMethod());
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+      }
+    });
+    server.start();
+    Transport transport = new UrlConnectionTransport(1000, 1000);
+    try {
+      URI base = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+      final byte[] payload = "{\"message\":\"hello\"}".getBytes(Charsets.UTF_8);
+      TransportResponse response = transport.execute(TransportRequest.builder("POST", base.resolve("/echo"))
+          .withHeader("Content-Type", "application/json")
+          .withEntity(new RequestEntity() {
+            @Override
+            public long getSize() {
+              return payload.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+              out.write(payload);
+              out.close();
+            }
+          })
+          .build());
+      assertEquals(200, response.getStatus());
+      assertEquals("POST", Iterables.getOnlyElement(response.getHeaders().get("X-method")));
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      ByteStreams.copy(response.getBody(), body);
+      response.close();
+      assertEquals("{\"message\":\"hello\"}", body.toString("UTF-8"));
+
+      response = transport.execute(TransportRequest.builder("GET", base.resolve("/missing")).build());
+      assertEquals(404, response.getStatus());
+      assertEquals(-1, response.getBody().read());
+      response.close();
+    } finally {
+      transport.close();
+      server.stop(0);
+    }
+  }
+}